@@ -0,0 +1,176 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.annotations.Coerce;
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.BenchmarkTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures accessors using {@link Coerce}, which link through a cast or a boxing conversion, against reflection and a
+ * cached {@link MethodHandle} with the same conversion. Also measures {@link Open.Type#INSTANCE_OF} and
+ * {@link Open.Type#CAST} against checking the class name or a looked up {@link Class}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CoerceBenchmarks {
+    private static final String ELEMENT = "dev.lukebemish.opensesame.test.target.BenchmarkTarget$Element";
+
+    private static final Method RETURN_REFLECTION;
+    private static final Method ARGUMENT_REFLECTION;
+    private static final MethodHandle RETURN_HANDLE;
+    private static final MethodHandle ARGUMENT_HANDLE;
+    private static final MethodHandle UNBOXING_HANDLE;
+    private static final Class<?> ELEMENT_CLASS;
+
+    static {
+        try {
+            var elementClass = Class.forName(ELEMENT);
+            ELEMENT_CLASS = elementClass;
+            RETURN_REFLECTION = BenchmarkTarget.class.getDeclaredMethod("privateElement");
+            RETURN_REFLECTION.setAccessible(true);
+            ARGUMENT_REFLECTION = BenchmarkTarget.class.getDeclaredMethod("privateElementArgument", elementClass);
+            ARGUMENT_REFLECTION.setAccessible(true);
+
+            var lookup = MethodHandles.privateLookupIn(BenchmarkTarget.class, MethodHandles.lookup());
+            RETURN_HANDLE = lookup.findStatic(BenchmarkTarget.class, "privateElement", MethodType.methodType(elementClass))
+                    .asType(MethodType.methodType(Object.class));
+            ARGUMENT_HANDLE = lookup.findStatic(BenchmarkTarget.class, "privateElementArgument", MethodType.methodType(int.class, elementClass))
+                    .asType(MethodType.methodType(int.class, Object.class));
+            UNBOXING_HANDLE = lookup.findStatic(BenchmarkTarget.class, "boxedReturn", MethodType.methodType(Integer.class, int.class))
+                    .asType(MethodType.methodType(int.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private int value = 7;
+    private Object element;
+
+    @Setup
+    public void setup() {
+        element = openElement();
+    }
+
+    @Open(
+            name = "privateElement",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.STATIC
+    )
+    private static @Coerce(targetName = ELEMENT) Object openElement() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateElementArgument",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.STATIC
+    )
+    private static int openElementArgument(@Coerce(targetName = ELEMENT) Object element) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "boxedReturn",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.STATIC
+    )
+    private static @Coerce(targetClass = Integer.class) int openUnboxed(int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetName = ELEMENT,
+            type = Open.Type.INSTANCE_OF
+    )
+    private static boolean openIsElement(Object value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetName = ELEMENT,
+            type = Open.Type.CAST
+    )
+    private static Object openCastElement(Object value) {
+        throw new RuntimeException();
+    }
+
+    @Benchmark
+    public Object returnOpened() {
+        return openElement();
+    }
+
+    @Benchmark
+    public Object returnReflection() throws Exception {
+        return RETURN_REFLECTION.invoke(null);
+    }
+
+    @Benchmark
+    public Object returnMethodHandle() throws Throwable {
+        return (Object) RETURN_HANDLE.invokeExact();
+    }
+
+    @Benchmark
+    public int argumentOpened() {
+        return openElementArgument(element);
+    }
+
+    @Benchmark
+    public int argumentReflection() throws Exception {
+        return (int) ARGUMENT_REFLECTION.invoke(null, element);
+    }
+
+    @Benchmark
+    public int argumentMethodHandle() throws Throwable {
+        return (int) ARGUMENT_HANDLE.invokeExact(element);
+    }
+
+    @Benchmark
+    public int unboxingDirect() {
+        return BenchmarkTarget.publicBoxedReturn(value);
+    }
+
+    @Benchmark
+    public int unboxingOpened() {
+        return openUnboxed(value);
+    }
+
+    @Benchmark
+    public int unboxingMethodHandle() throws Throwable {
+        return (int) UNBOXING_HANDLE.invokeExact(value);
+    }
+
+    @Benchmark
+    public boolean instanceOfOpened() {
+        return openIsElement(element);
+    }
+
+    @Benchmark
+    public boolean instanceOfName() {
+        return element != null && element.getClass().getName().equals(ELEMENT);
+    }
+
+    @Benchmark
+    public boolean instanceOfReflection() {
+        return ELEMENT_CLASS.isInstance(element);
+    }
+
+    @Benchmark
+    public Object castOpened() {
+        return openCastElement(element);
+    }
+
+    @Benchmark
+    public Object castReflection() {
+        return ELEMENT_CLASS.cast(element);
+    }
+}
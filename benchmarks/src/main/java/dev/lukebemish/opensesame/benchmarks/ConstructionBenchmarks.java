@@ -0,0 +1,99 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.BenchmarkTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Open.Type#CONSTRUCT} and {@link Open.Type#ARRAY} accessors against plain allocation, reflection, and
+ * a cached {@link MethodHandle}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ConstructionBenchmarks {
+    private static final Constructor<BenchmarkTarget> CONSTRUCTOR_REFLECTION;
+    private static final MethodHandle CONSTRUCTOR_HANDLE;
+    private static final MethodHandle ARRAY_HANDLE = MethodHandles.arrayConstructor(BenchmarkTarget[].class);
+
+    static {
+        try {
+            CONSTRUCTOR_REFLECTION = BenchmarkTarget.class.getDeclaredConstructor(int.class);
+            CONSTRUCTOR_REFLECTION.setAccessible(true);
+
+            var lookup = MethodHandles.privateLookupIn(BenchmarkTarget.class, MethodHandles.lookup());
+            CONSTRUCTOR_HANDLE = lookup.findConstructor(BenchmarkTarget.class, MethodType.methodType(void.class, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private int value = 7;
+    private int length = 4;
+
+    @Open(
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.CONSTRUCT
+    )
+    private static BenchmarkTarget openConstruct(int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.ARRAY
+    )
+    private static BenchmarkTarget[] openArray(int length) {
+        throw new RuntimeException();
+    }
+
+    @Benchmark
+    public BenchmarkTarget constructDirect() {
+        return new BenchmarkTarget((long) value);
+    }
+
+    @Benchmark
+    public BenchmarkTarget constructOpened() {
+        return openConstruct(value);
+    }
+
+    @Benchmark
+    public BenchmarkTarget constructReflection() throws Exception {
+        return CONSTRUCTOR_REFLECTION.newInstance(value);
+    }
+
+    @Benchmark
+    public BenchmarkTarget constructMethodHandle() throws Throwable {
+        return (BenchmarkTarget) CONSTRUCTOR_HANDLE.invokeExact(value);
+    }
+
+    @Benchmark
+    public BenchmarkTarget[] arrayDirect() {
+        return new BenchmarkTarget[length];
+    }
+
+    @Benchmark
+    public BenchmarkTarget[] arrayOpened() {
+        return openArray(length);
+    }
+
+    @Benchmark
+    public BenchmarkTarget[] arrayReflection() {
+        return (BenchmarkTarget[]) Array.newInstance(BenchmarkTarget.class, length);
+    }
+
+    @Benchmark
+    public BenchmarkTarget[] arrayMethodHandle() throws Throwable {
+        return (BenchmarkTarget[]) ARRAY_HANDLE.invokeExact(length);
+    }
+}
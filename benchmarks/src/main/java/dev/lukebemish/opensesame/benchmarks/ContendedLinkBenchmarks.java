@@ -0,0 +1,90 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.test.target.BenchmarkTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures how cold linking scales when call sites are bootstrapped from several threads at once. The same
+ * {@code holders * sites} call sites are linked at every thread count, split evenly between the threads, so with no
+ * contention in the bootstrap path the score should fall as the thread count rises.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class ContendedLinkBenchmarks {
+    @Param({"256"})
+    public int holders;
+
+    @Param({"32"})
+    public int sites;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"OPENED", "OPENED_UNSAFE"})
+    public LinkSiteGenerator.Mode mode;
+
+    private final BenchmarkTarget target = new BenchmarkTarget(1L);
+    private Map<String, byte[]> classes;
+    private ExecutorService executor;
+    private List<List<Consumer<Object>>> slices;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        classes = LinkSiteGenerator.generate(holders, sites, mode);
+        executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Invocation)
+    public void load() throws ReflectiveOperationException {
+        var loader = new LinkSiteGenerator.GeneratedClassLoader(classes);
+        slices = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            slices.add(new ArrayList<>());
+        }
+        int i = 0;
+        for (var name : classes.keySet()) {
+            var holder = (Consumer<Object>) Class.forName(name, true, loader).getConstructor().newInstance();
+            slices.get(i++ % threads).add(holder);
+        }
+    }
+
+    @Benchmark
+    public void link() throws InterruptedException, ExecutionException {
+        var start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (var slice : slices) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (var holder : slice) {
+                    holder.accept(target);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (var future : futures) {
+            future.get();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.runtime.OpeningMetafactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.ConstantCallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Minimal bootstraps for the call sites made by {@link LinkSiteGenerator}, used as a baseline for the link-time cost of
+ * {@link OpeningMetafactory}. They take the same arguments as {@link OpeningMetafactory#invokeKnown}.
+ */
+public final class DirectBootstrap {
+    private DirectBootstrap() {}
+
+    public static CallSite bootstrap(MethodHandles.Lookup caller, String name, MethodType factoryType, Class<?> holdingClass, int type) throws ReflectiveOperationException {
+        var lookup = MethodHandles.privateLookupIn(holdingClass, caller);
+        return new ConstantCallSite(find(lookup, name, factoryType, holdingClass, type));
+    }
+
+    public static CallSite bootstrapRemapped(MethodHandles.Lookup caller, String name, MethodType factoryType, Class<?> holdingClass, int type) throws ReflectiveOperationException {
+        var lookup = MethodHandles.privateLookupIn(holdingClass, caller);
+        if (type < OpeningMetafactory.STATIC_GET_TYPE) {
+            name = OpeningMetafactory.remapMethod(name, factoryType.descriptorString(), holdingClass.getName(), caller.lookupClass());
+        } else if (type < OpeningMetafactory.CONSTRUCT_TYPE) {
+            Class<?> fieldType = switch (type) {
+                case OpeningMetafactory.STATIC_GET_TYPE, OpeningMetafactory.INSTANCE_GET_TYPE -> factoryType.returnType();
+                case OpeningMetafactory.STATIC_SET_TYPE -> factoryType.parameterType(0);
+                default -> factoryType.parameterType(1);
+            };
+            name = OpeningMetafactory.remapField(name, fieldType.descriptorString(), holdingClass.getName(), caller.lookupClass());
+        }
+        return new ConstantCallSite(find(lookup, name, factoryType, holdingClass, type));
+    }
+
+    private static MethodHandle find(MethodHandles.Lookup lookup, String name, MethodType factoryType, Class<?> holdingClass, int type) throws ReflectiveOperationException {
+        return switch (type) {
+            case OpeningMetafactory.STATIC_TYPE -> lookup.findStatic(holdingClass, name, factoryType);
+            case OpeningMetafactory.VIRTUAL_TYPE -> lookup.findVirtual(holdingClass, name, factoryType.dropParameterTypes(0, 1));
+            case OpeningMetafactory.SPECIAL_TYPE -> lookup.findSpecial(holdingClass, name, factoryType.dropParameterTypes(0, 1), holdingClass);
+            case OpeningMetafactory.STATIC_GET_TYPE -> lookup.findStaticGetter(holdingClass, name, factoryType.returnType());
+            case OpeningMetafactory.INSTANCE_GET_TYPE -> lookup.findGetter(holdingClass, name, factoryType.returnType());
+            case OpeningMetafactory.STATIC_SET_TYPE -> lookup.findStaticSetter(holdingClass, name, factoryType.parameterType(0));
+            case OpeningMetafactory.INSTANCE_SET_TYPE -> lookup.findSetter(holdingClass, name, factoryType.parameterType(1));
+            case OpeningMetafactory.CONSTRUCT_TYPE -> lookup.findConstructor(holdingClass, factoryType.changeReturnType(void.class));
+            case OpeningMetafactory.ARRAY_TYPE -> MethodHandles.arrayConstructor(holdingClass.arrayType());
+            default -> throw new IllegalArgumentException("Unexpected opening type: " + type);
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the first construction of a large extension generated by {@link ExtensionGenerator}, which generates and
+ * defines the extending class. Each measurement loads the extension in a fresh class loader, so that no class has been
+ * generated for it before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+@Fork(2)
+public class ExtensionGenerationBenchmarks {
+    @Param({"10", "100", "500"})
+    public int fields;
+
+    @Param({"10", "100", "500"})
+    public int overrides;
+
+    private Map<String, byte[]> classes;
+    private Method constructor;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        classes = ExtensionGenerator.generate(fields, overrides);
+    }
+
+    @Setup(Level.Invocation)
+    public void load() throws ReflectiveOperationException {
+        // Defining and initializing the extension is not part of the measurement; generation happens on first construction
+        var loader = new LinkSiteGenerator.GeneratedClassLoader(classes);
+        constructor = Class.forName(ExtensionGenerator.EXTENSION.replace('/', '.'), true, loader).getMethod("constructor");
+    }
+
+    @Benchmark
+    public Object construct() throws ReflectiveOperationException {
+        return constructor.invoke(null);
+    }
+}
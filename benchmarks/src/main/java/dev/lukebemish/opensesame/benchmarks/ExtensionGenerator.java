@@ -0,0 +1,123 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.annotations.extend.Constructor;
+import dev.lukebemish.opensesame.annotations.extend.Extend;
+import dev.lukebemish.opensesame.annotations.extend.Field;
+import dev.lukebemish.opensesame.annotations.extend.Overrides;
+import dev.lukebemish.opensesame.compile.asm.VisitingProcessor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Synthesizes a target class and an {@link Extend} interface of it with many {@link Field}s and {@link Overrides}, as
+ * large generated entity subclasses have. The interface has a static {@link Constructor} named {@code constructor};
+ * its first call generates the extending class.
+ */
+public final class ExtensionGenerator {
+    private static final String PACKAGE = "dev/lukebemish/opensesame/benchmarks/generated/";
+    static final String TARGET = PACKAGE + "ExtensionTarget";
+    static final String EXTENSION = PACKAGE + "Extension";
+
+    private ExtensionGenerator() {}
+
+    /**
+     * {@return the binary names of the target and extension, mapped to their bytes}
+     * @param fields the number of fields the extension declares, each with a getter and a setter
+     * @param overrides the number of methods of the target the extension overrides
+     */
+    static Map<String, byte[]> generate(int fields, int overrides) {
+        Map<String, byte[]> classes = new HashMap<>();
+        classes.put(TARGET.replace('/', '.'), generateTarget(overrides));
+
+        var reader = new ClassReader(generateExtension(fields, overrides));
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        reader.accept(VisitingProcessor.makeProcessor(writer, VisitingProcessor.ANNOTATIONS, null, null), 0);
+        classes.put(EXTENSION.replace('/', '.'), writer.toByteArray());
+        return classes;
+    }
+
+    private static byte[] generateTarget(int overrides) {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, TARGET, null, "java/lang/Object", null);
+
+        var init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        for (int i = 0; i < overrides; i++) {
+            var method = writer.visitMethod(Opcodes.ACC_PUBLIC, "method" + i, "()I", null, null);
+            method.visitCode();
+            method.visitLdcInsn(i);
+            method.visitInsn(Opcodes.IRETURN);
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        }
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static byte[] generateExtension(int fields, int overrides) {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT, EXTENSION, null, "java/lang/Object", null);
+
+        var extend = writer.visitAnnotation(Type.getDescriptor(Extend.class), false);
+        extend.visit("targetClass", Type.getObjectType(TARGET));
+        extend.visit("unsafe", false);
+        extend.visitEnd();
+
+        var constructor = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "constructor", "()L" + EXTENSION + ";", null, null);
+        constructor.visitAnnotation(Type.getDescriptor(Constructor.class), false).visitEnd();
+        writeThrow(constructor);
+
+        for (int i = 0; i < fields; i++) {
+            var getter = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, "getField" + i, "()I", null, null);
+            writeField(getter, i);
+            getter.visitEnd();
+            var setter = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, "setField" + i, "(I)V", null, null);
+            writeField(setter, i);
+            setter.visitEnd();
+        }
+
+        for (int i = 0; i < overrides; i++) {
+            var method = writer.visitMethod(Opcodes.ACC_PUBLIC, "override" + i, "()I", null, null);
+            var annotation = method.visitAnnotation(Type.getDescriptor(Overrides.class), false);
+            annotation.visit("value", "method" + i);
+            annotation.visitEnd();
+            method.visitCode();
+            method.visitLdcInsn(-i);
+            method.visitInsn(Opcodes.IRETURN);
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+        }
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void writeField(MethodVisitor method, int i) {
+        var annotation = method.visitAnnotation(Type.getDescriptor(Field.class), false);
+        annotation.visit("value", "field" + i);
+        annotation.visitEnd();
+    }
+
+    private static void writeThrow(MethodVisitor method) {
+        method.visitCode();
+        method.visitTypeInsn(Opcodes.NEW, "java/lang/RuntimeException");
+        method.visitInsn(Opcodes.DUP);
+        method.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/RuntimeException", "<init>", "()V", false);
+        method.visitInsn(Opcodes.ATHROW);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+    }
+}
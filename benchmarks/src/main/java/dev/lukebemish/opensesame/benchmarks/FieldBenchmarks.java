@@ -0,0 +1,397 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.runtime.FieldCopier;
+import dev.lukebemish.opensesame.runtime.Opened;
+import dev.lukebemish.opensesame.test.target.BenchmarkTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link Open.Type#GET_STATIC}, {@link Open.Type#SET_STATIC}, {@link Open.Type#GET_INSTANCE} and
+ * {@link Open.Type#SET_INSTANCE} accessors against plain field access, reflection, a cached {@link MethodHandle}, and
+ * a {@link VarHandle}. Reads of a {@code static final} field are measured both bound to its value and read on every
+ * access, dividing by the value so that a folded read is seen. Atomic updates with {@link Open.Type#ACCESS_INSTANCE} are
+ * compared against the same access mode of a {@link VarHandle}. Reads and writes of several fields at once with
+ * {@link Open.Type#GET_VIEW} and {@link Open.Type#SET_VIEW} are compared against separate accessors for each field, and
+ * copies of every field with a {@link FieldCopier} against a loop over the fields with reflection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FieldBenchmarks {
+    private static final Field STATIC_REFLECTION;
+    private static final Field INSTANCE_REFLECTION;
+    private static final MethodHandle STATIC_GETTER;
+    private static final MethodHandle STATIC_SETTER;
+    private static final MethodHandle INSTANCE_GETTER;
+    private static final MethodHandle INSTANCE_SETTER;
+    private static final VarHandle STATIC_VAR_HANDLE;
+    private static final VarHandle INSTANCE_VAR_HANDLE;
+    private static final Field[] FIELDS_REFLECTION;
+    private static final FieldCopier<BenchmarkTarget> COPIER = Opened.in(MethodHandles.lookup()).findCopier(BenchmarkTarget.class);
+
+    static {
+        try {
+            STATIC_REFLECTION = BenchmarkTarget.class.getDeclaredField("privateStaticField");
+            STATIC_REFLECTION.setAccessible(true);
+            INSTANCE_REFLECTION = BenchmarkTarget.class.getDeclaredField("privateInstanceField");
+            INSTANCE_REFLECTION.setAccessible(true);
+
+            var lookup = MethodHandles.privateLookupIn(BenchmarkTarget.class, MethodHandles.lookup());
+            STATIC_GETTER = lookup.findStaticGetter(BenchmarkTarget.class, "privateStaticField", int.class);
+            STATIC_SETTER = lookup.findStaticSetter(BenchmarkTarget.class, "privateStaticField", int.class);
+            INSTANCE_GETTER = lookup.findGetter(BenchmarkTarget.class, "privateInstanceField", int.class);
+            INSTANCE_SETTER = lookup.findSetter(BenchmarkTarget.class, "privateInstanceField", int.class);
+            STATIC_VAR_HANDLE = lookup.findStaticVarHandle(BenchmarkTarget.class, "privateStaticField", int.class);
+            INSTANCE_VAR_HANDLE = lookup.findVarHandle(BenchmarkTarget.class, "privateInstanceField", int.class);
+
+            FIELDS_REFLECTION = Arrays.stream(BenchmarkTarget.class.getDeclaredFields())
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                    .toArray(Field[]::new);
+            for (var field : FIELDS_REFLECTION) {
+                field.setAccessible(true);
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private record Snapshot(int privateInstanceField, long privateLongField, double privateDoubleField) {}
+
+    private int value = 7;
+    private BenchmarkTarget target;
+    private BenchmarkTarget copy;
+    private final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+    @Setup
+    public void setup() {
+        target = new BenchmarkTarget(1L);
+        copy = new BenchmarkTarget(2L);
+    }
+
+    @Open(
+            name = "privateStaticField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.GET_STATIC
+    )
+    private static int openGetStatic() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStaticField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.SET_STATIC
+    )
+    private static void openSetStatic(int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStaticFinalField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.GET_STATIC
+    )
+    private static int openGetStaticFinal() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStaticFinalField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.GET_STATIC,
+            constant = false
+    )
+    private static int openGetStaticFinalNotConstant() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.GET_INSTANCE
+    )
+    private static int openGetInstance(BenchmarkTarget target) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.SET_INSTANCE
+    )
+    private static void openSetInstance(BenchmarkTarget target, int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.GET_AND_ADD
+    )
+    private static int openGetAndAddInstance(BenchmarkTarget target, int delta) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.COMPARE_AND_SET
+    )
+    private static boolean openCompareAndSetInstance(BenchmarkTarget target, int expected, int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateLongField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.GET_INSTANCE
+    )
+    private static long openGetLong(BenchmarkTarget target) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateDoubleField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.GET_INSTANCE
+    )
+    private static double openGetDouble(BenchmarkTarget target) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateLongField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.SET_INSTANCE
+    )
+    private static void openSetLong(BenchmarkTarget target, long value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateDoubleField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.SET_INSTANCE
+    )
+    private static void openSetDouble(BenchmarkTarget target, double value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.GET_VIEW
+    )
+    private static Snapshot openGetView(BenchmarkTarget target) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.SET_VIEW
+    )
+    private static void openSetView(BenchmarkTarget target, Snapshot snapshot) {
+        throw new RuntimeException();
+    }
+
+    @Benchmark
+    public int getStaticDirect() {
+        return BenchmarkTarget.publicStaticField;
+    }
+
+    @Benchmark
+    public int getStaticOpened() {
+        return openGetStatic();
+    }
+
+    @Benchmark
+    public int getStaticReflection() throws Exception {
+        return STATIC_REFLECTION.getInt(null);
+    }
+
+    @Benchmark
+    public int getStaticMethodHandle() throws Throwable {
+        return (int) STATIC_GETTER.invokeExact();
+    }
+
+    @Benchmark
+    public int getStaticVarHandle() {
+        return (int) STATIC_VAR_HANDLE.get();
+    }
+
+    @Benchmark
+    public int getStaticFinalDirect() {
+        return value / BenchmarkTarget.publicStaticFinalField;
+    }
+
+    @Benchmark
+    public int getStaticFinalOpened() {
+        return value / openGetStaticFinal();
+    }
+
+    @Benchmark
+    public int getStaticFinalOpenedNotConstant() {
+        return value / openGetStaticFinalNotConstant();
+    }
+
+    @Benchmark
+    public void setStaticDirect() {
+        BenchmarkTarget.publicStaticField = value;
+    }
+
+    @Benchmark
+    public void setStaticOpened() {
+        openSetStatic(value);
+    }
+
+    @Benchmark
+    public void setStaticReflection() throws Exception {
+        STATIC_REFLECTION.setInt(null, value);
+    }
+
+    @Benchmark
+    public void setStaticMethodHandle() throws Throwable {
+        STATIC_SETTER.invokeExact(value);
+    }
+
+    @Benchmark
+    public void setStaticVarHandle() {
+        STATIC_VAR_HANDLE.set(value);
+    }
+
+    @Benchmark
+    public int getInstanceDirect() {
+        return target.publicInstanceField;
+    }
+
+    @Benchmark
+    public int getInstanceOpened() {
+        return openGetInstance(target);
+    }
+
+    @Benchmark
+    public int getInstanceReflection() throws Exception {
+        return INSTANCE_REFLECTION.getInt(target);
+    }
+
+    @Benchmark
+    public int getInstanceMethodHandle() throws Throwable {
+        return (int) INSTANCE_GETTER.invokeExact(target);
+    }
+
+    @Benchmark
+    public int getInstanceVarHandle() {
+        return (int) INSTANCE_VAR_HANDLE.get(target);
+    }
+
+    @Benchmark
+    public void setInstanceDirect() {
+        target.publicInstanceField = value;
+    }
+
+    @Benchmark
+    public void setInstanceOpened() {
+        openSetInstance(target, value);
+    }
+
+    @Benchmark
+    public void setInstanceReflection() throws Exception {
+        INSTANCE_REFLECTION.setInt(target, value);
+    }
+
+    @Benchmark
+    public void setInstanceMethodHandle() throws Throwable {
+        INSTANCE_SETTER.invokeExact(target, value);
+    }
+
+    @Benchmark
+    public void setInstanceVarHandle() {
+        INSTANCE_VAR_HANDLE.set(target, value);
+    }
+
+    @Benchmark
+    public int getAndAddInstanceOpened() {
+        return openGetAndAddInstance(target, value);
+    }
+
+    @Benchmark
+    public int getAndAddInstanceVarHandle() {
+        return (int) INSTANCE_VAR_HANDLE.getAndAdd(target, value);
+    }
+
+    @Benchmark
+    public boolean compareAndSetInstanceOpened() {
+        return openCompareAndSetInstance(target, 1, 1);
+    }
+
+    @Benchmark
+    public boolean compareAndSetInstanceVarHandle() {
+        return INSTANCE_VAR_HANDLE.compareAndSet(target, 1, 1);
+    }
+
+    @Benchmark
+    public double getViewDirect() {
+        return target.publicInstanceField + target.publicLongField + target.publicDoubleField;
+    }
+
+    @Benchmark
+    public double getViewOpened() {
+        var snapshot = openGetView(target);
+        return snapshot.privateInstanceField() + snapshot.privateLongField() + snapshot.privateDoubleField();
+    }
+
+    @Benchmark
+    public double getViewSeparate() {
+        return openGetInstance(target) + openGetLong(target) + openGetDouble(target);
+    }
+
+    @Benchmark
+    public void setViewDirect() {
+        target.publicInstanceField = value;
+        target.publicLongField = value;
+        target.publicDoubleField = value;
+    }
+
+    @Benchmark
+    public void setViewOpened() {
+        openSetView(target, new Snapshot(value, value, value));
+    }
+
+    @Benchmark
+    public void setViewSeparate() {
+        openSetInstance(target, value);
+        openSetLong(target, value);
+        openSetDouble(target, value);
+    }
+
+    @Benchmark
+    public void copyOpened() {
+        COPIER.copy(target, copy);
+    }
+
+    @Benchmark
+    public void copyReflection() throws Exception {
+        for (var field : FIELDS_REFLECTION) {
+            field.set(copy, field.get(target));
+        }
+    }
+
+    @Benchmark
+    public void writeOpened() {
+        COPIER.write(target, buffer.clear());
+    }
+}
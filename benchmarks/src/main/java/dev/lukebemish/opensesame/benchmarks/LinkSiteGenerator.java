@@ -0,0 +1,233 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.compile.asm.VisitingProcessor;
+import dev.lukebemish.opensesame.runtime.OpeningMetafactory;
+import dev.lukebemish.opensesame.test.target.BenchmarkTarget;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Synthesizes holder classes full of opened call sites against {@link BenchmarkTarget}. Each holder implements
+ * {@link Consumer}; accepting a {@link BenchmarkTarget} runs every call site in the holder once, linking it.
+ */
+public final class LinkSiteGenerator {
+    private static final String PACKAGE = "dev/lukebemish/opensesame/benchmarks/generated/";
+    private static final Type TARGET = Type.getType(BenchmarkTarget.class);
+    private static final Type OPEN = Type.getType(Open.class);
+    private static final Type OPEN_TYPE = Type.getType(Open.Type.class);
+    private static final String KNOWN_DESCRIPTOR = MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, Class.class, int.class).descriptorString();
+
+    private LinkSiteGenerator() {}
+
+    /**
+     * How the generated call sites are bootstrapped. Comparing the modes gives a breakdown of link time by phase:
+     * <ul>
+     *     <li>{@link #DIRECT} is the floor: a private lookup, member resolution, and the call site itself</li>
+     *     <li>{@link #DIRECT_REMAPPED} - {@link #DIRECT} is the cost of runtime remapping</li>
+     *     <li>{@link #KNOWN} - {@link #DIRECT_REMAPPED} is the cost of module visibility checks and lookup creation</li>
+     *     <li>{@link #OPENED} - {@link #KNOWN} is the cost of invoking the class and type providers</li>
+     * </ul>
+     */
+    public enum Mode {
+        /**
+         * Sites as emitted by the compile-time processor, bootstrapped by {@link OpeningMetafactory#invoke}
+         */
+        OPENED,
+        /**
+         * Sites as emitted by the compile-time processor, bootstrapped by {@link OpeningMetafactory#invokeUnsafe}
+         */
+        OPENED_UNSAFE,
+        /**
+         * Sites bootstrapped by {@link OpeningMetafactory#invokeKnown}, with the target class as a constant
+         */
+        KNOWN,
+        /**
+         * Sites bootstrapped by {@link OpeningMetafactory#invokeKnownUnsafe}, with the target class as a constant
+         */
+        KNOWN_UNSAFE,
+        /**
+         * Sites bootstrapped by {@link DirectBootstrap#bootstrapRemapped}
+         */
+        DIRECT_REMAPPED,
+        /**
+         * Sites bootstrapped by {@link DirectBootstrap#bootstrap}
+         */
+        DIRECT
+    }
+
+    private enum Site {
+        STATIC(Open.Type.STATIC, "privateStatic", "(I)I"),
+        VIRTUAL(Open.Type.VIRTUAL, "privateInstance", "(" + TARGET.getDescriptor() + "I)I"),
+        SPECIAL(Open.Type.SPECIAL, "overridable", "(" + TARGET.getDescriptor() + "I)I"),
+        GET_STATIC(Open.Type.GET_STATIC, "privateStaticField", "()I"),
+        GET_INSTANCE(Open.Type.GET_INSTANCE, "privateInstanceField", "(" + TARGET.getDescriptor() + ")I"),
+        SET_STATIC(Open.Type.SET_STATIC, "privateStaticField", "(I)V"),
+        SET_INSTANCE(Open.Type.SET_INSTANCE, "privateInstanceField", "(" + TARGET.getDescriptor() + "I)V"),
+        CONSTRUCT(Open.Type.CONSTRUCT, "constructor", "(I)" + TARGET.getDescriptor()),
+        ARRAY(Open.Type.ARRAY, "array", "(I)[" + TARGET.getDescriptor());
+
+        private static final List<Site> VALUES = List.of(values());
+
+        private final Open.Type type;
+        private final String name;
+        private final String descriptor;
+
+        Site(Open.Type type, String name, String descriptor) {
+            this.type = type;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+    }
+
+    /**
+     * {@return the binary names of the generated holders, mapped to their bytes}
+     * @param holders the number of holder classes to generate
+     * @param sites the number of call sites in each holder
+     * @param mode how the call sites are bootstrapped
+     */
+    static Map<String, byte[]> generate(int holders, int sites, Mode mode) {
+        Map<String, byte[]> classes = new HashMap<>();
+        for (int i = 0; i < holders; i++) {
+            String name = PACKAGE + "Holder" + i;
+            byte[] bytes = generateHolder(name, sites, mode);
+            if (mode == Mode.OPENED || mode == Mode.OPENED_UNSAFE) {
+                var reader = new ClassReader(bytes);
+                var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+                reader.accept(VisitingProcessor.makeProcessor(writer, VisitingProcessor.ANNOTATIONS, null, null), 0);
+                bytes = writer.toByteArray();
+            }
+            classes.put(name.replace('/', '.'), bytes);
+        }
+        return classes;
+    }
+
+    private static byte[] generateHolder(String name, int sites, Mode mode) {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null, "java/lang/Object", new String[] {Type.getInternalName(Consumer.class)});
+
+        var init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        var accept = writer.visitMethod(Opcodes.ACC_PUBLIC, "accept", "(Ljava/lang/Object;)V", null, null);
+        accept.visitCode();
+        accept.visitVarInsn(Opcodes.ALOAD, 1);
+        accept.visitTypeInsn(Opcodes.CHECKCAST, TARGET.getInternalName());
+        accept.visitVarInsn(Opcodes.ASTORE, 2);
+        for (int j = 0; j < sites; j++) {
+            Site site = Site.VALUES.get(j % Site.VALUES.size());
+            var descriptor = Type.getMethodType(site.descriptor);
+            for (var argument : descriptor.getArgumentTypes()) {
+                if (argument.equals(TARGET)) {
+                    accept.visitVarInsn(Opcodes.ALOAD, 2);
+                } else {
+                    accept.visitInsn(Opcodes.ICONST_1);
+                }
+            }
+            accept.visitMethodInsn(Opcodes.INVOKESTATIC, name, "site" + j, site.descriptor, false);
+            if (descriptor.getReturnType().getSort() != Type.VOID) {
+                accept.visitInsn(Opcodes.POP);
+            }
+        }
+        accept.visitInsn(Opcodes.RETURN);
+        accept.visitMaxs(0, 0);
+        accept.visitEnd();
+
+        for (int j = 0; j < sites; j++) {
+            Site site = Site.VALUES.get(j % Site.VALUES.size());
+            var method = writer.visitMethod(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, "site" + j, site.descriptor, null, null);
+            switch (mode) {
+                case OPENED, OPENED_UNSAFE -> writeOpened(method, site, mode == Mode.OPENED_UNSAFE);
+                case KNOWN, KNOWN_UNSAFE -> writeIndy(method, site, new Handle(
+                        Opcodes.H_INVOKESTATIC,
+                        Type.getInternalName(OpeningMetafactory.class),
+                        mode == Mode.KNOWN ? "invokeKnown" : "invokeKnownUnsafe",
+                        KNOWN_DESCRIPTOR,
+                        false
+                ));
+                case DIRECT, DIRECT_REMAPPED -> writeIndy(method, site, new Handle(
+                        Opcodes.H_INVOKESTATIC,
+                        Type.getInternalName(DirectBootstrap.class),
+                        mode == Mode.DIRECT ? "bootstrap" : "bootstrapRemapped",
+                        KNOWN_DESCRIPTOR,
+                        false
+                ));
+            }
+            method.visitEnd();
+        }
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void writeOpened(MethodVisitor method, Site site, boolean unsafe) {
+        var annotation = method.visitAnnotation(OPEN.getDescriptor(), false);
+        if (site.type != Open.Type.CONSTRUCT && site.type != Open.Type.ARRAY) {
+            annotation.visit("name", site.name);
+        }
+        annotation.visit("targetClass", TARGET);
+        annotation.visitEnum("type", OPEN_TYPE.getDescriptor(), site.type.name());
+        if (unsafe) {
+            annotation.visit("unsafe", true);
+        }
+        annotation.visitEnd();
+        method.visitCode();
+        method.visitTypeInsn(Opcodes.NEW, "java/lang/RuntimeException");
+        method.visitInsn(Opcodes.DUP);
+        method.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/RuntimeException", "<init>", "()V", false);
+        method.visitInsn(Opcodes.ATHROW);
+        method.visitMaxs(0, 0);
+    }
+
+    private static void writeIndy(MethodVisitor method, Site site, Handle bootstrap) {
+        var descriptor = Type.getMethodType(site.descriptor);
+        method.visitCode();
+        int index = 0;
+        for (var argument : descriptor.getArgumentTypes()) {
+            method.visitVarInsn(argument.getOpcode(Opcodes.ILOAD), index);
+            index += argument.getSize();
+        }
+        method.visitInvokeDynamicInsn(site.name, site.descriptor, bootstrap, TARGET, site.type.ordinal());
+        method.visitInsn(descriptor.getReturnType().getOpcode(Opcodes.IRETURN));
+        method.visitMaxs(0, 0);
+    }
+
+    /**
+     * Loads a set of generated classes. A fresh loader is used for every measurement, so that no call site has been
+     * linked before.
+     */
+    static final class GeneratedClassLoader extends ClassLoader {
+        private final Map<String, byte[]> classes;
+
+        GeneratedClassLoader(Map<String, byte[]> classes) {
+            super(LinkSiteGenerator.class.getClassLoader());
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.test.target.BenchmarkTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Measures the cold link time of many opened call sites, as happens at startup of an application with many accessors.
+ * Each measurement links {@code holders * sites} call sites generated by {@link LinkSiteGenerator} in a fresh class
+ * loader; the primary score is the total time, and the {@code nanosPerSite} counter the time per call site. Comparing
+ * the scores of the different {@link LinkSiteGenerator.Mode}s gives a breakdown by phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class LinkTimeBenchmarks {
+    @Param({"100"})
+    public int holders;
+
+    @Param({"10", "100"})
+    public int sites;
+
+    @Param({"OPENED", "OPENED_UNSAFE", "KNOWN", "KNOWN_UNSAFE", "DIRECT_REMAPPED", "DIRECT"})
+    public LinkSiteGenerator.Mode mode;
+
+    private final BenchmarkTarget target = new BenchmarkTarget(1L);
+    private Map<String, byte[]> classes;
+    private Consumer<Object>[] loaded;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public double nanosPerSite;
+    }
+
+    @Setup(Level.Trial)
+    public void generate() {
+        classes = LinkSiteGenerator.generate(holders, sites, mode);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Invocation)
+    public void load() throws ReflectiveOperationException {
+        // Defining and initializing the holders is not part of the measurement; linking happens on first execution
+        var loader = new LinkSiteGenerator.GeneratedClassLoader(classes);
+        loaded = new Consumer[classes.size()];
+        int i = 0;
+        for (var name : classes.keySet()) {
+            loaded[i++] = (Consumer<Object>) Class.forName(name, true, loader).getConstructor().newInstance();
+        }
+    }
+
+    @Benchmark
+    public void link(Counters counters) {
+        long start = System.nanoTime();
+        for (var holder : loaded) {
+            holder.accept(target);
+        }
+        counters.nanosPerSite = (double) (System.nanoTime() - start) / (holders * sites);
+    }
+}
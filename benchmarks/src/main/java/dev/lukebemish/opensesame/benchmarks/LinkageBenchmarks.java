@@ -0,0 +1,145 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.BenchmarkTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares call sites bound to the handles of the fields and constructors they open with call sites bound to nestmate
+ * accessors, as chosen by the {@code dev.lukebemish.opensesame.linkage} system property. Each is measured in the
+ * interpreter, with C1 alone, and with the full tiered pipeline, against the plain access to the public twin of each
+ * member; the first two stand in for the warm-up window, before the call sites are compiled by C2.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LinkageBenchmarks {
+    private static final String NESTMATE = "-Ddev.lukebemish.opensesame.linkage=nestmate";
+    private static final String INTERPRETER = "-Xint";
+    private static final String C1 = "-XX:TieredStopAtLevel=1";
+
+    private int value = 7;
+    private BenchmarkTarget target;
+
+    @Setup
+    public void setup() {
+        target = new BenchmarkTarget(1L);
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.GET_INSTANCE
+    )
+    private static int openGetInstance(BenchmarkTarget target) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.CONSTRUCT
+    )
+    private static BenchmarkTarget openConstruct(int value) {
+        throw new RuntimeException();
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = INTERPRETER)
+    public int fieldInterpretedDirect() {
+        return target.publicInstanceField;
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = INTERPRETER)
+    public int fieldInterpretedHandle() {
+        return openGetInstance(target);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = {INTERPRETER, NESTMATE})
+    public int fieldInterpretedNestmate() {
+        return openGetInstance(target);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = C1)
+    public int fieldC1Direct() {
+        return target.publicInstanceField;
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = C1)
+    public int fieldC1Handle() {
+        return openGetInstance(target);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = {C1, NESTMATE})
+    public int fieldC1Nestmate() {
+        return openGetInstance(target);
+    }
+
+    @Benchmark
+    @Fork(2)
+    public int fieldTieredHandle() {
+        return openGetInstance(target);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = NESTMATE)
+    public int fieldTieredNestmate() {
+        return openGetInstance(target);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = INTERPRETER)
+    public BenchmarkTarget constructInterpretedDirect() {
+        return new BenchmarkTarget((long) value);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = INTERPRETER)
+    public BenchmarkTarget constructInterpretedHandle() {
+        return openConstruct(value);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = {INTERPRETER, NESTMATE})
+    public BenchmarkTarget constructInterpretedNestmate() {
+        return openConstruct(value);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = C1)
+    public BenchmarkTarget constructC1Direct() {
+        return new BenchmarkTarget((long) value);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = C1)
+    public BenchmarkTarget constructC1Handle() {
+        return openConstruct(value);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = {C1, NESTMATE})
+    public BenchmarkTarget constructC1Nestmate() {
+        return openConstruct(value);
+    }
+
+    @Benchmark
+    @Fork(2)
+    public BenchmarkTarget constructTieredHandle() {
+        return openConstruct(value);
+    }
+
+    @Benchmark
+    @Fork(value = 2, jvmArgsAppend = NESTMATE)
+    public BenchmarkTarget constructTieredNestmate() {
+        return openConstruct(value);
+    }
+}
@@ -0,0 +1,227 @@
+package dev.lukebemish.opensesame.benchmarks;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.runtime.Opened;
+import dev.lukebemish.opensesame.runtime.OpeningMetafactory;
+import dev.lukebemish.opensesame.test.target.BenchmarkTarget;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Compares {@link Open.Type#STATIC}, {@link Open.Type#VIRTUAL} and {@link Open.Type#SPECIAL} accessors against a plain
+ * call, reflection, a cached {@link MethodHandle}, and handles from {@link Opened}, and lambdas opened with {@link Open#lambda()} against lambdas
+ * written in Java, in a stream pipeline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MethodBenchmarks {
+    private static final Method STATIC_REFLECTION;
+    private static final Method INSTANCE_REFLECTION;
+    private static final MethodHandle STATIC_HANDLE;
+    private static final MethodHandle INSTANCE_HANDLE;
+    private static final MethodHandle SPECIAL_HANDLE;
+    private static final MethodHandle STATIC_KNOWN;
+    private static final Opened OPENED = Opened.in(MethodHandles.lookup());
+    private static final MethodType STATIC_TYPE = MethodType.methodType(int.class, int.class);
+    private static final MethodHandle STATIC_OPENED = OPENED.findStatic(BenchmarkTarget.class, "privateStatic", STATIC_TYPE);
+
+    static {
+        try {
+            STATIC_REFLECTION = BenchmarkTarget.class.getDeclaredMethod("privateStatic", int.class);
+            STATIC_REFLECTION.setAccessible(true);
+            INSTANCE_REFLECTION = BenchmarkTarget.class.getDeclaredMethod("privateInstance", int.class);
+            INSTANCE_REFLECTION.setAccessible(true);
+
+            var lookup = MethodHandles.privateLookupIn(BenchmarkTarget.class, MethodHandles.lookup());
+            STATIC_HANDLE = lookup.findStatic(BenchmarkTarget.class, "privateStatic", MethodType.methodType(int.class, int.class));
+            INSTANCE_HANDLE = lookup.findVirtual(BenchmarkTarget.class, "privateInstance", MethodType.methodType(int.class, int.class));
+            SPECIAL_HANDLE = lookup.findSpecial(BenchmarkTarget.class, "overridable", MethodType.methodType(int.class, int.class), BenchmarkTarget.class);
+
+            STATIC_KNOWN = OpeningMetafactory.invokeKnown(
+                    MethodHandles.lookup(),
+                    "privateStatic",
+                    MethodType.methodType(int.class, int.class),
+                    BenchmarkTarget.class,
+                    OpeningMetafactory.STATIC_TYPE
+            ).dynamicInvoker();
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private int value = 7;
+    private BenchmarkTarget target;
+    private BenchmarkTarget subclass;
+    private int[] values;
+
+    @Setup
+    public void setup() {
+        target = new BenchmarkTarget(1L);
+        subclass = new BenchmarkTarget.Subclass();
+        values = IntStream.range(0, 64).toArray();
+    }
+
+    @Open(
+            name = "privateStatic",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.STATIC
+    )
+    private static int openStatic(int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStatic",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.STATIC,
+            unsafe = true
+    )
+    private static int openStaticUnsafe(int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.VIRTUAL
+    )
+    private static int openVirtual(BenchmarkTarget target, int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.VIRTUAL,
+            unsafe = true
+    )
+    private static int openVirtualUnsafe(BenchmarkTarget target, int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "overridable",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.SPECIAL
+    )
+    private static int openSpecial(BenchmarkTarget target, int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStatic",
+            targetClass = BenchmarkTarget.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static IntUnaryOperator openStaticLambda() {
+        throw new RuntimeException();
+    }
+
+    @Benchmark
+    public int staticDirect() {
+        return BenchmarkTarget.publicStatic(value);
+    }
+
+    @Benchmark
+    public int staticOpened() {
+        return openStatic(value);
+    }
+
+    @Benchmark
+    public int staticOpenedUnsafe() {
+        return openStaticUnsafe(value);
+    }
+
+    @Benchmark
+    public int staticOpenedKnown() throws Throwable {
+        return (int) STATIC_KNOWN.invokeExact(value);
+    }
+
+    @Benchmark
+    public int staticOpenedProgrammatic() throws Throwable {
+        return (int) STATIC_OPENED.invokeExact(value);
+    }
+
+    @Benchmark
+    public int staticOpenedProgrammaticCached() throws Throwable {
+        // Finds the handle on every call, as code discovering members by name at runtime might
+        return (int) OPENED.findStatic(BenchmarkTarget.class, "privateStatic", STATIC_TYPE).invokeExact(value);
+    }
+
+    @Benchmark
+    public int staticReflection() throws Exception {
+        return (int) STATIC_REFLECTION.invoke(null, value);
+    }
+
+    @Benchmark
+    public int staticMethodHandle() throws Throwable {
+        return (int) STATIC_HANDLE.invokeExact(value);
+    }
+
+    @Benchmark
+    public int virtualDirect() {
+        return target.publicInstance(value);
+    }
+
+    @Benchmark
+    public int virtualOpened() {
+        return openVirtual(target, value);
+    }
+
+    @Benchmark
+    public int virtualOpenedUnsafe() {
+        return openVirtualUnsafe(target, value);
+    }
+
+    @Benchmark
+    public int virtualReflection() throws Exception {
+        return (int) INSTANCE_REFLECTION.invoke(target, value);
+    }
+
+    @Benchmark
+    public int virtualMethodHandle() throws Throwable {
+        return (int) INSTANCE_HANDLE.invokeExact(target, value);
+    }
+
+    @Benchmark
+    public int specialDirect() {
+        return subclass.publicInstance(value);
+    }
+
+    @Benchmark
+    public int specialOpened() {
+        return openSpecial(subclass, value);
+    }
+
+    @Benchmark
+    public int specialMethodHandle() throws Throwable {
+        return (int) SPECIAL_HANDLE.invokeExact(subclass, value);
+    }
+
+    @Benchmark
+    public int lambdaDirect() {
+        return IntStream.of(values).map(BenchmarkTarget::publicStatic).sum();
+    }
+
+    @Benchmark
+    public int lambdaOpened() {
+        return IntStream.of(values).map(openStaticLambda()).sum();
+    }
+
+    @Benchmark
+    public int lambdaWrappingOpened() {
+        return IntStream.of(values).map(MethodBenchmarks::openStatic).sum();
+    }
+}
@@ -0,0 +1,176 @@
+package dev.lukebemish.opensesame.compile.asm;
+
+import dev.lukebemish.opensesame.compile.ModuleExports;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleDescriptor;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
+
+/**
+ * Finds classes in directories of classes and in jars, in order, keeping the jars open until it is closed. Classes in a
+ * directory or jar holding a module descriptor are taken to be in that module.
+ */
+public final class ClassRoots implements VisitingProcessor.ClassFinder, Closeable {
+    private record Root(@Nullable Path directory, @Nullable ZipFile jar, @Nullable ModuleDescriptor module) {}
+
+    private final List<Root> roots;
+    private final @Nullable FileSystem fileSystem;
+
+    private ClassRoots(List<Path> paths, @Nullable FileSystem fileSystem) throws IOException {
+        this.roots = new ArrayList<>(paths.size());
+        this.fileSystem = fileSystem;
+        try {
+            for (var path : paths) {
+                if (Files.isDirectory(path)) {
+                    roots.add(new Root(path, null, ModuleExports.read(path)));
+                } else if (Files.isRegularFile(path)) {
+                    var jar = new ZipFile(path.toFile());
+                    ModuleDescriptor module;
+                    try {
+                        module = ModuleExports.read(jar);
+                    } catch (IOException | RuntimeException e) {
+                        jar.close();
+                        throw e;
+                    }
+                    roots.add(new Root(null, jar, module));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * {@return a finder that looks in directories of classes and in jars, in order}
+     * @param roots the directories and jars to look in
+     * @throws IOException if a jar could not be opened
+     */
+    public static ClassRoots of(List<Path> roots) throws IOException {
+        return new ClassRoots(roots, null);
+    }
+
+    /**
+     * {@return a finder for the classes of the modules of a JDK, which must be of version 9 or later}
+     * @param javaHome the home directory of the JDK
+     * @throws IOException if the image of the JDK could not be opened
+     */
+    public static ClassRoots platform(Path javaHome) throws IOException {
+        var fileSystem = FileSystems.newFileSystem(URI.create("jrt:/"), Map.of("java.home", javaHome.toString()));
+        try {
+            return new ClassRoots(modules(fileSystem), fileSystem);
+        } catch (IOException | RuntimeException e) {
+            fileSystem.close();
+            throw e;
+        }
+    }
+
+    /**
+     * {@return a finder for the classes of the modules of the platform the processor is running on}
+     */
+    static ClassRoots platform() {
+        return Platform.ROOTS;
+    }
+
+    private static final class Platform {
+        private static final ClassRoots ROOTS;
+
+        static {
+            try {
+                // The file system of the running platform is shared, and is never closed
+                ROOTS = new ClassRoots(modules(FileSystems.getFileSystem(URI.create("jrt:/"))), null);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static List<Path> modules(FileSystem fileSystem) throws IOException {
+        try (var modules = Files.list(fileSystem.getPath("/modules"))) {
+            return modules.collect(Collectors.toList());
+        }
+    }
+
+    private @Nullable Root root(String fileName) {
+        for (var root : roots) {
+            if (root.directory() != null) {
+                if (Files.isRegularFile(root.directory().resolve(fileName))) {
+                    return root;
+                }
+            } else if (root.jar() != null && root.jar().getEntry(fileName) != null) {
+                return root;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public byte @Nullable [] find(String internalName) throws IOException {
+        var fileName = internalName + ".class";
+        var root = root(fileName);
+        if (root == null) {
+            return null;
+        }
+        if (root.directory() != null) {
+            return Files.readAllBytes(root.directory().resolve(fileName));
+        }
+        var jar = root.jar();
+        try (var stream = jar.getInputStream(jar.getEntry(fileName))) {
+            return stream.readAllBytes();
+        }
+    }
+
+    @Override
+    public @Nullable ModuleDescriptor module(String internalName) {
+        var root = root(internalName + ".class");
+        return root == null ? null : root.module();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (var root : roots) {
+            if (root.jar() != null) {
+                try {
+                    root.jar().close();
+                } catch (IOException e) {
+                    if (exception == null) {
+                        exception = e;
+                    } else {
+                        exception.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        if (fileSystem != null) {
+            try {
+                fileSystem.close();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package dev.lukebemish.opensesame.compile.asm;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.compile.ModuleExports;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.module.ModuleDescriptor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Decides, from the classes a {@link VisitingProcessor.ClassFinder} can find, whether members opened with
+ * {@link Open#direct()} may be accessed from their holder with a plain bytecode instruction. Also answers what access
+ * those classes and their declared members have, for {@link ExtensionPrebuilder}. What is read of each class is kept,
+ * so one instance is shared by the processors of a run through {@link VisitingProcessor.ClassFinder#remembering()}.
+ */
+final class DirectAccess {
+    private final VisitingProcessor.ClassFinder finder;
+    private final Map<String, Optional<ClassInfo>> classes = new HashMap<>();
+    private final Map<String, Optional<ModuleDescriptor>> modules = new HashMap<>();
+
+    DirectAccess(VisitingProcessor.ClassFinder finder) {
+        this.finder = finder;
+    }
+
+    /**
+     * The member to access, once found to be accessible.
+     * @param isInterface whether the target class is an interface
+     */
+    record Target(boolean isInterface) {}
+
+    private record ClassInfo(String name, int access, @Nullable String superName, String[] interfaces, String nestHost, Map<String, Integer> members) {}
+
+    private record Member(ClassInfo declaringClass, int access) {}
+
+    /**
+     * {@return the member to access, or {@code null} if whether it is accessible could not be determined}
+     * @param holder the class holding the opening
+     * @param holderNestHost the nest host of the holder
+     * @param target the class to open
+     * @param type the type of member to open
+     * @param name the name of the member
+     * @param descriptor the descriptor of the member, or of its element type for arrays
+     * @throws RuntimeException if the member is found but is not accessible
+     */
+    @Nullable Target find(Type holder, String holderNestHost, Type target, Open.Type type, String name, String descriptor) {
+        if (type == Open.Type.ARRAY) {
+            var element = target;
+            while (element.getSort() == Type.ARRAY) {
+                element = element.getElementType();
+            }
+            if (element.getSort() != Type.OBJECT) {
+                return new Target(false);
+            }
+            var info = info(element.getInternalName());
+            if (info == null) {
+                return null;
+            }
+            requireAccessible(holder, info, name);
+            return exported(holder, info) ? new Target(false) : null;
+        }
+        if (target.getSort() != Type.OBJECT) {
+            return null;
+        }
+        var info = info(target.getInternalName());
+        if (info == null) {
+            return null;
+        }
+        boolean isInterface = (info.access() & Opcodes.ACC_INTERFACE) != 0;
+        Member member = switch (type) {
+            case CONSTRUCT -> (info.access() & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_INTERFACE)) != 0 ? null : declared(info, "<init>" + descriptor);
+            case STATIC, VIRTUAL -> method(info, name + descriptor);
+            case GET_STATIC, GET_INSTANCE, SET_STATIC, SET_INSTANCE -> field(info, name + descriptor);
+            default -> null;
+        };
+        if (member == null) {
+            return null;
+        }
+        boolean isStatic = (member.access() & Opcodes.ACC_STATIC) != 0;
+        boolean shouldBeStatic = type == Open.Type.STATIC || type == Open.Type.GET_STATIC || type == Open.Type.SET_STATIC;
+        if (type != Open.Type.CONSTRUCT && isStatic != shouldBeStatic) {
+            return null;
+        }
+        requireAccessible(holder, info, name);
+        if (!exported(holder, info)) {
+            return null;
+        }
+        var declaring = member.declaringClass();
+        if ((member.access() & Opcodes.ACC_PUBLIC) != 0) {
+            return new Target(isInterface);
+        }
+        if ((member.access() & Opcodes.ACC_PRIVATE) != 0) {
+            if (declaring.name().equals(holder.getInternalName()) || declaring.nestHost().equals(holderNestHost)) {
+                return new Target(isInterface);
+            }
+            throw inaccessible(holder, declaring.name() + "." + name, "it is private");
+        }
+        if (packageName(declaring.name()).equals(packageName(holder.getInternalName()))) {
+            return new Target(isInterface);
+        }
+        if ((member.access() & Opcodes.ACC_PROTECTED) != 0) {
+            // Protected access from a subclass depends on the type of the receiver as well; leave it to the metafactory
+            return null;
+        }
+        throw inaccessible(holder, declaring.name() + "." + name, "it is package-private");
+    }
+
+    /**
+     * {@return the access flags of a class, or {@code null} if it could not be found}
+     * @param internalName the internal name of the class
+     */
+    @Nullable Integer access(String internalName) {
+        var info = info(internalName);
+        return info == null ? null : info.access();
+    }
+
+    /**
+     * {@return the access flags of a member declared by a class, or {@code null} if it could not be found}
+     * @param internalName the internal name of the class
+     * @param member the name of the member followed by its descriptor
+     */
+    @Nullable Integer memberAccess(String internalName, String member) {
+        var info = info(internalName);
+        return info == null ? null : info.members().get(member);
+    }
+
+    private void requireAccessible(Type holder, ClassInfo info, String name) {
+        if ((info.access() & Opcodes.ACC_PUBLIC) == 0 && !packageName(info.name()).equals(packageName(holder.getInternalName()))) {
+            throw inaccessible(holder, info.name() + "." + name, "its class is package-private");
+        }
+    }
+
+    private boolean exported(Type holder, ClassInfo info) {
+        var packageName = packageName(info.name());
+        if (packageName.equals(packageName(holder.getInternalName()))) {
+            return true;
+        }
+        var module = module(info.name());
+        if (module == null) {
+            return true;
+        }
+        var exportedPackage = packageName.replace('/', '.');
+        var holderModule = module(holder.getInternalName());
+        if (holderModule == null) {
+            // Classes in no named module read every module
+            return ModuleExports.exports(module, exportedPackage);
+        }
+        if (holderModule.name().equals(module.name())) {
+            return true;
+        }
+        // Whether the holder reads a module only required transitively is left to the metafactory
+        boolean reads = module.name().equals("java.base") || holderModule.isAutomatic() || holderModule.requires().stream().anyMatch(requires -> requires.name().equals(module.name()));
+        if (!reads) {
+            return false;
+        }
+        return ModuleExports.exports(module, exportedPackage) || module.exports().stream()
+                .anyMatch(exports -> exports.source().equals(exportedPackage) && exports.targets().contains(holderModule.name()));
+    }
+
+    private static RuntimeException inaccessible(Type holder, String member, String reason) {
+        return new RuntimeException("Member " + member + " is opened directly from " + holder.getInternalName() + ", but " + reason);
+    }
+
+    private static String packageName(String internalName) {
+        int index = internalName.lastIndexOf('/');
+        return index == -1 ? "" : internalName.substring(0, index);
+    }
+
+    private @Nullable Member declared(ClassInfo info, String key) {
+        var access = info.members().get(key);
+        return access == null ? null : new Member(info, access);
+    }
+
+    private @Nullable Member field(ClassInfo info, String key) {
+        // Fields resolve against the class, then its interfaces, then its superclass
+        var member = declared(info, key);
+        if (member != null) {
+            return member;
+        }
+        for (var iface : info.interfaces()) {
+            var ifaceInfo = info(iface);
+            if (ifaceInfo == null) {
+                return null;
+            }
+            member = field(ifaceInfo, key);
+            if (member != null) {
+                return member;
+            }
+        }
+        if (info.superName() == null) {
+            return null;
+        }
+        var superInfo = info(info.superName());
+        return superInfo == null ? null : field(superInfo, key);
+    }
+
+    private @Nullable Member method(ClassInfo info, String key) {
+        // Methods inherited from interfaces are left to the metafactory, as choosing between them needs the full hierarchy
+        for (ClassInfo current = info; current != null; current = current.superName() == null ? null : info(current.superName())) {
+            var member = declared(current, key);
+            if (member != null) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    private @Nullable ClassInfo info(String internalName) {
+        return classes.computeIfAbsent(internalName, name -> {
+            byte[] bytes;
+            try {
+                bytes = finder.find(name);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (bytes == null) {
+                return Optional.empty();
+            }
+            return Optional.of(read(bytes));
+        }).orElse(null);
+    }
+
+    private @Nullable ModuleDescriptor module(String internalName) {
+        return modules.computeIfAbsent(internalName, name -> {
+            try {
+                return Optional.ofNullable(finder.module(name));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).orElse(null);
+    }
+
+    private static ClassInfo read(byte[] bytes) {
+        var reader = new ClassReader(bytes);
+        Map<String, Integer> members = new HashMap<>();
+        List<String> nestHost = new ArrayList<>(1);
+        reader.accept(new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public void visitNestHost(String nestHostClass) {
+                nestHost.add(nestHostClass);
+            }
+
+            @Override
+            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
+                members.put(name + descriptor, access);
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                members.put(name + descriptor, access);
+                return null;
+            }
+        }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return new ClassInfo(
+                reader.getClassName(),
+                reader.getAccess(),
+                reader.getSuperName(),
+                reader.getInterfaces(),
+                nestHost.isEmpty() ? reader.getClassName() : nestHost.get(0),
+                members
+        );
+    }
+}
@@ -0,0 +1,258 @@
+package dev.lukebemish.opensesame.compile.asm;
+
+import dev.lukebemish.opensesame.annotations.extend.Extend;
+import dev.lukebemish.opensesame.compile.ConDynUtils;
+import dev.lukebemish.opensesame.compile.OpenSesameGenerated;
+import dev.lukebemish.opensesame.compile.Processor;
+import dev.lukebemish.opensesame.runtime.OpeningMetafactory;
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the class implementing an {@link Extend} interface at build time, when the target can be found and is
+ * visible enough that the class needs no proxy module, bounce type or manual allocation. The class is the same as the
+ * one {@link OpeningMetafactory} would otherwise generate when the extension is first constructed.
+ */
+final class ExtensionPrebuilder {
+    private final DirectAccess classes;
+    private final ConDynUtils<Type, ?, ?> conDynUtils;
+
+    ExtensionPrebuilder(DirectAccess classes, ConDynUtils<Type, ?, ?> conDynUtils) {
+        this.classes = classes;
+        this.conDynUtils = conDynUtils;
+    }
+
+    /**
+     * A constructor of an extension.
+     * @param type the type of the constructor, with the fields it sets first
+     * @param superTypes the parameters of the super constructor
+     * @param fields the fields the constructor sets
+     */
+    record Ctor(Type type, List<ConDynUtils.TypedDynamic<?, Type>> superTypes, List<String> fields) {}
+
+    private record Override(String interfaceName, Type interfaceType, String originalName, Type originalType, Processor.ExtendOverrideInfo<Type> info) {}
+
+    /**
+     * {@return the generated class, or {@code null} if it must be generated at runtime}
+     * @param holder the extension interface
+     * @param target the class to extend
+     * @param fields the fields of the extension
+     * @param overrides the overrides of the extension
+     * @param ctors the constructors of the extension
+     * @param mapper remaps the names of the overriding and overridden methods
+     */
+    byte @Nullable [] generate(Type holder, ConDynUtils.TypedDynamic<?, Type> target, Collection<Processor.ExtendFieldInfo<Type>> fields, List<Processor.ExtendOverrideInfo<Type>> overrides, List<Ctor> ctors, Processor.MethodNameMapper<Type> mapper) {
+        if (!target.constant() || target.type() == null || target.type().getSort() != Type.OBJECT) {
+            return null;
+        }
+        var targetName = target.type().getInternalName();
+        var targetAccess = classes.access(targetName);
+        if (targetAccess == null || (targetAccess & Opcodes.ACC_PUBLIC) == 0 || (targetAccess & Opcodes.ACC_FINAL) != 0) {
+            return null;
+        }
+        boolean isInterface = (targetAccess & Opcodes.ACC_INTERFACE) != 0;
+
+        // Mirror the checks the metafactory makes before it falls back to a proxy module
+        var resolved = new ArrayList<Override>(overrides.size());
+        for (var override : overrides) {
+            var originalType = constantType(override.originalReturn(), override.originalParams());
+            var interfaceType = constantType(override.interfaceReturn(), override.interfaceParams());
+            if (originalType == null || interfaceType == null) {
+                return null;
+            }
+            var originalName = mapper.remapMethodName(target.type(), override.originalName(), originalType.getReturnType(), List.of(originalType.getArgumentTypes()));
+            var interfaceName = mapper.remapMethodName(holder, override.interfaceName(), interfaceType.getReturnType(), List.of(interfaceType.getArgumentTypes()));
+            resolved.add(new Override(interfaceName, interfaceType, originalName, originalType, override));
+            var access = classes.memberAccess(targetName, originalName + originalType.getDescriptor());
+            if (access == null || (access & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED)) == 0 || (access & (Opcodes.ACC_STATIC | Opcodes.ACC_FINAL)) != 0) {
+                return null;
+            }
+            if (!isPublic(originalType.getReturnType())) {
+                return null;
+            }
+            for (var parameter : originalType.getArgumentTypes()) {
+                if (!isPublic(parameter)) {
+                    return null;
+                }
+            }
+        }
+        for (var ctor : ctors) {
+            var superType = constantType(conDynUtils.conDynFromClass(Type.VOID_TYPE), ctor.superTypes());
+            if (superType == null) {
+                return null;
+            }
+            var arguments = ctor.type().getArgumentTypes();
+            var superArguments = superType.getArgumentTypes();
+            if (arguments.length - ctor.fields().size() != superArguments.length) {
+                return null;
+            }
+            for (int i = 0; i < superArguments.length; i++) {
+                // Conversions to the super constructor's types need the class hierarchy; leave them to the metafactory
+                if (!arguments[i + ctor.fields().size()].equals(superArguments[i])) {
+                    return null;
+                }
+            }
+            if (isInterface) {
+                if (superArguments.length != 0) {
+                    return null;
+                }
+            } else {
+                var access = classes.memberAccess(targetName, "<init>" + superType.getDescriptor());
+                if (access == null || (access & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED)) == 0) {
+                    return null;
+                }
+            }
+        }
+
+        return write(holder, target.type(), isInterface, fields, resolved, ctors);
+    }
+
+    private byte[] write(Type holder, Type target, boolean isInterface, Collection<Processor.ExtendFieldInfo<Type>> fields, List<Override> overrides, List<Ctor> ctors) {
+        var classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
+        var superClass = isInterface ? "java/lang/Object" : target.getInternalName();
+        var interfaces = isInterface ? new String[] {target.getInternalName(), holder.getInternalName()} : new String[] {holder.getInternalName()};
+        var name = holder.getInternalName() + Processor.EXTEND_PREBUILT_CLASS;
+        classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC, name, null, superClass, interfaces);
+        var generated = classWriter.visitAnnotation(OpenSesameGenerated.class.descriptorString(), false);
+        generated.visit("value", Type.getType(Extend.class));
+        generated.visitEnd();
+
+        Map<String, Type> fieldTypes = new HashMap<>();
+        for (var field : fields) {
+            var descriptor = field.type().getDescriptor();
+            fieldTypes.put(field.name(), field.type());
+            classWriter.visitField(Opcodes.ACC_PRIVATE | (field.isFinal() ? Opcodes.ACC_FINAL : 0), field.name(), descriptor, null, null).visitEnd();
+            for (var setter : field.setters()) {
+                var methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, setter, Type.getMethodDescriptor(Type.VOID_TYPE, field.type()), null, null);
+                methodVisitor.visitCode();
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+                methodVisitor.visitVarInsn(field.type().getOpcode(Opcodes.ILOAD), 1);
+                methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, name, field.name(), descriptor);
+                methodVisitor.visitInsn(Opcodes.RETURN);
+                methodVisitor.visitMaxs(0, 0);
+                methodVisitor.visitEnd();
+            }
+            for (var getter : field.getters()) {
+                var methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, getter, Type.getMethodDescriptor(field.type()), null, null);
+                methodVisitor.visitCode();
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+                methodVisitor.visitFieldInsn(Opcodes.GETFIELD, name, field.name(), descriptor);
+                methodVisitor.visitInsn(field.type().getOpcode(Opcodes.IRETURN));
+                methodVisitor.visitMaxs(0, 0);
+                methodVisitor.visitEnd();
+            }
+        }
+
+        for (var override : overrides) {
+            var interfaceType = override.interfaceType();
+            var overrideType = override.originalType();
+            var methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, override.originalName(), overrideType.getDescriptor(), null, null);
+            methodVisitor.visitCode();
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+            int j = 1;
+            for (var parameter : overrideType.getArgumentTypes()) {
+                methodVisitor.visitVarInsn(parameter.getOpcode(Opcodes.ILOAD), j);
+                j += parameter.getSize();
+            }
+            if (interfaceType.equals(overrideType)) {
+                methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, holder.getInternalName(), override.interfaceName(), interfaceType.getDescriptor(), true);
+            } else {
+                // As at runtime, the metafactory converts between the overridden and the interface method's types
+                List<ConDynUtils.TypedDynamic<?, Type>> interfaceParameters = new ArrayList<>();
+                interfaceParameters.add(conDynUtils.conDynFromClass(holder));
+                interfaceParameters.addAll(override.info().interfaceParams());
+                var fullParameters = new ArrayList<Type>();
+                fullParameters.add(holder);
+                fullParameters.addAll(List.of(overrideType.getArgumentTypes()));
+                methodVisitor.visitInvokeDynamicInsn(
+                        override.interfaceName(),
+                        Type.getMethodDescriptor(overrideType.getReturnType(), fullParameters.toArray(Type[]::new)),
+                        new Handle(
+                                Opcodes.H_INVOKESTATIC,
+                                Type.getInternalName(OpeningMetafactory.class),
+                                "invoke",
+                                MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, MethodHandle.class, MethodHandle.class, int.class).toMethodDescriptorString(),
+                                false
+                        ),
+                        conDynUtils.conDynFromClass(holder).constantDynamic(),
+                        conDynUtils.conDynMethodType(override.info().interfaceReturn(), interfaceParameters),
+                        OpeningMetafactory.VIRTUAL_TYPE
+                );
+            }
+            methodVisitor.visitInsn(overrideType.getReturnType().getOpcode(Opcodes.IRETURN));
+            methodVisitor.visitMaxs(0, 0);
+            methodVisitor.visitEnd();
+        }
+
+        for (var ctor : ctors) {
+            var arguments = ctor.type().getArgumentTypes();
+            var fieldCount = ctor.fields().size();
+            var superArguments = new Type[arguments.length - fieldCount];
+            System.arraycopy(arguments, fieldCount, superArguments, 0, superArguments.length);
+            var methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", ctor.type().getDescriptor(), null, null);
+            methodVisitor.visitCode();
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+            int fieldsSize = 0;
+            for (int i = 0; i < fieldCount; i++) {
+                fieldsSize += arguments[i].getSize();
+            }
+            int j = 1 + fieldsSize;
+            for (var argument : superArguments) {
+                methodVisitor.visitVarInsn(argument.getOpcode(Opcodes.ILOAD), j);
+                j += argument.getSize();
+            }
+            methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, superClass, "<init>", Type.getMethodDescriptor(Type.VOID_TYPE, superArguments), false);
+            j = 1;
+            for (var fieldName : ctor.fields()) {
+                var fieldType = fieldTypes.get(fieldName);
+                methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+                methodVisitor.visitVarInsn(fieldType.getOpcode(Opcodes.ILOAD), j);
+                j += fieldType.getSize();
+                methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, name, fieldName, fieldType.getDescriptor());
+            }
+            methodVisitor.visitInsn(Opcodes.RETURN);
+            methodVisitor.visitMaxs(0, 0);
+            methodVisitor.visitEnd();
+        }
+
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private static @Nullable Type constantType(ConDynUtils.TypedDynamic<?, Type> returnType, List<? extends ConDynUtils.TypedDynamic<?, Type>> parameterTypes) {
+        if (!returnType.constant() || returnType.type() == null) {
+            return null;
+        }
+        var parameters = new Type[parameterTypes.size()];
+        for (int i = 0; i < parameters.length; i++) {
+            var parameter = parameterTypes.get(i);
+            if (!parameter.constant() || parameter.type() == null) {
+                return null;
+            }
+            parameters[i] = parameter.type();
+        }
+        return Type.getMethodType(returnType.type(), parameters);
+    }
+
+    private boolean isPublic(Type type) {
+        var element = type.getSort() == Type.ARRAY ? type.getElementType() : type;
+        if (element.getSort() != Type.OBJECT) {
+            return true;
+        }
+        var access = classes.access(element.getInternalName());
+        return access != null && (access & Opcodes.ACC_PUBLIC) != 0;
+    }
+}
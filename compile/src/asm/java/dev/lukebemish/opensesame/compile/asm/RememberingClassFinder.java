@@ -0,0 +1,34 @@
+package dev.lukebemish.opensesame.compile.asm;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.module.ModuleDescriptor;
+
+/**
+ * A finder whose classes are read once, by the {@link DirectAccess} shared by every processor given it.
+ */
+final class RememberingClassFinder implements VisitingProcessor.ClassFinder {
+    private final VisitingProcessor.ClassFinder delegate;
+    final DirectAccess directAccess;
+
+    RememberingClassFinder(VisitingProcessor.ClassFinder delegate) {
+        this.delegate = delegate;
+        this.directAccess = new DirectAccess(delegate);
+    }
+
+    @Override
+    public byte @Nullable [] find(String internalName) throws IOException {
+        return delegate.find(internalName);
+    }
+
+    @Override
+    public @Nullable ModuleDescriptor module(String internalName) throws IOException {
+        return delegate.module(internalName);
+    }
+
+    @Override
+    public VisitingProcessor.ClassFinder remembering() {
+        return this;
+    }
+}
@@ -24,6 +24,8 @@
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.lang.module.ModuleDescriptor;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -59,14 +61,15 @@ public class VisitingProcessor extends ClassVisitor implements Processor<Type, V
     private boolean modifiedAny;
 
     public static void main(String[] args) {
-        if (args.length != 2) {
-            System.err.println("Usage: java dev.lukebemish.opensesame.compile.asm.VisitingProcessor <input> <output> ...");
+        if (args.length < 2) {
+            System.err.println("Usage: java dev.lukebemish.opensesame.compile.asm.VisitingProcessor <input> <output> [<classpath>...]");
             System.exit(1);
         }
         var input = Path.of(args[0]);
         var output = Path.of(args[1]);
+        var classpath = Arrays.stream(args, 2, args.length).map(Path::of).toList();
         try {
-            process(input, output);
+            process(input, output, classpath, (className, message) -> System.err.println("warning: " + className + ": " + message));
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -90,28 +93,53 @@ public static void cleanup(Path output) throws IOException {
 
     private static boolean isOpenSesameGenerated(Path file) {
         return file.getFileName().toString().endsWith(VisitingProcessor.UNFINAL_SERVICE + ".class")
+                || file.getFileName().toString().endsWith(Processor.EXTEND_PREBUILT_CLASS + ".class")
                 || file.getFileName().toString().endsWith(MIXIN_PROVIDER.getClassName());
     }
 
     public static Set<Path> process(Path input, Path output) throws IOException {
+        return process(input, output, null);
+    }
+
+    public static Set<Path> process(Path input, Path output, @Nullable Reporter reporter) throws IOException {
+        return process(input, output, List.of(), reporter);
+    }
+
+    /**
+     * Processes a class file, or every file in a directory of classes.
+     * @param input the class file or directory to process
+     * @param output where to write the processed file or directory
+     * @param classpath the directories and jars holding the other classes the input may open directly
+     * @param reporter receives warnings about the classes processed; without one, warnings are dropped
+     * @return the files written that are new or differ from the input
+     */
+    public static Set<Path> process(Path input, Path output, List<Path> classpath, @Nullable Reporter reporter) throws IOException {
         if (Files.isDirectory(input)) {
             cleanup(output);
-            Set<Path> modified = new HashSet<>();
-            try (var paths = Files.walk(input)) {
-                paths.filter(Files::isRegularFile).filter(f -> !isOpenSesameGenerated(f)).forEach(file -> {
-                    try {
-                        var relative = input.relativize(file);
-                        var out = output.resolve(relative);
-                        Files.createDirectories(out.getParent());
-                        modified.addAll(processFile(file, out, output::resolve));
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
-                });
+            List<Path> roots = new ArrayList<>();
+            roots.add(input);
+            roots.addAll(classpath);
+            try (var classRoots = ClassFinder.of(roots)) {
+                var classFinder = classRoots.orElse(ClassFinder.platform()).remembering();
+                Set<Path> modified = new HashSet<>();
+                try (var paths = Files.walk(input)) {
+                    paths.filter(Files::isRegularFile).filter(f -> !isOpenSesameGenerated(f)).forEach(file -> {
+                        try {
+                            var relative = input.relativize(file);
+                            var out = output.resolve(relative);
+                            Files.createDirectories(out.getParent());
+                            modified.addAll(processFile(file, out, output::resolve, classFinder, reporter));
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+                }
+                return modified;
             }
-            return modified;
         } else {
-            return processFile(input, output, null);
+            try (var classRoots = ClassFinder.of(classpath)) {
+                return processFile(input, output, null, classRoots.orElse(ClassFinder.platform()), reporter);
+            }
         }
     }
 
@@ -167,9 +195,117 @@ protected enum MixinProviderType {
     public interface OutputPathResolver {
         Path resolve(String name) throws IOException;
     }
+
+    /**
+     * Receives problems with the classes being processed that do not prevent them from being processed, so that they
+     * may be shown by whatever tool is running the processor.
+     */
+    @FunctionalInterface
+    public interface Reporter {
+        /**
+         * Reports a warning.
+         * @param className the binary name of the class at fault
+         * @param message the problem
+         */
+        void warn(String className, String message);
+    }
     
+    /**
+     * Finds the classes visible to the classes being processed, so that openings marked {@link Open#direct()} can be
+     * checked against their targets.
+     */
+    @FunctionalInterface
+    public interface ClassFinder {
+        /**
+         * {@return the contents of the class file for a class, or {@code null} if it could not be found}
+         * @param internalName the internal name of the class
+         * @throws IOException if the class could not be read
+         */
+        byte @Nullable [] find(String internalName) throws IOException;
+
+        /**
+         * {@return the named module a class this finder finds is in, or {@code null} if it is in none} Classes in a
+         * named module other than that of the class opening them are only accessed directly if their package is
+         * exported. By default, classes are taken to be in no named module, as those on the class path are.
+         * @param internalName the internal name of the class
+         * @throws IOException if the module could not be read
+         */
+        default @Nullable ModuleDescriptor module(String internalName) throws IOException {
+            return null;
+        }
+
+        /**
+         * {@return a finder that looks in this finder, and then in another}
+         * @param other the finder to look in when this one finds nothing
+         */
+        default ClassFinder orElse(ClassFinder other) {
+            var first = this;
+            return new ClassFinder() {
+                @Override
+                public byte @Nullable [] find(String internalName) throws IOException {
+                    var bytes = first.find(internalName);
+                    return bytes != null ? bytes : other.find(internalName);
+                }
+
+                @Override
+                public @Nullable ModuleDescriptor module(String internalName) throws IOException {
+                    return first.find(internalName) != null ? first.module(internalName) : other.module(internalName);
+                }
+            };
+        }
+
+        /**
+         * {@return a finder that remembers what it has read of the classes this finder finds} Processors given the same
+         * remembering finder share what it has read, so one should be made for each run over many classes, during
+         * which the classes found do not change.
+         */
+        default ClassFinder remembering() {
+            return new RememberingClassFinder(this);
+        }
+
+        /**
+         * {@return a finder that looks in directories of classes and in jars, in order, which must be closed once no
+         * longer needed}
+         * @param roots the directories and jars to look in
+         * @throws IOException if a jar could not be opened
+         */
+        static ClassRoots of(List<Path> roots) throws IOException {
+            return ClassRoots.of(roots);
+        }
+
+        /**
+         * {@return a finder for the classes of the platform the processor is running on} Where the classes processed
+         * run on another platform, use {@link ClassRoots#platform(Path)} with the platform they are compiled against.
+         */
+        static ClassFinder platform() {
+            return ClassRoots.platform();
+        }
+    }
+
     public static VisitingProcessor makeProcessor(ClassVisitor delegate, Set<Type> annotations, @Nullable OutputPathResolver rootPath, @Nullable Set<Path> modifiedExternal) {
-        return new VisitingProcessor(delegate, annotations) {
+        return makeProcessor(delegate, annotations, rootPath, modifiedExternal, null);
+    }
+
+    public static VisitingProcessor makeProcessor(ClassVisitor delegate, Set<Type> annotations, @Nullable OutputPathResolver rootPath, @Nullable Set<Path> modifiedExternal, @Nullable ClassFinder classFinder) {
+        return makeProcessor(delegate, annotations, rootPath, modifiedExternal, classFinder, null);
+    }
+
+    public static VisitingProcessor makeProcessor(ClassVisitor delegate, Set<Type> annotations, @Nullable OutputPathResolver rootPath, @Nullable Set<Path> modifiedExternal, @Nullable ClassFinder classFinder, @Nullable Reporter reporter) {
+        return new VisitingProcessor(delegate, annotations, classFinder, reporter) {
+            @Override
+            protected boolean writeExtension(String internalName, byte[] bytes) throws IOException {
+                if (rootPath == null) {
+                    return false;
+                }
+                var extensionPath = rootPath.resolve(internalName + ".class");
+                Files.createDirectories(extensionPath.getParent());
+                Files.write(extensionPath, bytes);
+                if (modifiedExternal != null) {
+                    modifiedExternal.add(extensionPath);
+                }
+                return true;
+            }
+
             @Override
             protected void writeMixinProviderLines(Map<MixinProviderType, List<String>> lines, Type selfType) throws IOException {
                 if (rootPath != null) {
@@ -250,6 +386,14 @@ private static void generateImpl(String implMethodName, Type selfType, ClassWrit
     }
 
     public static Set<Path> processFile(Path file, Path out, @Nullable OutputPathResolver rootPath) throws IOException {
+        return processFile(file, out, rootPath, null);
+    }
+
+    public static Set<Path> processFile(Path file, Path out, @Nullable OutputPathResolver rootPath, @Nullable ClassFinder classFinder) throws IOException {
+        return processFile(file, out, rootPath, classFinder, null);
+    }
+
+    public static Set<Path> processFile(Path file, Path out, @Nullable OutputPathResolver rootPath, @Nullable ClassFinder classFinder, @Nullable Reporter reporter) throws IOException {
         if (!file.getFileName().toString().endsWith(".class")) {
             Files.copy(file, out, StandardCopyOption.REPLACE_EXISTING);
             return Set.of();
@@ -258,7 +402,7 @@ public static Set<Path> processFile(Path file, Path out, @Nullable OutputPathRes
         try (var inputStream = Files.newInputStream(file)) {
             ClassReader reader = new ClassReader(inputStream);
             ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
-            var processor = makeProcessor(writer, VisitingProcessor.ANNOTATIONS, rootPath, modifiedExternal);
+            var processor = makeProcessor(writer, VisitingProcessor.ANNOTATIONS, rootPath, modifiedExternal, classFinder, reporter);
             try {
                 reader.accept(processor, 0);
             } catch (RuntimeException e) {
@@ -283,20 +427,56 @@ public static Set<Path> processFile(Path file, Path out, @Nullable OutputPathRes
     Map<String, ExtendFieldInfo<Type>> fields = new HashMap<>();
     List<ExtendOverrideInfo<Type>> overrides = new ArrayList<>();
     List<ExtendCtorInfo> ctors = new ArrayList<>();
+    final List<ExtensionPrebuilder.Ctor> prebuiltCtors = new ArrayList<>();
     boolean hasClassInit = false;
     boolean unsafeExtension = false;
+    final List<BatchedOpening> batchedOpenings = new ArrayList<>();
     final AnnotationDependentVisitor delegate;
+    private final @Nullable DirectAccess directAccess;
+    private final @Nullable Reporter reporter;
+    private String nestHost;
 
     public VisitingProcessor(ClassVisitor delegate, Set<Type> annotations) {
+        this(delegate, annotations, null);
+    }
+
+    /**
+     * @param delegate the visitor to write the processed class to
+     * @param annotations the annotations to process
+     * @param classFinder finds the classes visible to the class being processed; without one, openings marked
+     *                    {@link Open#direct()} are never accessed directly
+     */
+    public VisitingProcessor(ClassVisitor delegate, Set<Type> annotations, @Nullable ClassFinder classFinder) {
+        this(delegate, annotations, classFinder, null);
+    }
+
+    /**
+     * @param delegate the visitor to write the processed class to
+     * @param annotations the annotations to process
+     * @param classFinder finds the classes visible to the class being processed; without one, openings marked
+     *                    {@link Open#direct()} are never accessed directly
+     * @param reporter receives warnings about the class being processed; without one, warnings are dropped
+     */
+    public VisitingProcessor(ClassVisitor delegate, Set<Type> annotations, @Nullable ClassFinder classFinder, @Nullable Reporter reporter) {
         super(Opcodes.ASM9, new AnnotationDependentVisitor(Opcodes.ASM9, delegate));
         this.delegate = (AnnotationDependentVisitor) this.getDelegate();
         this.annotationDescriptors = annotations.stream().map(Type::getDescriptor).collect(Collectors.toSet());
+        this.directAccess = classFinder == null ? null : classFinder instanceof RememberingClassFinder remembering ? remembering.directAccess : new DirectAccess(classFinder);
+        this.reporter = reporter;
     }
 
     protected void writeMixinProviderLines(Map<MixinProviderType, List<String>> lines, Type selfType) throws IOException {
 
     }
 
+    /**
+     * Writes an extension class generated ahead of time next to the class being processed.
+     * @return whether the class was written; if not, the extension is generated at runtime instead
+     */
+    protected boolean writeExtension(String internalName, byte[] bytes) throws IOException {
+        return false;
+    }
+
     final List<Runnable> extendCallbacks = new ArrayList<>();
 
     @Override
@@ -406,19 +586,26 @@ public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
     @Override
     public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
         type = Type.getObjectType(name);
+        nestHost = name;
         if ((access & Opcodes.ACC_INTERFACE) != 0) {
             isInterface = true;
         }
         super.visit(version, access, name, signature, superName, interfaces);
     }
 
+    @Override
+    public void visitNestHost(String nestHost) {
+        this.nestHost = nestHost;
+        super.visitNestHost(nestHost);
+    }
+
     private boolean skip(String name) {
-        return name.equals(Processor.EXTEND_INFO_GENERATED) || name.equals(Processor.EXTEND_GENERATED_CLASS);
+        return name.startsWith(Processor.OPENINGS_GENERATED) || (isExtension && (name.equals(Processor.EXTEND_INFO_GENERATED) || name.equals(Processor.EXTEND_GENERATED_CLASS) || name.equals(Processor.EXTEND_PREBUILT)));
     }
 
     @Override
     public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
-        if (!ending && isExtension && skip(name)) {
+        if (!ending && skip(name)) {
             return new FieldNode(access, name, descriptor, signature, value);
         }
 
@@ -427,7 +614,7 @@ public FieldVisitor visitField(int access, String name, String descriptor, Strin
 
     @Override
     public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
-        if (!ending && isExtension && skip(name)) {
+        if (!ending && skip(name)) {
             return new MethodNode(access, name, descriptor, signature, exceptions);
         }
 
@@ -534,6 +721,61 @@ public boolean unsafe(Annotation annotation) {
         return false;
     }
 
+    @Override
+    public boolean direct(Annotation annotation) {
+        if (annotation.literals.containsKey("direct")) {
+            return (boolean) annotation.literals.get("direct");
+        }
+        return false;
+    }
+
+    @Override
+    public boolean constant(Annotation annotation) {
+        if (annotation.literals.containsKey("constant")) {
+            return (boolean) annotation.literals.get("constant");
+        }
+        return true;
+    }
+
+    @Override
+    public VarHandle.@Nullable AccessMode accessMode(Annotation annotation) {
+        if (annotation.enums.containsKey("accessMode")) {
+            return VarHandle.AccessMode.valueOf(annotation.enums.get("accessMode").value());
+        }
+        return null;
+    }
+
+    @Override
+    public boolean lambda(Annotation annotation) {
+        if (annotation.literals.containsKey("lambda")) {
+            return (boolean) annotation.literals.get("lambda");
+        }
+        return false;
+    }
+
+    @Override
+    public boolean handle(Annotation annotation) {
+        if (annotation.literals.containsKey("handle")) {
+            return (boolean) annotation.literals.get("handle");
+        }
+        return false;
+    }
+
+    @Override
+    public boolean exact(Annotation annotation) {
+        if (annotation.literals.containsKey("exact")) {
+            return (boolean) annotation.literals.get("exact");
+        }
+        return false;
+    }
+
+    @Override
+    public void warn(Method method, String message) {
+        if (reporter != null) {
+            reporter.warn(method.declaringClass.getClassName(), message);
+        }
+    }
+
     @Override
     public Type returnType(Method method) {
         return method.returnType;
@@ -655,8 +897,26 @@ public record EnumConstant(Type type, String value) {}
 
     @Override
     public void visitEnd() {
+        if (!batchedOpenings.isEmpty()) {
+            ending = true;
+            this.openingsBytecode(
+                    new ASMClassAccumulator(this).visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC, Processor.openingsName(type.getInternalName()), MethodType.methodType(Object[].class).toMethodDescriptorString(), null, null),
+                    batchedOpenings
+            );
+        }
         if (isExtension) {
             ending = true;
+            String prebuiltName = null;
+            if (directAccess != null) {
+                var bytes = new ExtensionPrebuilder(directAccess, conDynUtils()).generate(type, extendTargetClassHandle, fields.values(), overrides, prebuiltCtors, this::remapMethodName);
+                try {
+                    if (bytes != null && writeExtension(type.getInternalName() + Processor.EXTEND_PREBUILT_CLASS, bytes)) {
+                        prebuiltName = type.getClassName() + Processor.EXTEND_PREBUILT_CLASS;
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
             this.extensionBytecode(
                     new ASMClassAccumulator(this),
                     ctors,
@@ -665,7 +925,8 @@ public void visitEnd() {
                     !hasClassInit,
                     overrides,
                     type,
-                    this::remapMethodName
+                    this::remapMethodName,
+                    prebuiltName
             );
         }
         if (!unFinalLines.isEmpty() || !exposeToOverrideLines.isEmpty()) {
@@ -933,10 +1194,11 @@ private void handleConstructor() {
                     mixinProviderLine(new CoercedDescriptor<>(superCtorTypes, voidType), "<init>", exposeToOverrideLines);
                 }
 
-                Object superCtorType = conDynUtils().conDynMethodType(voidType.constantDynamic(), superCtorTypes.stream().<Object>map(ConDynUtils.TypedDynamic::constantDynamic).toList());
-                Object ctorType = conDynUtils().conDynMethodType(voidType.constantDynamic(), this.parameterTypes.stream().<Object>map(t -> conDynUtils().conDynFromClass(t).constantDynamic()).toList());
+                Object superCtorType = conDynUtils().conDynMethodType(voidType, superCtorTypes);
+                Object ctorType = conDynUtils().conDynMethodType(voidType, this.parameterTypes.stream().map(conDynUtils()::conDynFromClass).toList());
 
                 ctors.add(new ExtendCtorInfo(ctorType, superCtorType, fieldNames));
+                prebuiltCtors.add(new ExtensionPrebuilder.Ctor(Type.getMethodType(Type.VOID_TYPE, this.parameterTypes.toArray(Type[]::new)), superCtorTypes, fieldNames));
 
                 int j = 0;
                 for (Type parameterType : this.parameterTypes) {
@@ -951,7 +1213,7 @@ private void handleConstructor() {
                                 Opcodes.H_INVOKESTATIC,
                                 Type.getInternalName(OpeningMetafactory.class),
                                 unsafeExtension ? "makeOpenClassUnsafe" : "makeOpenClass",
-                                MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, MethodHandle.class, MethodHandle.class, MethodHandle.class, MethodHandle.class).toMethodDescriptorString(),
+                                MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, MethodHandle.class, MethodHandle.class, MethodHandle.class, MethodHandle.class, MethodHandle.class).toMethodDescriptorString(),
                                 false
                         ),
                         extendTargetClassHandle.constantDynamic(),
@@ -973,7 +1235,14 @@ private void handleConstructor() {
                                 Opcodes.H_INVOKESTATIC,
                                 type.getInternalName(),
                                 Processor.EXTEND_INFO_GENERATED,
-                                MethodType.methodType(List.class, ClassLoader.class).toMethodDescriptorString(),
+                                MethodType.methodType(Object[].class, ClassLoader.class).toMethodDescriptorString(),
+                                true
+                        ),
+                        new Handle(
+                                Opcodes.H_INVOKESTATIC,
+                                type.getInternalName(),
+                                Processor.EXTEND_PREBUILT,
+                                MethodType.methodType(String.class).toMethodDescriptorString(),
                                 true
                         )
                 );
@@ -996,20 +1265,11 @@ private void handleConstructor() {
         private void handleOpen() {
             Opening<Type> opening = opening(this);
 
-            if (!isStatic) {
-                super.visitVarInsn(Opcodes.ALOAD, 0);
-            }
-
-            int j = 0;
-            for (Type parameterType : this.parameterTypes) {
-                super.visitVarInsn(parameterType.getOpcode(Opcodes.ILOAD), isStatic ? j : j + 1);
-                j += parameterType.getSize();
-            }
-
-            var methodType = opening.type().ordinal();
+            var methodType = opening.metafactoryType();
 
             String remappedName;
-            if (opening.targetType() == null || opening.returnType() == null || opening.parameterTypes().stream().anyMatch(Objects::isNull)) {
+            // The member implementing a lambda, or whose handle is returned, is only known at runtime, and is remapped there
+            if (opening.lambda() || opening.handle() || opening.targetType() == null || opening.returnType() == null || opening.parameterTypes().stream().anyMatch(Objects::isNull)) {
                 remappedName = opening.name();
             } else {
                 remappedName = switch (opening.type()) {
@@ -1039,42 +1299,43 @@ yield remapMethodName(
                             opening.name(),
                             opening.parameterTypes().get(opening.parameterTypes().size()-1)
                     );
+                    case ACCESS_STATIC, ACCESS_INSTANCE -> {
+                        var fieldType = opening.accessedFieldType();
+                        yield fieldType == null ? opening.name() : remapFieldName(
+                                opening.targetType(),
+                                opening.name(),
+                                fieldType
+                        );
+                    }
                     case CONSTRUCT -> CTOR_DUMMY;
-                    case ARRAY -> opening.name();
+                    // Views are of several fields, named by the components of a record, so are remapped at runtime
+                    case ARRAY, GET_VIEW, SET_VIEW, INSTANCE_OF, CAST -> opening.name();
                 };
             }
 
-            super.visitInvokeDynamicInsn(
-                    remappedName,
-                    opening.factoryType().getDescriptor(),
-                    new Handle(
-                            Opcodes.H_INVOKESTATIC,
-                            Type.getInternalName(OpeningMetafactory.class),
-                            opening.unsafe() ? "invokeUnsafe" : "invoke",
-                            MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, MethodHandle.class, MethodHandle.class, int.class).toMethodDescriptorString(),
-                            false
-                    ),
-                    opening.targetProvider(),
-                    opening.methodTypeProvider(),
-                    methodType
-            );
-
-            if (opening.factoryType().getReturnType().getSort() != Type.VOID) {
-                super.visitInsn(opening.factoryType().getReturnType().getOpcode(Opcodes.IRETURN));
-            } else {
-                super.visitInsn(Opcodes.RETURN);
+            DirectAccess.Target directTarget = null;
+            if (opening.direct() && directAccess != null) {
+                directTarget = directAccess.find(type, nestHost, opening.targetType(), opening.type(), remappedName, directDescriptor(opening));
             }
 
             int parametersSize = 0;
             for (Type parameterType : this.parameterTypes) {
                 parametersSize += parameterType.getSize();
             }
-            super.visitMaxs(Math.max(2, parametersSize + (isStatic ? 0 : 1)), parametersSize + (isStatic ? 0 : 1));
+            int localsSize = parametersSize + (isStatic ? 0 : 1);
+
+            if (directTarget != null) {
+                visitDirect(opening, remappedName, directTarget);
+                super.visitMaxs(Math.max(3, localsSize + 2), localsSize);
+            } else {
+                visitOpening(opening, remappedName, methodType);
+                super.visitMaxs(Math.max(2, localsSize), localsSize);
+            }
             super.visitEnd();
 
             if (annotations.get(UNFINAL.getDescriptor()) != null) {
                 String line;
-                if (opening.targetType() == null || opening.returnType() == null || opening.parameterTypes().stream().anyMatch(Objects::isNull)) {
+                if (opening.lambda() || opening.handle() || opening.targetType() == null || opening.returnType() == null || opening.parameterTypes().stream().anyMatch(Objects::isNull)) {
                     line = null;
                 } else {
                     line = switch (opening.type()) {
@@ -1096,6 +1357,198 @@ yield remapMethodName(
 
             this.mv = null;
         }
+
+        private void loadParameters() {
+            if (!isStatic) {
+                super.visitVarInsn(Opcodes.ALOAD, 0);
+            }
+
+            int j = 0;
+            for (Type parameterType : this.parameterTypes) {
+                super.visitVarInsn(parameterType.getOpcode(Opcodes.ILOAD), isStatic ? j : j + 1);
+                j += parameterType.getSize();
+            }
+        }
+
+        private void visitOpening(Opening<Type> opening, String remappedName, int methodType) {
+            loadParameters();
+
+            if (batchedOpenings.size() < Processor.OPENINGS_BATCH_LIMIT) {
+                int index = batchedOpenings.size();
+                batchedOpenings.add(new BatchedOpening(
+                        remappedName,
+                        opening.factoryType(),
+                        opening.targetProvider(),
+                        opening.methodTypeProvider(),
+                        methodType,
+                        opening.unsafe()
+                ));
+                super.visitInvokeDynamicInsn(
+                        remappedName,
+                        opening.factoryType().getDescriptor(),
+                        new Handle(
+                                Opcodes.H_INVOKESTATIC,
+                                Type.getInternalName(OpeningMetafactory.class),
+                                opening.unsafe() ? "invokeBatchUnsafe" : "invokeBatch",
+                                MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, MethodHandle.class, MethodHandle.class, int.class, MethodHandle.class, int.class).toMethodDescriptorString(),
+                                false
+                        ),
+                        opening.targetProvider(),
+                        opening.methodTypeProvider(),
+                        methodType,
+                        new Handle(
+                                Opcodes.H_INVOKESTATIC,
+                                type.getInternalName(),
+                                Processor.openingsName(type.getInternalName()),
+                                MethodType.methodType(Object[].class).toMethodDescriptorString(),
+                                isInterface
+                        ),
+                        index
+                );
+            } else {
+                super.visitInvokeDynamicInsn(
+                        remappedName,
+                        opening.factoryType().getDescriptor(),
+                        new Handle(
+                                Opcodes.H_INVOKESTATIC,
+                                Type.getInternalName(OpeningMetafactory.class),
+                                opening.unsafe() ? "invokeUnsafe" : "invoke",
+                                MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, MethodHandle.class, MethodHandle.class, int.class).toMethodDescriptorString(),
+                                false
+                        ),
+                        opening.targetProvider(),
+                        opening.methodTypeProvider(),
+                        methodType
+                );
+            }
+
+            if (opening.factoryType().getReturnType().getSort() != Type.VOID) {
+                super.visitInsn(opening.factoryType().getReturnType().getOpcode(Opcodes.IRETURN));
+            } else {
+                super.visitInsn(Opcodes.RETURN);
+            }
+        }
+
+        private void visitDirect(Opening<Type> opening, String remappedName, DirectAccess.Target target) {
+            Type owner = opening.targetType();
+            String descriptor = directDescriptor(opening);
+            boolean takesInstance = opening.type() == Open.Type.VIRTUAL || opening.type() == Open.Type.GET_INSTANCE || opening.type() == Open.Type.SET_INSTANCE;
+
+            Label start = new Label();
+            Label end = new Label();
+            Label handler = new Label();
+            super.visitTryCatchBlock(start, end, handler, Type.getInternalName(IncompatibleClassChangeError.class));
+            super.visitLabel(start);
+
+            if (opening.type() == Open.Type.CONSTRUCT) {
+                super.visitTypeInsn(Opcodes.NEW, owner.getInternalName());
+                super.visitInsn(Opcodes.DUP);
+            }
+            int local = 0;
+            if (!isStatic) {
+                super.visitVarInsn(Opcodes.ALOAD, 0);
+                local++;
+                if (takesInstance && !declaringClass.equals(owner)) {
+                    super.visitTypeInsn(Opcodes.CHECKCAST, owner.getInternalName());
+                }
+            }
+            for (int i = 0; i < this.parameterTypes.size(); i++) {
+                Type parameterType = this.parameterTypes.get(i);
+                super.visitVarInsn(parameterType.getOpcode(Opcodes.ILOAD), local);
+                local += parameterType.getSize();
+                // The receiver is cast to the target, as the metafactory would
+                if (isStatic && i == 0 && takesInstance && !parameterType.equals(owner)) {
+                    super.visitTypeInsn(Opcodes.CHECKCAST, owner.getInternalName());
+                }
+            }
+
+            String member = owner.getClassName() + "." + remappedName + descriptor;
+            switch (opening.type()) {
+                case STATIC -> super.visitMethodInsn(Opcodes.INVOKESTATIC, owner.getInternalName(), remappedName, descriptor, target.isInterface());
+                case VIRTUAL -> super.visitMethodInsn(target.isInterface() ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, owner.getInternalName(), remappedName, descriptor, target.isInterface());
+                case GET_STATIC -> super.visitFieldInsn(Opcodes.GETSTATIC, owner.getInternalName(), remappedName, descriptor);
+                case GET_INSTANCE -> super.visitFieldInsn(Opcodes.GETFIELD, owner.getInternalName(), remappedName, descriptor);
+                case SET_STATIC -> super.visitFieldInsn(Opcodes.PUTSTATIC, owner.getInternalName(), remappedName, descriptor);
+                case SET_INSTANCE -> super.visitFieldInsn(Opcodes.PUTFIELD, owner.getInternalName(), remappedName, descriptor);
+                case CONSTRUCT -> {
+                    member = owner.getClassName() + ".<init>" + descriptor;
+                    super.visitMethodInsn(Opcodes.INVOKESPECIAL, owner.getInternalName(), "<init>", descriptor, false);
+                }
+                case ARRAY -> {
+                    member = owner.getClassName() + "[]";
+                    if (owner.getSort() == Type.OBJECT || owner.getSort() == Type.ARRAY) {
+                        super.visitTypeInsn(Opcodes.ANEWARRAY, owner.getInternalName());
+                    } else {
+                        super.visitIntInsn(Opcodes.NEWARRAY, newArrayOperand(owner));
+                    }
+                }
+                default -> throw new IllegalStateException("Unexpected direct opening type " + opening.type());
+            }
+            super.visitLabel(end);
+
+            if (opening.factoryType().getReturnType().getSort() != Type.VOID) {
+                super.visitInsn(opening.factoryType().getReturnType().getOpcode(Opcodes.IRETURN));
+            } else {
+                super.visitInsn(Opcodes.RETURN);
+            }
+
+            super.visitLabel(handler);
+            List<Object> locals = new ArrayList<>();
+            if (!isStatic) {
+                locals.add(declaringClass.getInternalName());
+            }
+            for (Type parameterType : this.parameterTypes) {
+                locals.add(frameType(parameterType));
+            }
+            super.visitFrame(Opcodes.F_FULL, locals.size(), locals.toArray(), 1, new Object[] {Type.getInternalName(IncompatibleClassChangeError.class)});
+            super.visitLdcInsn(declaringClass);
+            super.visitLdcInsn(member);
+            super.visitMethodInsn(
+                    Opcodes.INVOKESTATIC,
+                    Type.getInternalName(OpeningMetafactory.class),
+                    "directAccessFailed",
+                    MethodType.methodType(IncompatibleClassChangeError.class, IncompatibleClassChangeError.class, Class.class, String.class).toMethodDescriptorString(),
+                    false
+            );
+            super.visitInsn(Opcodes.ATHROW);
+        }
+    }
+
+    private static String directDescriptor(Opening<Type> opening) {
+        var parameterTypes = opening.parameterTypes();
+        return switch (opening.type()) {
+            case STATIC -> Type.getMethodDescriptor(opening.returnType(), parameterTypes.toArray(Type[]::new));
+            case VIRTUAL, SPECIAL -> Type.getMethodDescriptor(opening.returnType(), parameterTypes.subList(1, parameterTypes.size()).toArray(Type[]::new));
+            case GET_STATIC, GET_INSTANCE -> opening.returnType().getDescriptor();
+            case SET_STATIC, SET_INSTANCE -> parameterTypes.get(parameterTypes.size() - 1).getDescriptor();
+            case CONSTRUCT -> Type.getMethodDescriptor(Type.VOID_TYPE, parameterTypes.toArray(Type[]::new));
+            case ARRAY -> opening.targetType().getDescriptor();
+            case ACCESS_STATIC, ACCESS_INSTANCE, GET_VIEW, SET_VIEW, INSTANCE_OF, CAST -> throw new IllegalStateException("Unexpected direct opening type " + opening.type());
+        };
+    }
+
+    private static Object frameType(Type type) {
+        return switch (type.getSort()) {
+            case Type.BOOLEAN, Type.BYTE, Type.CHAR, Type.SHORT, Type.INT -> Opcodes.INTEGER;
+            case Type.FLOAT -> Opcodes.FLOAT;
+            case Type.LONG -> Opcodes.LONG;
+            case Type.DOUBLE -> Opcodes.DOUBLE;
+            default -> type.getInternalName();
+        };
+    }
+
+    private static int newArrayOperand(Type type) {
+        return switch (type.getSort()) {
+            case Type.BOOLEAN -> Opcodes.T_BOOLEAN;
+            case Type.CHAR -> Opcodes.T_CHAR;
+            case Type.FLOAT -> Opcodes.T_FLOAT;
+            case Type.DOUBLE -> Opcodes.T_DOUBLE;
+            case Type.BYTE -> Opcodes.T_BYTE;
+            case Type.SHORT -> Opcodes.T_SHORT;
+            case Type.INT -> Opcodes.T_INT;
+            case Type.LONG -> Opcodes.T_LONG;
+            default -> throw new IllegalArgumentException("Not a primitive type: " + type);
+        };
     }
 
     private Type remapType(Type type) {
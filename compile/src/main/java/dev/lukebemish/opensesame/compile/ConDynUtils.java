@@ -16,7 +16,17 @@ public ConDynUtils(TypeProvider<T, CD, H> types) {
         this.types = types;
     }
 
-    public record TypedDynamic<CD, T>(CD constantDynamic, @Nullable T type) {}
+    /**
+     * A dynamic constant providing a class, along with the type of that class where known.
+     * @param constantDynamic a constant providing a method handle that takes a classloader and returns the class
+     * @param type the type of the class, if known ahead of time
+     * @param constant whether the class is the {@code type} exactly, loadable as a constant from the class holding it
+     */
+    public record TypedDynamic<CD, T>(CD constantDynamic, @Nullable T type, boolean constant) {
+        public TypedDynamic(CD constantDynamic, @Nullable T type) {
+            this(constantDynamic, type, false);
+        }
+    }
 
     public CD invoke(String descriptor, Object handle, Object... args) {
         Object[] fullArgs = new Object[args.length+1];
@@ -52,66 +62,52 @@ public CD booleanConstant(boolean bool) {
         );
     }
 
-    public CD conDynMethodType(Object returnType, List<Object> parameterTypes) {
-        var fixedArityMethodType = invoke(
-                MethodHandle.class.descriptorString(),
-                types.handle(
-                    Opcodes.H_INVOKEVIRTUAL,
-                    types.internalName(MethodHandle.class),
-                    "asCollector",
-                    MethodType.methodType(MethodHandle.class, Class.class, int.class).descriptorString(),
-                    false
-                ),
+    public CD arrayVarHandle(T arrayType) {
+        return types.constantDynamic(
+                "arrayVarHandle",
+                VarHandle.class.descriptorString(),
                 types.handle(
-                    Opcodes.H_INVOKESTATIC,
-                    types.internalName(MethodType.class),
-                    "methodType",
-                    MethodType.methodType(MethodType.class, Class.class, Class[].class).descriptorString(),
-                    false
+                        Opcodes.H_INVOKESTATIC,
+                        types.internalName(ConstantBootstraps.class),
+                        "arrayVarHandle",
+                        MethodType.methodType(VarHandle.class, MethodHandles.Lookup.class, String.class, Class.class, Class.class).descriptorString(),
+                        false
                 ),
-                types.type(Class[].class),
-                parameterTypes.size()
+                arrayType
         );
+    }
 
-        Object[] args = new Object[parameterTypes.size() + 3];
-        args[0] = fixedArityMethodType;
-        args[1] = 0;
-        args[2] = returnType;
+    public CD conDynMethodType(Object returnType, List<Object> parameterTypes) {
+        Object[] args = new Object[parameterTypes.size() + 1];
+        args[0] = returnType;
         for (int i = 0; i < parameterTypes.size(); i++) {
-            args[i+3] = parameterTypes.get(i);
+            args[i+1] = parameterTypes.get(i);
         }
 
-        var manyClassloaderArg = invoke(
+        return types.constantDynamic(
+                "accessType",
                 MethodHandle.class.descriptorString(),
                 types.handle(
                         Opcodes.H_INVOKESTATIC,
-                        types.internalName(MethodHandles.class),
-                        "filterArguments",
-                        MethodType.methodType(MethodHandle.class, MethodHandle.class, int.class, MethodHandle[].class).descriptorString(),
+                        types.internalName(OpeningMetafactory.class),
+                        "accessType",
+                        MethodType.methodType(MethodHandle.class, MethodHandles.Lookup.class, String.class, Class.class, MethodHandle.class, MethodHandle[].class).descriptorString(),
                         false
                 ),
                 args
         );
+    }
 
-        Object[] parameterPermutations = new Object[parameterTypes.size() + 3];
-        parameterPermutations[0] = manyClassloaderArg;
-        parameterPermutations[1] = types.methodType(MethodType.class.descriptorString(), ClassLoader.class.descriptorString());
-
-        for (int i = 0; i < parameterTypes.size() + 1; i++) {
-            parameterPermutations[i + 2] = 0;
+    public CD conDynMethodType(TypedDynamic<?, T> returnType, List<? extends TypedDynamic<?, T>> parameterTypes) {
+        if (returnType.constant() && parameterTypes.stream().allMatch(TypedDynamic::constant)) {
+            // Every type can be named by the class holding the constant, so the method type can be loaded directly
+            String[] parameterDescriptors = new String[parameterTypes.size()];
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                parameterDescriptors[i] = types.descriptor(parameterTypes.get(i).type());
+            }
+            return conDynFromConstant(types.type(MethodType.class), types.methodType(types.descriptor(returnType.type()), parameterDescriptors));
         }
-
-        return invoke(
-                MethodHandle.class.descriptorString(),
-                types.handle(
-                        Opcodes.H_INVOKESTATIC,
-                        types.internalName(MethodHandles.class),
-                        "permuteArguments",
-                        MethodType.methodType(MethodHandle.class, MethodHandle.class, MethodType.class, int[].class).descriptorString(),
-                        false
-                ),
-                parameterPermutations
-        );
+        return conDynMethodType(returnType.constantDynamic(), parameterTypes.stream().<Object>map(TypedDynamic::constantDynamic).toList());
     }
 
     public TypedDynamic<CD, T> conDynFromFunction(T targetFunction, String targetName) {
@@ -239,7 +235,11 @@ public Object classConstant(T type) {
     public TypedDynamic<CD, T> conDynFromClass(T targetTypeType) {
         Object targetType = classConstant(targetTypeType);
 
-        return new TypedDynamic<>(invoke(
+        return new TypedDynamic<>(conDynFromConstant(types.type(Class.class), targetType), targetTypeType, true);
+    }
+
+    private CD conDynFromConstant(T constantType, Object constant) {
+        return invoke(
                 MethodHandle.class.descriptorString(),
                 types.handle(
                         Opcodes.H_INVOKESTATIC,
@@ -257,12 +257,12 @@ public TypedDynamic<CD, T> conDynFromClass(T targetTypeType) {
                                 MethodType.methodType(MethodHandle.class, Class.class, Object.class).descriptorString(),
                                 false
                         ),
-                        types.type(Class.class),
-                        targetType
+                        constantType,
+                        constant
                 ),
                 0,
                 types.type(ClassLoader.class)
-        ), targetTypeType);
+        );
     }
 
     public TypedDynamic<CD, T> conDynFromName(String targetName, Function<String, String> classNameRemapper) {
@@ -0,0 +1,124 @@
+package dev.lukebemish.opensesame.compile;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.module.ModuleDescriptor;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+/**
+ * Tells which packages of modules are exported to every module. Classes in other packages of a named module cannot be
+ * accessed from outside it with plain bytecode instructions, whatever their access flags say.
+ */
+public final class ModuleExports {
+    private static final Map<String, Boolean> PLATFORM_PACKAGES = platformPackages();
+
+    private ModuleExports() {}
+
+    /**
+     * {@return whether a package belongs to a module of the platform the processor is running on that does not export
+     * it to every module} Only suited to compilers that compile against the platform they run on, such as Groovy's.
+     * @param packageName the name of the package, separated by dots
+     */
+    public static boolean isEncapsulated(String packageName) {
+        return !PLATFORM_PACKAGES.getOrDefault(packageName, true);
+    }
+
+    /**
+     * {@return whether a module exports a package to every module} Automatic modules export all of their packages.
+     * @param descriptor the module
+     * @param packageName the name of the package, separated by dots
+     */
+    public static boolean exports(ModuleDescriptor descriptor, String packageName) {
+        if (descriptor.isAutomatic()) {
+            return true;
+        }
+        for (var exports : descriptor.exports()) {
+            if (!exports.isQualified() && exports.source().equals(packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return the descriptor of the module in a directory of classes or a jar, or {@code null} if it holds none}
+     * Multi-release jars are searched for versioned descriptors as well, as the platform the classes run on may pick
+     * one of those.
+     * @param root the directory or jar
+     * @throws IOException if the descriptor could not be read
+     */
+    public static @Nullable ModuleDescriptor read(Path root) throws IOException {
+        if (Files.isDirectory(root)) {
+            var file = root.resolve("module-info.class");
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            try (var stream = Files.newInputStream(file)) {
+                return ModuleDescriptor.read(stream);
+            }
+        }
+        try (var jar = new ZipFile(root.toFile())) {
+            return read(jar);
+        }
+    }
+
+    /**
+     * {@return the descriptor of the module in a jar, or {@code null} if it holds none}
+     * @param jar the jar
+     * @throws IOException if the descriptor could not be read
+     * @see #read(Path)
+     */
+    public static @Nullable ModuleDescriptor read(ZipFile jar) throws IOException {
+        var entry = jar.getEntry("module-info.class");
+        if (entry == null) {
+            int version = -1;
+            var entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                var name = entries.nextElement().getName();
+                if (name.startsWith("META-INF/versions/") && name.endsWith("/module-info.class")) {
+                    try {
+                        int found = Integer.parseInt(name.substring("META-INF/versions/".length(), name.length() - "/module-info.class".length()));
+                        if (found > version) {
+                            version = found;
+                            entry = jar.getEntry(name);
+                        }
+                    } catch (NumberFormatException ignored) {
+                        // Not a versioned entry
+                    }
+                }
+            }
+            if (entry == null) {
+                return null;
+            }
+        }
+        try (InputStream stream = jar.getInputStream(entry)) {
+            return ModuleDescriptor.read(stream);
+        }
+    }
+
+    private static Map<String, Boolean> platformPackages() {
+        Map<String, Boolean> packages = new HashMap<>();
+        var platformLoader = ClassLoader.getPlatformClassLoader();
+        for (var module : ModuleLayer.boot().modules()) {
+            if (module.getClassLoader() != null && module.getClassLoader() != platformLoader) {
+                continue;
+            }
+            var descriptor = module.getDescriptor();
+            for (var name : descriptor.packages()) {
+                packages.put(name, false);
+            }
+            for (var exports : descriptor.exports()) {
+                if (!exports.isQualified()) {
+                    packages.put(exports.source(), true);
+                }
+            }
+        }
+        return packages;
+    }
+}
@@ -20,13 +20,13 @@ private Opcodes() {}
 
     public static final int GETSTATIC = 178;
     public static final int DUP = 89;
-    public static final int MONITORENTER = 194;
-    public static final int MONITOREXIT = 195;
+    public static final int ACONST_NULL = 1;
     public static final int ICONST_0 = 3;
     public static final int ALOAD = 25;
     public static final int ARETURN = 176;
     public static final int RETURN = 177;
     public static final int INVOKESTATIC = 184;
+    public static final int INVOKEVIRTUAL = 182;
     public static final int NEW = 187;
     public static final int INVOKESPECIAL = 183;
     public static final int INVOKEINTERFACE = 185;
@@ -2,14 +2,18 @@
 
 import dev.lukebemish.opensesame.annotations.Coerce;
 import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.runtime.OpeningMetafactory;
 import org.jetbrains.annotations.Nullable;
 
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
 
 public interface Processor<T, A, M> {
     TypeProvider<T, ?, ?> types();
@@ -18,7 +22,42 @@
     ConDynUtils.TypedDynamic<?, T> typeProviderFromAnnotation(A annotation, Object context, Class<?> annotationType);
 
     record CoercedDescriptor<T>(List<ConDynUtils.TypedDynamic<?, T>> parameterTypes, ConDynUtils.TypedDynamic<?, T> returnType) {}
-    record Opening<T>(T factoryType, Object targetProvider, Object methodTypeProvider, @Nullable T targetType, @Nullable T returnType, List<@Nullable T> parameterTypes, Open.Type type, String name, boolean unsafe) {}
+    record Opening<T>(T factoryType, Object targetProvider, Object methodTypeProvider, @Nullable T targetType, @Nullable T returnType, List<@Nullable T> parameterTypes, Open.Type type, String name, boolean unsafe, boolean direct, boolean constant, VarHandle.@Nullable AccessMode accessMode, boolean lambda, boolean handle, boolean exact) {
+        /**
+         * {@return the type of opening to pass to {@link OpeningMetafactory}, with any flags}
+         */
+        public int metafactoryType() {
+            int metafactoryType = constant ? type.ordinal() : type.ordinal() | OpeningMetafactory.NO_CONSTANT_FLAG;
+            if (accessMode != null) {
+                metafactoryType |= accessMode.ordinal() << OpeningMetafactory.ACCESS_MODE_SHIFT;
+            }
+            if (lambda) {
+                metafactoryType |= OpeningMetafactory.LAMBDA_FLAG;
+            }
+            if (handle) {
+                metafactoryType |= OpeningMetafactory.HANDLE_FLAG;
+            }
+            if (exact) {
+                metafactoryType |= OpeningMetafactory.EXACT_FLAG;
+            }
+            return metafactoryType;
+        }
+
+        /**
+         * {@return the type of the field accessed by an opening of {@link Open.Type#ACCESS_STATIC} or
+         * {@link Open.Type#ACCESS_INSTANCE}} Modes that set the field without returning its value take the value, or the
+         * expected value, after the coordinates; the rest return it.
+         */
+        public @Nullable T accessedFieldType() {
+            int coordinates = type == Open.Type.ACCESS_INSTANCE ? 1 : 0;
+            return switch (Objects.requireNonNull(accessMode)) {
+                case SET, SET_VOLATILE, SET_RELEASE, SET_OPAQUE, COMPARE_AND_SET, WEAK_COMPARE_AND_SET_PLAIN,
+                        WEAK_COMPARE_AND_SET, WEAK_COMPARE_AND_SET_ACQUIRE, WEAK_COMPARE_AND_SET_RELEASE ->
+                        parameterTypes.size() > coordinates ? parameterTypes.get(coordinates) : null;
+                default -> returnType;
+            };
+        }
+    }
     record ExtendFieldInfo<T>(String name, T type, boolean isFinal, List<String> setters, List<String> getters) {
         public ExtendFieldInfo(String name, T type, boolean isFinal) {
             this(name, type, isFinal, new ArrayList<>(), new ArrayList<>());
@@ -35,6 +74,19 @@ record ExtendCtorInfo(Object ctorType, Object superCtorType, List<String> fields
     Open.Type type(A annotation);
     @Nullable String name(A annotation);
     boolean unsafe(A annotation);
+    boolean direct(A annotation);
+    boolean constant(A annotation);
+    VarHandle.@Nullable AccessMode accessMode(A annotation);
+    boolean lambda(A annotation);
+    boolean handle(A annotation);
+    boolean exact(A annotation);
+
+    /**
+     * Reports a problem with a method that does not prevent it from being processed.
+     * @param method the method at fault
+     * @param message the problem
+     */
+    void warn(M method, String message);
 
     T returnType(M method);
     boolean isStatic(M method);
@@ -93,6 +145,8 @@ default Opening<T> opening(M method) {
             name = "$dev$lukebemish$opensesame$$unspecified";
         }
         final Open.Type type = type(annotation);
+        final boolean lambda = lambda(annotation);
+        final boolean handle = handle(annotation);
 
         CoercedDescriptor<T> descriptor = coercedDescriptor(method);
         List<ConDynUtils.TypedDynamic<?, T>> parameterTypes = descriptor.parameterTypes();
@@ -103,7 +157,7 @@ default Opening<T> opening(M method) {
         T asmDescType = methodType(method);
 
         if (!isStatic(method)) {
-            var takesInstance = (type == Open.Type.GET_INSTANCE || type == Open.Type.SET_INSTANCE || type == Open.Type.VIRTUAL || type == Open.Type.SPECIAL);
+            var takesInstance = (type == Open.Type.GET_INSTANCE || type == Open.Type.SET_INSTANCE || type == Open.Type.VIRTUAL || type == Open.Type.SPECIAL || type == Open.Type.ACCESS_INSTANCE || type == Open.Type.GET_VIEW || type == Open.Type.SET_VIEW);
 
             if (!takesInstance) {
                 throw new RuntimeException("Method " + methodName(method) + " is not static, but "+Open.class.getSimpleName()+" expects a static context");
@@ -123,11 +177,27 @@ default Opening<T> opening(M method) {
             parameterTypes.add(0, targetClassHandle);
         }
 
-        if (type == Open.Type.CONSTRUCT) {
+        // Constructors and casts return the target; a lambda's factory returns the interface it implements instead
+        if ((type == Open.Type.CONSTRUCT && !lambda || type == Open.Type.CAST) && !handle) {
             returnType = targetClassHandle;
         }
 
-        if (type == Open.Type.ARRAY) {
+        if (handle) {
+            if (!parameterTypes.isEmpty()) {
+                throw new RuntimeException("Method " + methodName(method) + " returns the handle of its target, so must be static and take no arguments");
+            }
+            boolean accesses = type == Open.Type.ACCESS_STATIC || type == Open.Type.ACCESS_INSTANCE;
+            var handleType = accesses ? VarHandle.class : MethodHandle.class;
+            if (!types().descriptor(types().returnType(asmDescType)).equals(handleType.descriptorString())) {
+                throw new RuntimeException("Method " + methodName(method) + " returns the handle of its target, so must return "+handleType.getSimpleName());
+            }
+        } else if (type == Open.Type.ARRAY && targetClassHandle.constant()) {
+            returnType = conDynUtils().conDynFromClass(types().makeArray(targetClassHandle.type()));
+            if (parameterTypes.size() != 1) {
+                throw new RuntimeException("Array constructor must have exactly one parameter");
+            }
+            parameterTypes.set(0, conDynUtils().conDynFromClass(types().type(int.class)));
+        } else if (type == Open.Type.ARRAY) {
             returnType = new ConDynUtils.TypedDynamic<>(conDynUtils().invoke(
                     MethodHandle.class.descriptorString(),
                     types().handle(
@@ -152,19 +222,154 @@ default Opening<T> opening(M method) {
             parameterTypes.set(0, conDynUtils().conDynFromClass(types().type(int.class)));
         }
 
+        boolean direct = direct(annotation);
+        if (direct) {
+            if (!targetClassHandle.constant()) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened directly, so its target must be given as a class literal");
+            }
+            if (!directTypesMatch(asmDescType, returnType, parameterTypes, type)) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened directly, so it may not use "+Coerce.class.getSimpleName());
+            }
+            if (unsafe(annotation)) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened directly, so it may not be unsafe");
+            }
+            if (type == Open.Type.SPECIAL || type == Open.Type.ACCESS_STATIC || type == Open.Type.ACCESS_INSTANCE || type == Open.Type.GET_VIEW || type == Open.Type.SET_VIEW || type == Open.Type.INSTANCE_OF || type == Open.Type.CAST) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened directly, which is not supported for "+type);
+            }
+        }
+
+        var accessMode = accessMode(annotation);
+        boolean accesses = type == Open.Type.ACCESS_STATIC || type == Open.Type.ACCESS_INSTANCE;
+        if (handle && accessMode != null) {
+            throw new RuntimeException("Method " + methodName(method) + " returns the handle of its target, so may not give an access mode");
+        } else if (!accesses && accessMode != null) {
+            throw new RuntimeException("Method " + methodName(method) + " gives an access mode, which only applies to "+Open.Type.ACCESS_STATIC+" and "+Open.Type.ACCESS_INSTANCE);
+        } else if (accesses && !handle && accessMode == null) {
+            // The default of the annotation, which reads back as absent
+            accessMode = VarHandle.AccessMode.GET;
+        }
+
+        boolean constant = constant(annotation);
+        if (!constant) {
+            if (type != Open.Type.GET_STATIC) {
+                throw new RuntimeException("Method " + methodName(method) + " is not opened as a constant, which only applies to "+Open.Type.GET_STATIC);
+            }
+            if (direct) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened directly, so it is always read as a constant");
+            }
+        }
+
+        if (handle) {
+            if (type == Open.Type.GET_VIEW || type == Open.Type.SET_VIEW || type == Open.Type.INSTANCE_OF || type == Open.Type.CAST) {
+                throw new RuntimeException("Method " + methodName(method) + " returns the handle of its target, which is not supported for "+type);
+            }
+            if (direct) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened directly, so it may not return the handle of its target");
+            }
+            if (lambda) {
+                throw new RuntimeException("Method " + methodName(method) + " returns the handle of its target, so it may not be opened as a lambda");
+            }
+        }
+
+        if (lambda) {
+            if (type != Open.Type.STATIC && type != Open.Type.VIRTUAL && type != Open.Type.CONSTRUCT) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened as a lambda, which is not supported for "+type);
+            }
+            if (direct) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened directly, so it may not be opened as a lambda");
+            }
+        }
+
+        if ((type == Open.Type.INSTANCE_OF || type == Open.Type.CAST) && !handle) {
+            if (parameterTypes.size() != 1 || types().isPrimitiveOrVoid(types().parameterTypes(asmDescType)[0])) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened as "+type+", so it must take exactly one reference argument");
+            }
+            if (type == Open.Type.INSTANCE_OF && !types().descriptor(types().returnType(asmDescType)).equals("Z")) {
+                throw new RuntimeException("Method " + methodName(method) + " is opened as "+type+", so it must return boolean");
+            }
+        }
+
+        boolean exact = exact(annotation);
+        if (!handle) {
+            var conversions = boxingConversions(asmDescType, lambda ? null : returnType, parameterTypes);
+            if (!conversions.isEmpty()) {
+                var message = "Method " + methodName(method) + " boxes or unboxes " + String.join(", ", conversions) + " on every call";
+                if (exact) {
+                    throw new RuntimeException(message + ", but is opened exactly");
+                }
+                warn(method, message);
+            }
+        }
+
         return new Opening<>(
                 asmDescType,
                 targetClassHandle.constantDynamic(),
-                conDynUtils().conDynMethodType(returnType.constantDynamic(), parameterTypes.stream().map(t -> (Object) t.constantDynamic()).toList()),
+                conDynUtils().conDynMethodType(returnType, parameterTypes),
                 targetClassHandle.type(),
                 returnType.type(),
                 parameterTypes.stream().map(ConDynUtils.TypedDynamic::type).toList(),
                 type,
                 name,
-                unsafe(annotation)
+                unsafe(annotation),
+                direct,
+                constant,
+                accessMode,
+                lambda,
+                handle,
+                exact
         );
     }
 
+    /**
+     * {@return descriptions of the arguments, and return value if given, that differ between the method's own type and
+     * the type opened in whether they are primitive} Types only known when linking are skipped.
+     */
+    private List<String> boxingConversions(T methodType, ConDynUtils.@Nullable TypedDynamic<?, T> returnType, List<ConDynUtils.TypedDynamic<?, T>> parameterTypes) {
+        List<String> conversions = new ArrayList<>();
+        T[] methodParameterTypes = types().parameterTypes(methodType);
+        for (int i = 0; i < methodParameterTypes.length && i < parameterTypes.size(); i++) {
+            T parameterType = parameterTypes.get(i).type();
+            if (parameterType != null && boxes(methodParameterTypes[i], parameterType)) {
+                conversions.add("argument " + i + " (" + types().descriptor(methodParameterTypes[i]) + " to " + types().descriptor(parameterType) + ")");
+            }
+        }
+        if (returnType != null && returnType.type() != null && boxes(returnType.type(), types().returnType(methodType))) {
+            conversions.add("its return value (" + types().descriptor(returnType.type()) + " to " + types().descriptor(types().returnType(methodType)) + ")");
+        }
+        return conversions;
+    }
+
+    private boolean boxes(T from, T to) {
+        String fromDescriptor = types().descriptor(from);
+        String toDescriptor = types().descriptor(to);
+        if (fromDescriptor.equals("V") || toDescriptor.equals("V")) {
+            // Return values are dropped, or void ones replaced with a default, without boxing
+            return false;
+        }
+        return types().isPrimitiveOrVoid(from) != types().isPrimitiveOrVoid(to);
+    }
+
+    private boolean directTypesMatch(T methodType, ConDynUtils.TypedDynamic<?, T> returnType, List<ConDynUtils.TypedDynamic<?, T>> parameterTypes, Open.Type type) {
+        if (!returnType.constant() || !parameterTypes.stream().allMatch(ConDynUtils.TypedDynamic::constant)) {
+            return false;
+        }
+        T[] methodParameterTypes = types().parameterTypes(methodType);
+        // The receiver is cast to the target class, so need not match
+        boolean takesInstance = type == Open.Type.GET_INSTANCE || type == Open.Type.SET_INSTANCE || type == Open.Type.VIRTUAL;
+        for (int i = takesInstance ? 1 : 0; i < methodParameterTypes.length; i++) {
+            if (!types().descriptor(methodParameterTypes[i]).equals(types().descriptor(parameterTypes.get(i).type()))) {
+                return false;
+            }
+        }
+        String methodReturn = types().descriptor(types().returnType(methodType));
+        if (type == Open.Type.CONSTRUCT || type == Open.Type.ARRAY) {
+            // The created instance is cast to the method's return type; without a class hierarchy to hand, only allow
+            // casts the verifier will not need one for
+            return methodReturn.equals(types().descriptor(returnType.type())) || methodReturn.equals(Object.class.descriptorString());
+        }
+        return methodReturn.equals(types().descriptor(returnType.type()));
+    }
+
     interface ClassAccumulator {
         FieldMaker visitField(int access, String name, String descriptor, String signature, Object value);
         MethodMaker visitMethod(int access, String name, String descriptor, String signature, String[] exceptions);
@@ -193,8 +398,103 @@ interface MethodMaker {
 
     String EXTEND_INFO_GENERATED = "$$dev$lukebemish$opensesame$$extendInfo";
     String EXTEND_GENERATED_CLASS = "$$dev$lukebemish$opensesame$$extendGENERATED";
+    /**
+     * Begins the name of the method returning the table of openings of a class; see {@link #openingsName}.
+     */
+    String OPENINGS_GENERATED = "$$dev$lukebemish$opensesame$$openings";
+    String EXTEND_PREBUILT = "$$dev$lukebemish$opensesame$$extendPrebuilt";
+
+    /**
+     * Appended to the name of an extension to name the class implementing it, when that class is generated at build
+     * time.
+     */
+    String EXTEND_PREBUILT_CLASS = "$$dev$lukebemish$opensesame$$Extension";
+
+    /**
+     * The version of the descriptor of the members of an extension written by {@link #extensionBytecode}.
+     */
+    int EXTEND_INFO_VERSION = 1;
+
+    /**
+     * The most characters of the descriptor of an extension stored in a single string constant, which keeps each well
+     * clear of the limit on the encoded length of a constant.
+     */
+    int EXTEND_INFO_CHUNK = 16384;
+
+    /**
+     * The most openings of a single class linked together; any past this are linked on their own, which keeps the table
+     * of openings well clear of the limit on method size.
+     */
+    int OPENINGS_BATCH_LIMIT = 512;
+
+    /**
+     * An opening linked together with the other openings of its class.
+     * @param name the name the call site is linked with
+     * @param factoryType the type of the call site
+     * @param holdingClass the class to open, or a provider of it
+     * @param accessType the type of the member to open, or a provider of it
+     * @param type the type of member to open, with any flags, as passed to the metafactory
+     * @param unsafe whether to open the member unsafely
+     */
+    record BatchedOpening(String name, Object factoryType, Object holdingClass, Object accessType, int type, boolean unsafe) {}
+
+    /**
+     * {@return the name of the method returning the table of openings of a class} The name of the class is part of it,
+     * so that the tables of several classes merged into one, as mixins are into their target, do not collide.
+     * @param holderInternalName the internal name of the class the table is written to
+     */
+    static String openingsName(String holderInternalName) {
+        return OPENINGS_GENERATED + "$" + holderInternalName.replace('/', '$');
+    }
+
+    /**
+     * Writes the body of the method returning the table of openings of a class, in the format expected by
+     * {@link dev.lukebemish.opensesame.runtime.OpeningMetafactory#invokeBatch}.
+     */
+    default void openingsBytecode(MethodMaker table, List<BatchedOpening> openings) {
+        table.visitCode();
+        table.visitLdcInsn(openings.size() * 6);
+        table.visitTypeInsn(Opcodes.ANEWARRAY, types().internalName(Object.class));
+        int i = 0;
+        for (var opening : openings) {
+            storeInTable(table, i++, opening.name());
+            storeInTable(table, i++, opening.factoryType());
+            storeInTable(table, i++, opening.holdingClass());
+            storeInTable(table, i++, opening.accessType());
+
+            table.visitInsn(Opcodes.DUP);
+            table.visitLdcInsn(i++);
+            table.visitLdcInsn(opening.type());
+            table.visitMethodInsn(Opcodes.INVOKESTATIC, types().internalName(Integer.class), "valueOf", MethodType.methodType(Integer.class, int.class).descriptorString(), false);
+            table.visitInsn(Opcodes.AASTORE);
+
+            table.visitInsn(Opcodes.DUP);
+            table.visitLdcInsn(i++);
+            table.visitLdcInsn(opening.unsafe());
+            table.visitMethodInsn(Opcodes.INVOKESTATIC, types().internalName(Boolean.class), "valueOf", MethodType.methodType(Boolean.class, boolean.class).descriptorString(), false);
+            table.visitInsn(Opcodes.AASTORE);
+        }
+        table.visitInsn(Opcodes.ARETURN);
+        table.visitMaxs(4, 0);
+        table.visitEnd();
+    }
+
+    private void storeInTable(MethodMaker table, int index, Object value) {
+        table.visitInsn(Opcodes.DUP);
+        table.visitLdcInsn(index);
+        table.visitLdcInsn(value);
+        table.visitInsn(Opcodes.AASTORE);
+    }
 
     default void extensionBytecode(ClassAccumulator visitor, List<ExtendCtorInfo> ctors, ConDynUtils.TypedDynamic<?, T> extendTargetClassHandle, Map<String, ExtendFieldInfo<T>> fields, boolean generateClassInit, List<ExtendOverrideInfo<T>> overrides, T extensionType, MethodNameMapper<T> mapper) {
+        extensionBytecode(visitor, ctors, extendTargetClassHandle, fields, generateClassInit, overrides, extensionType, mapper, null);
+    }
+
+    /**
+     * Writes the members an extension needs to be constructed.
+     * @param prebuiltName the binary name of the class implementing the extension, if it was generated at build time
+     */
+    default void extensionBytecode(ClassAccumulator visitor, List<ExtendCtorInfo> ctors, ConDynUtils.TypedDynamic<?, T> extendTargetClassHandle, Map<String, ExtendFieldInfo<T>> fields, boolean generateClassInit, List<ExtendOverrideInfo<T>> overrides, T extensionType, MethodNameMapper<T> mapper, @Nullable String prebuiltName) {
         for (var field : fields.values()) {
             if (field.isFinal() && !field.setters().isEmpty()) {
                 throw new RuntimeException("@Field "+field.name()+" is final, but has setters");
@@ -202,127 +502,84 @@ default void extensionBytecode(ClassAccumulator visitor, List<ExtendCtorInfo> ct
         }
         var classHolderField = visitor.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC | Opcodes.ACC_FINAL, EXTEND_GENERATED_CLASS, Class.class.arrayType().descriptorString(), null, null);
         classHolderField.visitEnd();
+        // The holder is an interface, so the generated class is kept in a final array and published with release/acquire
+        // semantics rather than under a monitor
         var setter = visitor.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC, EXTEND_GENERATED_CLASS, MethodType.methodType(void.class, Class.class).descriptorString(), null, null);
         setter.visitCode();
+        setter.visitLdcInsn(conDynUtils().arrayVarHandle(types().type(Class[].class)));
         setter.visitFieldInsn(Opcodes.GETSTATIC, types().internalName(extensionType), EXTEND_GENERATED_CLASS, Class.class.arrayType().descriptorString());
-        setter.visitInsn(Opcodes.DUP);
-        setter.visitInsn(Opcodes.MONITORENTER);
         setter.visitInsn(Opcodes.ICONST_0);
         setter.visitVarInsn(Opcodes.ALOAD, 0);
-        setter.visitInsn(Opcodes.AASTORE);
-        setter.visitFieldInsn(Opcodes.GETSTATIC, types().internalName(extensionType), EXTEND_GENERATED_CLASS, Class.class.arrayType().descriptorString());
-        setter.visitInsn(Opcodes.MONITOREXIT);
+        setter.visitMethodInsn(Opcodes.INVOKEVIRTUAL, types().internalName(VarHandle.class), "setRelease", MethodType.methodType(void.class, Class[].class, int.class, Class.class).descriptorString(), false);
         setter.visitInsn(Opcodes.RETURN);
-        setter.visitMaxs(3, 1);
+        setter.visitMaxs(4, 1);
         setter.visitEnd();
         var getter = visitor.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC, EXTEND_GENERATED_CLASS, MethodType.methodType(Class.class).descriptorString(), null, null);
         getter.visitCode();
+        getter.visitLdcInsn(conDynUtils().arrayVarHandle(types().type(Class[].class)));
         getter.visitFieldInsn(Opcodes.GETSTATIC, types().internalName(extensionType), EXTEND_GENERATED_CLASS, Class.class.arrayType().descriptorString());
-        getter.visitInsn(Opcodes.DUP);
-        getter.visitInsn(Opcodes.MONITORENTER);
         getter.visitInsn(Opcodes.ICONST_0);
-        getter.visitInsn(Opcodes.AALOAD);
-        getter.visitFieldInsn(Opcodes.GETSTATIC, types().internalName(extensionType), EXTEND_GENERATED_CLASS, Class.class.arrayType().descriptorString());
-        getter.visitInsn(Opcodes.MONITOREXIT);
+        getter.visitMethodInsn(Opcodes.INVOKEVIRTUAL, types().internalName(VarHandle.class), "getAcquire", MethodType.methodType(Class.class, Class[].class, int.class).descriptorString(), false);
         getter.visitInsn(Opcodes.ARETURN);
         getter.visitMaxs(3, 0);
         getter.visitEnd();
-        var info = visitor.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC, EXTEND_INFO_GENERATED, MethodType.methodType(List.class, ClassLoader.class).descriptorString(), null, null);
-        info.visitCode();
-
-        // 3 - ctor
-        // 4 - override
-        // 5 - field
-        //   +2 - building arraylist, dup arraylist
-        // +1 - root arraylist
-        // +1 - building arraylist
-        // +2 - dup root, dup building
-        int maxStack = 11;
-
-        var interfaces = Processor.class.getInterfaces();
-        for (var i : interfaces) {
-            try {
-                MethodHandles.lookup().findStatic(i, "stuff", MethodType.methodType(void.class)).invokeExact();
-            } catch (Throwable e) {
-                throw new RuntimeException(e);
-            }
+        var prebuilt = visitor.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC, EXTEND_PREBUILT, MethodType.methodType(String.class).descriptorString(), null, null);
+        prebuilt.visitCode();
+        if (prebuiltName == null) {
+            prebuilt.visitInsn(Opcodes.ACONST_NULL);
+        } else {
+            prebuilt.visitLdcInsn(prebuiltName);
         }
-
-        newArrayList(info);
-
-        // fields:
-        info.visitInsn(Opcodes.DUP);
-        newArrayList(info);
-        // add all the fields
+        prebuilt.visitInsn(Opcodes.ARETURN);
+        prebuilt.visitMaxs(1, 0);
+        prebuilt.visitEnd();
+
+        // The names and structure of the members are encoded in a descriptor, in the format decoded by the runtime's
+        // ExtensionInfo, followed by the types it refers to; the descriptor is split into strings that each fit in a
+        // constant
+        var descriptor = new StringJoiner(";");
+        var constants = new ArrayList<>();
+        descriptor.add(String.valueOf(EXTEND_INFO_VERSION));
+        descriptor.add(String.valueOf(fields.size()));
         for (var field : fields.values()) {
-            info.visitInsn(Opcodes.DUP);
-            // Field list format: String name, Class<?> fieldType, Boolean isFinal, List<String> setters, List<String> getters
-            info.visitLdcInsn(field.name());
-            info.visitLdcInsn(conDynUtils().classConstant(field.type()));
-            info.visitLdcInsn(field.isFinal());
-            info.visitMethodInsn(Opcodes.INVOKESTATIC, types().internalName(Boolean.class), "valueOf", MethodType.methodType(Boolean.class, boolean.class).descriptorString(), false);
-
-            // add setters through ArrayList
-            newArrayList(info);
-            for (var sName : field.setters()) {
-                info.visitInsn(Opcodes.DUP);
-                info.visitLdcInsn(sName);
-                addToList(info);
-            }
-
-            // add getters through ArrayList
-            newArrayList(info);
-            for (var gName : field.getters()) {
-                info.visitInsn(Opcodes.DUP);
-                info.visitLdcInsn(gName);
-                addToList(info);
-            }
-
-            info.visitMethodInsn(Opcodes.INVOKESTATIC, types().internalName(List.class), "of", MethodType.methodType(List.class, Object.class, Object.class, Object.class, Object.class, Object.class).descriptorString(), true);
-            addToList(info);
+            descriptor.add(field.name());
+            descriptor.add(field.isFinal() ? "1" : "0");
+            addNames(descriptor, field.setters());
+            addNames(descriptor, field.getters());
+            constants.add(conDynUtils().classConstant(field.type()));
         }
-        addToList(info);
-
-        // overrides:
-        info.visitInsn(Opcodes.DUP);
-        newArrayList(info);
+        descriptor.add(String.valueOf(overrides.size()));
         for (var override : overrides) {
-            info.visitInsn(Opcodes.DUP);
-            var interfaceName = mapper.remapMethodName(extensionType, override.interfaceName(), override.interfaceReturn().type(), override.interfaceParams().stream().map(ConDynUtils.TypedDynamic::type).toList());
-            info.visitLdcInsn(interfaceName);
-            var interfaceType = conDynUtils().conDynMethodType(override.interfaceReturn().constantDynamic(), override.interfaceParams().stream().<Object>map(ConDynUtils.TypedDynamic::constantDynamic).toList());
-            info.visitLdcInsn(interfaceType);
-            var originalName = mapper.remapMethodName(extendTargetClassHandle.type(), override.originalName(), override.originalReturn().type(), override.originalParams().stream().map(ConDynUtils.TypedDynamic::type).toList());
-            info.visitLdcInsn(originalName);
-            var originalType = conDynUtils().conDynMethodType(override.originalReturn().constantDynamic(), override.originalParams().stream().<Object>map(ConDynUtils.TypedDynamic::constantDynamic).toList());
-            info.visitLdcInsn(originalType);
-            info.visitMethodInsn(Opcodes.INVOKESTATIC, types().internalName(List.class), "of", MethodType.methodType(List.class, Object.class, Object.class, Object.class, Object.class).descriptorString(), true);
-            addToList(info);
-        }
-        addToList(info);
-
-        // ctors:
-        info.visitInsn(Opcodes.DUP);
-        newArrayList(info);
+            descriptor.add(mapper.remapMethodName(extensionType, override.interfaceName(), override.interfaceReturn().type(), override.interfaceParams().stream().map(ConDynUtils.TypedDynamic::type).toList()));
+            descriptor.add(mapper.remapMethodName(extendTargetClassHandle.type(), override.originalName(), override.originalReturn().type(), override.originalParams().stream().map(ConDynUtils.TypedDynamic::type).toList()));
+            constants.add(conDynUtils().conDynMethodType(override.interfaceReturn(), override.interfaceParams()));
+            constants.add(conDynUtils().conDynMethodType(override.originalReturn(), override.originalParams()));
+        }
+        descriptor.add(String.valueOf(ctors.size()));
         for (var ctor : ctors) {
-            info.visitInsn(Opcodes.DUP);
-            info.visitLdcInsn(ctor.ctorType());
-            info.visitLdcInsn(ctor.superCtorType());
-
-            newArrayList(info);
-            for (var field : ctor.fields()) {
-                info.visitInsn(Opcodes.DUP);
-                info.visitLdcInsn(field);
-                addToList(info);
-            }
-
-            info.visitMethodInsn(Opcodes.INVOKESTATIC, types().internalName(List.class), "of", MethodType.methodType(List.class, Object.class, Object.class, Object.class).descriptorString(), true);
-            addToList(info);
+            addNames(descriptor, ctor.fields());
+            constants.add(ctor.ctorType());
+            constants.add(ctor.superCtorType());
+        }
+        var descriptorString = descriptor.toString();
+        var chunks = new ArrayList<String>();
+        for (int i = 0; i < descriptorString.length(); i += EXTEND_INFO_CHUNK) {
+            chunks.add(descriptorString.substring(i, Math.min(descriptorString.length(), i + EXTEND_INFO_CHUNK)));
         }
-        addToList(info);
 
+        var info = visitor.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC, EXTEND_INFO_GENERATED, MethodType.methodType(Object[].class, ClassLoader.class).descriptorString(), null, null);
+        info.visitCode();
+        info.visitLdcInsn(chunks.size() + constants.size());
+        info.visitTypeInsn(Opcodes.ANEWARRAY, types().internalName(Object.class));
+        int index = 0;
+        for (var chunk : chunks) {
+            storeInTable(info, index++, chunk);
+        }
+        for (var constant : constants) {
+            storeInTable(info, index++, constant);
+        }
         info.visitInsn(Opcodes.ARETURN);
-        info.visitMaxs(maxStack, 1);
+        info.visitMaxs(4, 1);
         info.visitEnd();
         if (generateClassInit) {
             var clinit = visitor.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
@@ -339,14 +596,8 @@ default void extensionClassInitSetup(MethodMaker methodMaker, T type) {
         methodMaker.visitFieldInsn(Opcodes.PUTSTATIC, types().internalName(type), EXTEND_GENERATED_CLASS, Class.class.arrayType().descriptorString());
     }
 
-    private void newArrayList(MethodMaker info) {
-        info.visitTypeInsn(Opcodes.NEW, types().internalName(ArrayList.class));
-        info.visitInsn(Opcodes.DUP);
-        info.visitMethodInsn(Opcodes.INVOKESPECIAL, types().internalName(ArrayList.class), "<init>", "()V", false);
-    }
-
-    private void addToList(MethodMaker info) {
-        info.visitMethodInsn(Opcodes.INVOKEINTERFACE, types().internalName(List.class), "add", MethodType.methodType(boolean.class, Object.class).descriptorString(), true);
-        info.visitInsn(Opcodes.POP);
+    private static void addNames(StringJoiner descriptor, List<String> names) {
+        descriptor.add(String.valueOf(names.size()));
+        names.forEach(descriptor::add);
     }
 }
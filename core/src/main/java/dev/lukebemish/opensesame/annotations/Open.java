@@ -6,6 +6,7 @@
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.invoke.VarHandle;
 
 /**
  * Replace the body of the annotated method with a call to the target method, constructor, or field operation.
@@ -38,7 +39,9 @@
     /**
      * {@return a class implementing {@link dev.lukebemish.opensesame.runtime.ClassProvider} with a no-arg constructor
      *         that returns the target class. This function will be passed {@link #targetName()} if it is specified, or
-     *         null otherwise. On groovy, may be a closure}
+     *         null otherwise. On groovy, may be a closure} The openings of a class are linked together the first time
+     *         any of them is called, so the providers of all of them are invoked then, and any classes they load or
+     *         initialize are loaded or initialized at that point rather than when the opening using them is first called.
      */
     Class<?> targetProvider() default ErrorProvider.class;
 
@@ -52,6 +55,65 @@
      */
     boolean unsafe() default false;
 
+    /**
+     * {@return whether to access the target with a plain bytecode instruction, rather than through
+     * {@link dev.lukebemish.opensesame.runtime.OpeningMetafactory}, when the target is found to be accessible already at
+     * compile time} The target must be given by {@link #targetClass()}, and neither {@link Coerce} nor {@link #unsafe()}
+     * may be used; direct access is not available for {@link Type#SPECIAL}. Direct accesses are not remapped at runtime
+     * and do not cross module boundaries. Should the target not be found at compile time, or be in a package its module,
+     * whether of the platform compiled against or of a modular jar or directory, is not known to export to the opening
+     * class, the member is opened as usual; should it be found but not be accessible,
+     * processing fails. If the target turns out not to be accessible at runtime, the resulting linkage error names the
+     * opening responsible.
+     */
+    boolean direct() default false;
+
+    /**
+     * {@return whether a {@link Type#GET_STATIC} of a {@code static final} field may be bound to the value of the field,
+     * read once its class is initialized, rather than reading the field on every access} This lets the JIT fold the value
+     * as it would that of a {@code getstatic} of a constant. Set to {@code false} for fields that are written after their
+     * class is initialized, for instance with an unsafe {@link Type#SET_STATIC}. May only be set to {@code false} for
+     * {@link Type#GET_STATIC}, and not alongside {@link #direct()}.
+     */
+    boolean constant() default true;
+
+    /**
+     * {@return how to access the target field, for {@link Type#ACCESS_STATIC} and {@link Type#ACCESS_INSTANCE}} Defaults
+     * to {@link VarHandle.AccessMode#GET} for those types, and may only be given for them, and not alongside
+     * {@link #handle()}. The annotated method takes the receiver, for instance fields, followed by the arguments of the
+     * {@link VarHandle} method of the mode, and returns what that method does.
+     */
+    VarHandle.AccessMode accessMode() default VarHandle.AccessMode.GET;
+
+    /**
+     * {@return whether the annotated method returns a lambda implementing the functional interface it returns with the
+     * target method or constructor, rather than invoking the target} The annotated method takes the arguments to capture,
+     * which the target receives first, followed by those of the interface method; as with other lambdas, a receiver of a
+     * {@link Type#VIRTUAL} target may be captured or be the first argument of the interface method. The target is found
+     * by its name and the number of arguments it takes, and must be unambiguous among the overloads compatible with the
+     * interface. May only be used with {@link Type#STATIC}, {@link Type#VIRTUAL}, and {@link Type#CONSTRUCT}, and not
+     * alongside {@link #direct()}.
+     */
+    boolean lambda() default false;
+
+    /**
+     * {@return whether the annotated method returns the handle of the target, rather than accessing it} The annotated
+     * method must be static, take no arguments, and return a {@link java.lang.invoke.MethodHandle}, or a {@link VarHandle}
+     * for {@link Type#ACCESS_STATIC} and {@link Type#ACCESS_INSTANCE}; the handle is of the type an opening of the target
+     * would be found with, and is resolved once per call site. The target is found by its name alone, and must not be
+     * overloaded among members of its type. May not be used alongside {@link #direct()}, {@link #lambda()}, or
+     * {@link #accessMode()}.
+     */
+    boolean handle() default false;
+
+    /**
+     * {@return whether the annotated method must not box or unbox its arguments or return value to access the target}
+     * Such conversions arise where {@link Coerce} makes a primitive of a reference type, or the reverse; without this,
+     * they are reported as warnings at compile time, and made on every call. With it, they are errors at compile time,
+     * or when linking where the coerced types are only known then.
+     */
+    boolean exact() default false;
+
     /**
      * Different types of members that can be invoked. The orginals of this enum match the constants in {@link dev.lukebemish.opensesame.runtime.OpeningMetafactory}
      */
@@ -91,6 +153,35 @@ enum Type {
         /**
          * Create an array
          */
-        ARRAY
+        ARRAY,
+        /**
+         * Access a static field with a {@link VarHandle} access mode, given by {@link #accessMode()}
+         */
+        ACCESS_STATIC,
+        /**
+         * Access an instance field with a {@link VarHandle} access mode, given by {@link #accessMode()}
+         */
+        ACCESS_INSTANCE,
+        /**
+         * Read several instance fields at once into a record, whose components name the fields and give their types. The
+         * annotated method takes the instance and returns the record, which it must be able to construct.
+         */
+        GET_VIEW,
+        /**
+         * Write several instance fields at once from a record, whose components name the fields and give their types.
+         * The annotated method takes the instance and the record, whose components it must be able to read, and returns
+         * {@code void}.
+         */
+        SET_VIEW,
+        /**
+         * Test whether a value is an instance of a class. The annotated method must be static, take the value, and return
+         * {@code boolean}.
+         */
+        INSTANCE_OF,
+        /**
+         * Cast a value to a class, throwing {@link ClassCastException} if it is not an instance of it. The annotated method
+         * must be static, take the value, and return the class or a supertype of it.
+         */
+        CAST
     }
 }
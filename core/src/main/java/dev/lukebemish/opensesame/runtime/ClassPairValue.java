@@ -0,0 +1,67 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Lazily associates a value with a caller and a target class, as nested {@link ClassValue}s would. The value is stored
+ * on whichever of the two classes may be unloaded first, in a {@link ClassValue} owned by the other, so that the one
+ * expected to live longer does not keep it alive: on the caller, if the target is defined by the caller's class loader
+ * or one of its ancestors, and on the target otherwise. Values may still refer to the class they are stored on.
+ * @param <T> the type of the value
+ */
+@ApiStatus.Internal
+abstract class ClassPairValue<T> {
+    private final ClassValue<ClassValue<T>> onCaller = new ClassValue<>() {
+        @Override
+        protected ClassValue<T> computeValue(Class<?> target) {
+            return new ClassValue<>() {
+                @Override
+                protected T computeValue(Class<?> caller) {
+                    return ClassPairValue.this.computeValue(caller, target);
+                }
+            };
+        }
+    };
+
+    private final ClassValue<ClassValue<T>> onTarget = new ClassValue<>() {
+        @Override
+        protected ClassValue<T> computeValue(Class<?> caller) {
+            return new ClassValue<>() {
+                @Override
+                protected T computeValue(Class<?> target) {
+                    return ClassPairValue.this.computeValue(caller, target);
+                }
+            };
+        }
+    };
+
+    /**
+     * {@return the value for the given caller and target, computed on first use}
+     * @param caller the class of the caller
+     * @param target the class the caller opens
+     */
+    T get(Class<?> caller, Class<?> target) {
+        return outlives(target, caller)
+                ? onCaller.get(target).get(caller)
+                : onTarget.get(caller).get(target);
+    }
+
+    protected abstract T computeValue(Class<?> caller, Class<?> target);
+
+    private static boolean outlives(Class<?> target, Class<?> caller) {
+        // Hidden classes may be unloaded before the loader that defines them
+        if (target.isHidden()) {
+            return false;
+        }
+        var targetLoader = target.getClassLoader();
+        if (targetLoader == null) {
+            return true;
+        }
+        for (var loader = caller.getClassLoader(); loader != null; loader = loader.getParent()) {
+            if (loader == targetLoader) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,125 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The members of an extension, decoded from the table returned by its generated info method.
+ * <p>
+ * The table is an {@code Object[]}. Its leading strings, concatenated, form a descriptor of {@code ;}-separated tokens:
+ * the version, then the fields, overrides and constructors, each group prefixed by its count. A field is its name,
+ * {@code 1} if final or {@code 0} otherwise, then its setters and its getters, each prefixed by their count. An
+ * override is the name of the interface method and of the method it overrides. A constructor is the fields it sets,
+ * prefixed by their count. The rest of the table is the types these refer to, in order: a {@link Class} for each
+ * field, then providers of the interface and overridden {@link MethodType} for each override, then providers of the
+ * constructor and super constructor type for each constructor.
+ * <p>
+ * Extensions compiled before the descriptor existed instead return nested lists, which are still decoded.
+ */
+@ApiStatus.Internal
+record ExtensionInfo(List<FieldInfo> fields, List<OverrideInfo> overrides, List<CtorInfo> ctors) {
+    static final int VERSION = 1;
+
+    record FieldInfo(String name, Class<?> type, boolean isFinal, List<String> setters, List<String> getters) {}
+
+    /**
+     * @param superName the name of the overridden method, already remapped
+     */
+    record OverrideInfo(String name, MethodType interfaceType, String superName, MethodType superType) {}
+
+    record CtorInfo(MethodType type, MethodType superType, List<String> fields) {}
+
+    static ExtensionInfo decode(Object info, Class<?> holdingClass, Class<?> targetClass) throws Throwable {
+        if (info instanceof List<?> legacy) {
+            return decodeLegacy(legacy, holdingClass, targetClass);
+        }
+        var table = (Object[]) info;
+        var descriptor = new StringBuilder();
+        int constant = 0;
+        while (constant < table.length && table[constant] instanceof String chunk) {
+            descriptor.append(chunk);
+            constant++;
+        }
+        var tokens = descriptor.toString().split(";", -1);
+        if (!tokens[0].equals(String.valueOf(VERSION))) {
+            throw new OpeningException("Unsupported extension descriptor version "+tokens[0]+" in "+holdingClass.getName()+"; expected "+VERSION);
+        }
+        var loader = holdingClass.getClassLoader();
+        int token = 1;
+
+        int fieldCount = Integer.parseInt(tokens[token++]);
+        var fields = new ArrayList<FieldInfo>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            var name = tokens[token++];
+            var isFinal = tokens[token++].equals("1");
+            int setterCount = Integer.parseInt(tokens[token++]);
+            var setters = names(tokens, token, setterCount);
+            token += setterCount;
+            int getterCount = Integer.parseInt(tokens[token++]);
+            var getters = names(tokens, token, getterCount);
+            token += getterCount;
+            fields.add(new FieldInfo(name, (Class<?>) table[constant++], isFinal, setters, getters));
+        }
+
+        int overrideCount = Integer.parseInt(tokens[token++]);
+        var overrides = new ArrayList<OverrideInfo>(overrideCount);
+        for (int i = 0; i < overrideCount; i++) {
+            var interfaceType = (MethodType) ((MethodHandle) table[constant++]).invoke(loader);
+            var superType = (MethodType) ((MethodHandle) table[constant++]).invoke(loader);
+            overrides.add(override(tokens[token++], interfaceType, tokens[token++], superType, holdingClass, targetClass));
+        }
+
+        int ctorCount = Integer.parseInt(tokens[token++]);
+        var ctors = new ArrayList<CtorInfo>(ctorCount);
+        for (int i = 0; i < ctorCount; i++) {
+            var type = (MethodType) ((MethodHandle) table[constant++]).invoke(loader);
+            var superType = (MethodType) ((MethodHandle) table[constant++]).invoke(loader);
+            int fieldsCount = Integer.parseInt(tokens[token++]);
+            ctors.add(new CtorInfo(type, superType, names(tokens, token, fieldsCount)));
+            token += fieldsCount;
+        }
+
+        if (token != tokens.length || constant != table.length) {
+            throw new OpeningException("Malformed extension descriptor in "+holdingClass.getName());
+        }
+        return new ExtensionInfo(fields, overrides, ctors);
+    }
+
+    private static List<String> names(String[] tokens, int from, int count) {
+        return List.of(Arrays.copyOfRange(tokens, from, from + count));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ExtensionInfo decodeLegacy(List<?> all, Class<?> holdingClass, Class<?> targetClass) throws Throwable {
+        var loader = holdingClass.getClassLoader();
+        var fields = new ArrayList<FieldInfo>();
+        // Field list format: String name, Class<?> fieldType, Boolean isFinal, List<String> setters, List<String> getters
+        for (var field : (List<List<Object>>) all.get(0)) {
+            fields.add(new FieldInfo((String) field.get(0), (Class<?>) field.get(1), (Boolean) field.get(2), (List<String>) field.get(3), (List<String>) field.get(4)));
+        }
+        var overrides = new ArrayList<OverrideInfo>();
+        // Override list format: String name, MethodHandle interface, String overrideName, MethodHandle toOverride
+        for (var override : (List<List<Object>>) all.get(1)) {
+            var interfaceType = (MethodType) ((MethodHandle) override.get(1)).invoke(loader);
+            var superType = (MethodType) ((MethodHandle) override.get(3)).invoke(loader);
+            overrides.add(override((String) override.get(0), interfaceType, (String) override.get(2), superType, holdingClass, targetClass));
+        }
+        var ctors = new ArrayList<CtorInfo>();
+        // Ctor list format: MethodHandle type, MethodHandle superType, List<String> fields
+        for (var ctor : (List<List<Object>>) all.get(2)) {
+            var type = (MethodType) ((MethodHandle) ctor.get(0)).invoke(loader);
+            var superType = (MethodType) ((MethodHandle) ctor.get(1)).invoke(loader);
+            ctors.add(new CtorInfo(type, superType, (List<String>) ctor.get(2)));
+        }
+        return new ExtensionInfo(fields, overrides, ctors);
+    }
+
+    private static OverrideInfo override(String name, MethodType interfaceType, String superName, MethodType superType, Class<?> holdingClass, Class<?> targetClass) {
+        return new OverrideInfo(name, interfaceType, OpeningMetafactory.remapMethod(superName, superType.descriptorString(), targetClass.getName(), holdingClass), superType);
+    }
+}
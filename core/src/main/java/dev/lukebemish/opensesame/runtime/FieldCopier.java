@@ -0,0 +1,435 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Copies, or streams, every instance field of a class and its superclasses at once. Found with
+ * {@link Opened#findCopier(Class)}, so that fields are opened with the same lookups as call sites of
+ * {@link dev.lukebemish.opensesame.annotations.Open} would be. Each operation is a single handle of the handles of every
+ * field, which is compiled to straight-line code once hot. Unlike the classes spun by
+ * {@link OpeningMetafactory#makeOpenClass}, which link call sites of processed
+ * {@link dev.lukebemish.opensesame.annotations.extend.Extend} interfaces, copiers are asked for by class at runtime, so
+ * there is no call site to bootstrap.
+ * <p>
+ * Copies are shallow. Fields are visited superclass first, and by name within each class; only primitive and
+ * {@link String} fields may be streamed, strings as the length of their UTF-8 bytes followed by the bytes, or {@code -1}
+ * for {@code null}. Writing {@code final} fields requires a copier opened {@link Opened#unsafe() unsafely}, and is not
+ * possible at all for records and hidden classes.
+ * @param <T> the class copied
+ */
+public final class FieldCopier<T> {
+    private static final MethodHandle PUT_BOOLEAN;
+    private static final MethodHandle GET_BOOLEAN;
+    private static final MethodHandle PUT_STRING;
+    private static final MethodHandle GET_STRING;
+    private static final MethodHandle WRITE_STRING;
+    private static final MethodHandle READ_STRING;
+
+    static {
+        var lookup = MethodHandles.lookup();
+        try {
+            PUT_BOOLEAN = lookup.findStatic(FieldCopier.class, "putBoolean", MethodType.methodType(void.class, ByteBuffer.class, boolean.class));
+            GET_BOOLEAN = lookup.findStatic(FieldCopier.class, "getBoolean", MethodType.methodType(boolean.class, ByteBuffer.class));
+            PUT_STRING = lookup.findStatic(FieldCopier.class, "putString", MethodType.methodType(void.class, ByteBuffer.class, String.class));
+            GET_STRING = lookup.findStatic(FieldCopier.class, "getString", MethodType.methodType(String.class, ByteBuffer.class));
+            WRITE_STRING = lookup.findStatic(FieldCopier.class, "writeString", MethodType.methodType(void.class, DataOutput.class, String.class));
+            READ_STRING = lookup.findStatic(FieldCopier.class, "readString", MethodType.methodType(String.class, DataInput.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<T> type;
+    private final @Nullable MethodHandle copy;
+    private final @Nullable MethodHandle copyOf;
+    private final @Nullable MethodHandle putBuffer;
+    private final @Nullable MethodHandle getBuffer;
+    private final @Nullable MethodHandle writeData;
+    private final @Nullable MethodHandle readData;
+    private final @Nullable OpeningException unwritable;
+    private final @Nullable OpeningException unstreamable;
+
+    private FieldCopier(Class<T> type, @Nullable MethodHandle copy, @Nullable MethodHandle copyOf, @Nullable MethodHandle putBuffer, @Nullable MethodHandle getBuffer, @Nullable MethodHandle writeData, @Nullable MethodHandle readData, @Nullable OpeningException unwritable, @Nullable OpeningException unstreamable) {
+        this.type = type;
+        this.copy = copy;
+        this.copyOf = copyOf;
+        this.putBuffer = putBuffer;
+        this.getBuffer = getBuffer;
+        this.writeData = writeData;
+        this.readData = readData;
+        this.unwritable = unwritable;
+        this.unstreamable = unstreamable;
+    }
+
+    /**
+     * {@return the class copied}
+     */
+    public Class<T> type() {
+        return type;
+    }
+
+    /**
+     * Copies every field of one instance to another.
+     * @param from the instance to read
+     * @param to the instance to write
+     * @throws OpeningException if the fields may not be written
+     */
+    public void copy(T from, T to) {
+        try {
+            require(copy, unwritable).invokeExact((Object) from, (Object) to);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new OpeningException(t);
+        }
+    }
+
+    /**
+     * {@return a new instance with every field copied from the given one} Unsafe copiers allocate the instance without
+     * running a constructor; otherwise, it is created with the class's constructor without arguments.
+     * @param from the instance to read
+     * @throws OpeningException if the fields may not be written, or there is no way to create the instance
+     */
+    @SuppressWarnings("unchecked")
+    public T copyOf(T from) {
+        try {
+            return (T) require(copyOf, unwritable).invokeExact((Object) from);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new OpeningException(t);
+        }
+    }
+
+    /**
+     * Writes every field of an instance to a buffer, in its byte order.
+     * @param from the instance to read
+     * @param buffer the buffer to write to
+     * @throws OpeningException if the fields may not be streamed
+     */
+    public void write(T from, ByteBuffer buffer) {
+        try {
+            require(putBuffer, unstreamable).invokeExact((Object) from, buffer);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new OpeningException(t);
+        }
+    }
+
+    /**
+     * Reads every field of an instance from a buffer, as written by {@link #write(Object, ByteBuffer)}.
+     * @param buffer the buffer to read from
+     * @param to the instance to write
+     * @throws OpeningException if the fields may not be streamed or written
+     */
+    public void read(ByteBuffer buffer, T to) {
+        try {
+            require(getBuffer, unwritable != null ? unwritable : unstreamable).invokeExact(buffer, (Object) to);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new OpeningException(t);
+        }
+    }
+
+    /**
+     * Writes every field of an instance to an output.
+     * @param from the instance to read
+     * @param output the output to write to
+     * @throws IOException if the output could not be written to
+     * @throws OpeningException if the fields may not be streamed
+     */
+    public void write(T from, DataOutput output) throws IOException {
+        try {
+            require(writeData, unstreamable).invokeExact((Object) from, output);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new OpeningException(t);
+        }
+    }
+
+    /**
+     * Reads every field of an instance from an input, as written by {@link #write(Object, DataOutput)}.
+     * @param input the input to read from
+     * @param to the instance to write
+     * @throws IOException if the input could not be read from
+     * @throws OpeningException if the fields may not be streamed or written
+     */
+    public void read(DataInput input, T to) throws IOException {
+        try {
+            require(readData, unwritable != null ? unwritable : unstreamable).invokeExact(input, (Object) to);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new OpeningException(t);
+        }
+    }
+
+    private MethodHandle require(@Nullable MethodHandle handle, @Nullable OpeningException reason) {
+        if (handle == null) {
+            throw new OpeningException("Cannot " + (reason == unwritable ? "write" : "stream") + " the fields of " + type.getName(), reason);
+        }
+        return handle;
+    }
+
+    /**
+     * {@return a copier of the fields of the given class}
+     * @param caller the lookup of the caller
+     * @param type the class to open
+     * @param unsafe whether to open the class unsafely
+     * @throws OpeningException if the fields could not be found or could not be opened
+     */
+    static <T> FieldCopier<T> of(MethodHandles.Lookup caller, Class<T> type, boolean unsafe) {
+        if (type.isPrimitive() || type.isArray() || type.isInterface()) {
+            throw new OpeningException(type.getName() + " has no instance fields to copy");
+        }
+        List<Field> fields = new ArrayList<>();
+        List<MethodHandles.Lookup> lookups = new ArrayList<>();
+        for (Class<?> declaring = type; declaring != null && declaring != Object.class; declaring = declaring.getSuperclass()) {
+            var lookup = OpeningMetafactory.openLookup(caller, declaring, unsafe);
+            var declared = Arrays.stream(declaring.getDeclaredFields())
+                    .filter(field -> !Modifier.isStatic(field.getModifiers()))
+                    .sorted(Comparator.comparing(Field::getName))
+                    .toList();
+            // Superclass fields go first
+            fields.addAll(0, declared);
+            lookups.addAll(0, declared.stream().map(field -> lookup).toList());
+        }
+
+        var getters = new MethodHandle[fields.size()];
+        var setters = new MethodHandle[fields.size()];
+        OpeningException unwritable = null;
+        OpeningException unstreamable = null;
+        for (int i = 0; i < getters.length; i++) {
+            var field = fields.get(i);
+            var lookup = lookups.get(i);
+            try {
+                getters[i] = lookup.findGetter(field.getDeclaringClass(), field.getName(), field.getType()).asType(MethodType.methodType(field.getType(), type));
+            } catch (NoSuchFieldException | IllegalAccessException e) {
+                throw new OpeningException("Issue creating method handle for `" + field.getName() + "`", e);
+            }
+            if (unwritable == null && Modifier.isFinal(field.getModifiers()) && (field.getDeclaringClass().isRecord() || field.getDeclaringClass().isHidden())) {
+                // Even a trusted lookup may write these, but the JIT assumes they never change
+                unwritable = new OpeningException("Field `" + field.getName() + "` of " + field.getDeclaringClass().getName() + " may never be written");
+            }
+            if (unwritable == null) {
+                try {
+                    setters[i] = lookup.findSetter(field.getDeclaringClass(), field.getName(), field.getType()).asType(MethodType.methodType(void.class, type, field.getType()));
+                } catch (NoSuchFieldException | IllegalAccessException e) {
+                    unwritable = new OpeningException("Issue creating method handle for `" + field.getName() + "`", e);
+                }
+            }
+            if (unstreamable == null && !field.getType().isPrimitive() && field.getType() != String.class) {
+                unstreamable = new OpeningException("Field `" + field.getName() + "` of type " + field.getType().getName() + " cannot be streamed");
+            }
+        }
+
+        MethodHandle copy = null;
+        MethodHandle copyOf = null;
+        if (unwritable == null) {
+            // (from, to) -> void
+            copy = MethodHandles.empty(MethodType.methodType(void.class, type, type));
+            for (int i = fields.size() - 1; i >= 0; i--) {
+                var copyField = MethodHandles.filterArguments(setters[i], 1, getters[i]);
+                copy = MethodHandles.foldArguments(copy, MethodHandles.permuteArguments(copyField, copy.type(), 1, 0));
+            }
+            var allocator = allocator(caller, type, unsafe);
+            if (allocator != null) {
+                // (to, from) -> to
+                var copyAndReturn = MethodHandles.foldArguments(
+                        MethodHandles.dropArguments(MethodHandles.identity(type), 1, type),
+                        MethodHandles.permuteArguments(copy, MethodType.methodType(void.class, type, type), 1, 0)
+                );
+                copyOf = MethodHandles.foldArguments(copyAndReturn, MethodHandles.dropArguments(allocator, 0, type))
+                        .asType(MethodType.methodType(Object.class, Object.class));
+            }
+            copy = copy.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        MethodHandle putBuffer = null;
+        MethodHandle getBuffer = null;
+        MethodHandle writeData = null;
+        MethodHandle readData = null;
+        if (unstreamable == null) {
+            putBuffer = streamWriter(type, ByteBuffer.class, getters);
+            writeData = streamWriter(type, DataOutput.class, getters);
+            if (unwritable == null) {
+                getBuffer = streamReader(type, ByteBuffer.class, setters);
+                readData = streamReader(type, DataInput.class, setters);
+            }
+        }
+        return new FieldCopier<>(type, copy, copyOf, putBuffer, getBuffer, writeData, readData, unwritable, unstreamable);
+    }
+
+    /**
+     * {@return a handle taking nothing and returning a new instance of the class, or {@code null} if there is none}
+     */
+    private static @Nullable MethodHandle allocator(MethodHandles.Lookup caller, Class<?> type, boolean unsafe) {
+        if (Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            if (unsafe) {
+                var unsafeClass = Class.forName("sun.misc.Unsafe", true, FieldCopier.class.getClassLoader());
+                var allocateInstance = MethodHandles.lookup()
+                        .findVirtual(unsafeClass, "allocateInstance", MethodType.methodType(Object.class, Class.class))
+                        .bindTo(UnsafeProvision.theUnsafe())
+                        .bindTo(type);
+                return allocateInstance.asType(MethodType.methodType(type));
+            }
+            return OpeningMetafactory.openLookup(caller, type, false).findConstructor(type, MethodType.methodType(void.class));
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (ClassNotFoundException | IllegalAccessException e) {
+            throw new OpeningException("Issue creating method handle to allocate " + type.getName(), e);
+        }
+    }
+
+    /**
+     * {@return a handle taking an instance and a stream, and writing every field to the stream}
+     */
+    private static MethodHandle streamWriter(Class<?> type, Class<?> stream, MethodHandle[] getters) {
+        // (instance, stream) -> void
+        var handle = MethodHandles.empty(MethodType.methodType(void.class, type, stream));
+        for (int i = getters.length - 1; i >= 0; i--) {
+            var fieldType = getters[i].type().returnType();
+            var writeField = MethodHandles.filterArguments(writer(stream, fieldType), 1, getters[i]);
+            handle = MethodHandles.foldArguments(handle, MethodHandles.permuteArguments(writeField, handle.type(), 1, 0));
+        }
+        return handle.asType(MethodType.methodType(void.class, Object.class, stream));
+    }
+
+    /**
+     * {@return a handle taking a stream and an instance, and reading every field from the stream}
+     */
+    private static MethodHandle streamReader(Class<?> type, Class<?> stream, MethodHandle[] setters) {
+        // (stream, instance) -> void
+        var handle = MethodHandles.empty(MethodType.methodType(void.class, stream, type));
+        for (int i = setters.length - 1; i >= 0; i--) {
+            var fieldType = setters[i].type().parameterType(1);
+            var readField = MethodHandles.collectArguments(setters[i], 1, reader(stream, fieldType));
+            handle = MethodHandles.foldArguments(handle, MethodHandles.permuteArguments(readField, handle.type(), 1, 0));
+        }
+        return handle.asType(MethodType.methodType(void.class, stream, Object.class));
+    }
+
+    /**
+     * {@return a handle taking a stream and a value, and writing the value}
+     */
+    private static MethodHandle writer(Class<?> stream, Class<?> fieldType) {
+        try {
+            if (stream == ByteBuffer.class) {
+                if (fieldType == String.class) {
+                    return PUT_STRING;
+                } else if (fieldType == boolean.class) {
+                    return PUT_BOOLEAN;
+                }
+                var name = fieldType == byte.class ? "put" : "put" + capitalize(fieldType);
+                var put = MethodHandles.publicLookup().findVirtual(ByteBuffer.class, name, MethodType.methodType(ByteBuffer.class, fieldType));
+                return MethodHandles.dropReturn(put);
+            }
+            if (fieldType == String.class) {
+                return WRITE_STRING;
+            }
+            // Narrower integers are written from an int
+            var parameterType = fieldType == byte.class || fieldType == short.class || fieldType == char.class ? int.class : fieldType;
+            var write = MethodHandles.publicLookup().findVirtual(DataOutput.class, "write" + capitalize(fieldType), MethodType.methodType(void.class, parameterType));
+            return write.asType(MethodType.methodType(void.class, DataOutput.class, fieldType));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new OpeningException("Issue creating method handle to write " + fieldType.getName(), e);
+        }
+    }
+
+    /**
+     * {@return a handle taking a stream, and reading a value from it}
+     */
+    private static MethodHandle reader(Class<?> stream, Class<?> fieldType) {
+        try {
+            if (stream == ByteBuffer.class) {
+                if (fieldType == String.class) {
+                    return GET_STRING;
+                } else if (fieldType == boolean.class) {
+                    return GET_BOOLEAN;
+                }
+                var name = fieldType == byte.class ? "get" : "get" + capitalize(fieldType);
+                return MethodHandles.publicLookup().findVirtual(ByteBuffer.class, name, MethodType.methodType(fieldType));
+            }
+            if (fieldType == String.class) {
+                return READ_STRING;
+            }
+            return MethodHandles.publicLookup().findVirtual(DataInput.class, "read" + capitalize(fieldType), MethodType.methodType(fieldType));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new OpeningException("Issue creating method handle to read " + fieldType.getName(), e);
+        }
+    }
+
+    private static String capitalize(Class<?> primitive) {
+        var name = primitive.getName();
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static void putBoolean(ByteBuffer buffer, boolean value) {
+        buffer.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    private static boolean getBoolean(ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+
+    private static void putString(ByteBuffer buffer, @Nullable String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static @Nullable String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutput output, @Nullable String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static @Nullable String readString(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        var bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
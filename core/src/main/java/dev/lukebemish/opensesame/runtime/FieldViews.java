@@ -0,0 +1,90 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+
+/**
+ * Builds handles reading or writing many fields of an instance at once, as the components of a record. Each component
+ * names a field of the same type, remapped as the field of a {@link OpeningMetafactory#INSTANCE_GET_TYPE} opening would
+ * be. The handle is a single tree of the fields' handles around the record's constructor or accessors, so that once
+ * inlined at its call site the record read need not be allocated at all.
+ */
+@ApiStatus.Internal
+final class FieldViews {
+    private FieldViews() {}
+
+    /**
+     * {@return a handle taking an instance of the holding class and returning a record of the values of its fields}
+     * @param caller the lookup of the caller, which must be able to construct the record
+     * @param lookup the lookup to find the fields with
+     * @param holdingClass the class to open
+     * @param recordType the record to read the fields into
+     */
+    static MethodHandle getter(MethodHandles.Lookup caller, MethodHandles.Lookup lookup, Class<?> holdingClass, Class<?> recordType) {
+        var components = components(recordType);
+        var types = new Class<?>[components.length];
+        var getters = new MethodHandle[components.length];
+        for (int i = 0; i < components.length; i++) {
+            types[i] = components[i].getType();
+            getters[i] = field(caller, lookup, holdingClass, components[i], false);
+        }
+        MethodHandle constructor;
+        try {
+            constructor = caller.findConstructor(recordType, MethodType.methodType(void.class, types));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new OpeningException("Issue creating method handle for the constructor of " + recordType.getName(), e);
+        }
+        if (components.length == 0) {
+            return MethodHandles.dropArguments(constructor, 0, holdingClass);
+        }
+        // (holding, holding, ...) -> record, with every argument then given the one instance
+        var filtered = MethodHandles.filterArguments(constructor, 0, getters);
+        return MethodHandles.permuteArguments(filtered, MethodType.methodType(recordType, holdingClass), new int[components.length]);
+    }
+
+    /**
+     * {@return a handle taking an instance of the holding class and a record, and writing its components to the fields}
+     * Fields are written in the order of the components.
+     * @param caller the lookup of the caller, which must be able to read the record
+     * @param lookup the lookup to find the fields with
+     * @param holdingClass the class to open
+     * @param recordType the record to write the fields from
+     */
+    static MethodHandle setter(MethodHandles.Lookup caller, MethodHandles.Lookup lookup, Class<?> holdingClass, Class<?> recordType) {
+        var components = components(recordType);
+        var handle = MethodHandles.empty(MethodType.methodType(void.class, holdingClass, recordType));
+        for (int i = components.length - 1; i >= 0; i--) {
+            MethodHandle accessor;
+            try {
+                accessor = caller.unreflect(components[i].getAccessor());
+            } catch (IllegalAccessException e) {
+                throw new OpeningException("Issue creating method handle for `" + components[i].getName() + "` of " + recordType.getName(), e);
+            }
+            // (holding, record) -> void, writing one component
+            var setter = MethodHandles.filterArguments(field(caller, lookup, holdingClass, components[i], true), 1, accessor);
+            handle = MethodHandles.foldArguments(handle, setter);
+        }
+        return handle;
+    }
+
+    private static RecordComponent[] components(Class<?> recordType) {
+        if (!recordType.isRecord()) {
+            throw new OpeningException(recordType.getName() + " is not a record, so cannot be a view of fields");
+        }
+        return recordType.getRecordComponents();
+    }
+
+    private static MethodHandle field(MethodHandles.Lookup caller, MethodHandles.Lookup lookup, Class<?> holdingClass, RecordComponent component, boolean set) {
+        var type = component.getType();
+        var name = OpeningMetafactory.remapField(component.getName(), type.descriptorString(), holdingClass.getName(), caller.lookupClass());
+        try {
+            return set ? lookup.findSetter(holdingClass, name, type) : lookup.findGetter(holdingClass, name, type);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new OpeningException("Issue creating method handle for `" + name + "`", e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spins, with {@link LambdaMetafactory}, instances of functional interfaces implemented by opened methods and
+ * constructors. The types of an opening with {@link dev.lukebemish.opensesame.annotations.Open#lambda()} are those of
+ * its factory, taking the captured arguments and returning the interface, so the implementation is found by its name
+ * and the number of arguments it takes. Lambdas are defined as nestmates of the class opened, where the opening lookup
+ * has full privileges there; otherwise, they are defined as nestmates of the caller and invoke the member's handle.
+ */
+@ApiStatus.Internal
+final class LambdaOpenings {
+    private LambdaOpenings() {}
+
+    /**
+     * {@return the member of the holding class implementing the functional interface returned by the factory type}
+     * @param caller the class of the caller, whose remappers name the member
+     * @param holdingClass the class to open
+     * @param name the name of the member, before remapping
+     * @param type the type of opening, one of {@link OpeningMetafactory#STATIC_TYPE},
+     *             {@link OpeningMetafactory#VIRTUAL_TYPE}, or {@link OpeningMetafactory#CONSTRUCT_TYPE}
+     * @param lambdaType the type of the factory, taking the captured arguments and returning the interface
+     */
+    static MemberResolution.Candidate implementation(Class<?> caller, Class<?> holdingClass, String name, int type, MethodType lambdaType) {
+        if (type != OpeningMetafactory.STATIC_TYPE && type != OpeningMetafactory.VIRTUAL_TYPE && type != OpeningMetafactory.CONSTRUCT_TYPE) {
+            throw new OpeningException("Lambdas may only be opened over static or virtual methods and constructors");
+        }
+        var sam = sam(lambdaType.returnType());
+        var interfaceType = MethodType.methodType(sam.method().getReturnType(), sam.method().getParameterTypes());
+        int arity = lambdaType.parameterCount() + interfaceType.parameterCount();
+        List<MemberResolution.Candidate> compatible = new ArrayList<>(1);
+        for (var candidate : MemberResolution.methods(caller, holdingClass, name, type)) {
+            if (candidate.accessType().parameterCount() == arity && isCompatible(candidate.accessType(), lambdaType, interfaceType)) {
+                compatible.add(candidate);
+            }
+        }
+        if (compatible.isEmpty()) {
+            throw new OpeningException("No member `" + name + "` of " + holdingClass.getName() + " taking " + arity + " arguments can implement " + lambdaType.returnType().getName());
+        }
+        if (compatible.size() > 1) {
+            throw new OpeningException("Ambiguous overloads of `" + name + "` of " + holdingClass.getName() + " to implement " + lambdaType.returnType().getName() + ": " + compatible.stream().map(i -> i.accessType().toString()).toList());
+        }
+        return compatible.get(0);
+    }
+
+    /**
+     * {@return a handle of the lambda type, that produces instances of the functional interface it returns}
+     * @param caller the lookup of the caller
+     * @param lookup the lookup the implementation was found with
+     * @param holdingClass the class opened
+     * @param implementation the handle of the implementation, as found for {@link #implementation}
+     * @param lambdaType the type of the factory, taking the captured arguments and returning the interface
+     */
+    static MethodHandle factory(MethodHandles.Lookup caller, MethodHandles.Lookup lookup, Class<?> holdingClass, MethodHandle implementation, MethodType lambdaType) {
+        var samClass = lambdaType.returnType();
+        var sam = sam(samClass);
+        var interfaceType = MethodType.methodType(sam.method().getReturnType(), sam.method().getParameterTypes());
+        int captured = lambdaType.parameterCount();
+        var dynamicType = dynamicType(interfaceType, implementation.type(), captured);
+        var capturedTypes = implementation.type().parameterList().subList(0, captured);
+
+        var definer = lookup.lookupClass() == holdingClass ? lookup : lookup.in(holdingClass);
+        // The interface, or the member if inherited, may not be accessible from the class opened; if so, the lambda is
+        // spun from the caller instead
+        if (definer.hasFullPrivilegeAccess() && canAccess(definer, samClass)) {
+            try {
+                var site = metafactory(definer, sam, MethodType.methodType(samClass, capturedTypes), interfaceType, implementation, dynamicType);
+                return site.getTarget().asType(lambdaType);
+            } catch (LambdaConversionException | IllegalArgumentException | LinkageError ignored) {
+            }
+        }
+
+        try {
+            var invoker = caller.findVirtual(MethodHandle.class, "invokeExact", implementation.type());
+            var factoryType = MethodType.methodType(samClass, capturedTypes).insertParameterTypes(0, MethodHandle.class);
+            var site = metafactory(caller, sam, factoryType, interfaceType, invoker, dynamicType);
+            var factory = site.getTarget().bindTo(implementation);
+            if (captured == 0) {
+                // Nothing else is captured, so the single instance may be shared as a lambda without captures would be
+                return MethodHandles.constant(samClass, factory.invoke());
+            }
+            return factory.asType(lambdaType);
+        } catch (Throwable t) {
+            throw new OpeningException("Issue creating lambda implementing " + samClass.getName(), t);
+        }
+    }
+
+    private static boolean canAccess(MethodHandles.Lookup lookup, Class<?> type) {
+        try {
+            lookup.accessClass(type);
+            return true;
+        } catch (IllegalAccessException e) {
+            return false;
+        }
+    }
+
+    private static CallSite metafactory(MethodHandles.Lookup lookup, Sam sam, MethodType factoryType, MethodType interfaceType, MethodHandle implementation, MethodType dynamicType) throws LambdaConversionException {
+        if (sam.bridges().isEmpty()) {
+            return LambdaMetafactory.metafactory(lookup, sam.method().getName(), factoryType, interfaceType, implementation, dynamicType);
+        }
+        Object[] arguments = new Object[5 + sam.bridges().size()];
+        arguments[0] = interfaceType;
+        arguments[1] = implementation;
+        arguments[2] = dynamicType;
+        arguments[3] = LambdaMetafactory.FLAG_BRIDGES;
+        arguments[4] = sam.bridges().size();
+        for (int i = 0; i < sam.bridges().size(); i++) {
+            arguments[5 + i] = sam.bridges().get(i);
+        }
+        return LambdaMetafactory.altMetafactory(lookup, sam.method().getName(), factoryType, arguments);
+    }
+
+    /**
+     * The single abstract method of a functional interface.
+     * @param method the method to implement
+     * @param bridges the erased types of the methods it overrides, which must be bridged to it
+     */
+    private record Sam(Method method, List<MethodType> bridges) {}
+
+    private static Sam sam(Class<?> type) {
+        if (!type.isInterface()) {
+            throw new OpeningException(type.getName() + " is not a functional interface");
+        }
+        List<Method> methods = new ArrayList<>();
+        for (var method : type.getMethods()) {
+            if (Modifier.isAbstract(method.getModifiers()) && !isObjectMethod(method)) {
+                methods.add(method);
+            }
+        }
+        if (methods.isEmpty() || methods.stream().map(Method::getName).distinct().count() != 1) {
+            throw new OpeningException(type.getName() + " is not a functional interface");
+        }
+        // Erased methods of superinterfaces stay abstract alongside the method overriding them
+        Method chosen = null;
+        for (var method : methods) {
+            if (methods.stream().allMatch(other -> other.getDeclaringClass().isAssignableFrom(method.getDeclaringClass()))) {
+                chosen = method;
+                break;
+            }
+        }
+        if (chosen == null) {
+            throw new OpeningException(type.getName() + " is not a functional interface");
+        }
+        var chosenType = MethodType.methodType(chosen.getReturnType(), chosen.getParameterTypes());
+        Map<MethodType, Boolean> bridges = new LinkedHashMap<>();
+        for (var method : methods) {
+            var methodType = MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+            if (!methodType.equals(chosenType)) {
+                bridges.put(methodType, true);
+            }
+        }
+        return new Sam(chosen, List.copyOf(bridges.keySet()));
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isCompatible(MethodType implementationType, MethodType lambdaType, MethodType interfaceType) {
+        int captured = lambdaType.parameterCount();
+        for (int i = 0; i < captured; i++) {
+            if (!isAdaptable(lambdaType.parameterType(i), implementationType.parameterType(i))) {
+                return false;
+            }
+        }
+        for (int i = 0; i < interfaceType.parameterCount(); i++) {
+            if (!isAdaptable(interfaceType.parameterType(i), implementationType.parameterType(captured + i))) {
+                return false;
+            }
+        }
+        var returnType = interfaceType.returnType();
+        return returnType == void.class || isAdaptable(implementationType.returnType(), returnType);
+    }
+
+    /**
+     * {@return whether a value of one type may be passed as another, allowing for casts of erased types}
+     */
+    private static boolean isAdaptable(Class<?> from, Class<?> to) {
+        if (from == to) {
+            return true;
+        }
+        if (from == void.class || to == void.class) {
+            return false;
+        }
+        if (from.isPrimitive() && to.isPrimitive()) {
+            return MethodType.methodType(to, from).wrap().returnType() != Boolean.class
+                    && MethodType.methodType(from).wrap().returnType() != Boolean.class;
+        }
+        if (from.isPrimitive()) {
+            return to.isAssignableFrom(wrap(from));
+        }
+        if (to.isPrimitive()) {
+            return from.isAssignableFrom(wrap(to));
+        }
+        return to.isAssignableFrom(from) || from.isAssignableFrom(to) || from.isInterface() || to.isInterface();
+    }
+
+    /**
+     * {@return the type enforced on arguments and results of the lambda} Erased parameters and results of the interface
+     * method are narrowed to those of the implementation, so that they are cast as a lambda written in Java would be.
+     */
+    private static MethodType dynamicType(MethodType interfaceType, MethodType implementationType, int captured) {
+        var parameters = new Class<?>[interfaceType.parameterCount()];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = narrow(interfaceType.parameterType(i), implementationType.parameterType(captured + i));
+        }
+        var returnType = interfaceType.returnType();
+        if (returnType != void.class) {
+            returnType = narrow(returnType, implementationType.returnType());
+        }
+        return MethodType.methodType(returnType, parameters);
+    }
+
+    private static Class<?> narrow(Class<?> interfaceType, Class<?> implementationType) {
+        if (interfaceType.isPrimitive()) {
+            return interfaceType;
+        }
+        var candidate = implementationType.isPrimitive() ? wrap(implementationType) : implementationType;
+        return interfaceType.isAssignableFrom(candidate) ? candidate : interfaceType;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -8,30 +8,39 @@
 import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.WeakHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 @ApiStatus.Internal
 final class LayeredServiceLoader<T> {
     private final Class<T> service;
 
     private final WeakHashMap<ClassLoader, WeakReference<SingleImplementation<T>>> cache = new WeakHashMap<>();
+    private final Lock lock = new ReentrantLock();
     private final ClassValue<SingleImplementation<T>> providersValue = new ClassValue<>() {
         @Override
         protected SingleImplementation<T> computeValue(Class<?> type) {
-            var existingReference = cache.get(type.getClassLoader());
-            if (existingReference != null) {
-                var existing = existingReference.get();
-                if (existing != null) {
-                    return existing;
+            lock.lock();
+            try {
+                var existingReference = cache.get(type.getClassLoader());
+                if (existingReference != null) {
+                    var existing = existingReference.get();
+                    if (existing != null) {
+                        return existing;
+                    }
                 }
+                var implementations = new LinkedHashMap<Class<?>, T>();
+                if (type.getModule().getLayer() == null) {
+                    ServiceLoader.load(service, type.getClassLoader()).stream().forEach(provider -> implementations.putIfAbsent(provider.type(), provider.get()));
+                } else {
+                    ServiceLoader.load(type.getModule().getLayer(), service).stream().forEach(provider -> implementations.putIfAbsent(provider.type(), provider.get()));
+                }
+                var singleImplementation = new SingleImplementation<>(implementations);
+                cache.put(type.getClassLoader(), new WeakReference<>(singleImplementation));
+                return singleImplementation;
+            } finally {
+                lock.unlock();
             }
-            var singleImplementation = new SingleImplementation<T>();
-            if (type.getModule().getLayer() == null) {
-                ServiceLoader.load(service, type.getClassLoader()).stream().forEach(provider -> singleImplementation.implementations.put(provider.getClass(), provider));
-            } else {
-                ServiceLoader.load(type.getModule().getLayer(), service).stream().forEach(provider -> singleImplementation.implementations.put(provider.getClass(), provider));
-            }
-            cache.put(type.getClassLoader(), new WeakReference<>(singleImplementation));
-            return singleImplementation;
         }
     };
 
@@ -45,10 +54,13 @@ public SingleImplementation<T> at(Class<?> type) {
 
     @SafeVarargs
     public static <T> List<T> unique(SingleImplementation<T>... implementations) {
+        if (implementations.length == 1) {
+            return implementations[0].instances;
+        }
         var out = new LinkedHashMap<Class<?>, T>();
         for (var impl : implementations) {
             for (var entry : impl.implementations.entrySet()) {
-                out.putIfAbsent(entry.getKey(), entry.getValue().get());
+                out.putIfAbsent(entry.getKey(), entry.getValue());
             }
         }
         return List.copyOf(out.values());
@@ -59,6 +71,21 @@ public static <T> LayeredServiceLoader<T> of(Class<T> service) {
     }
 
     public static final class SingleImplementation<T> {
-        private final Map<Class<?>, ServiceLoader.Provider<T>> implementations = new LinkedHashMap<>();
+        // Providers are instantiated once, when the implementation is first needed
+        private final Map<Class<?>, T> implementations;
+        private final List<T> instances;
+
+        private SingleImplementation(Map<Class<?>, T> implementations) {
+            this.implementations = implementations;
+            this.instances = List.copyOf(implementations.values());
+        }
+
+        /**
+         * {@return the providers of this implementation} Unlike {@link LayeredServiceLoader#unique(SingleImplementation[])}, this allocates
+         * nothing.
+         */
+        public List<T> instances() {
+            return instances;
+        }
     }
 }
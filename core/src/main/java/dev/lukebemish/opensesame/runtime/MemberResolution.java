@@ -0,0 +1,152 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds members of a class by name alone, for openings whose own type does not describe the member they open. Names are
+ * remapped against the descriptor of each candidate in turn.
+ */
+@ApiStatus.Internal
+final class MemberResolution {
+    private MemberResolution() {}
+
+    /**
+     * A member found by name.
+     * @param name the name of the member, remapped if need be
+     * @param accessType the type of the member, in the form of the access type of a plain opening of it
+     */
+    record Candidate(String name, MethodType accessType) {}
+
+    /**
+     * {@return the methods or constructors of the holding class that an opening of the given name could target}
+     * @param caller the class of the caller, whose remappers name the member
+     * @param holdingClass the class to open
+     * @param name the name of the member, before remapping
+     * @param type the type of opening, one of {@link OpeningMetafactory#STATIC_TYPE},
+     *             {@link OpeningMetafactory#VIRTUAL_TYPE}, {@link OpeningMetafactory#SPECIAL_TYPE}, or
+     *             {@link OpeningMetafactory#CONSTRUCT_TYPE}
+     */
+    static List<Candidate> methods(Class<?> caller, Class<?> holdingClass, String name, int type) {
+        List<Candidate> candidates = new ArrayList<>();
+        if (type == OpeningMetafactory.CONSTRUCT_TYPE) {
+            for (var constructor : holdingClass.getDeclaredConstructors()) {
+                candidates.add(new Candidate(name, MethodType.methodType(holdingClass, constructor.getParameterTypes())));
+            }
+            return candidates;
+        }
+        if (type != OpeningMetafactory.STATIC_TYPE && type != OpeningMetafactory.VIRTUAL_TYPE && type != OpeningMetafactory.SPECIAL_TYPE) {
+            throw new OpeningException("Unexpected opening type for a method: " + type);
+        }
+        boolean isStatic = type == OpeningMetafactory.STATIC_TYPE;
+        Set<String> seen = new HashSet<>();
+        for (var current : hierarchy(holdingClass, !isStatic)) {
+            for (var method : current.getDeclaredMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) != isStatic || method.isBridge()) {
+                    continue;
+                }
+                var methodType = MethodType.methodType(method.getReturnType(), method.getParameterTypes());
+                if (!isStatic) {
+                    methodType = methodType.insertParameterTypes(0, holdingClass);
+                }
+                // Overrides are seen after the methods overriding them
+                if (!seen.add(method.getName() + methodType.descriptorString())) {
+                    continue;
+                }
+                var remapped = OpeningMetafactory.remapMethod(name, methodType.descriptorString(), holdingClass.getName(), caller);
+                if (remapped.equals(method.getName())) {
+                    candidates.add(new Candidate(method.getName(), methodType));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * {@return the member of the holding class whose handle an opening of the given name returns}
+     * @param caller the class of the caller, whose remappers name the member
+     * @param holdingClass the class to open
+     * @param name the name of the member, before remapping
+     * @param type the type of opening, as determined by the constants in {@link OpeningMetafactory}
+     */
+    static Candidate handle(Class<?> caller, Class<?> holdingClass, String name, int type) {
+        return switch (type) {
+            case OpeningMetafactory.STATIC_TYPE, OpeningMetafactory.VIRTUAL_TYPE, OpeningMetafactory.SPECIAL_TYPE, OpeningMetafactory.CONSTRUCT_TYPE -> {
+                var candidates = methods(caller, holdingClass, name, type);
+                if (candidates.isEmpty()) {
+                    throw new OpeningException("No " + (type == OpeningMetafactory.CONSTRUCT_TYPE ? "constructor" : "method `" + name + "`") + " found in " + holdingClass.getName());
+                }
+                if (candidates.size() > 1) {
+                    throw new OpeningException("Ambiguous overloads of `" + name + "` of " + holdingClass.getName() + ": " + candidates.stream().map(c -> c.accessType().toString()).toList());
+                }
+                yield candidates.get(0);
+            }
+            case OpeningMetafactory.STATIC_GET_TYPE, OpeningMetafactory.STATIC_SET_TYPE, OpeningMetafactory.STATIC_ACCESS_TYPE,
+                    OpeningMetafactory.INSTANCE_GET_TYPE, OpeningMetafactory.INSTANCE_SET_TYPE, OpeningMetafactory.INSTANCE_ACCESS_TYPE -> {
+                var field = field(caller, holdingClass, name, type == OpeningMetafactory.STATIC_GET_TYPE || type == OpeningMetafactory.STATIC_SET_TYPE || type == OpeningMetafactory.STATIC_ACCESS_TYPE);
+                var fieldType = field.getType();
+                var accessType = switch (type) {
+                    case OpeningMetafactory.STATIC_GET_TYPE, OpeningMetafactory.STATIC_ACCESS_TYPE -> MethodType.methodType(fieldType);
+                    case OpeningMetafactory.INSTANCE_GET_TYPE, OpeningMetafactory.INSTANCE_ACCESS_TYPE -> MethodType.methodType(fieldType, holdingClass);
+                    case OpeningMetafactory.STATIC_SET_TYPE -> MethodType.methodType(void.class, fieldType);
+                    default -> MethodType.methodType(void.class, holdingClass, fieldType);
+                };
+                yield new Candidate(field.getName(), accessType);
+            }
+            case OpeningMetafactory.ARRAY_TYPE -> new Candidate(name, MethodType.methodType(holdingClass.arrayType(), int.class));
+            default -> throw new OpeningException("Unexpected opening type: " + type);
+        };
+    }
+
+    /**
+     * {@return the field a lookup on the holding class would find for the given name} Fields of a class hide those of
+     * the classes it inherits from.
+     */
+    private static Field field(Class<?> caller, Class<?> holdingClass, String name, boolean isStatic) {
+        for (var current : hierarchy(holdingClass, true)) {
+            for (var field : current.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) != isStatic) {
+                    continue;
+                }
+                var remapped = OpeningMetafactory.remapField(name, field.getType().descriptorString(), holdingClass.getName(), caller);
+                if (remapped.equals(field.getName())) {
+                    return field;
+                }
+            }
+        }
+        throw new OpeningException("No " + (isStatic ? "static " : "") + "field `" + name + "` found in " + holdingClass.getName());
+    }
+
+    /**
+     * {@return a class and the classes it inherits from, closest first}
+     * @param interfaces whether to include the interfaces the class implements
+     */
+    private static List<Class<?>> hierarchy(Class<?> holdingClass, boolean interfaces) {
+        List<Class<?>> classes = new ArrayList<>();
+        Set<Class<?>> visited = new HashSet<>();
+        var queue = new ArrayDeque<Class<?>>();
+        queue.add(holdingClass);
+        while (!queue.isEmpty()) {
+            var current = queue.poll();
+            if (!visited.add(current)) {
+                continue;
+            }
+            classes.add(current);
+            if (current.getSuperclass() != null) {
+                queue.add(current.getSuperclass());
+            }
+            if (interfaces) {
+                queue.addAll(List.of(current.getInterfaces()));
+            }
+        }
+        return classes;
+    }
+}
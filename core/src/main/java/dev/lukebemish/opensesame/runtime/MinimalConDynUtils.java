@@ -32,6 +32,10 @@ static ConstantDynamic conDynFromClass(Type targetTypeType) {
             );
         }
 
+        return conDynFromConstant(Type.getType(Class.class), targetType);
+    }
+
+    static ConstantDynamic conDynFromConstant(Type constantType, Object constant) {
         return invoke(
                 MethodHandle.class.descriptorString(),
                 new Handle(
@@ -50,8 +54,8 @@ static ConstantDynamic conDynFromClass(Type targetTypeType) {
                                 MethodType.methodType(MethodHandle.class, Class.class, Object.class).descriptorString(),
                                 false
                         ),
-                        Type.getType(Class.class),
-                        targetType
+                        constantType,
+                        constant
                 ),
                 0,
                 Type.getType(ClassLoader.class)
@@ -76,65 +80,8 @@ static ConstantDynamic invoke(String descriptor, Object handle, Object... args)
         );
     }
 
-    static Object conDynMethodType(Object returnType, List<?> parameterTypes) {
-        var fixedArityMethodType = invoke(
-                MethodHandle.class.descriptorString(),
-                new Handle(
-                        Opcodes.H_INVOKEVIRTUAL,
-                        Type.getInternalName(MethodHandle.class),
-                        "asCollector",
-                        MethodType.methodType(MethodHandle.class, Class.class, int.class).descriptorString(),
-                        false
-                ),
-                new Handle(
-                        Opcodes.H_INVOKESTATIC,
-                        Type.getInternalName(MethodType.class),
-                        "methodType",
-                        MethodType.methodType(MethodType.class, Class.class, Class[].class).descriptorString(),
-                        false
-                ),
-                Type.getType(Class[].class),
-                parameterTypes.size()
-        );
-
-        Object[] args = new Object[parameterTypes.size() + 3];
-        args[0] = fixedArityMethodType;
-        args[1] = 0;
-        args[2] = returnType;
-        for (int i = 0; i < parameterTypes.size(); i++) {
-            args[i+3] = parameterTypes.get(i);
-        }
-
-        var manyClassloaderArg = invoke(
-                MethodHandle.class.descriptorString(),
-                new Handle(
-                        Opcodes.H_INVOKESTATIC,
-                        Type.getInternalName(MethodHandles.class),
-                        "filterArguments",
-                        MethodType.methodType(MethodHandle.class, MethodHandle.class, int.class, MethodHandle[].class).descriptorString(),
-                        false
-                ),
-                args
-        );
-
-        Object[] parameterPermutations = new Object[parameterTypes.size() + 3];
-        parameterPermutations[0] = manyClassloaderArg;
-        parameterPermutations[1] = Type.getMethodType(Type.getType(MethodType.class), Type.getType(ClassLoader.class));
-
-        for (int i = 0; i < parameterTypes.size() + 1; i++) {
-            parameterPermutations[i + 2] = 0;
-        }
-
-        return invoke(
-                MethodHandle.class.descriptorString(),
-                new Handle(
-                        Opcodes.H_INVOKESTATIC,
-                        Type.getInternalName(MethodHandles.class),
-                        "permuteArguments",
-                        MethodType.methodType(MethodHandle.class, MethodHandle.class, MethodType.class, int[].class).descriptorString(),
-                        false
-                ),
-                parameterPermutations
-        );
+    static ConstantDynamic conDynMethodType(Type returnType, List<Type> parameterTypes) {
+        // Every type here is a class the generated class can already name, so the method type is a plain constant
+        return conDynFromConstant(Type.getType(MethodType.class), Type.getMethodType(returnType, parameterTypes.toArray(Type[]::new)));
     }
 }
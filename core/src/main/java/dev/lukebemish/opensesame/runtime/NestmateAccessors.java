@@ -0,0 +1,194 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spins hidden classes, nestmates of the classes being opened, whose static methods access opened fields, constructors,
+ * and arrays, and check types, with plain bytecode. The handles of such members run through lambda forms that the interpreter and C1 are
+ * slow to execute before they are compiled; call sites bound to accessors avoid these. Methods are left to their
+ * handles, which link to them directly. Accessors are spun for the openings of a batch, one nest for every class a
+ * holder opens; call sites linked on their own keep the handles of their members. Used when the system property {@code dev.lukebemish.opensesame.linkage} is
+ * {@code nestmate}; by default, call sites are bound to the handles of the members themselves.
+ */
+@ApiStatus.Internal
+final class NestmateAccessors {
+    static final boolean ENABLED = "nestmate".equals(System.getProperty("dev.lukebemish.opensesame.linkage"));
+
+    private NestmateAccessors() {}
+
+    /**
+     * A member to access, as found by a lookup.
+     * @param type the type of opening, one of the constants in {@link OpeningMetafactory}
+     * @param handle the handle of the member
+     */
+    record Member(int type, MethodHandle handle) {}
+
+    /**
+     * {@return handles to accessors of the given members, in the order given, each of the same type as the handle of
+     * its member} Members that a nestmate of the class they were found on could not access with bytecode, or that a
+     * nestmate may not be defined for, keep the handles they were found with.
+     * @param lookup the lookup the members were found with
+     * @param holdingClass the class the members were found on
+     * @param members the members to access
+     */
+    static MethodHandle[] link(MethodHandles.Lookup lookup, Class<?> holdingClass, List<Member> members) {
+        var handles = new MethodHandle[members.size()];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = members.get(i).handle();
+        }
+        if (holdingClass.isHidden() || holdingClass.isArray() || holdingClass.isPrimitive()) {
+            return handles;
+        }
+        var definer = lookup.lookupClass() == holdingClass ? lookup : lookup.in(holdingClass);
+        if (!definer.hasFullPrivilegeAccess()) {
+            return handles;
+        }
+
+        List<Integer> accessed = new ArrayList<>();
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(
+                Opcodes.V17,
+                Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC,
+                Type.getInternalName(holdingClass) + "$OpenSesameAccessors",
+                null,
+                Type.getInternalName(Object.class),
+                null
+        );
+        for (int i = 0; i < handles.length; i++) {
+            var member = members.get(i);
+            if (member.type() < OpeningMetafactory.STATIC_GET_TYPE) {
+                // The handle of a method already links straight to it; an accessor would only add a frame
+                continue;
+            }
+            if (member.type() == OpeningMetafactory.STATIC_ACCESS_TYPE || member.type() == OpeningMetafactory.INSTANCE_ACCESS_TYPE) {
+                // Access modes other than plain gets and sets have no instruction to access the field with
+                continue;
+            }
+            if (member.type() == OpeningMetafactory.GET_VIEW_TYPE || member.type() == OpeningMetafactory.SET_VIEW_TYPE) {
+                // Views already combine the handles of several fields
+                continue;
+            }
+            if (!isDescribable(member.handle().type())) {
+                continue;
+            }
+            MethodHandleInfo info = null;
+            // Arrays and type checks are of the holding class itself, rather than of a member of it
+            if (member.type() != OpeningMetafactory.ARRAY_TYPE && member.type() != OpeningMetafactory.INSTANCE_OF_TYPE && member.type() != OpeningMetafactory.CAST_TYPE) {
+                try {
+                    info = lookup.revealDirect(member.handle());
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                if (!isAccessible(holdingClass, info)) {
+                    continue;
+                }
+            }
+            var methodVisitor = writer.visitMethod(
+                    Opcodes.ACC_STATIC,
+                    "access" + accessed.size(),
+                    member.handle().type().descriptorString(),
+                    null,
+                    null
+            );
+            methodVisitor.visitCode();
+            visitAccess(methodVisitor, holdingClass, member, info);
+            methodVisitor.visitMaxs(0, 0);
+            methodVisitor.visitEnd();
+            accessed.add(i);
+        }
+        writer.visitEnd();
+        if (accessed.isEmpty()) {
+            return handles;
+        }
+
+        MethodHandles.Lookup accessors;
+        try {
+            accessors = ClassCreatorUtils.defineHiddenClass(definer, writer.toByteArray(), false, MethodHandles.Lookup.ClassOption.NESTMATE);
+        } catch (IllegalAccessException e) {
+            return handles;
+        }
+        try {
+            for (int j = 0; j < accessed.size(); j++) {
+                int i = accessed.get(j);
+                handles[i] = accessors.findStatic(accessors.lookupClass(), "access" + j, handles[i].type());
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new OpeningException("Issue finding nestmate accessor", e);
+        }
+        return handles;
+    }
+
+    private static boolean isDescribable(MethodType type) {
+        // Hidden classes cannot be named by the accessor's descriptors
+        if (type.returnType().isHidden()) {
+            return false;
+        }
+        for (var parameterType : type.parameterArray()) {
+            if (parameterType.isHidden()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@return whether a nestmate of the holding class, in its package, may access the member with bytecode}
+     */
+    private static boolean isAccessible(Class<?> holdingClass, MethodHandleInfo info) {
+        var declaringClass = info.getDeclaringClass();
+        int modifiers = info.getModifiers();
+        if (Modifier.isFinal(modifiers) && (info.getReferenceKind() == MethodHandleInfo.REF_putField || info.getReferenceKind() == MethodHandleInfo.REF_putStatic)) {
+            // Final fields may only be put by the initializers of their own class, though a trusted lookup may set them
+            return false;
+        }
+        if (Modifier.isPublic(modifiers)) {
+            return true;
+        }
+        if (Modifier.isPrivate(modifiers)) {
+            return declaringClass.getNestHost() == holdingClass.getNestHost();
+        }
+        // Protected members of other packages are only accessible to subclasses, which the accessor is not
+        return declaringClass.getClassLoader() == holdingClass.getClassLoader() && declaringClass.getPackageName().equals(holdingClass.getPackageName());
+    }
+
+    private static void visitAccess(MethodVisitor methodVisitor, Class<?> holdingClass, Member member, MethodHandleInfo info) {
+        var owner = Type.getInternalName(holdingClass);
+        var type = member.handle().type();
+        if (member.type() == OpeningMetafactory.CONSTRUCT_TYPE) {
+            methodVisitor.visitTypeInsn(Opcodes.NEW, owner);
+            methodVisitor.visitInsn(Opcodes.DUP);
+        }
+        int local = 0;
+        for (var parameterType : type.parameterArray()) {
+            var asmType = Type.getType(parameterType);
+            methodVisitor.visitVarInsn(asmType.getOpcode(Opcodes.ILOAD), local);
+            local += asmType.getSize();
+        }
+        switch (member.type()) {
+            case OpeningMetafactory.STATIC_GET_TYPE -> methodVisitor.visitFieldInsn(Opcodes.GETSTATIC, owner, info.getName(), info.getMethodType().returnType().descriptorString());
+            case OpeningMetafactory.INSTANCE_GET_TYPE -> methodVisitor.visitFieldInsn(Opcodes.GETFIELD, owner, info.getName(), info.getMethodType().returnType().descriptorString());
+            case OpeningMetafactory.STATIC_SET_TYPE -> methodVisitor.visitFieldInsn(Opcodes.PUTSTATIC, owner, info.getName(), info.getMethodType().parameterType(0).descriptorString());
+            case OpeningMetafactory.INSTANCE_SET_TYPE -> methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, owner, info.getName(), info.getMethodType().parameterType(0).descriptorString());
+            case OpeningMetafactory.CONSTRUCT_TYPE -> methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, owner, "<init>", info.getMethodType().descriptorString(), false);
+            case OpeningMetafactory.ARRAY_TYPE -> methodVisitor.visitTypeInsn(Opcodes.ANEWARRAY, owner);
+            // Each accessor's own instruction is profiled, unlike a shared lambda form
+            case OpeningMetafactory.INSTANCE_OF_TYPE -> methodVisitor.visitTypeInsn(Opcodes.INSTANCEOF, owner);
+            case OpeningMetafactory.CAST_TYPE -> methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, owner);
+            default -> throw new OpeningException("Unexpected opening type: " + member.type());
+        }
+        var returnType = Type.getType(type.returnType());
+        methodVisitor.visitInsn(returnType.getOpcode(Opcodes.IRETURN));
+    }
+}
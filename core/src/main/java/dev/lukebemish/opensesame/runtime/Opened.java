@@ -0,0 +1,208 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens members found at runtime, for code that cannot be processed ahead of time. Handles are found as call sites of
+ * {@link dev.lukebemish.opensesame.annotations.Open} would be, with the same lookups and the
+ * {@link RuntimeRemapper}s of the caller, and are of exactly the type asked for. Handles are cached per caller, so
+ * repeated requests for the same member are cheap; callers on a hot path should still hold onto the handles they use.
+ * The cache is kept in a {@link ClassPairValue}, so that a long-lived caller does not keep alive the classes it has
+ * opened, nor a long-lived class its callers.
+ * <p>
+ * Methods mirror those of {@link MethodHandles.Lookup}; as there, the types of instance methods do not include the
+ * receiver, and the types of constructors return {@code void}.
+ */
+public final class Opened {
+    private record Key(String name, Object type, int kind) {}
+
+    /**
+     * The privileges of a lookup, and whether it opens members unsafely. Lookups of the same class with fewer privileges
+     * may not be given handles found for it with more.
+     */
+    private record Privileges(int lookupModes, @Nullable Class<?> previousLookupClass, boolean unsafe) {}
+
+    private static final ClassPairValue<Map<Privileges, Map<Key, Object>>> CACHES = new ClassPairValue<>() {
+        @Override
+        protected Map<Privileges, Map<Key, Object>> computeValue(Class<?> caller, Class<?> holdingClass) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final int STATIC_VAR_HANDLE = -1;
+    private static final int INSTANCE_VAR_HANDLE = -2;
+    private static final int COPIER = -3;
+
+    private final MethodHandles.Lookup caller;
+    private final boolean unsafe;
+    private final Privileges privileges;
+
+    private Opened(MethodHandles.Lookup caller, boolean unsafe) {
+        this.caller = caller;
+        this.unsafe = unsafe;
+        this.privileges = new Privileges(caller.lookupModes(), caller.previousLookupClass(), unsafe);
+    }
+
+    /**
+     * {@return an opener of members on behalf of the given caller, obeying module boundaries}
+     * @param caller the lookup of the caller, whose remappers name the members opened
+     */
+    public static Opened in(MethodHandles.Lookup caller) {
+        return new Opened(caller, false);
+    }
+
+    /**
+     * {@return an opener of members on behalf of the same caller, breaking through module boundaries with native access
+     * or {@link sun.misc.Unsafe}}
+     */
+    public Opened unsafe() {
+        return unsafe ? this : new Opened(caller, true);
+    }
+
+    /**
+     * {@return a handle invoking a static method}
+     * @param holdingClass the class to open
+     * @param name the name of the method
+     * @param type the type of the method
+     * @throws OpeningException if the method could not be found or could not be opened
+     */
+    public MethodHandle findStatic(Class<?> holdingClass, String name, MethodType type) {
+        return (MethodHandle) find(holdingClass, name, type, OpeningMetafactory.STATIC_TYPE);
+    }
+
+    /**
+     * {@return a handle invoking an instance method virtually, taking the receiver first}
+     * @param holdingClass the class to open
+     * @param name the name of the method
+     * @param type the type of the method, without the receiver
+     * @throws OpeningException if the method could not be found or could not be opened
+     */
+    public MethodHandle findVirtual(Class<?> holdingClass, String name, MethodType type) {
+        return (MethodHandle) find(holdingClass, name, type.insertParameterTypes(0, holdingClass), OpeningMetafactory.VIRTUAL_TYPE);
+    }
+
+    /**
+     * {@return a handle invoking an instance method of the given class non-virtually, taking the receiver first}
+     * @param holdingClass the class to open
+     * @param name the name of the method
+     * @param type the type of the method, without the receiver
+     * @throws OpeningException if the method could not be found or could not be opened
+     */
+    public MethodHandle findSpecial(Class<?> holdingClass, String name, MethodType type) {
+        return (MethodHandle) find(holdingClass, name, type.insertParameterTypes(0, holdingClass), OpeningMetafactory.SPECIAL_TYPE);
+    }
+
+    /**
+     * {@return a handle invoking a constructor, returning the instance created}
+     * @param holdingClass the class to open
+     * @param type the type of the constructor, returning {@code void}
+     * @throws OpeningException if the constructor could not be found or could not be opened
+     */
+    public MethodHandle findConstructor(Class<?> holdingClass, MethodType type) {
+        return (MethodHandle) find(holdingClass, "<init>", type.changeReturnType(holdingClass), OpeningMetafactory.CONSTRUCT_TYPE);
+    }
+
+    /**
+     * {@return a handle reading a static field} As with {@link dev.lukebemish.opensesame.annotations.Open#constant()},
+     * the handle of a {@code static final} field is bound to its value once its class is initialized.
+     * @param holdingClass the class to open
+     * @param name the name of the field
+     * @param type the type of the field
+     * @throws OpeningException if the field could not be found or could not be opened
+     */
+    public MethodHandle findStaticGetter(Class<?> holdingClass, String name, Class<?> type) {
+        return (MethodHandle) find(holdingClass, name, MethodType.methodType(type), OpeningMetafactory.STATIC_GET_TYPE);
+    }
+
+    /**
+     * {@return a handle reading an instance field, taking the receiver}
+     * @param holdingClass the class to open
+     * @param name the name of the field
+     * @param type the type of the field
+     * @throws OpeningException if the field could not be found or could not be opened
+     */
+    public MethodHandle findGetter(Class<?> holdingClass, String name, Class<?> type) {
+        return (MethodHandle) find(holdingClass, name, MethodType.methodType(type, holdingClass), OpeningMetafactory.INSTANCE_GET_TYPE);
+    }
+
+    /**
+     * {@return a handle writing a static field, taking the value}
+     * @param holdingClass the class to open
+     * @param name the name of the field
+     * @param type the type of the field
+     * @throws OpeningException if the field could not be found or could not be opened
+     */
+    public MethodHandle findStaticSetter(Class<?> holdingClass, String name, Class<?> type) {
+        return (MethodHandle) find(holdingClass, name, MethodType.methodType(void.class, type), OpeningMetafactory.STATIC_SET_TYPE);
+    }
+
+    /**
+     * {@return a handle writing an instance field, taking the receiver and the value}
+     * @param holdingClass the class to open
+     * @param name the name of the field
+     * @param type the type of the field
+     * @throws OpeningException if the field could not be found or could not be opened
+     */
+    public MethodHandle findSetter(Class<?> holdingClass, String name, Class<?> type) {
+        return (MethodHandle) find(holdingClass, name, MethodType.methodType(void.class, holdingClass, type), OpeningMetafactory.INSTANCE_SET_TYPE);
+    }
+
+    /**
+     * {@return a var handle of a static field}
+     * @param holdingClass the class to open
+     * @param name the name of the field
+     * @param type the type of the field
+     * @throws OpeningException if the field could not be found or could not be opened
+     */
+    public VarHandle findStaticVarHandle(Class<?> holdingClass, String name, Class<?> type) {
+        return (VarHandle) find(holdingClass, name, type, STATIC_VAR_HANDLE);
+    }
+
+    /**
+     * {@return a var handle of an instance field, taking the receiver as its coordinate}
+     * @param holdingClass the class to open
+     * @param name the name of the field
+     * @param type the type of the field
+     * @throws OpeningException if the field could not be found or could not be opened
+     */
+    public VarHandle findVarHandle(Class<?> holdingClass, String name, Class<?> type) {
+        return (VarHandle) find(holdingClass, name, type, INSTANCE_VAR_HANDLE);
+    }
+
+    /**
+     * {@return a copier of every instance field of the given class and its superclasses}
+     * @param type the class to open
+     * @throws OpeningException if the fields could not be found or could not be opened
+     */
+    @SuppressWarnings("unchecked")
+    public <T> FieldCopier<T> findCopier(Class<T> type) {
+        return (FieldCopier<T>) find(type, "", type, COPIER);
+    }
+
+    private Object find(Class<?> holdingClass, String name, Object type, int kind) {
+        var cache = CACHES.get(caller.lookupClass(), holdingClass).computeIfAbsent(privileges, k -> new ConcurrentHashMap<>());
+        var key = new Key(name, type, kind);
+        var handle = cache.get(key);
+        if (handle == null) {
+            // Found outside the map, so that no lock is held while linking; racing threads keep whichever handle was
+            // stored first
+            handle = switch (kind) {
+                case STATIC_VAR_HANDLE, INSTANCE_VAR_HANDLE -> OpeningMetafactory.openVarHandle(caller, name, (Class<?>) type, holdingClass, kind == STATIC_VAR_HANDLE, unsafe);
+                case COPIER -> FieldCopier.of(caller, holdingClass, unsafe);
+                default -> OpeningMetafactory.open(caller, name, (MethodType) type, holdingClass, kind, unsafe);
+            };
+            var existing = cache.putIfAbsent(key, handle);
+            if (existing != null) {
+                handle = existing;
+            }
+        }
+        return handle;
+    }
+}
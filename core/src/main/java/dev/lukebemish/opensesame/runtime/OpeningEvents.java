@@ -0,0 +1,218 @@
+package dev.lukebemish.opensesame.runtime;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Flight recorder events emitted by {@link OpeningMetafactory}. The event classes are only touched if {@code jdk.jfr}
+ * is present, so that the runtime still works on images without it.
+ */
+@ApiStatus.Internal
+final class OpeningEvents {
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.jfr")
+            .map(OpeningEvents.class.getModule()::canRead)
+            .orElse(false);
+
+    static {
+        if (AVAILABLE) {
+            addPeriodicEvents();
+        }
+    }
+
+    @SuppressWarnings("removal")
+    private static void addPeriodicEvents() {
+        // The hook is kept with the access control context it was added from; this class is first touched while linking
+        // some caller's call site, which would otherwise keep that caller's class loader alive for good
+        java.security.AccessController.doPrivileged((java.security.PrivilegedAction<Void>) () -> {
+            FlightRecorder.addPeriodicEvent(RemapStatistics.class, () -> {
+                var event = new RemapStatistics();
+                event.hits = RemapCache.hits();
+                event.misses = RemapCache.misses();
+                event.entries = RemapCache.entries();
+                event.commit();
+            });
+            return null;
+        });
+    }
+
+    private OpeningEvents() {}
+
+    /**
+     * {@return a begun link event, or {@code null} if no recording wants it}
+     */
+    static @Nullable Link link() {
+        if (AVAILABLE) {
+            var event = new Link();
+            if (event.isEnabled()) {
+                event.begin();
+                event.mark = System.nanoTime();
+                return event;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@return a begun extension event, or {@code null} if no recording wants it}
+     */
+    static @Nullable Extend extend() {
+        if (AVAILABLE) {
+            var event = new Extend();
+            if (event.isEnabled()) {
+                event.begin();
+                return event;
+            }
+        }
+        return null;
+    }
+
+    @Name("dev.lukebemish.opensesame.Link")
+    @Label("Link Call Site")
+    @Category("OpenSesame")
+    @Description("An opened call site being bootstrapped by OpeningMetafactory")
+    @StackTrace(false)
+    static final class Link extends Event {
+        @Label("Caller")
+        Class<?> caller;
+
+        @Label("Holding Class")
+        Class<?> holdingClass;
+
+        @Label("Member Name")
+        String name;
+
+        @Label("Open Type")
+        String type;
+
+        @Label("Unsafe")
+        boolean unsafe;
+
+        @Label("Lookup Provider")
+        String lookupProvider;
+
+        @Label("Batched")
+        @Description("Whether the call site was linked together with the other openings of its caller")
+        boolean batched;
+
+        @Label("Nestmate Accessor")
+        @Description("Whether the call site is bound to a generated nestmate accessor, rather than to the member's handle")
+        boolean nestmateAccessor;
+
+        @Label("Constant")
+        @Description("Whether the call site is bound to the value of a static final field, once its class is initialized")
+        boolean constant;
+
+        @Label("Lambda")
+        @Description("Whether the call site creates lambdas implemented by the member, rather than invoking it")
+        boolean lambda;
+
+        @Label("Handle")
+        @Description("Whether the call site returns the member's handle, rather than accessing it")
+        boolean handle;
+
+        @Label("Provider Duration")
+        @Description("Time spent invoking the class and type providers")
+        @Timespan
+        long providerDuration;
+
+        @Label("Module Duration")
+        @Description("Time spent ensuring the caller's module can read the target's")
+        @Timespan
+        long moduleDuration;
+
+        @Label("Lookup Duration")
+        @Description("Time spent creating the lookup used to find the member")
+        @Timespan
+        long lookupDuration;
+
+        @Label("Remap Duration")
+        @Description("Time spent remapping the member name")
+        @Timespan
+        long remapDuration;
+
+        @Label("Handle Duration")
+        @Description("Time spent finding the member and adapting its handle")
+        @Timespan
+        long handleDuration;
+
+        transient long mark;
+
+        /**
+         * {@return the time since the last phase ended, in nanoseconds}
+         */
+        long phase() {
+            long now = System.nanoTime();
+            long duration = now - mark;
+            mark = now;
+            return duration;
+        }
+    }
+
+    @Name("dev.lukebemish.opensesame.Extend")
+    @Label("Extend Class")
+    @Category("OpenSesame")
+    @Description("An extension call site being bootstrapped by OpeningMetafactory")
+    @StackTrace(false)
+    static final class Extend extends Event {
+        @Label("Holding Interface")
+        Class<?> holdingClass;
+
+        @Label("Target Class")
+        Class<?> targetClass;
+
+        @Label("Unsafe")
+        boolean unsafe;
+
+        @Label("Generated")
+        @Description("Whether the subclass had to be generated, rather than having been generated by an earlier call site")
+        boolean generated;
+
+        @Label("Prebuilt")
+        @Description("Whether the subclass was generated at build time")
+        boolean prebuilt;
+
+        @Label("Generated Size")
+        @DataAmount
+        long generatedSize;
+
+        @Label("Proxy Module")
+        @Description("Whether a proxy module was needed to define the subclass")
+        boolean proxyModule;
+
+        @Label("Bounce Type")
+        @Description("Whether a bounce type was needed to reach inaccessible constructors or methods")
+        boolean bounceType;
+
+        @Label("Manual Allocation")
+        @Description("Whether instances are allocated without calling the superclass constructor directly")
+        boolean manualAllocation;
+    }
+
+    @Name("dev.lukebemish.opensesame.RemapStatistics")
+    @Label("Remap Cache Statistics")
+    @Category("OpenSesame")
+    @Description("Totals for the caches in front of runtime remappers")
+    @StackTrace(false)
+    @Period("10 s")
+    static final class RemapStatistics extends Event {
+        @Label("Hits")
+        long hits;
+
+        @Label("Misses")
+        long misses;
+
+        @Label("Entries")
+        @Description("Remappings ever cached, including those for which no remapper had a result")
+        long entries;
+    }
+}
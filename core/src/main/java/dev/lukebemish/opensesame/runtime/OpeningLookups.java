@@ -0,0 +1,81 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes, per caller and target class, the lookup a {@link LookupProvider} opens and the module read edge from the
+ * caller to the target. Results are kept in a {@link ClassPairValue}, so that a long-lived caller does not keep alive the
+ * targets it has opened, nor a long-lived target its callers. Where neither class loader is an ancestor of the other,
+ * the target keeps its callers alive, as its results may hold their lookups.
+ */
+@ApiStatus.Internal
+final class OpeningLookups {
+    private final Supplier<LookupProvider> provider;
+    private final ClassPairValue<Link> links = new ClassPairValue<>() {
+        @Override
+        protected Link computeValue(Class<?> caller, Class<?> target) {
+            return new Link();
+        }
+    };
+
+    OpeningLookups(Supplier<LookupProvider> provider) {
+        this.provider = provider;
+    }
+
+    private static final class Link {
+        private volatile boolean readable;
+        private volatile MethodHandles.Lookup lookup;
+    }
+
+    LookupProvider provider() {
+        return provider.get();
+    }
+
+    /**
+     * Ensures that the module of the caller can read the module of the target.
+     * @param caller the lookup of the caller
+     * @param target the class to open
+     */
+    void ensureReadable(MethodHandles.Lookup caller, Class<?> target) {
+        var link = links.get(caller.lookupClass(), target);
+        if (link.readable) {
+            return;
+        }
+        try {
+            var fromModule = caller.lookupClass().getModule();
+            var toModule = target.getModule();
+            if (fromModule != toModule && !fromModule.canRead(toModule)) {
+                var addReads = caller.findVirtual(Module.class, "addReads", MethodType.methodType(Module.class, Module.class));
+                addReads.invoke(fromModule, toModule);
+            }
+        } catch (Throwable t) {
+            throw new OpeningException("Issue ensuring module visibility: ", t);
+        }
+        link.readable = true;
+    }
+
+    /**
+     * {@return a lookup able to access private members of the target}
+     * @param caller the lookup of the caller
+     * @param target the class to open
+     * @throws IllegalAccessException if the provider could not open the target
+     */
+    MethodHandles.Lookup openingLookup(MethodHandles.Lookup caller, Class<?> target) throws IllegalAccessException {
+        // What a provider may open depends on the access of the original lookup; only full-privilege lookups, such as
+        // those passed to bootstrap methods, are equivalent for a given class
+        if (!caller.hasFullPrivilegeAccess()) {
+            return provider.get().openingLookup(caller, target);
+        }
+        var link = links.get(caller.lookupClass(), target);
+        var lookup = link.lookup;
+        if (lookup == null) {
+            lookup = provider.get().openingLookup(caller, target);
+            link.lookup = lookup;
+        }
+        return lookup;
+    }
+}
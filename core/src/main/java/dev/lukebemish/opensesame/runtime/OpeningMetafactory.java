@@ -1,5 +1,7 @@
 package dev.lukebemish.opensesame.runtime;
 
+import dev.lukebemish.opensesame.annotations.Open;
+import org.jetbrains.annotations.Nullable;
 import org.objectweb.asm.*;
 import org.objectweb.asm.commons.InstructionAdapter;
 
@@ -10,6 +12,9 @@
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
 /**
@@ -53,6 +58,64 @@ public final class OpeningMetafactory {
      * Create an array
      */
     public static final int ARRAY_TYPE = 8;
+    /**
+     * Access a static field with a {@link VarHandle} access mode, given by the bits at {@link #ACCESS_MODE_SHIFT}
+     */
+    public static final int STATIC_ACCESS_TYPE = 9;
+    /**
+     * Access an instance field with a {@link VarHandle} access mode, given by the bits at {@link #ACCESS_MODE_SHIFT}
+     */
+    public static final int INSTANCE_ACCESS_TYPE = 10;
+    /**
+     * Read the instance fields named by the components of a record into a new instance of it
+     */
+    public static final int GET_VIEW_TYPE = 11;
+    /**
+     * Write the instance fields named by the components of a record from an instance of it
+     */
+    public static final int SET_VIEW_TYPE = 12;
+    /**
+     * Test whether a value is an instance of a class
+     */
+    public static final int INSTANCE_OF_TYPE = 13;
+    /**
+     * Cast a value to a class
+     */
+    public static final int CAST_TYPE = 14;
+
+    /**
+     * Flag that may be added to {@link #STATIC_GET_TYPE} to read the field on every access, rather than binding the call
+     * site to the value of a {@code static final} field once its class is initialized
+     */
+    public static final int NO_CONSTANT_FLAG = 0x100;
+
+    /**
+     * Position of the ordinal of the {@link VarHandle.AccessMode} added to {@link #STATIC_ACCESS_TYPE} and
+     * {@link #INSTANCE_ACCESS_TYPE}
+     */
+    public static final int ACCESS_MODE_SHIFT = 16;
+
+    /**
+     * Flag that may be added to {@link #STATIC_TYPE}, {@link #VIRTUAL_TYPE}, or {@link #CONSTRUCT_TYPE} to create
+     * lambdas implemented by the member, rather than invoking it. The type of the call site then takes the arguments to
+     * capture and returns the functional interface to implement.
+     */
+    public static final int LAMBDA_FLAG = 0x200;
+
+    /**
+     * Flag that may be added to any type to return the handle of the member, rather than accessing it. The type of the
+     * call site then takes nothing and returns a {@link MethodHandle}, or a {@link VarHandle} for
+     * {@link #STATIC_ACCESS_TYPE} and {@link #INSTANCE_ACCESS_TYPE}; the member is found by its name alone.
+     */
+    public static final int HANDLE_FLAG = 0x400;
+
+    /**
+     * Flag that may be added to any type to fail linking, rather than box or unbox arguments or the return value, where
+     * the type of the call site differs from that of the member in whether a value is primitive.
+     */
+    public static final int EXACT_FLAG = 0x800;
+
+    private static final int TYPE_MASK = 0xFF;
 
     /**
      * Creates a call site of a member of a class in a "safe" fashion (obeying module boundaries).
@@ -68,7 +131,7 @@ public final class OpeningMetafactory {
      */
     @SuppressWarnings("unused")
     public static CallSite invoke(MethodHandles.Lookup caller, String targetMethodName, MethodType factoryType, MethodHandle classProvider, MethodHandle accessTypeProvider, int type) {
-        return invoke0(caller, targetMethodName, factoryType, classProvider, accessTypeProvider, type, false);
+        return new ConstantCallSite(invoke0(caller, targetMethodName, factoryType, classProvider, accessTypeProvider, type, false));
     }
 
     /**
@@ -86,13 +149,9 @@ public static CallSite invoke(MethodHandles.Lookup caller, String targetMethodNa
     @SuppressWarnings("unused")
     public static CallSite invokeUnsafe(MethodHandles.Lookup caller, String targetMethodName, MethodType factoryType, MethodHandle classProvider, MethodHandle accessTypeProvider, int type) {
         try {
-            return invoke0(caller, targetMethodName, factoryType, classProvider, accessTypeProvider, type, true);
+            return new ConstantCallSite(invoke0(caller, targetMethodName, factoryType, classProvider, accessTypeProvider, type, true));
         } catch (RuntimeException e) {
-            var exception = new OpeningException(e);
-            if (getLookupProviderUnsafe().exception != null) {
-                exception.addSuppressed(getLookupProviderUnsafe().exception);
-            }
-            throw exception;
+            throw unsafeFailure(e);
         }
     }
 
@@ -108,7 +167,7 @@ public static CallSite invokeUnsafe(MethodHandles.Lookup caller, String targetMe
      */
     @SuppressWarnings("unused")
     public static CallSite invokeKnown(MethodHandles.Lookup caller, String name, MethodType factoryType, Class<?> holdingClass, int type) {
-        return invoke1(caller, name, factoryType, factoryType, holdingClass, type, false);
+        return new ConstantCallSite(invoke1(caller, name, factoryType, factoryType, holdingClass, type, false, OpeningEvents.link()));
     }
 
     /**
@@ -123,8 +182,90 @@ public static CallSite invokeKnown(MethodHandles.Lookup caller, String name, Met
      */
     @SuppressWarnings("unused")
     public static CallSite invokeKnownUnsafe(MethodHandles.Lookup caller, String name, MethodType factoryType, Class<?> holdingClass, int type) {
-        return invoke1(caller, name, factoryType, factoryType, holdingClass, type, true);
+        return new ConstantCallSite(invoke1(caller, name, factoryType, factoryType, holdingClass, type, true, OpeningEvents.link()));
     }
+
+    /**
+     * Creates a call site of a member of a class in a "safe" fashion (obeying module boundaries), linking every opening
+     * of the caller the first time any of them is linked. The openings are read from a table of six
+     * elements per opening: the name of the member, the type of the call site, the class to open or a provider of it,
+     * the type of the member or a provider of it, the type of member as an {@link Integer}, and whether to open it
+     * unsafely as a {@link Boolean}. Should the table not be readable, or not match the call site, the call site is
+     * linked on its own from the remaining arguments. As linking the first opening of a table invokes the providers of,
+     * and looks up the members of, every opening in it, classes these load or initialize are loaded or initialized then,
+     * rather than when the call sites of their own openings are first linked.
+     * @param caller the lookup of the caller
+     * @param targetMethodName the name of the member to open
+     * @param factoryType the type of the call site to create
+     * @param classProvider a method handle that takes a classloader and returns the class to open
+     * @param accessTypeProvider a method handle that takes a classloader and returns a type matching the member to
+     *                           open, which should be convertible to the {@code factoryType}
+     * @param type the type of member to look up, as determined by the constants in this class
+     * @param openings a method handle returning a table of openings of the caller; a class may hold several, such as
+     *                 those of the mixins merged into it, each named after the class it was written to
+     * @param index the index of this call site's opening in the table
+     * @return the call site
+     * @throws OpeningException if the member could not be found or could not be opened
+     */
+    @SuppressWarnings("unused")
+    public static CallSite invokeBatch(MethodHandles.Lookup caller, String targetMethodName, MethodType factoryType, MethodHandle classProvider, MethodHandle accessTypeProvider, int type, MethodHandle openings, int index) {
+        var handle = batched(caller, targetMethodName, factoryType, type, false, openings, index);
+        if (handle != null) {
+            return new ConstantCallSite(handle);
+        }
+        return invoke(caller, targetMethodName, factoryType, classProvider, accessTypeProvider, type);
+    }
+
+    /**
+     * Creates a call site of a member of a class in an unsafe fashion, breaking through module boundaries, linking every
+     * opening of the caller the first time any of them is linked. The table of openings is described at
+     * {@link #invokeBatch(MethodHandles.Lookup, String, MethodType, MethodHandle, MethodHandle, int, MethodHandle, int)}.
+     * @param caller the lookup of the caller
+     * @param targetMethodName the name of the member to open
+     * @param factoryType the type of the call site to create
+     * @param classProvider a method handle that takes a classloader and returns the class to open
+     * @param accessTypeProvider a method handle that takes a classloader and returns a type matching the member to
+     *                           open, which should be convertible to the {@code factoryType}
+     * @param type the type of member to look up, as determined by the constants in this class
+     * @param openings a method handle returning a table of openings of the caller; a class may hold several, such as
+     *                 those of the mixins merged into it, each named after the class it was written to
+     * @param index the index of this call site's opening in the table
+     * @return the call site
+     * @throws OpeningException if the member could not be found or could not be opened
+     */
+    @SuppressWarnings("unused")
+    public static CallSite invokeBatchUnsafe(MethodHandles.Lookup caller, String targetMethodName, MethodType factoryType, MethodHandle classProvider, MethodHandle accessTypeProvider, int type, MethodHandle openings, int index) {
+        var handle = batched(caller, targetMethodName, factoryType, type, true, openings, index);
+        if (handle != null) {
+            return new ConstantCallSite(handle);
+        }
+        return invokeUnsafe(caller, targetMethodName, factoryType, classProvider, accessTypeProvider, type);
+    }
+
+    /**
+     * Creates a call site of a class known ahead of time in a "safe" fashion (obeying module boundaries), linking every
+     * opening of the caller the first time any of them is linked. The table of openings is described at
+     * {@link #invokeBatch(MethodHandles.Lookup, String, MethodType, MethodHandle, MethodHandle, int, MethodHandle, int)}.
+     * @param caller the lookup of the caller
+     * @param name the name of the member to open
+     * @param factoryType the type of the call site
+     * @param holdingClass the class that holds the member
+     * @param type the type of member to look up, as determined by the constants in this class
+     * @param openings a method handle returning a table of openings of the caller; a class may hold several, such as
+     *                 those of the mixins merged into it, each named after the class it was written to
+     * @param index the index of this call site's opening in the table
+     * @return the call site
+     * @throws OpeningException if the member could not be found or could not be opened
+     */
+    @SuppressWarnings("unused")
+    public static CallSite invokeKnownBatch(MethodHandles.Lookup caller, String name, MethodType factoryType, Class<?> holdingClass, int type, MethodHandle openings, int index) {
+        var handle = batched(caller, name, factoryType, type, false, openings, index);
+        if (handle != null) {
+            return new ConstantCallSite(handle);
+        }
+        return invokeKnown(caller, name, factoryType, holdingClass, type);
+    }
+
     private OpeningMetafactory() {}
 
     private static final class ClassLoaderKey extends WeakReference<ClassLoader> {
@@ -147,13 +288,28 @@ public int hashCode() {
     }
 
     private static final LayeredServiceLoader<RuntimeRemapper> RUNTIME_REMAPPERS = LayeredServiceLoader.of(RuntimeRemapper.class);
-    private static final Map<ClassLoaderKey, List<RuntimeRemapper>> REMAPPER_LOOKUP = new HashMap<>();
+    private static final Map<LayeredServiceLoader.SingleImplementation<RuntimeRemapper>, RemapCache> REMAP_CACHES_BY_REMAPPERS = new WeakHashMap<>();
+    private static final Lock REMAP_CACHES_LOCK = new ReentrantLock();
+    private static final ClassValue<RemapCache> REMAP_CACHES = new ClassValue<>() {
+        @Override
+        protected RemapCache computeValue(Class<?> type) {
+            // Classes sharing a set of remappers share a cache, which lives as long as that set does
+            var remappers = RUNTIME_REMAPPERS.at(type);
+            REMAP_CACHES_LOCK.lock();
+            try {
+                return REMAP_CACHES_BY_REMAPPERS.computeIfAbsent(remappers, k -> new RemapCache());
+            } finally {
+                REMAP_CACHES_LOCK.unlock();
+            }
+        }
+    };
+    private static final Map<ClassLoaderKey, List<RuntimeRemapper>> REMAPPER_LOOKUP = new ConcurrentHashMap<>();
     private static final ReferenceQueue<ClassLoader> REMAPPER_LOOKUP_QUEUE = new ReferenceQueue<>();
     private static final LookupProvider LOOKUP_PROVIDER_SAFE = new LookupProviderFallback();
+    private static final OpeningLookups LOOKUPS_SAFE = new OpeningLookups(() -> LOOKUP_PROVIDER_SAFE);
+    private static final OpeningLookups LOOKUPS_UNSAFE = new OpeningLookups(() -> getLookupProviderUnsafe().provider);
     
     private record LookupProviderResults(LookupProvider provider, Exception exception) {}
-    private static LookupProviderResults LOOKUP_PROVIDER_UNSAFE_RESULTS;
-    private static final Object LOOKUP_PROVIDER_UNSAFE_LOCK = new Object();
 
     private static final List<Supplier<LookupProvider>> IMPL_LOOKUP_PROVIDER_LIST = List.of(
             LookupProviderFFI::new,
@@ -161,51 +317,69 @@ private record LookupProviderResults(LookupProvider provider, Exception exceptio
             LookupProviderUnsafe::new
     );
 
+    // Initialized lazily, and published safely, by the class initialization of the holder
+    private static final class LookupProviderUnsafeHolder {
+        private static final LookupProviderResults RESULTS = findLookupProviderUnsafe();
+    }
+
     private static LookupProviderResults getLookupProviderUnsafe() {
-        if (LOOKUP_PROVIDER_UNSAFE_RESULTS != null) {
-            return LOOKUP_PROVIDER_UNSAFE_RESULTS;
-        }
-        synchronized (LOOKUP_PROVIDER_UNSAFE_LOCK) {
-            if (LOOKUP_PROVIDER_UNSAFE_RESULTS != null) {
-                return LOOKUP_PROVIDER_UNSAFE_RESULTS;
-            }
-            Exception LOOKUP_PROVIDER_EXCEPTION1 = null;
-            LookupProvider LOOKUP_PROVIDER1 = null;
-            for (var supplier : IMPL_LOOKUP_PROVIDER_LIST) {
-                try {
-                    LOOKUP_PROVIDER1 = supplier.get();
-                    break;
-                } catch (Exception e) {
-                    if (LOOKUP_PROVIDER_EXCEPTION1 != null) {
-                        e.addSuppressed(LOOKUP_PROVIDER_EXCEPTION1);
-                    }
-                    LOOKUP_PROVIDER_EXCEPTION1 = e;
+        return LookupProviderUnsafeHolder.RESULTS;
+    }
+
+    /**
+     * {@return a lookup on the target from the unsafe lookup provider; this has full privileges only if a provider other
+     * than the fallback could be found}
+     * @param target the class to look up members on
+     */
+    static MethodHandles.Lookup unsafeLookup(Class<?> target) throws IllegalAccessException {
+        return getLookupProviderUnsafe().provider.openingLookup(MethodHandles.lookup(), target);
+    }
+
+    private static LookupProviderResults findLookupProviderUnsafe() {
+        Exception exception = null;
+        LookupProvider provider = null;
+        for (var supplier : IMPL_LOOKUP_PROVIDER_LIST) {
+            try {
+                provider = supplier.get();
+                break;
+            } catch (Exception e) {
+                if (exception != null) {
+                    e.addSuppressed(exception);
                 }
+                exception = e;
             }
-            var results = new LookupProviderResults(
-                    LOOKUP_PROVIDER1 == null ? new LookupProviderFallback() : LOOKUP_PROVIDER1,
-                    LOOKUP_PROVIDER1 == null ? LOOKUP_PROVIDER_EXCEPTION1 : null
-            );
-            LOOKUP_PROVIDER_UNSAFE_RESULTS = results;
-            return results;
         }
+        return new LookupProviderResults(
+                provider == null ? new LookupProviderFallback() : provider,
+                provider == null ? exception : null
+        );
     }
 
-    private synchronized static List<RuntimeRemapper> getRemapper(ClassLoader classLoader) {
+    private static List<RuntimeRemapper> getRemapper(ClassLoader classLoader) {
         ClassLoaderKey ref;
         while ((ref = (ClassLoaderKey) REMAPPER_LOOKUP_QUEUE.poll()) != null) {
             REMAPPER_LOOKUP.remove(ref);
         }
-        return REMAPPER_LOOKUP.computeIfAbsent(new ClassLoaderKey(classLoader, REMAPPER_LOOKUP_QUEUE), k ->
-                ServiceLoader.load(RuntimeRemapper.class, classLoader).stream().map(ServiceLoader.Provider::get).toList()
-        );
+        var key = new ClassLoaderKey(classLoader, REMAPPER_LOOKUP_QUEUE);
+        var remappers = REMAPPER_LOOKUP.get(key);
+        if (remappers == null) {
+            // Loaded outside the map, so that no lock is held while providers are instantiated; racing threads keep
+            // whichever list was stored first
+            remappers = ServiceLoader.load(RuntimeRemapper.class, classLoader).stream().map(ServiceLoader.Provider::get).toList();
+            var existing = REMAPPER_LOOKUP.putIfAbsent(key, remappers);
+            if (existing != null) {
+                remappers = existing;
+            }
+        }
+        return remappers;
     }
 
-    private synchronized static List<RuntimeRemapper> getRemapper(Class<?> clazz) {
-        return LayeredServiceLoader.unique(RUNTIME_REMAPPERS.at(clazz));
+    private static List<RuntimeRemapper> getRemapper(Class<?> clazz) {
+        return RUNTIME_REMAPPERS.at(clazz).instances();
     }
 
-    private static CallSite invoke0(MethodHandles.Lookup caller, String targetMethodName, MethodType factoryType, MethodHandle classProvider, MethodHandle accessTypeProvider, int type, boolean unsafe) {
+    private static MethodHandle invoke0(MethodHandles.Lookup caller, String targetMethodName, MethodType factoryType, MethodHandle classProvider, MethodHandle accessTypeProvider, int type, boolean unsafe) {
+        var event = OpeningEvents.link();
         Class<?> holdingClass;
         MethodType accessType;
         try {
@@ -214,52 +388,414 @@ private static CallSite invoke0(MethodHandles.Lookup caller, String targetMethod
         } catch (Throwable throwable) {
             throw new OpeningException(throwable);
         }
-        return invoke1(caller, targetMethodName, factoryType, accessType, holdingClass, type, unsafe);
+        if (event != null) {
+            event.providerDuration = event.phase();
+        }
+        return invoke1(caller, targetMethodName, factoryType, accessType, holdingClass, type, unsafe, event);
     }
 
-    private static CallSite invoke1(MethodHandles.Lookup caller, String name, MethodType factoryType, MethodType accessType, Class<?> holdingClass, int type, boolean unsafe) {
-        try {
-            var fromModule = caller.lookupClass().getModule();
-            var toModule = holdingClass.getModule();
-            if (fromModule != toModule && !fromModule.canRead(toModule)) {
-                var addReads = caller.findVirtual(Module.class, "addReads", MethodType.methodType(Module.class, Module.class));
-                addReads.invoke(fromModule, toModule);
-            }
-        } catch (Throwable t) {
-            throw new OpeningException("Issue ensuring module visibility: ", t);
-        }
+    private static MethodHandle invoke1(MethodHandles.Lookup caller, String name, MethodType factoryType, MethodType accessType, Class<?> holdingClass, int type, boolean unsafe, OpeningEvents.@Nullable Link event) {
+        var found = findMember(caller, name, accessType, holdingClass, type, unsafe, event);
+        // Accessors are only spun for batches; a call site linked on its own would need a hidden class of its own
+        return bind(found, found.member().handle(), factoryType);
+    }
 
-        MethodHandles.Lookup lookup;
-        try {
-            if (unsafe) {
-                lookup = getLookupProviderUnsafe().provider.openingLookup(caller, holdingClass);
-            } else {
-                lookup = LOOKUP_PROVIDER_SAFE.openingLookup(caller, holdingClass);
-            }
-        } catch (IllegalAccessException e) {
-            throw new OpeningException("Issue creating lookup", e);
-        }
-        if (type < STATIC_GET_TYPE) {
+    /**
+     * A member found for an opening, not yet bound to its call site.
+     * @param lambdaType the type of the lambda factory the member implements, if the opening creates lambdas
+     * @param returnsHandle whether the opening returns the handle of the member, bound to the call site as a constant
+     */
+    private record FoundMember(MethodHandles.Lookup caller, MethodHandles.Lookup lookup, Class<?> holdingClass, String name, NestmateAccessors.Member member, boolean unsafe, @Nullable MethodType lambdaType, boolean returnsHandle, boolean exact, OpeningEvents.@Nullable Link event) {}
+
+    private static FoundMember findMember(MethodHandles.Lookup caller, String name, MethodType accessType, Class<?> holdingClass, int type, boolean unsafe, OpeningEvents.@Nullable Link event) {
+        boolean constant = (type & NO_CONSTANT_FLAG) == 0;
+        boolean lambda = (type & LAMBDA_FLAG) != 0;
+        boolean returnsHandle = (type & HANDLE_FLAG) != 0;
+        boolean exact = (type & EXACT_FLAG) != 0;
+        int accessMode = type >>> ACCESS_MODE_SHIFT;
+        type &= TYPE_MASK;
+        var lookup = openingLookup(caller, holdingClass, unsafe, event);
+        MethodType lambdaType = null;
+        if (returnsHandle) {
+            // The opening's own type describes the handle, so the member is found, and remapped, by name
+            var member = MemberResolution.handle(caller.lookupClass(), holdingClass, name, type);
+            name = member.name();
+            accessType = member.accessType();
+        } else if (lambda) {
+            // The member is found by the lambda it implements, so is remapped as it is found
+            var implementation = LambdaOpenings.implementation(caller.lookupClass(), holdingClass, name, type, accessType);
+            lambdaType = accessType;
+            name = implementation.name();
+            accessType = implementation.accessType();
+        } else if (type < STATIC_GET_TYPE) {
             name = remapMethod(name, accessType.descriptorString(), holdingClass.getName(), caller.lookupClass());
-        } else if (type < CONSTRUCT_TYPE) {
+        } else if (type < CONSTRUCT_TYPE || type == STATIC_ACCESS_TYPE || type == INSTANCE_ACCESS_TYPE) {
             Class<?> fieldType;
             if (type == STATIC_GET_TYPE || type == INSTANCE_GET_TYPE) {
                 fieldType = accessType.returnType();
             } else if (type == STATIC_SET_TYPE) {
                 fieldType = accessType.parameterType(0);
-            } else {
+            } else if (type == INSTANCE_SET_TYPE) {
                 fieldType = accessType.parameterType(1);
+            } else {
+                fieldType = accessedFieldType(accessMode(accessMode), accessType, type == INSTANCE_ACCESS_TYPE ? 1 : 0);
+            }
+            name = remapField(name, fieldType.descriptorString(), holdingClass.getName(), caller.lookupClass());
+        }
+        if (event != null) {
+            event.remapDuration = event.phase();
+        }
+
+        MethodHandle handle;
+        if (returnsHandle) {
+            handle = type == STATIC_ACCESS_TYPE || type == INSTANCE_ACCESS_TYPE
+                    ? MethodHandles.constant(VarHandle.class, makeVarHandle(lookup, name, accessType, holdingClass, type))
+                    : MethodHandles.constant(MethodHandle.class, makeHandle(lookup, name, accessType, holdingClass, type, accessMode));
+        } else if (type == GET_VIEW_TYPE || type == SET_VIEW_TYPE) {
+            int parameters = type == GET_VIEW_TYPE ? 1 : 2;
+            if (accessType.parameterCount() != parameters) {
+                throw new OpeningException("View of fields should take " + parameters + " arguments, but was " + accessType);
+            }
+            // The components of the record name the fields, so are remapped as they are found
+            handle = type == GET_VIEW_TYPE
+                    ? FieldViews.getter(caller, lookup, holdingClass, accessType.returnType())
+                    : FieldViews.setter(caller, lookup, holdingClass, accessType.parameterType(1));
+        } else {
+            handle = makeHandle(lookup, name, accessType, holdingClass, type, accessMode);
+        }
+        if (type == STATIC_GET_TYPE && constant && !returnsHandle) {
+            var getter = handle;
+            handle = StaticConstants.bind(lookup, getter);
+            if (event != null) {
+                event.constant = handle != getter;
             }
+        }
+        if (event != null) {
+            event.handleDuration = event.phase();
+        }
+        return new FoundMember(caller, lookup, holdingClass, name, new NestmateAccessors.Member(type, handle), unsafe, lambdaType, returnsHandle, exact, event);
+    }
+
+    private static MethodHandles.Lookup openingLookup(MethodHandles.Lookup caller, Class<?> holdingClass, boolean unsafe, OpeningEvents.@Nullable Link event) {
+        var lookups = unsafe ? LOOKUPS_UNSAFE : LOOKUPS_SAFE;
+        lookups.ensureReadable(caller, holdingClass);
+        if (event != null) {
+            event.moduleDuration = event.phase();
+        }
+
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = lookups.openingLookup(caller, holdingClass);
+        } catch (IllegalAccessException e) {
+            throw new OpeningException("Issue creating lookup", e);
+        }
+        if (event != null) {
+            event.lookupDuration = event.phase();
+            event.lookupProvider = lookups.provider().getClass().getSimpleName();
+        }
+        return lookup;
+    }
+
+    /**
+     * {@return a handle of a member, of exactly the type given, opened as a call site linked by this class would be}
+     * @throws OpeningException if the member could not be found or could not be opened
+     */
+    static MethodHandle open(MethodHandles.Lookup caller, String name, MethodType accessType, Class<?> holdingClass, int type, boolean unsafe) {
+        try {
+            return invoke1(caller, name, accessType, accessType, holdingClass, type, unsafe, OpeningEvents.link());
+        } catch (RuntimeException e) {
+            throw unsafe ? unsafeFailure(e) : e;
+        }
+    }
+
+    /**
+     * {@return a lookup able to access private members of the holding class, as call sites linked by this class use}
+     * @throws OpeningException if the class could not be opened
+     */
+    static MethodHandles.Lookup openLookup(MethodHandles.Lookup caller, Class<?> holdingClass, boolean unsafe) {
+        try {
+            return openingLookup(caller, holdingClass, unsafe, null);
+        } catch (RuntimeException e) {
+            throw unsafe ? unsafeFailure(e) : e;
+        }
+    }
+
+    /**
+     * {@return a var handle of a field, found with the lookups and remappers call sites linked by this class use}
+     * @throws OpeningException if the field could not be found or could not be opened
+     */
+    static VarHandle openVarHandle(MethodHandles.Lookup caller, String name, Class<?> fieldType, Class<?> holdingClass, boolean isStatic, boolean unsafe) {
+        try {
+            var lookup = openingLookup(caller, holdingClass, unsafe, null);
             name = remapField(name, fieldType.descriptorString(), holdingClass.getName(), caller.lookupClass());
+            var accessType = isStatic ? MethodType.methodType(fieldType) : MethodType.methodType(fieldType, holdingClass);
+            return makeVarHandle(lookup, name, accessType, holdingClass, isStatic ? STATIC_ACCESS_TYPE : INSTANCE_ACCESS_TYPE);
+        } catch (RuntimeException e) {
+            throw unsafe ? unsafeFailure(e) : e;
+        }
+    }
+
+    private static MethodHandle bind(FoundMember found, MethodHandle handle, MethodType factoryType) {
+        var target = handle;
+        if (found.lambdaType() != null) {
+            target = LambdaOpenings.factory(found.caller(), found.lookup(), found.holdingClass(), handle, found.lambdaType());
+        }
+        if (found.exact()) {
+            requireExact(found.name(), target.type(), factoryType);
+        }
+        var adapted = target.asType(factoryType);
+        var event = found.event();
+        if (event != null) {
+            event.lambda = found.lambdaType() != null;
+            event.handle = found.returnsHandle();
+            event.handleDuration += event.phase();
+            event.caller = found.caller().lookupClass();
+            event.holdingClass = found.holdingClass();
+            event.name = found.name();
+            event.type = typeName(found.member().type());
+            event.unsafe = found.unsafe();
+            event.nestmateAccessor = handle != found.member().handle();
+            event.commit();
+        }
+        return adapted;
+    }
+
+    private static void requireExact(String name, MethodType type, MethodType factoryType) {
+        for (int i = 0; i < type.parameterCount(); i++) {
+            if (type.parameterType(i).isPrimitive() != factoryType.parameterType(i).isPrimitive()) {
+                throw new OpeningException("Opening `" + name + "` is exact, but would convert argument " + i + " from " + factoryType.parameterType(i).getName() + " to " + type.parameterType(i).getName());
+            }
+        }
+        var returnType = type.returnType();
+        var factoryReturnType = factoryType.returnType();
+        if (returnType != void.class && factoryReturnType != void.class && returnType.isPrimitive() != factoryReturnType.isPrimitive()) {
+            throw new OpeningException("Opening `" + name + "` is exact, but would convert its return value from " + returnType.getName() + " to " + factoryReturnType.getName());
+        }
+    }
+
+    private static OpeningException unsafeFailure(RuntimeException e) {
+        var exception = new OpeningException(e);
+        if (getLookupProviderUnsafe().exception != null) {
+            exception.addSuppressed(getLookupProviderUnsafe().exception);
+        }
+        return exception;
+    }
+
+    private static final int BATCH_STRIDE = 6;
+
+    private record BatchEntry(String name, MethodType factoryType, int type, boolean unsafe, @Nullable Object result) {}
+
+    private static final BatchEntry[] NO_BATCH = new BatchEntry[0];
+
+    private static final class OpeningBatch {
+        private final Lock lock = new ReentrantLock();
+        private volatile BatchEntry @Nullable [] entries;
+    }
+
+    // A class may hold several tables, such as those of mixins merged into it, so batches are kept by table name
+    private static final ClassValue<Map<String, OpeningBatch>> BATCHES = new ClassValue<>() {
+        @Override
+        protected Map<String, OpeningBatch> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * {@return the handle linked for an opening as part of the openings of its caller, or {@code null} if it should be
+     * linked on its own}
+     * @throws RuntimeException if linking the opening failed
+     */
+    private static @Nullable MethodHandle batched(MethodHandles.Lookup caller, String name, MethodType factoryType, int type, boolean unsafe, MethodHandle openings, int index) {
+        // The table is shared by every call site of the class, so it may only be linked with a lookup any of them could
+        // have been given
+        if (!caller.hasFullPrivilegeAccess()) {
+            return null;
+        }
+        String table;
+        try {
+            table = caller.revealDirect(openings).getName();
+        } catch (RuntimeException e) {
+            return null;
+        }
+        var batch = BATCHES.get(caller.lookupClass()).computeIfAbsent(table, k -> new OpeningBatch());
+        var entries = batch.entries;
+        if (entries == null) {
+            batch.lock.lock();
+            try {
+                entries = batch.entries;
+                if (entries == null) {
+                    entries = linkBatch(caller, openings);
+                    batch.entries = entries;
+                }
+            } finally {
+                batch.lock.unlock();
+            }
+        }
+        if (index < 0 || index >= entries.length) {
+            return null;
+        }
+        var entry = entries[index];
+        if (entry.type() != type || entry.unsafe() != unsafe || !entry.name().equals(name) || !entry.factoryType().equals(factoryType)) {
+            return null;
+        }
+        if (entry.result() instanceof RuntimeException exception) {
+            throw exception;
+        }
+        return (MethodHandle) entry.result();
+    }
+
+    private static BatchEntry[] linkBatch(MethodHandles.Lookup caller, MethodHandle openings) {
+        Object[] table;
+        try {
+            table = (Object[]) openings.invokeExact();
+        } catch (Throwable t) {
+            // Reading the table resolves the constants of every opening; should any fail, each call site is linked on its
+            // own, so that the failure is only seen by the call sites it would have been otherwise
+            return NO_BATCH;
         }
-        
-        var handle = makeHandle(lookup, name, factoryType, accessType, holdingClass, type);
-        return new ConstantCallSite(handle);
+        var classLoader = caller.lookupClass().getClassLoader();
+        // Openings of the same class share a provider, which need only be invoked once
+        Map<Object, Class<?>> holdingClasses = new IdentityHashMap<>();
+        var entries = new BatchEntry[table.length / BATCH_STRIDE];
+        try {
+            for (int i = 0; i < entries.length; i++) {
+                int offset = i * BATCH_STRIDE;
+                var name = (String) table[offset];
+                var factoryType = (MethodType) table[offset + 1];
+                int type = (Integer) table[offset + 4];
+                boolean unsafe = (Boolean) table[offset + 5];
+                var result = linkBatched(caller, classLoader, holdingClasses, name, factoryType, table[offset + 2], table[offset + 3], type, unsafe);
+                entries[i] = new BatchEntry(name, factoryType, type, unsafe, result);
+            }
+        } catch (ClassCastException | NullPointerException e) {
+            return NO_BATCH;
+        }
+        if (NestmateAccessors.ENABLED) {
+            bindBatch(entries);
+        }
+        return entries;
+    }
+
+    private record AccessorGroup(MethodHandles.Lookup lookup, Class<?> holdingClass) {}
+
+    private static void bindBatch(BatchEntry[] entries) {
+        Map<AccessorGroup, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].result() instanceof FoundMember found) {
+                groups.computeIfAbsent(new AccessorGroup(found.lookup(), found.holdingClass()), k -> new ArrayList<>()).add(i);
+            }
+        }
+        groups.forEach((group, indices) -> {
+            List<NestmateAccessors.Member> members = new ArrayList<>(indices.size());
+            for (int i : indices) {
+                var found = (FoundMember) Objects.requireNonNull(entries[i].result());
+                members.add(found.member());
+                if (found.event() != null) {
+                    found.event().mark = System.nanoTime();
+                }
+            }
+            MethodHandle[] handles;
+            try {
+                handles = NestmateAccessors.link(group.lookup(), group.holdingClass(), members);
+            } catch (RuntimeException | Error e) {
+                handles = null;
+            }
+            for (int k = 0; k < indices.size(); k++) {
+                int i = indices.get(k);
+                var entry = entries[i];
+                var found = (FoundMember) Objects.requireNonNull(entry.result());
+                Object result;
+                try {
+                    // Should the accessors fail to be defined, each call site is linked on its own
+                    result = handles == null ? null : bind(found, handles[k], entry.factoryType());
+                } catch (RuntimeException e) {
+                    result = entry.unsafe() ? unsafeFailure(e) : e;
+                } catch (Error e) {
+                    result = null;
+                }
+                entries[i] = new BatchEntry(entry.name(), entry.factoryType(), entry.type(), entry.unsafe(), result);
+            }
+        });
+    }
+
+    private static @Nullable Object linkBatched(MethodHandles.Lookup caller, ClassLoader classLoader, Map<Object, Class<?>> holdingClasses, String name, MethodType factoryType, Object classOrProvider, Object typeOrProvider, int type, boolean unsafe) {
+        var event = OpeningEvents.link();
+        if (event != null) {
+            event.batched = true;
+        }
+        try {
+            Class<?> holdingClass;
+            MethodType accessType;
+            try {
+                holdingClass = classOrProvider instanceof Class<?> clazz ? clazz : holdingClasses.get(classOrProvider);
+                if (holdingClass == null) {
+                    holdingClass = (Class<?>) ((MethodHandle) classOrProvider).invoke(classLoader);
+                    holdingClasses.put(classOrProvider, holdingClass);
+                }
+                accessType = typeOrProvider instanceof MethodType methodType ? methodType : (MethodType) ((MethodHandle) typeOrProvider).invoke(classLoader);
+            } catch (Throwable throwable) {
+                throw new OpeningException(throwable);
+            }
+            if (event != null) {
+                event.providerDuration = event.phase();
+            }
+            if (NestmateAccessors.ENABLED && (type & (LAMBDA_FLAG | HANDLE_FLAG)) == 0) {
+                // Bound once the rest of the batch is found, so that members of the same class share their accessors
+                return findMember(caller, name, accessType, holdingClass, type, unsafe, event);
+            }
+            return invoke1(caller, name, factoryType, accessType, holdingClass, type, unsafe, event);
+        } catch (RuntimeException e) {
+            return unsafe ? unsafeFailure(e) : e;
+        } catch (Error e) {
+            // Left for the call site to run into when linked on its own
+            return null;
+        }
+    }
+
+    private static String typeName(int type) {
+        var types = Open.Type.values();
+        return type >= 0 && type < types.length ? types[type].name() : String.valueOf(type);
+    }
+
+    private static VarHandle.AccessMode accessMode(int ordinal) {
+        var modes = VarHandle.AccessMode.values();
+        if (ordinal >= modes.length) {
+            throw new OpeningException("Unexpected access mode: " + ordinal);
+        }
+        return modes[ordinal];
+    }
+
+    /**
+     * {@return the type of the field accessed with the given mode} Modes that set the field without returning its value
+     * take the value, or the expected value, after the coordinates; the rest return it.
+     */
+    private static Class<?> accessedFieldType(VarHandle.AccessMode mode, MethodType accessType, int coordinates) {
+        return switch (mode) {
+            case SET, SET_VOLATILE, SET_RELEASE, SET_OPAQUE, COMPARE_AND_SET, WEAK_COMPARE_AND_SET_PLAIN,
+                    WEAK_COMPARE_AND_SET, WEAK_COMPARE_AND_SET_ACQUIRE, WEAK_COMPARE_AND_SET_RELEASE -> {
+                if (accessType.parameterCount() <= coordinates) {
+                    throw new OpeningException("Access with mode " + mode + " must take a value; found " + accessType);
+                }
+                yield accessType.parameterType(coordinates);
+            }
+            default -> accessType.returnType();
+        };
     }
 
-    private static MethodHandle makeHandle(MethodHandles.Lookup lookup, String name, MethodType factoryType, MethodType accessType, Class<?> holdingClass, int type) {
+    private static MethodHandle accessHandle(VarHandle varHandle, VarHandle.AccessMode mode, MethodType accessType, String name) {
+        if (!varHandle.isAccessModeSupported(mode)) {
+            throw new OpeningException("Access mode " + mode + " is not supported for `" + name + "` of type " + varHandle.varType().getName());
+        }
+        var handle = varHandle.toMethodHandle(mode);
+        if (handle.type().parameterCount() != accessType.parameterCount()) {
+            throw new OpeningException("Access with mode " + mode + " to `" + name + "` should be of type " + handle.type() + ", but was " + accessType);
+        }
+        return handle;
+    }
+
+    private static MethodHandle makeHandle(MethodHandles.Lookup lookup, String name, MethodType accessType, Class<?> holdingClass, int type, int accessMode) {
         try {
-            var handle = switch (type) {
+            return switch (type) {
                 case STATIC_TYPE -> lookup.findStatic(holdingClass, name, accessType);
                 case VIRTUAL_TYPE -> lookup.findVirtual(holdingClass, name, accessType.dropParameterTypes(0, 1));
                 case SPECIAL_TYPE -> lookup.findSpecial(holdingClass, name, accessType.dropParameterTypes(0, 1), holdingClass);
@@ -269,14 +805,42 @@ private static MethodHandle makeHandle(MethodHandles.Lookup lookup, String name,
                 case INSTANCE_SET_TYPE -> lookup.findSetter(holdingClass, name, accessType.parameterType(1));
                 case CONSTRUCT_TYPE -> lookup.findConstructor(holdingClass, accessType.changeReturnType(Void.TYPE));
                 case ARRAY_TYPE -> MethodHandles.arrayConstructor(holdingClass.arrayType());
+                // Once inlined, the class is a constant, so these are compiled as plain type checks
+                case INSTANCE_OF_TYPE -> MethodHandles.publicLookup()
+                        .findVirtual(Class.class, "isInstance", MethodType.methodType(boolean.class, Object.class))
+                        .bindTo(holdingClass)
+                        .asType(accessType);
+                case CAST_TYPE -> {
+                    if (holdingClass.isPrimitive()) {
+                        throw new OpeningException("Cannot cast to primitive type " + holdingClass.getName());
+                    }
+                    yield MethodHandles.identity(holdingClass).asType(accessType);
+                }
+                case STATIC_ACCESS_TYPE -> {
+                    var mode = accessMode(accessMode);
+                    yield accessHandle(lookup.findStaticVarHandle(holdingClass, name, accessedFieldType(mode, accessType, 0)), mode, accessType, name);
+                }
+                case INSTANCE_ACCESS_TYPE -> {
+                    var mode = accessMode(accessMode);
+                    yield accessHandle(lookup.findVarHandle(holdingClass, name, accessedFieldType(mode, accessType, 1)), mode, accessType, name);
+                }
                 default -> throw new OpeningException("Unexpected opening type: " + type);
             };
-            return handle.asType(factoryType);
         } catch (NoSuchMethodException | IllegalAccessException | NoSuchFieldException e) {
             throw new OpeningException("Issue creating method handle for `"+name+"`", e);
         }
     }
 
+    private static VarHandle makeVarHandle(MethodHandles.Lookup lookup, String name, MethodType accessType, Class<?> holdingClass, int type) {
+        try {
+            return type == STATIC_ACCESS_TYPE
+                    ? lookup.findStaticVarHandle(holdingClass, name, accessType.returnType())
+                    : lookup.findVarHandle(holdingClass, name, accessType.returnType());
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new OpeningException("Issue creating var handle for `"+name+"`", e);
+        }
+    }
+
     /**
      * @deprecated
      * @see #remapMethod(String, String, String, Class) 
@@ -334,14 +898,7 @@ public static String remapClass(String className, ClassLoader classLoader) {
      * @return the remapped class name, or the original if no remapping was found
      */
     public static String remapMethod(String targetMethodName, String methodDescriptor, String holdingClassName, Class<?> contextClass) {
-        List<RuntimeRemapper> remappers = getRemapper(contextClass);
-        for (var remapper : remappers) {
-            String remapMethodName = remapper.remapMethodName(holdingClassName, targetMethodName, methodDescriptor);
-            if (remapMethodName != null) {
-                return remapMethodName;
-            }
-        }
-        return targetMethodName;
+        return REMAP_CACHES.get(contextClass).remapMethod(holdingClassName, targetMethodName, methodDescriptor, getRemapper(contextClass));
     }
 
     /**
@@ -353,14 +910,7 @@ public static String remapMethod(String targetMethodName, String methodDescripto
      * @return the remapped class name, or the original if no remapping was found
      */
     public static String remapField(String targetFieldName, String fieldDescriptor, String holdingClassName, Class<?> contextClass) {
-        List<RuntimeRemapper> remappers = getRemapper(contextClass);
-        for (var remapper : remappers) {
-            String remapFieldName = remapper.remapFieldName(holdingClassName, targetFieldName, fieldDescriptor);
-            if (remapFieldName != null) {
-                return remapFieldName;
-            }
-        }
-        return targetFieldName;
+        return REMAP_CACHES.get(contextClass).remapField(holdingClassName, targetFieldName, fieldDescriptor, getRemapper(contextClass));
     }
 
     /**
@@ -371,42 +921,99 @@ public static String remapField(String targetFieldName, String fieldDescriptor,
      */
     @SuppressWarnings("unused")
     public static String remapClass(String className, Class<?> contextClass) {
-        List<RuntimeRemapper> remappers = getRemapper(contextClass);
-        for (var remapper : remappers) {
-            String remapClassName = remapper.remapClassName(className);
-            if (remapClassName != null) {
-                return remapClassName;
+        return REMAP_CACHES.get(contextClass).remapClass(className, getRemapper(contextClass));
+    }
+
+    /**
+     * A bootstrap for a dynamic constant describing a method type whose parameter and return types must be found at
+     * runtime. Replaces a chain of method handle combinators resolved one constant at a time.
+     * @param lookup unused
+     * @param name unused
+     * @param type the type of the constant; must be {@link MethodHandle}
+     * @param returnTypeProvider a method handle that takes a classloader and returns the return type
+     * @param parameterTypeProviders method handles that each take a classloader and return a parameter type
+     * @return a method handle that takes a classloader and returns the method type
+     */
+    @SuppressWarnings("unused")
+    public static MethodHandle accessType(MethodHandles.Lookup lookup, String name, Class<?> type, MethodHandle returnTypeProvider, MethodHandle... parameterTypeProviders) {
+        return MethodHandles.insertArguments(AccessTypeResolverHolder.RESOLVER, 0, returnTypeProvider, parameterTypeProviders);
+    }
+
+    private static final class AccessTypeResolverHolder {
+        private static final MethodHandle RESOLVER;
+
+        static {
+            try {
+                RESOLVER = MethodHandles.lookup().findStatic(OpeningMetafactory.class, "resolveAccessType", MethodType.methodType(MethodType.class, MethodHandle.class, MethodHandle[].class, ClassLoader.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
             }
         }
-        return className;
+    }
+
+    private static MethodType resolveAccessType(MethodHandle returnTypeProvider, MethodHandle[] parameterTypeProviders, ClassLoader classLoader) throws Throwable {
+        Class<?> returnType = (Class<?>) returnTypeProvider.invokeExact(classLoader);
+        Class<?>[] parameterTypes = new Class<?>[parameterTypeProviders.length];
+        for (int i = 0; i < parameterTypeProviders.length; i++) {
+            parameterTypes[i] = (Class<?>) parameterTypeProviders[i].invokeExact(classLoader);
+        }
+        return MethodType.methodType(returnType, parameterTypes);
+    }
+
+    /**
+     * Describes the failure of an opening accessed directly, as by {@link Open#direct()}, to link at runtime.
+     * @param error the error thrown by the access
+     * @param holder the class holding the opening
+     * @param member a description of the member accessed
+     * @return the error to throw in place of the original
+     */
+    @SuppressWarnings("unused")
+    public static IncompatibleClassChangeError directAccessFailed(IncompatibleClassChangeError error, Class<?> holder, String member) {
+        var trace = error.getStackTrace();
+        if (trace.length != 0 && !trace[0].getClassName().equals(holder.getName())) {
+            // Thrown from within the member accessed, not by linking the access itself
+            return error;
+        }
+        var failure = new IncompatibleClassChangeError("Could not directly access " + member + " from " + holder.getName() + "; if it is not accessible at runtime, it must not be opened directly");
+        failure.initCause(error);
+        return failure;
     }
 
     @SuppressWarnings("unused")
     public static CallSite makeOpenClass(MethodHandles.Lookup caller, String constructionMethodName, MethodType factoryType, MethodHandle targetClassGetter, MethodHandle classFieldPutter, MethodHandle classFieldGetter, MethodHandle infoGetter) {
-        return makeOpenClass(caller, constructionMethodName, factoryType, targetClassGetter, classFieldPutter, classFieldGetter, infoGetter, false);
+        return makeOpenClass(caller, constructionMethodName, factoryType, targetClassGetter, classFieldPutter, classFieldGetter, infoGetter, null, false);
     }
 
     @SuppressWarnings("unused")
     public static CallSite makeOpenClassUnsafe(MethodHandles.Lookup caller, String constructionMethodName, MethodType factoryType, MethodHandle targetClassGetter, MethodHandle classFieldPutter, MethodHandle classFieldGetter, MethodHandle infoGetter) {
-        return makeOpenClass(caller, constructionMethodName, factoryType, targetClassGetter, classFieldPutter, classFieldGetter, infoGetter, true);
+        return makeOpenClass(caller, constructionMethodName, factoryType, targetClassGetter, classFieldPutter, classFieldGetter, infoGetter, null, true);
     }
 
-    private static CallSite makeOpenClass(MethodHandles.Lookup caller, String constructionMethodName, MethodType factoryType, MethodHandle targetClassGetter, MethodHandle classFieldPutter, MethodHandle classFieldGetter, MethodHandle infoGetter, boolean unsafe) {
+    /**
+     * As {@link #makeOpenClass(MethodHandles.Lookup, String, MethodType, MethodHandle, MethodHandle, MethodHandle, MethodHandle)},
+     * but first looks for a subclass generated at build time.
+     * @param prebuiltGetter returns the binary name of the subclass generated at build time, or {@code null} if there is none
+     */
+    @SuppressWarnings("unused")
+    public static CallSite makeOpenClass(MethodHandles.Lookup caller, String constructionMethodName, MethodType factoryType, MethodHandle targetClassGetter, MethodHandle classFieldPutter, MethodHandle classFieldGetter, MethodHandle infoGetter, MethodHandle prebuiltGetter) {
+        return makeOpenClass(caller, constructionMethodName, factoryType, targetClassGetter, classFieldPutter, classFieldGetter, infoGetter, prebuiltGetter, false);
+    }
+
+    /**
+     * As {@link #makeOpenClassUnsafe(MethodHandles.Lookup, String, MethodType, MethodHandle, MethodHandle, MethodHandle, MethodHandle)},
+     * but first looks for a subclass generated at build time.
+     * @param prebuiltGetter returns the binary name of the subclass generated at build time, or {@code null} if there is none
+     */
+    @SuppressWarnings("unused")
+    public static CallSite makeOpenClassUnsafe(MethodHandles.Lookup caller, String constructionMethodName, MethodType factoryType, MethodHandle targetClassGetter, MethodHandle classFieldPutter, MethodHandle classFieldGetter, MethodHandle infoGetter, MethodHandle prebuiltGetter) {
+        return makeOpenClass(caller, constructionMethodName, factoryType, targetClassGetter, classFieldPutter, classFieldGetter, infoGetter, prebuiltGetter, true);
+    }
+
+    private static CallSite makeOpenClass(MethodHandles.Lookup caller, String constructionMethodName, MethodType factoryType, MethodHandle targetClassGetter, MethodHandle classFieldPutter, MethodHandle classFieldGetter, MethodHandle infoGetter, @Nullable MethodHandle prebuiltGetter, boolean unsafe) {
+        var event = OpeningEvents.extend();
         Class<?> targetClass;
-        // Total format: fields, overrides, ctors
-        // Field list format: String name, Class<?> fieldType, Boolean isFinal, List<String> setters, List<String> getters
-        List<List<Object>> fields;
-        // Override list format: String name, MethodHandle interface, String overrideName, MethodHandle toOverride
-        List<List<Object>> overrides;
-        // Ctor list format: MethodHandle type, MethodHandle superType, List<String> fields
-        List<List<Object>> ctors;
         try {
             targetClass = (Class<?>) targetClassGetter.invoke(caller.lookupClass().getClassLoader());
-            //noinspection unchecked
-            List<List<List<Object>>> all = (List<List<List<Object>>>) infoGetter.invoke(caller.lookupClass().getClassLoader());
-            fields = all.get(0);
-            overrides = all.get(1);
-            ctors = all.get(2);
         } catch (Throwable e) {
             throw new OpeningException(e);
         }
@@ -422,34 +1029,91 @@ private static CallSite makeOpenClass(MethodHandles.Lookup caller, String constr
         if (!factoryType.returnType().equals(holdingClass)) {
             throw new OpeningException("Factory type return type must be the same as the holding class");
         }
-        MethodHandles.Lookup lookup;
+        Class<?> generatedClass;
         try {
-            if (unsafe) {
-                lookup = getLookupProviderUnsafe().provider.openingLookup(caller, targetClass);
-            } else {
-                lookup = LOOKUP_PROVIDER_SAFE.openingLookup(caller, targetClass);
-                if (targetClass.getModule() != holdingClass.getModule() && (lookup.lookupModes() & MethodHandles.Lookup.ORIGINAL) == 0) {
-                    throw new OpeningException("Holding interface and class to extend must be in the same module, or otherwise have ORIGINAL lookup access, if `unsafe` is false");
+            generatedClass = (Class<?>) classFieldGetter.invokeExact();
+            if (generatedClass == null) {
+                generatedClass = findPrebuilt(caller, prebuiltGetter, holdingClass, targetClass);
+                if (generatedClass != null) {
+                    if (event != null) {
+                        event.prebuilt = true;
+                    }
+                    classFieldPutter.invokeExact(generatedClass);
                 }
             }
-        } catch (IllegalAccessException e) {
-            throw new OpeningException("Issue creating lookup", e);
+        } catch (Throwable e) {
+            throw new OpeningException("Could not get existing generated subclass", e);
         }
 
-        Class<?> generatedClass;
+        // Classes generated here are hidden in the target's package, while those generated at build time are in the
+        // holder's, and are constructed through the caller whether or not a subclass could be generated here
+        MethodHandles.Lookup lookup = generatedClass == null || generatedClass.isHidden() ? extensionLookup(caller, holdingClass, targetClass, unsafe) : caller;
+
         try {
-            generatedClass = (Class<?>) classFieldGetter.invokeExact();
             if (generatedClass == null) {
-                generatedClass = generateClass(caller, lookup, targetClass, constructionMethodName, holdingClass, fields, overrides, ctors);
+                // The members of the extension are only needed, and so only decoded, when the class is generated
+                var info = ExtensionInfo.decode(infoGetter.invoke(holdingClass.getClassLoader()), holdingClass, targetClass);
+                generatedClass = generateClass(caller, lookup, targetClass, constructionMethodName, holdingClass, info, event);
                 classFieldPutter.invokeExact(generatedClass);
             }
             MethodHandle ctor = findCtorOrAllocator(factoryType, lookup, generatedClass);
+            if (event != null) {
+                event.holdingClass = holdingClass;
+                event.targetClass = targetClass;
+                event.unsafe = unsafe;
+                event.commit();
+            }
             return new ConstantCallSite(ctor);
         } catch (Throwable e) {
             throw new OpeningException("Could not get existing generated subclass", e);
         }
     }
 
+    private static MethodHandles.Lookup extensionLookup(MethodHandles.Lookup caller, Class<?> holdingClass, Class<?> targetClass, boolean unsafe) {
+        MethodHandles.Lookup lookup;
+        try {
+            if (unsafe) {
+                lookup = LOOKUPS_UNSAFE.openingLookup(caller, targetClass);
+            } else {
+                lookup = LOOKUPS_SAFE.openingLookup(caller, targetClass);
+                if (targetClass.getModule() != holdingClass.getModule() && (lookup.lookupModes() & MethodHandles.Lookup.ORIGINAL) == 0) {
+                    throw new OpeningException("Holding interface and class to extend must be in the same module, or otherwise have ORIGINAL lookup access, if `unsafe` is false");
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new OpeningException("Issue creating lookup", e);
+        }
+        return lookup;
+    }
+
+    private static @Nullable Class<?> findPrebuilt(MethodHandles.Lookup caller, @Nullable MethodHandle prebuiltGetter, Class<?> holdingClass, Class<?> targetClass) throws Throwable {
+        // A class generated at build time only matches the runtime if names are not remapped and the target is visible
+        // to the holder as it was when it was built; otherwise, fall back to generating it here. As the class lives in
+        // the holder's module, no module links need to be added for it
+        if (prebuiltGetter == null || !getRemapper(holdingClass).isEmpty()) {
+            return null;
+        }
+        var targetModule = targetClass.getModule();
+        var holdingModule = holdingClass.getModule();
+        if ((targetClass.getModifiers() & Opcodes.ACC_PUBLIC) == 0 || targetModule != holdingModule && (!targetModule.isExported(targetClass.getPackageName(), holdingModule) || !holdingModule.canRead(targetModule))) {
+            return null;
+        }
+        var name = (String) prebuiltGetter.invokeExact();
+        if (name == null) {
+            return null;
+        }
+        Class<?> prebuilt;
+        try {
+            prebuilt = caller.findClass(name);
+        } catch (ClassNotFoundException | IllegalAccessException | LinkageError e) {
+            return null;
+        }
+        if (!targetClass.isAssignableFrom(prebuilt) || !holdingClass.isAssignableFrom(prebuilt)) {
+            return null;
+        }
+        return prebuilt;
+    }
+
     private static MethodHandle findCtorOrAllocator(MethodType factoryType, MethodHandles.Lookup lookup, Class<?> generatedClass) throws Throwable {
         var constructor = generatedClass.getConstructor(factoryType.parameterArray());
         if (constructor.isAnnotationPresent(ManualAllocation.class)) {
@@ -461,11 +1125,25 @@ private static MethodHandle findCtorOrAllocator(MethodType factoryType, MethodHa
         return lookup.findConstructor(generatedClass, factoryType.changeReturnType(void.class)).asType(factoryType);
     }
 
-    private static Class<?> generateClass(MethodHandles.Lookup originalLookup, MethodHandles.Lookup lookup, Class<?> targetClass, String constructionMethodName, Class<?> holdingClass, List<List<Object>> fields, List<List<Object>> overrides, List<List<Object>> ctors) {
+    private static Class<?> generateClass(MethodHandles.Lookup originalLookup, MethodHandles.Lookup lookup, Class<?> targetClass, String constructionMethodName, Class<?> holdingClass, ExtensionInfo info, OpeningEvents.@Nullable Extend event) {
         var classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES);
         var isInterface = targetClass.isInterface();
         var superClass = isInterface ? Object.class : targetClass;
         var interfaces = isInterface ? new String[] {Type.getInternalName(targetClass), Type.getInternalName(holdingClass)} : new String[] {Type.getInternalName(holdingClass)};
+        var fields = info.fields();
+        var overrides = info.overrides();
+        var ctors = info.ctors();
+
+        // Index the declared members of both classes once, so that generation does not scale with the product of the
+        // number of members and the number of fields and overrides
+        var holdingMethods = indexMethods(holdingClass);
+        var targetMethods = indexMethods(targetClass);
+        Map<List<Class<?>>, Constructor<?>> targetCtors = new HashMap<>();
+        if (!isInterface) {
+            for (var constructor : targetClass.getDeclaredConstructors()) {
+                targetCtors.put(List.of(constructor.getParameterTypes()), constructor);
+            }
+        }
 
         var targetModule = targetClass.getModule();
         var holdingModule = holdingClass.getModule();
@@ -474,46 +1152,26 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
             allVisible = false;
         }
         for (var override : overrides) {
-            var overrideName = (String) override.get(2);
-            MethodType overrideType;
-            try {
-                overrideType = (MethodType) ((MethodHandle) override.get(3)).invoke(holdingClass.getClassLoader());
-            } catch (Throwable e) {
-                throw new OpeningException(e);
+            Method originalMethod = findMethod(targetMethods, override.superName(), null, override.superType().parameterList());
+            if (originalMethod == null) {
+                allVisible = false;
+                continue;
             }
-            overrideName = remapMethod(overrideName, overrideType.descriptorString(), targetClass.getName(), holdingClass);
-            try {
-                Method originalMethod = targetClass.getDeclaredMethod(overrideName, overrideType.parameterArray());
-                if ((originalMethod.getModifiers() & Opcodes.ACC_PUBLIC) == 0 && (originalMethod.getModifiers() & Opcodes.ACC_PROTECTED) == 0) {
-                    allVisible = false;
-                }
-                if ((Arrays.stream(originalMethod.getParameterTypes()).anyMatch(it -> (it.getModifiers() & Opcodes.ACC_PUBLIC) == 0))) {
-                    allVisible = false;
-                }
-                if ((originalMethod.getReturnType().getModifiers() & Opcodes.ACC_PUBLIC) == 0) {
-                    allVisible = false;
-                }
-            } catch (NoSuchMethodException e) {
+            if ((originalMethod.getModifiers() & Opcodes.ACC_PUBLIC) == 0 && (originalMethod.getModifiers() & Opcodes.ACC_PROTECTED) == 0) {
+                allVisible = false;
+            }
+            if ((Arrays.stream(originalMethod.getParameterTypes()).anyMatch(it -> (it.getModifiers() & Opcodes.ACC_PUBLIC) == 0))) {
+                allVisible = false;
+            }
+            if ((originalMethod.getReturnType().getModifiers() & Opcodes.ACC_PUBLIC) == 0) {
                 allVisible = false;
             }
         }
         var allCtorsVisible = true;
         if (!isInterface) {
             for (var ctor : ctors) {
-                MethodType superType;
-                try {
-                    superType = (MethodType) ((MethodHandle) ctor.get(1)).invoke(holdingClass.getClassLoader());
-                } catch (Throwable e) {
-                    throw new OpeningException(e);
-                }
-
-                try {
-                    Constructor<?> originalCtor = targetClass.getDeclaredConstructor(superType.parameterArray());
-                    if ((originalCtor.getModifiers() & Opcodes.ACC_PUBLIC) == 0 && (originalCtor.getModifiers() & Opcodes.ACC_PROTECTED) == 0) {
-                        allVisible = false;
-                        allCtorsVisible = false;
-                    }
-                } catch (NoSuchMethodException e) {
+                Constructor<?> originalCtor = targetCtors.get(ctor.superType().parameterList());
+                if (originalCtor == null || ((originalCtor.getModifiers() & Opcodes.ACC_PUBLIC) == 0 && (originalCtor.getModifiers() & Opcodes.ACC_PROTECTED) == 0)) {
                     allVisible = false;
                     allCtorsVisible = false;
                 }
@@ -526,33 +1184,18 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
         if (!allVisible) {
             Set<Class<?>> requirements = new HashSet<>();
             for (var field : fields) {
-                var fieldType = (Class<?>) field.get(1);
-                requirements.add(fieldType);
+                requirements.add(field.type());
             }
             for (var override : overrides) {
-                try {
-                    var interfaceType = (MethodType) ((MethodHandle) override.get(1)).invoke(holdingClass.getClassLoader());
-                    var superType = (MethodType) ((MethodHandle) override.get(3)).invoke(holdingClass.getClassLoader());
-
-                    requirements.add(interfaceType.returnType());
-                    requirements.addAll(interfaceType.parameterList());
-                    
-                    superRequirements.add(superType.returnType());
-                    superRequirements.addAll(superType.parameterList());
-                } catch (Throwable t) {
-                    throw new OpeningException(t);
-                }
+                requirements.add(override.interfaceType().returnType());
+                requirements.addAll(override.interfaceType().parameterList());
+
+                superRequirements.add(override.superType().returnType());
+                superRequirements.addAll(override.superType().parameterList());
             }
             for (var ctor : ctors) {
-                try {
-                    var ctorType = (MethodType) ((MethodHandle) ctor.get(0)).invoke(holdingClass.getClassLoader());
-                    var superType = (MethodType) ((MethodHandle) ctor.get(1)).invoke(holdingClass.getClassLoader());
-
-                    requirements.addAll(ctorType.parameterList());
-                    superRequirements.addAll(superType.parameterList());
-                } catch (Throwable t) {
-                    throw new OpeningException(t);
-                }
+                requirements.addAll(ctor.type().parameterList());
+                superRequirements.addAll(ctor.superType().parameterList());
             }
 
             try {
@@ -570,12 +1213,15 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
         Map<String, Class<?>> fieldTypes = new HashMap<>();
 
         for (var field : fields) {
-            String fieldName = (String) field.get(0);
-            var fieldType = (Class<?>) field.get(1);
-            fieldTypes.put(fieldName, fieldType);
+            fieldTypes.put(field.name(), field.type());
         }
 
         boolean requiresManualAllocation = proxyData.isProxy() && !allCtorsVisible;
+        if (event != null) {
+            event.generated = true;
+            event.proxyModule = proxyData.isProxy();
+            event.manualAllocation = requiresManualAllocation;
+        }
         boolean bounceCtors = false;
         boolean bounceOverrides = false;
         try {
@@ -588,29 +1234,21 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
                 var overridesNames = new ArrayList<String>();
                 var overridesSuperNames = new ArrayList<String>();
                 for (var ctor : ctors) {
-                    var ctorType = (MethodType) ((MethodHandle) ctor.get(0)).invoke(holdingClass.getClassLoader());
-                    var superType = (MethodType) ((MethodHandle) ctor.get(1)).invoke(holdingClass.getClassLoader());
-                    //noinspection unchecked
-                    var fieldsToSet = (List<String>) ctor.get(2);
-
-                    ctorTypes.add(MethodType.methodType(ctorType.returnType(), ctorType.parameterList().subList(fieldsToSet.size(), ctorType.parameterCount())));
-                    superCtorTypes.add(superType);
+                    var ctorType = ctor.type();
+                    ctorTypes.add(MethodType.methodType(ctorType.returnType(), ctorType.parameterList().subList(ctor.fields().size(), ctorType.parameterCount())));
+                    superCtorTypes.add(ctor.superType());
                 }
                 for (var override : overrides) {
-                    var interfaceType = (MethodType) ((MethodHandle) override.get(1)).invoke(holdingClass.getClassLoader());
-                    var superType = (MethodType) ((MethodHandle) override.get(3)).invoke(holdingClass.getClassLoader());
-
-                    var interfaceName = (String) override.get(0);
-                    var superName = (String) override.get(2);
-                    superName = remapMethod(superName, superType.descriptorString(), targetClass.getName(), holdingClass);
+                    overridesTypes.add(override.interfaceType());
+                    overridesSuperTypes.add(override.superType());
 
-                    overridesTypes.add(interfaceType);
-                    overridesSuperTypes.add(superType);
-
-                    overridesNames.add(interfaceName);
-                    overridesSuperNames.add(superName);
+                    overridesNames.add(override.name());
+                    overridesSuperNames.add(override.superName());
                 }
                 Set<MethodType> visitedConstructors = new HashSet<>();
+                if (event != null) {
+                    event.bounceType = true;
+                }
                 var bounceType = ProxyUtil.makeBounceType(targetClass, lookup, ctorTypes, superCtorTypes, overridesTypes, overridesSuperTypes, overridesNames, overridesSuperNames, (ctorTypeList, superTypeList, classVisitor) -> {
                     if (visitedConstructors.contains(ctorTypeList)) {
                         return;
@@ -696,24 +1334,19 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
         classWriter.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL, generatedClassName, null, Type.getInternalName(superClass), interfaces);
 
         for (var field : fields) {
-            String fieldName = (String) field.get(0);
-            var fieldType = (Class<?>) field.get(1);
-            boolean isFinal = (boolean) field.get(2);
-            
+            String fieldName = field.name();
+            var fieldType = field.type();
+            boolean isFinal = field.isFinal();
+
             if (isFinal && requiresManualAllocation) {
                 throw new OpeningException("Extension "+holdingClass+" of target "+targetClass+" requires use of a dynamic module and manual allocation to construct, and thus cannot have final fields, but is defined with final field '"+fieldName+"'");
             }
 
             classWriter.visitField(Opcodes.ACC_PRIVATE | (isFinal ? Opcodes.ACC_FINAL : 0), fieldName, Type.getDescriptor(fieldType), null, null).visitEnd();
-            //noinspection unchecked
-            List<String> setters = (List<String>) field.get(3);
-            //noinspection unchecked
-            List<String> getters = (List<String>) field.get(4);
-            for (var setter : setters) {
-                Arrays.stream(holdingClass.getDeclaredMethods())
-                        .filter(m -> m.getName().equals(setter) && m.getParameterCount() == 1 && m.getReturnType().equals(void.class) && m.getParameterTypes()[0].equals(fieldType))
-                        .findFirst()
-                        .orElseThrow(() -> new OpeningException("Could not find interface setter method to overload with name "+setter+", type "+fieldType));
+            for (var setter : field.setters()) {
+                if (findMethod(holdingMethods, setter, void.class, List.of(fieldType)) == null) {
+                    throw new OpeningException("Could not find interface setter method to overload with name "+setter+", type "+fieldType);
+                }
                 var methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, setter, Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(fieldType)), null, null);
                 methodVisitor.visitCode();
                 methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
@@ -723,11 +1356,10 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
                 methodVisitor.visitMaxs(2, 2);
                 methodVisitor.visitEnd();
             }
-            for (var getter : getters) {
-                Arrays.stream(holdingClass.getDeclaredMethods())
-                        .filter(m -> m.getName().equals(getter) && m.getParameterCount() == 0 && m.getReturnType().equals(fieldType))
-                        .findFirst()
-                        .orElseThrow(() -> new OpeningException("Could not find interface getter method to overload with name "+getter+", type "+fieldType));
+            for (var getter : field.getters()) {
+                if (findMethod(holdingMethods, getter, fieldType, List.of()) == null) {
+                    throw new OpeningException("Could not find interface getter method to overload with name "+getter+", type "+fieldType);
+                }
                 var methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, getter, Type.getMethodDescriptor(Type.getType(fieldType)), null, null);
                 methodVisitor.visitCode();
                 methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
@@ -739,22 +1371,14 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
         }
 
         for (var override : overrides) {
-            var name = (String) override.get(0);
-            var overrideName = (String) override.get(2);
-            MethodType interfaceType;
-            MethodType overrideType;
-            try {
-                interfaceType = (MethodType) ((MethodHandle) override.get(1)).invoke(holdingClass.getClassLoader());
-                overrideType = (MethodType) ((MethodHandle) override.get(3)).invoke(holdingClass.getClassLoader());
-            } catch (Throwable e) {
-                throw new OpeningException(e);
-            }
-            overrideName = remapMethod(overrideName, overrideType.descriptorString(), targetClass.getName(), holdingClass);
-            Arrays.stream(holdingClass.getDeclaredMethods())
-                    .filter(m -> m.getName().equals(name) && m.getParameterCount() == interfaceType.parameterCount() && m.getReturnType().equals(interfaceType.returnType()) && Arrays.equals(m.getParameterTypes(), interfaceType.parameterArray()))
-                    .filter(Method::isDefault)
-                    .findFirst()
-                    .orElseThrow(() -> new OpeningException("Could not find interface method to bounce override to with name "+name+", type "+interfaceType));
+            var name = override.name();
+            var overrideName = override.superName();
+            var interfaceType = override.interfaceType();
+            var overrideType = override.superType();
+            var interfaceMethod = findMethod(holdingMethods, name, interfaceType.returnType(), interfaceType.parameterList());
+            if (interfaceMethod == null || !interfaceMethod.isDefault()) {
+                throw new OpeningException("Could not find interface method to bounce override to with name "+name+", type "+interfaceType);
+            }
             var parameterTypes = Arrays.stream(overrideType.parameterArray()).map(Type::getType).toArray(Type[]::new);
             var overrideDesc = Type.getMethodDescriptor(Type.getType(overrideType.returnType()), parameterTypes);
             if (bounceOverrides) {
@@ -808,7 +1432,7 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
                                 false
                         ),
                         MinimalConDynUtils.conDynFromClass(Type.getType(holdingClass)),
-                        MinimalConDynUtils.conDynMethodType(MinimalConDynUtils.conDynFromClass(Type.getType(interfaceType.returnType())), Arrays.stream(fullInterfaceParameterTypes).map(MinimalConDynUtils::conDynFromClass).toList()),
+                        MinimalConDynUtils.conDynMethodType(Type.getType(interfaceType.returnType()), Arrays.asList(fullInterfaceParameterTypes)),
                         VIRTUAL_TYPE
                 );
                 if (overrideType.returnType().equals(void.class)) {
@@ -822,53 +1446,45 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
         }
 
         for (var ctor : ctors) {
-            MethodType ctorType;
+            MethodType ctorType = ctor.type();
             MethodType superType;
-            try {
-                ctorType = (MethodType) ((MethodHandle) ctor.get(0)).invoke(holdingClass.getClassLoader());
-                if (bounceCtors) {
-                    var originalSuperType = (MethodType) ((MethodHandle) ctor.get(1)).invoke(holdingClass.getClassLoader());
-                    var fieldParams = ctorType.parameterCount() - originalSuperType.parameterCount();
-                    var newParamTypes = ctorType.parameterList().subList(fieldParams, ctorType.parameterCount());
-                    superType = MethodType.methodType(ctorType.returnType(), newParamTypes);
-                } else {
-                    superType = (MethodType) ((MethodHandle) ctor.get(1)).invoke(holdingClass.getClassLoader());
-                }
-            } catch (Throwable e) {
-                throw new OpeningException(e);
+            if (bounceCtors) {
+                var fieldParams = ctorType.parameterCount() - ctor.superType().parameterCount();
+                var newParamTypes = ctorType.parameterList().subList(fieldParams, ctorType.parameterCount());
+                superType = MethodType.methodType(ctorType.returnType(), newParamTypes);
+            } else {
+                superType = ctor.superType();
             }
-            //noinspection unchecked
-            var fieldsToSet = (List<String>) ctor.get(2);
+            var fieldsToSet = ctor.fields();
 
             var ctorDesc = ctorType.descriptorString();
             var methodVisitor = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", ctorDesc, null, null);
             
             if (proxyData.isProxy() && !isInterface) {
-                try {
-                    Constructor<?> originalCtor = targetClass.getDeclaredConstructor(superType.parameterArray());
-                    if ((originalCtor.getModifiers() & Opcodes.ACC_PRIVATE) != 0) {
-                        // This proxy constructor is not visible, and we are using a proxy-generated dynamic module, so
-                        // construction must happen through manual allocation and superclass invocation.
-                        var annotationVisitor = methodVisitor.visitAnnotation(
-                                Type.getDescriptor(ManualAllocation.class),
-                                true
-                        );
-                        var arrayVisitor = annotationVisitor.visitArray("superConstructor");
-                        for (var type : superType.parameterArray()) {
-                            arrayVisitor.visit("superConstructor", Type.getType(type));
-                        }
-                        arrayVisitor.visitEnd();
-                        // Target class, _not_ super class, to deal with proxy bounce
-                        annotationVisitor.visit("superClass", Type.getType(targetClass));
-                        arrayVisitor = annotationVisitor.visitArray("fields");
-                        for (var field : fieldsToSet) {
-                            arrayVisitor.visit("fields", field);
-                        }
-                        arrayVisitor.visitEnd();
-                        annotationVisitor.visitEnd();
+                Constructor<?> originalCtor = targetCtors.get(superType.parameterList());
+                if (originalCtor == null) {
+                    throw new OpeningException("Could not find constructor of "+targetClass.getName()+" with type "+superType);
+                }
+                if ((originalCtor.getModifiers() & Opcodes.ACC_PRIVATE) != 0) {
+                    // This proxy constructor is not visible, and we are using a proxy-generated dynamic module, so
+                    // construction must happen through manual allocation and superclass invocation.
+                    var annotationVisitor = methodVisitor.visitAnnotation(
+                            Type.getDescriptor(ManualAllocation.class),
+                            true
+                    );
+                    var arrayVisitor = annotationVisitor.visitArray("superConstructor");
+                    for (var type : superType.parameterArray()) {
+                        arrayVisitor.visit("superConstructor", Type.getType(type));
                     }
-                } catch (NoSuchMethodException e) {
-                    throw new OpeningException(e);
+                    arrayVisitor.visitEnd();
+                    // Target class, _not_ super class, to deal with proxy bounce
+                    annotationVisitor.visit("superClass", Type.getType(targetClass));
+                    arrayVisitor = annotationVisitor.visitArray("fields");
+                    for (var field : fieldsToSet) {
+                        arrayVisitor.visit("fields", field);
+                    }
+                    arrayVisitor.visitEnd();
+                    annotationVisitor.visitEnd();
                 }
             }
             
@@ -909,6 +1525,9 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
         classWriter.visitEnd();
 
         byte[] bytes = classWriter.toByteArray();
+        if (event != null) {
+            event.generatedSize = bytes.length;
+        }
 
         try {
             MethodHandles.Lookup lookupIn;
@@ -931,6 +1550,35 @@ private static Class<?> generateClass(MethodHandles.Lookup originalLookup, Metho
         }
     }
 
+    private static Map<String, List<Method>> indexMethods(Class<?> clazz) {
+        Map<String, List<Method>> methods = new HashMap<>();
+        for (var method : clazz.getDeclaredMethods()) {
+            methods.computeIfAbsent(method.getName(), k -> new ArrayList<>(1)).add(method);
+        }
+        return methods;
+    }
+
+    private static @Nullable Method findMethod(Map<String, List<Method>> methods, String name, @Nullable Class<?> returnType, List<Class<?>> parameterTypes) {
+        var candidates = methods.get(name);
+        if (candidates == null) {
+            return null;
+        }
+        Method found = null;
+        for (var method : candidates) {
+            if (method.getParameterCount() != parameterTypes.size() || (returnType != null && !method.getReturnType().equals(returnType))) {
+                continue;
+            }
+            if (!Arrays.asList(method.getParameterTypes()).equals(parameterTypes)) {
+                continue;
+            }
+            // Like Class#getDeclaredMethod, prefer the method over any bridges to it when the return type is unknown
+            if (found == null || found.isBridge()) {
+                found = method;
+            }
+        }
+        return found;
+    }
+
     private static void convertToType(MethodVisitor methodVisitor, Class<?> ctorClass, Class<?> superClass) {
         if (superClass.isAssignableFrom(ctorClass)) {
             return;
@@ -10,13 +10,16 @@
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @ApiStatus.Internal
 final class ProxyUtil {
@@ -49,53 +52,53 @@ public static void expose(Class<?> viewer, Class<?> target, MethodHandles.Lookup
         }
     }
     
+    /**
+     * Targets each class has been found able to see, mapped to whether they were seen strictly. Once a class can see
+     * another, it always can, as class loaders resolve a name to the same class and module links are never removed.
+     */
+    private static final ClassValue<Map<Class<?>, Boolean>> SEEN = new ClassValue<>() {
+        @Override
+        protected Map<Class<?>, Boolean> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
     private static boolean canSee(Class<?> viewer, Class<?> target, MethodHandles.Lookup unsafeLookup, boolean strict) throws Throwable {
+        var seen = SEEN.get(viewer);
+        var seenStrict = seen.get(target);
+        if (seenStrict != null && (seenStrict || !strict)) {
+            return true;
+        }
+
         expose(viewer, target, unsafeLookup);
-        
-        var generatedName = Type.getInternalName(viewer)+"$CheckCanSee";
-        
-        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
-        writer.visit(
-                Opcodes.V17,
-                Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL,
-                generatedName,
-                null,
-                Type.getInternalName(Object.class),
-                new String[]{}
-        );
-        var check = writer.visitMethod(
-                Opcodes.ACC_STATIC,
-                "check",
-                MethodType.methodType(Class.class).descriptorString(),
-                null,
-                null
-        );
-        check.visitCode();
-        if (strict) {
-            check.visitLdcInsn(Type.getType(target));
-        } else {
-            check.visitLdcInsn(target.getName());
-            check.visitMethodInsn(
-                    Opcodes.INVOKESTATIC,
-                    Type.getInternalName(Class.class),
-                    "forName",
-                    MethodType.methodType(Class.class, String.class).descriptorString(),
-                    false
-            );
+
+        // Answers what resolving the target by name from a class in the viewer's package would, without defining one
+        if (!resolves(viewer, target) || (strict && !isAccessible(viewer, target))) {
+            return false;
         }
-        check.visitInsn(Opcodes.ARETURN);
-        check.visitMaxs(1, 1);
-        check.visitEnd();
-        writer.visitEnd();
+        seen.merge(target, strict, Boolean::logicalOr);
+        return true;
+    }
+
+    private static boolean resolves(Class<?> viewer, Class<?> target) {
         try {
-            var handle = ClassCreatorUtils.defineHiddenClass(unsafeLookup.in(viewer), writer.toByteArray(), false);
-            var getter = handle.findStatic(handle.lookupClass(), "check", MethodType.methodType(Class.class));
-            var clazz = (Class<?>) getter.invokeExact();
-            return clazz == target;
-        } catch (ClassNotFoundException | NoClassDefFoundError | IllegalAccessException | IllegalAccessError ignored) {
+            return Class.forName(target.getName(), false, viewer.getClassLoader()) == target;
+        } catch (ClassNotFoundException | LinkageError e) {
             return false;
         }
     }
+
+    private static boolean isAccessible(Class<?> viewer, Class<?> target) {
+        if (viewer.getClassLoader() == target.getClassLoader() && viewer.getPackageName().equals(target.getPackageName())) {
+            return true;
+        }
+        int modifiers = target.getModifiers();
+        // Member classes declared protected are public in their class files
+        boolean isPublic = Modifier.isPublic(modifiers) || (target.isMemberClass() && Modifier.isProtected(modifiers));
+        var viewerModule = viewer.getModule();
+        var targetModule = target.getModule();
+        return isPublic && viewerModule.canRead(targetModule) && targetModule.isExported(target.getPackageName(), viewerModule);
+    }
     
     private static class DoubleDelegatingClassLoader extends ClassLoader {
         private final List<ClassLoader> delegates;
@@ -0,0 +1,128 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Memoizes the results of a single set of {@link RuntimeRemapper}s, including members no remapper knows about, so that
+ * a member opened from many places is only looked up once.
+ */
+@ApiStatus.Internal
+final class RemapCache {
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder ENTRIES = new LongAdder();
+
+    // Keyed by owner, then name, then descriptor, so that a lookup that hits allocates nothing
+    private final Map<String, Map<String, Map<String, String>>> methods = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Map<String, String>>> fields = new ConcurrentHashMap<>();
+    private final Map<String, String> classes = new ConcurrentHashMap<>();
+
+    String remapMethod(String owner, String name, String descriptor, List<RuntimeRemapper> remappers) {
+        var result = count(lookup(methods, owner, name, descriptor));
+        if (result == null) {
+            result = name;
+            for (var remapper : remappers) {
+                String remapped = remapper.remapMethodName(owner, name, descriptor);
+                if (remapped != null) {
+                    result = remapped;
+                    break;
+                }
+            }
+            result = store(entries(methods, owner, name), descriptor, result);
+        }
+        return result;
+    }
+
+    String remapField(String owner, String name, String descriptor, List<RuntimeRemapper> remappers) {
+        var result = count(lookup(fields, owner, name, descriptor));
+        if (result == null) {
+            result = name;
+            for (var remapper : remappers) {
+                String remapped = remapper.remapFieldName(owner, name, descriptor);
+                if (remapped != null) {
+                    result = remapped;
+                    break;
+                }
+            }
+            result = store(entries(fields, owner, name), descriptor, result);
+        }
+        return result;
+    }
+
+    String remapClass(String name, List<RuntimeRemapper> remappers) {
+        var result = count(classes.get(name));
+        if (result == null) {
+            result = name;
+            for (var remapper : remappers) {
+                String remapped = remapper.remapClassName(name);
+                if (remapped != null) {
+                    result = remapped;
+                    break;
+                }
+            }
+            result = store(classes, name, result);
+        }
+        return result;
+    }
+
+    private static String lookup(Map<String, Map<String, Map<String, String>>> members, String owner, String name, String descriptor) {
+        var byName = members.get(owner);
+        if (byName == null) {
+            return null;
+        }
+        var byDescriptor = byName.get(name);
+        if (byDescriptor == null) {
+            return null;
+        }
+        return byDescriptor.get(descriptor);
+    }
+
+    private static Map<String, String> entries(Map<String, Map<String, Map<String, String>>> members, String owner, String name) {
+        return members.computeIfAbsent(owner, k -> new ConcurrentHashMap<>()).computeIfAbsent(name, k -> new ConcurrentHashMap<>());
+    }
+
+    private static String count(String result) {
+        if (result != null) {
+            HITS.increment();
+        } else {
+            MISSES.increment();
+        }
+        return result;
+    }
+
+    private static String store(Map<String, String> entries, String key, String result) {
+        // Remappers are not called under a lock, so two threads may race to fill the same entry; keep the first
+        var existing = entries.putIfAbsent(key, result);
+        if (existing != null) {
+            return existing;
+        }
+        ENTRIES.increment();
+        return result;
+    }
+
+    /**
+     * {@return the number of remappings answered from a cache, across all caches}
+     */
+    static long hits() {
+        return HITS.sum();
+    }
+
+    /**
+     * {@return the number of remappings that had to consult the remappers, across all caches}
+     */
+    static long misses() {
+        return MISSES.sum();
+    }
+
+    /**
+     * {@return the number of remappings ever cached, across all caches}
+     */
+    static long entries() {
+        return ENTRIES.sum();
+    }
+}
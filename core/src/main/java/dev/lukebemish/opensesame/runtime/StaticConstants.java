@@ -0,0 +1,127 @@
+package dev.lukebemish.opensesame.runtime;
+
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandleInfo;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.reflect.Modifier;
+
+/**
+ * Binds call sites that get {@code static final} fields to the values of those fields, which the JIT may then fold as it
+ * would a {@code getstatic} of a constant. A value is only bound once the class declaring its field is fully
+ * initialized, as told by {@code Unsafe#shouldBeInitialized}; a class whose initializer is still running, even on the
+ * current thread, may yet change it. That method was removed from {@link sun.misc.Unsafe} in Java 22, so there it is
+ * found on {@code jdk.internal.misc.Unsafe} through the unsafe lookup provider instead. Where neither can be found,
+ * getters are left as they are.
+ */
+@ApiStatus.Internal
+final class StaticConstants {
+    private static final @Nullable MethodHandle SHOULD_BE_INITIALIZED = findShouldBeInitialized();
+
+    private StaticConstants() {}
+
+    /**
+     * {@return a handle to the value got by the getter, or to a call site that binds itself to the value once the class
+     * declaring the field is initialized; or the getter itself, if the field is not final}
+     * @param lookup the lookup the getter was found with
+     * @param getter the handle of a static field getter
+     */
+    static MethodHandle bind(MethodHandles.Lookup lookup, MethodHandle getter) {
+        if (SHOULD_BE_INITIALIZED == null) {
+            return getter;
+        }
+        MethodHandleInfo info;
+        try {
+            info = lookup.revealDirect(getter);
+        } catch (IllegalArgumentException e) {
+            return getter;
+        }
+        if (!Modifier.isFinal(info.getModifiers())) {
+            return getter;
+        }
+        var declaringClass = info.getDeclaringClass();
+        if (isInitialized(declaringClass)) {
+            Object value;
+            try {
+                value = getter.invoke();
+            } catch (Throwable t) {
+                throw new OpeningException("Issue reading value of `" + info.getName() + "`", t);
+            }
+            return MethodHandles.constant(getter.type().returnType(), value);
+        }
+        // Initializing the class here could run its initializer earlier than the access would have, so the first read
+        // is left to do so
+        return new ConstantSite(getter, declaringClass).dynamicInvoker();
+    }
+
+    private static boolean isInitialized(Class<?> clazz) {
+        try {
+            return !(boolean) SHOULD_BE_INITIALIZED.invokeExact(clazz);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    private static @Nullable MethodHandle findShouldBeInitialized() {
+        try {
+            Class<?> unsafe = Class.forName("sun.misc.Unsafe", true, StaticConstants.class.getClassLoader());
+            return MethodHandles.publicLookup()
+                    .findVirtual(unsafe, "shouldBeInitialized", MethodType.methodType(boolean.class, Class.class))
+                    .bindTo(UnsafeProvision.theUnsafe());
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            return findInternalShouldBeInitialized();
+        }
+    }
+
+    private static @Nullable MethodHandle findInternalShouldBeInitialized() {
+        try {
+            Class<?> unsafe = Class.forName("jdk.internal.misc.Unsafe", false, null);
+            // Without a trusted lookup, the package is not exported to us and the lookups below fail
+            var lookup = OpeningMetafactory.unsafeLookup(unsafe);
+            Object theUnsafe = lookup.findStatic(unsafe, "getUnsafe", MethodType.methodType(unsafe)).invoke();
+            return lookup
+                    .findVirtual(unsafe, "shouldBeInitialized", MethodType.methodType(boolean.class, Class.class))
+                    .bindTo(theUnsafe);
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    /**
+     * A call site that reads a field until the class declaring it is initialized, then binds itself to the value read.
+     */
+    private static final class ConstantSite extends MutableCallSite {
+        private static final MethodHandle READ;
+
+        static {
+            try {
+                READ = MethodHandles.lookup().findVirtual(ConstantSite.class, "read", MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private final MethodHandle getter;
+        private final Class<?> declaringClass;
+
+        private ConstantSite(MethodHandle getter, Class<?> declaringClass) {
+            super(getter.type());
+            this.getter = getter;
+            this.declaringClass = declaringClass;
+            setTarget(READ.bindTo(this).asType(getter.type()));
+        }
+
+        private Object read() throws Throwable {
+            Object value = getter.invoke();
+            if (isInitialized(declaringClass)) {
+                // Racing reads all see the same value, so whichever binds last makes no difference
+                setTarget(MethodHandles.constant(type().returnType(), value));
+            }
+            return value;
+        }
+    }
+}
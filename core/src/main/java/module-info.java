@@ -3,6 +3,7 @@
     requires org.objectweb.asm;
     requires org.objectweb.asm.commons;
     requires static org.jetbrains.annotations;
+    requires static jdk.jfr;
 
     exports dev.lukebemish.opensesame.runtime;
     exports dev.lukebemish.opensesame.annotations;
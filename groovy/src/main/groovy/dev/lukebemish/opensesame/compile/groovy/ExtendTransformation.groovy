@@ -94,6 +94,11 @@ class ExtendTransformation extends AbstractASTTransformation {
             }
         }
 
+        // Unlike the ASM processor, this does not generate the extension's class at build time. Groovy 4 compiles an
+        // interface with static or default methods as a trait, so the compiled interface keeps only the abstract
+        // signatures of the overrides, while the constructors and the bodies of the overrides are moved to the trait's
+        // helper. A class generated from that interface, at build time or by the metafactory at runtime, would have no
+        // implementations to call, so there is nothing correct to prebuild until the interface is compiled as written.
         GroovyClassAccumulator accumulator = new GroovyClassAccumulator(classNode)
         processor.extensionBytecode(
                 accumulator,
@@ -166,8 +171,8 @@ class ExtendTransformation extends AbstractASTTransformation {
             mixinProviderLine(extendTargetClassHandle, new Processor.CoercedDescriptor<Type>(superCtorTypes, voidType), methodNode, "<init>", Discoverer.MixinProviderType.EXPOSE_TO_OVERRIDE)
         }
 
-        Object superCtorType = processor.conDynUtils().conDynMethodType(voidType.constantDynamic(), superCtorTypes.stream().<Object>map(TypedDynamic::constantDynamic).toList())
-        Object ctorType = processor.conDynUtils().conDynMethodType(voidType.constantDynamic(), parameterTypes.collect {(Object) processor.conDynUtils().conDynFromClass(it)})
+        Object superCtorType = processor.conDynUtils().conDynMethodType(voidType, superCtorTypes)
+        Object ctorType = processor.conDynUtils().conDynMethodType(voidType, parameterTypes.collect {processor.conDynUtils().conDynFromClass(it)})
 
         ctorConsumer.accept(new Processor.ExtendCtorInfo(ctorType, superCtorType, fieldNames))
 
@@ -189,7 +194,7 @@ class ExtendTransformation extends AbstractASTTransformation {
                                 Opcodes.H_INVOKESTATIC,
                                 Type.getInternalName(OpeningMetafactory.class),
                                 unsafeExtension ? "makeOpenClassUnsafe" : "makeOpenClass",
-                                MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, MethodHandle.class, MethodHandle.class, MethodHandle.class, MethodHandle.class).toMethodDescriptorString(),
+                                MethodType.methodType(CallSite.class, MethodHandles.Lookup.class, String.class, MethodType.class, MethodHandle.class, MethodHandle.class, MethodHandle.class, MethodHandle.class, MethodHandle.class).toMethodDescriptorString(),
                                 false
                         ),
                         extendTargetClassHandle.constantDynamic(),
@@ -211,7 +216,14 @@ class ExtendTransformation extends AbstractASTTransformation {
                                 Opcodes.H_INVOKESTATIC,
                                 holderType.getInternalName(),
                                 Processor.EXTEND_INFO_GENERATED,
-                                MethodType.methodType(List.class, ClassLoader.class).toMethodDescriptorString(),
+                                MethodType.methodType(Object[].class, ClassLoader.class).toMethodDescriptorString(),
+                                true
+                        ),
+                        new Handle(
+                                Opcodes.H_INVOKESTATIC,
+                                holderType.getInternalName(),
+                                Processor.EXTEND_PREBUILT,
+                                MethodType.methodType(String.class).toMethodDescriptorString(),
                                 true
                         )
                 )
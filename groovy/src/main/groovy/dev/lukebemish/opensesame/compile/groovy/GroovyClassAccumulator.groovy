@@ -89,12 +89,8 @@ class GroovyClassAccumulator implements Processor.ClassAccumulator {
     @Override
     Processor.MethodMaker visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
         Type methodType = Type.getMethodType(descriptor)
-        Parameter[] parameters = new Parameter[methodType.argumentTypes.length]
-        for (int i = 0; i < parameters.length; i++) {
-            parameters[i] = new Parameter(nodeFromType(methodType.argumentTypes[i]), "arg${i}")
-        }
         GroovyMethodMaker methodMaker = new GroovyMethodMaker()
-        MethodNode node = new MethodNode(name, access, nodeFromType(methodType.returnType), parameters, new ClassNode[0], new ExpressionStatement(new BytecodeExpression(nodeFromType(methodType.returnType)) {
+        MethodNode node = new MethodNode(name, access, nodeFromType(methodType.returnType), parameters(methodType), new ClassNode[0], new ExpressionStatement(new BytecodeExpression(nodeFromType(methodType.returnType)) {
             @Override
             void visit(MethodVisitor methodVisitor) {
                 methodMaker.visitors.each { it.accept(methodVisitor) }
@@ -104,6 +100,32 @@ class GroovyClassAccumulator implements Processor.ClassAccumulator {
         return methodMaker
     }
 
+    /**
+     * Adds a method whose body is only written once the class is generated, for bodies depending on transformations of
+     * the rest of the class.
+     */
+    void visitMethodLater(int access, String name, String descriptor, Consumer<Processor.MethodMaker> body) {
+        Type methodType = Type.getMethodType(descriptor)
+        GroovyMethodMaker methodMaker = new GroovyMethodMaker()
+        MethodNode node = new MethodNode(name, access, nodeFromType(methodType.returnType), parameters(methodType), new ClassNode[0], new ExpressionStatement(new BytecodeExpression(nodeFromType(methodType.returnType)) {
+            @Override
+            void visit(MethodVisitor methodVisitor) {
+                methodMaker.visitors.clear()
+                body.accept(methodMaker)
+                methodMaker.visitors.each { it.accept(methodVisitor) }
+            }
+        }))
+        classNode.addMethod(node)
+    }
+
+    private Parameter[] parameters(Type methodType) {
+        Parameter[] parameters = new Parameter[methodType.argumentTypes.length]
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = new Parameter(nodeFromType(methodType.argumentTypes[i]), "arg${i}")
+        }
+        return parameters
+    }
+
     private ClassNode nodeFromType(Type type) {
         switch (type.sort) {
             case Type.VOID:
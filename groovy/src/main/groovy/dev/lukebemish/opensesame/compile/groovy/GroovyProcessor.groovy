@@ -22,6 +22,9 @@ import org.codehaus.groovy.ast.expr.Expression
 import org.codehaus.groovy.ast.expr.PropertyExpression
 import org.codehaus.groovy.classgen.asm.BytecodeHelper
 import org.codehaus.groovy.control.CompilePhase
+import org.codehaus.groovy.control.SourceUnit
+import org.codehaus.groovy.control.messages.WarningMessage
+import org.codehaus.groovy.syntax.Token
 import org.codehaus.groovy.transform.AbstractASTTransformation
 import org.codehaus.groovy.transform.GroovyASTTransformation
 import org.jetbrains.annotations.Nullable
@@ -29,6 +32,8 @@ import org.jetbrains.annotations.Nullable
 import java.lang.invoke.MethodHandle
 import java.lang.invoke.MethodHandles
 import java.lang.invoke.MethodType
+import java.lang.invoke.VarHandle
+import java.util.function.Consumer
 import java.util.function.Function
 
 @CompileStatic
@@ -42,6 +47,7 @@ class GroovyProcessor implements Processor<Type, AnnotationNode, MethodNode> {
     }
     private static final ClassNode CLASSLOADER = ClassHelper.makeWithoutCaching(ClassLoader)
     private static final String METHOD_CLOSURE_COUNT_META = 'dev.lukebemish.opensesame:closureCount'
+    private static final String OPENINGS_META = 'dev.lukebemish.opensesame:openings'
 
     final AbstractASTTransformation transformation
 
@@ -162,6 +168,40 @@ class GroovyProcessor implements Processor<Type, AnnotationNode, MethodNode> {
         return targetClassHandle
     }
 
+    /**
+     * Adds an opening to the table of openings of its holder, which is written once the holder is generated.
+     * @return the index of the opening in the table, or {@code -1} if it should be linked on its own
+     */
+    int batchOpening(ClassNode holder, Processor.BatchedOpening opening) {
+        List<Processor.BatchedOpening> openings = holder.getNodeMetaData(OPENINGS_META)
+        if (openings === null) {
+            List<Processor.BatchedOpening> table = new ArrayList<>()
+            openings = table
+            holder.putNodeMetaData(OPENINGS_META, table)
+            new GroovyClassAccumulator(holder).visitMethodLater(
+                    Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC,
+                    Processor.openingsName(BytecodeHelper.getClassInternalName(holder)),
+                    MethodType.methodType(Object[].class).descriptorString(),
+                    { Processor.MethodMaker methodMaker -> openingsBytecode(methodMaker, table) } as Consumer<Processor.MethodMaker>
+            )
+        }
+        if (openings.size() >= Processor.OPENINGS_BATCH_LIMIT) {
+            return -1
+        }
+        openings.add(opening)
+        return openings.size() - 1
+    }
+
+    static Handle openingsHandle(ClassNode holder) {
+        return new Handle(
+                Opcodes.H_INVOKESTATIC,
+                BytecodeHelper.getClassInternalName(holder),
+                Processor.openingsName(BytecodeHelper.getClassInternalName(holder)),
+                MethodType.methodType(Object[].class).descriptorString(),
+                holder.interface
+        )
+    }
+
     @Override
     AnnotationNode annotation(MethodNode methodNode, Class<?> type) {
         var members = methodNode.getAnnotations(ClassHelper.makeWithoutCaching(type))
@@ -207,6 +247,45 @@ class GroovyProcessor implements Processor<Type, AnnotationNode, MethodNode> {
         return transformation.getMemberValue(annotation, 'unsafe')
     }
 
+    @Override
+    boolean direct(AnnotationNode annotation) {
+        return transformation.getMemberValue(annotation, 'direct')
+    }
+
+    @Override
+    boolean constant(AnnotationNode annotation) {
+        return annotation.getMember('constant') == null || transformation.getMemberValue(annotation, 'constant')
+    }
+
+    @Override
+    @Nullable VarHandle.AccessMode accessMode(AnnotationNode annotation) {
+        var member = annotation.getMember('accessMode')
+        return member === null ? null : VarHandle.AccessMode.valueOf((member as PropertyExpression).propertyAsString)
+    }
+
+    @Override
+    boolean lambda(AnnotationNode annotation) {
+        return transformation.getMemberValue(annotation, 'lambda')
+    }
+
+    @Override
+    boolean handle(AnnotationNode annotation) {
+        return transformation.getMemberValue(annotation, 'handle')
+    }
+
+    @Override
+    boolean exact(AnnotationNode annotation) {
+        return transformation.getMemberValue(annotation, 'exact')
+    }
+
+    @Override
+    void warn(MethodNode method, String message) {
+        SourceUnit sourceUnit = method.declaringClass.module?.context
+        if (sourceUnit != null) {
+            sourceUnit.errorCollector.addWarning(WarningMessage.LIKELY_ERRORS, message, Token.newString(method.name, method.lineNumber, method.columnNumber), sourceUnit)
+        }
+    }
+
     @Override
     Type returnType(MethodNode method) {
         return types().type(BytecodeHelper.getTypeDescription(method.returnType))
@@ -3,6 +3,7 @@ package dev.lukebemish.opensesame.compile.groovy
 import dev.lukebemish.opensesame.annotations.Open
 import dev.lukebemish.opensesame.annotations.groovy.OpenClass
 import dev.lukebemish.opensesame.compile.OpenSesameGenerated
+import dev.lukebemish.opensesame.compile.Processor
 import dev.lukebemish.opensesame.runtime.OpeningMetafactory
 import groovy.transform.CompileStatic
 import groovyjarjarasm.asm.Handle
@@ -23,6 +24,7 @@ import org.codehaus.groovy.transform.TransformWithPriority
 import org.codehaus.groovy.transform.stc.StaticTypesMarker
 
 import java.lang.invoke.CallSite
+import java.lang.invoke.MethodHandle
 import java.lang.invoke.MethodHandles
 import java.lang.invoke.MethodType
 
@@ -41,6 +43,7 @@ class OpenClassWriterTransformation extends AbstractASTTransformation implements
         MethodNode methodNode = (MethodNode) nodes[1]
 
         Set<ClassNode> openedClasses = new HashSet<>(this.getMemberClassList((AnnotationNode) nodes[0], 'value'))
+        GroovyProcessor processor = new GroovyProcessor(this)
 
         ClassCodeExpressionTransformer trn = new ClassCodeExpressionTransformer() {
             @Override
@@ -107,6 +110,11 @@ class OpenClassWriterTransformation extends AbstractASTTransformation implements
                         parameters[0] = new Parameter(field.declaringClass, "it")
                     }
                     if (methodNode.declaringClass.getMethods(bridgeMethodName).empty) {
+                        var methodType = Open.Type.GET_INSTANCE
+                        if (field.static)
+                            methodType = Open.Type.GET_STATIC
+                        var descriptor = BytecodeHelper.getMethodDescriptor(field.type, parameters)
+                        int index = batchKnownOpening(processor, methodNode.declaringClass, field.name, descriptor, field.declaringClass, methodType)
                         MethodNode bridgeMethod = new MethodNode(
                                 bridgeMethodName,
                                 Opcodes.ACC_SYNTHETIC | Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC,
@@ -120,22 +128,7 @@ class OpenClassWriterTransformation extends AbstractASTTransformation implements
                                         if (!field.static) {
                                             BytecodeHelper.load(methodVisitor, field.declaringClass, 0)
                                         }
-                                        var methodType = Open.Type.GET_INSTANCE.ordinal()
-                                        if (field.static)
-                                            methodType = Open.Type.GET_STATIC.ordinal()
-                                        methodVisitor.visitInvokeDynamicInsn(
-                                                field.name,
-                                                BytecodeHelper.getMethodDescriptor(field.type, parameters),
-                                                new Handle(
-                                                        Opcodes.H_INVOKESTATIC,
-                                                        BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
-                                                        'invokeKnown',
-                                                        Type.getMethodDescriptor(Type.getType(CallSite), Type.getType(MethodHandles.Lookup), Type.getType(String), Type.getType(MethodType), Type.getType(Class), Type.getType(int.class)),
-                                                        false
-                                                ),
-                                                Type.getObjectType(BytecodeHelper.getClassInternalName(field.declaringClass)),
-                                                methodType
-                                        )
+                                        visitKnownOpening(methodVisitor, methodNode.declaringClass, index, field.name, descriptor, field.declaringClass, methodType)
                                     }
                                 })
                         )
@@ -226,6 +219,11 @@ class OpenClassWriterTransformation extends AbstractASTTransformation implements
                         }
                         parameters[parameters.length - 1] = new Parameter(expr.rightExpression.type, "value")
                         if (methodNode.declaringClass.getMethods(bridgeMethodName).empty) {
+                            var methodType = Open.Type.SET_INSTANCE
+                            if (field.static)
+                                methodType = Open.Type.SET_STATIC
+                            var descriptor = BytecodeHelper.getMethodDescriptor(ClassHelper.VOID_TYPE, parameters)
+                            int index = batchKnownOpening(processor, methodNode.declaringClass, field.name, descriptor, field.declaringClass, methodType)
                             MethodNode bridgeMethod = new MethodNode(
                                     bridgeMethodName,
                                     Opcodes.ACC_SYNTHETIC | Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC,
@@ -240,22 +238,7 @@ class OpenClassWriterTransformation extends AbstractASTTransformation implements
                                                 BytecodeHelper.load(methodVisitor, field.declaringClass, 0)
                                             }
                                             BytecodeHelper.load(methodVisitor, parameters[parameters.length - 1].type, parameters.length - 1)
-                                            var methodType = Open.Type.SET_INSTANCE.ordinal()
-                                            if (field.static)
-                                                methodType = Open.Type.SET_STATIC.ordinal()
-                                            methodVisitor.visitInvokeDynamicInsn(
-                                                    field.name,
-                                                    BytecodeHelper.getMethodDescriptor(ClassHelper.VOID_TYPE, parameters),
-                                                    new Handle(
-                                                            Opcodes.H_INVOKESTATIC,
-                                                            BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
-                                                            'invokeKnown',
-                                                            Type.getMethodDescriptor(Type.getType(CallSite), Type.getType(MethodHandles.Lookup), Type.getType(String), Type.getType(MethodType), Type.getType(Class), Type.getType(int.class)),
-                                                            false
-                                                    ),
-                                                    Type.getObjectType(BytecodeHelper.getClassInternalName(field.declaringClass)),
-                                                    methodType
-                                            )
+                                            visitKnownOpening(methodVisitor, methodNode.declaringClass, index, field.name, descriptor, field.declaringClass, methodType)
                                             methodVisitor.visitInsn(Opcodes.ACONST_NULL)
                                         }
                                     })
@@ -329,6 +312,15 @@ class OpenClassWriterTransformation extends AbstractASTTransformation implements
                         }
                     }
                     if (methodNode.declaringClass.getMethods(bridgeMethodName).empty) {
+                        var methodType = Open.Type.VIRTUAL
+                        if (method.static)
+                            methodType = Open.Type.STATIC
+                        if (!method.static && method.private)
+                            methodType = Open.Type.SPECIAL
+                        if (isCtor)
+                            methodType = Open.Type.CONSTRUCT
+                        var descriptor = BytecodeHelper.getMethodDescriptor(method.returnType, parameters)
+                        int index = batchKnownOpening(processor, methodNode.declaringClass, method.name, descriptor, method.declaringClass, methodType)
                         MethodNode bridgeMethod = new MethodNode(
                                 bridgeMethodName,
                                 Opcodes.ACC_SYNTHETIC | Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC,
@@ -347,26 +339,7 @@ class OpenClassWriterTransformation extends AbstractASTTransformation implements
                                             var pType = method.parameters[i].type
                                             BytecodeHelper.load(methodVisitor, pType, i + offset)
                                         }
-                                        var methodType = Open.Type.VIRTUAL.ordinal()
-                                        if (method.static)
-                                            methodType = Open.Type.STATIC.ordinal()
-                                        if (!method.static && method.private)
-                                            methodType = Open.Type.SPECIAL.ordinal()
-                                        if (isCtor)
-                                            methodType = Open.Type.CONSTRUCT.ordinal()
-                                        methodVisitor.visitInvokeDynamicInsn(
-                                                method.name,
-                                                BytecodeHelper.getMethodDescriptor(method.returnType, parameters),
-                                                new Handle(
-                                                        Opcodes.H_INVOKESTATIC,
-                                                        BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
-                                                        'invokeKnown',
-                                                        Type.getMethodDescriptor(Type.getType(CallSite), Type.getType(MethodHandles.Lookup), Type.getType(String), Type.getType(MethodType), Type.getType(Class), Type.getType(int.class)),
-                                                        false
-                                                ),
-                                                Type.getObjectType(BytecodeHelper.getClassInternalName(method.declaringClass)),
-                                                methodType
-                                        )
+                                        visitKnownOpening(methodVisitor, methodNode.declaringClass, index, method.name, descriptor, method.declaringClass, methodType)
                                         if (method.returnType == ClassHelper.VOID_TYPE) {
                                             methodVisitor.visitInsn(Opcodes.ACONST_NULL)
                                         }
@@ -413,6 +386,51 @@ class OpenClassWriterTransformation extends AbstractASTTransformation implements
         trn.visitMethod(methodNode)
     }
 
+    private static int batchKnownOpening(GroovyProcessor processor, ClassNode holder, String name, String descriptor, ClassNode holdingClass, Open.Type type) {
+        return processor.batchOpening(holder, new Processor.BatchedOpening(
+                name,
+                Type.getMethodType(descriptor),
+                Type.getObjectType(BytecodeHelper.getClassInternalName(holdingClass)),
+                Type.getMethodType(descriptor),
+                type.ordinal(),
+                false
+        ))
+    }
+
+    private static void visitKnownOpening(MethodVisitor methodVisitor, ClassNode holder, int index, String name, String descriptor, ClassNode holdingClass, Open.Type type) {
+        if (index >= 0) {
+            methodVisitor.visitInvokeDynamicInsn(
+                    name,
+                    descriptor,
+                    new Handle(
+                            Opcodes.H_INVOKESTATIC,
+                            BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
+                            'invokeKnownBatch',
+                            Type.getMethodDescriptor(Type.getType(CallSite), Type.getType(MethodHandles.Lookup), Type.getType(String), Type.getType(MethodType), Type.getType(Class), Type.getType(int.class), Type.getType(MethodHandle), Type.getType(int.class)),
+                            false
+                    ),
+                    Type.getObjectType(BytecodeHelper.getClassInternalName(holdingClass)),
+                    type.ordinal(),
+                    GroovyProcessor.openingsHandle(holder),
+                    index
+            )
+        } else {
+            methodVisitor.visitInvokeDynamicInsn(
+                    name,
+                    descriptor,
+                    new Handle(
+                            Opcodes.H_INVOKESTATIC,
+                            BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
+                            'invokeKnown',
+                            Type.getMethodDescriptor(Type.getType(CallSite), Type.getType(MethodHandles.Lookup), Type.getType(String), Type.getType(MethodType), Type.getType(Class), Type.getType(int.class)),
+                            false
+                    ),
+                    Type.getObjectType(BytecodeHelper.getClassInternalName(holdingClass)),
+                    type.ordinal()
+            )
+        }
+    }
+
     private static boolean isAccessible(ClassNode target, ClassNode source, boolean isProtected, boolean isPublic, boolean isPrivate) {
         if (isPublic) {
             return true
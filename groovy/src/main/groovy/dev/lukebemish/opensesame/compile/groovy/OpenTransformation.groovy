@@ -2,12 +2,14 @@ package dev.lukebemish.opensesame.compile.groovy
 
 
 import dev.lukebemish.opensesame.annotations.Open
+import dev.lukebemish.opensesame.compile.ModuleExports
 import dev.lukebemish.opensesame.compile.Processor
 import dev.lukebemish.opensesame.runtime.OpeningMetafactory
 import groovy.transform.CompileStatic
 import groovy.transform.PackageScope
 import groovy.transform.PackageScopeTarget
 import groovyjarjarasm.asm.Handle
+import groovyjarjarasm.asm.Label
 import groovyjarjarasm.asm.MethodVisitor
 import groovyjarjarasm.asm.Opcodes
 import groovyjarjarasm.asm.Type
@@ -22,11 +24,14 @@ import org.codehaus.groovy.control.CompilePhase
 import org.codehaus.groovy.control.SourceUnit
 import org.codehaus.groovy.transform.AbstractASTTransformation
 import org.codehaus.groovy.transform.GroovyASTTransformation
+import org.jetbrains.annotations.Nullable
 
 import java.lang.invoke.CallSite
 import java.lang.invoke.MethodHandle
 import java.lang.invoke.MethodHandles
 import java.lang.invoke.MethodType
+import java.lang.module.ModuleDescriptor
+import java.nio.file.Path
 
 @CompileStatic
 @GroovyASTTransformation(phase = CompilePhase.SEMANTIC_ANALYSIS)
@@ -39,6 +44,9 @@ class OpenTransformation extends AbstractASTTransformation {
 
     private final GroovyProcessor processor = new GroovyProcessor(this)
 
+    // The modules of the directories and jars compiled classes are found in, by location
+    private final Map<String, Optional<ModuleDescriptor>> modules = new HashMap<>()
+
     @Override
     void visit(ASTNode[] nodes, SourceUnit source) {
         this.init(nodes, source)
@@ -52,7 +60,7 @@ class OpenTransformation extends AbstractASTTransformation {
 
         if (!methodNode.getAnnotations(UNFINAL).empty) {
             String line
-            if (opening.targetType() == null || opening.returnType() == null || opening.parameterTypes().stream().anyMatch(Objects::isNull)) {
+            if (opening.lambda() || opening.handle() || opening.targetType() == null || opening.returnType() == null || opening.parameterTypes().stream().anyMatch(Objects::isNull)) {
                 line = null
             } else {
                 line = switch (opening.type()) {
@@ -77,6 +85,32 @@ class OpenTransformation extends AbstractASTTransformation {
             }
         }
 
+        String name = opening.type() == Open.Type.CONSTRUCT ? OpenClassTypeCheckingExtension.CTOR_DUMMY : opening.name()
+        ClassNode holder = methodNode.declaringClass
+
+        if (opening.direct()) {
+            ClassNode target = getMemberClassValue(methodNode.getAnnotations(OPEN).get(0), 'targetClass')
+            Boolean isInterface = findDirect(holder, target, opening)
+            if (isInterface !== null) {
+                methodNode.code = new ExpressionStatement(new BytecodeExpression(methodNode.returnType) {
+                    @Override
+                    void visit(MethodVisitor methodVisitor) {
+                        visitDirect(methodVisitor, methodNode, opening, isInterface)
+                    }
+                })
+                return
+            }
+        }
+
+        int index = processor.batchOpening(holder, new Processor.BatchedOpening(
+                name,
+                opening.factoryType(),
+                opening.targetProvider(),
+                opening.methodTypeProvider(),
+                opening.metafactoryType(),
+                opening.unsafe()
+        ))
+
         methodNode.code = new ExpressionStatement(new BytecodeExpression(methodNode.returnType) {
             @Override
             void visit(MethodVisitor methodVisitor) {
@@ -91,22 +125,41 @@ class OpenTransformation extends AbstractASTTransformation {
                     j += parameterType.getSize()
                 }
 
-                var methodType = opening.type().ordinal()
-
-                methodVisitor.visitInvokeDynamicInsn(
-                        opening.type() == Open.Type.CONSTRUCT ? OpenClassTypeCheckingExtension.CTOR_DUMMY : opening.name(),
-                        opening.factoryType().descriptor,
-                        new Handle(
-                                Opcodes.H_INVOKESTATIC,
-                                BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
-                                opening.unsafe() ? 'invokeUnsafe' : 'invoke',
-                                Type.getMethodDescriptor(Type.getType(CallSite), Type.getType(MethodHandles.Lookup), Type.getType(String), Type.getType(MethodType), Type.getType(MethodHandle), Type.getType(MethodHandle), Type.getType(int.class)),
-                                false
-                        ),
-                        opening.targetProvider(),
-                        opening.methodTypeProvider(),
-                        methodType
-                )
+                var methodType = opening.metafactoryType()
+
+                if (index >= 0) {
+                    methodVisitor.visitInvokeDynamicInsn(
+                            name,
+                            opening.factoryType().descriptor,
+                            new Handle(
+                                    Opcodes.H_INVOKESTATIC,
+                                    BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
+                                    opening.unsafe() ? 'invokeBatchUnsafe' : 'invokeBatch',
+                                    Type.getMethodDescriptor(Type.getType(CallSite), Type.getType(MethodHandles.Lookup), Type.getType(String), Type.getType(MethodType), Type.getType(MethodHandle), Type.getType(MethodHandle), Type.getType(int.class), Type.getType(MethodHandle), Type.getType(int.class)),
+                                    false
+                            ),
+                            opening.targetProvider(),
+                            opening.methodTypeProvider(),
+                            methodType,
+                            GroovyProcessor.openingsHandle(holder),
+                            index
+                    )
+                } else {
+                    methodVisitor.visitInvokeDynamicInsn(
+                            name,
+                            opening.factoryType().descriptor,
+                            new Handle(
+                                    Opcodes.H_INVOKESTATIC,
+                                    BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
+                                    opening.unsafe() ? 'invokeUnsafe' : 'invoke',
+                                    Type.getMethodDescriptor(Type.getType(CallSite), Type.getType(MethodHandles.Lookup), Type.getType(String), Type.getType(MethodType), Type.getType(MethodHandle), Type.getType(MethodHandle), Type.getType(int.class)),
+                                    false
+                            ),
+                            opening.targetProvider(),
+                            opening.methodTypeProvider(),
+                            methodType
+                    )
+                }
 
                 if (opening.factoryType().returnType.sort == Type.VOID) {
                     methodVisitor.visitInsn(Opcodes.ACONST_NULL)
@@ -114,4 +167,268 @@ class OpenTransformation extends AbstractASTTransformation {
             }
         })
     }
+
+    /**
+     * Checks a member opened directly against the AST of its target, as the ASM processor checks it against the class
+     * files on the classpath.
+     * @return whether the target is an interface, or {@code null} if the member should be opened as usual
+     */
+    private @Nullable Boolean findDirect(ClassNode holder, ClassNode target, Processor.Opening<Type> opening) {
+        if (opening.type() == Open.Type.ARRAY) {
+            ClassNode element = target
+            while (element.isArray()) {
+                element = element.componentType
+            }
+            if (!ClassHelper.isPrimitiveType(element)) {
+                if (isEncapsulated(element)) {
+                    return null
+                }
+                requireAccessible(holder, element, opening.name())
+            }
+            return false
+        }
+        if (isEncapsulated(target)) {
+            return null
+        }
+        String descriptor = directDescriptor(opening)
+        boolean shouldBeStatic = opening.type() == Open.Type.STATIC || opening.type() == Open.Type.GET_STATIC || opening.type() == Open.Type.SET_STATIC
+        ClassNode declaring
+        int modifiers
+        switch (opening.type()) {
+            case Open.Type.CONSTRUCT:
+                if (target.isAbstract() || target.isInterface()) {
+                    return null
+                }
+                var constructor = target.declaredConstructors.find {
+                    BytecodeHelper.getMethodDescriptor(ClassHelper.VOID_TYPE, it.parameters) == descriptor
+                }
+                if (constructor === null) {
+                    return null
+                }
+                declaring = target
+                modifiers = constructor.modifiers
+                break
+            case Open.Type.STATIC:
+            case Open.Type.VIRTUAL:
+                // Methods inherited from interfaces are left to the metafactory, as they are for the ASM processor
+                MethodNode method = null
+                for (ClassNode current = target; current !== null && method === null; current = current.superClass) {
+                    method = current.getDeclaredMethods(opening.name()).find {
+                        BytecodeHelper.getMethodDescriptor(it.returnType, it.parameters) == descriptor
+                    }
+                }
+                if (method === null || method.static != shouldBeStatic) {
+                    return null
+                }
+                declaring = method.declaringClass
+                modifiers = method.modifiers
+                break
+            case Open.Type.GET_STATIC:
+            case Open.Type.GET_INSTANCE:
+            case Open.Type.SET_STATIC:
+            case Open.Type.SET_INSTANCE:
+                var field = target.getField(opening.name())
+                if (field === null || field.static != shouldBeStatic || BytecodeHelper.getTypeDescription(field.type) != descriptor) {
+                    return null
+                }
+                declaring = field.declaringClass
+                modifiers = field.modifiers
+                break
+            default:
+                return null
+        }
+        requireAccessible(holder, target, opening.name())
+        if ((modifiers & Opcodes.ACC_PUBLIC) != 0) {
+            return target.isInterface()
+        }
+        if ((modifiers & Opcodes.ACC_PRIVATE) != 0) {
+            if (declaring.redirect() == holder.redirect()) {
+                return target.isInterface()
+            }
+            throw inaccessible(holder, declaring, opening.name(), 'it is private')
+        }
+        if (declaring.packageName == holder.packageName) {
+            return target.isInterface()
+        }
+        if ((modifiers & Opcodes.ACC_PROTECTED) != 0) {
+            // Protected access from a subclass depends on the type of the receiver as well; leave it to the metafactory
+            return null
+        }
+        throw inaccessible(holder, declaring, opening.name(), 'it is package-private')
+    }
+
+    /**
+     * Whether a class belongs to a package of the platform that is not exported to every module, so that its access
+     * flags alone cannot tell whether it is accessible.
+     */
+    private boolean isEncapsulated(ClassNode target) {
+        String packageName = target.packageName
+        if (packageName === null) {
+            return false
+        }
+        // Groovy compiles against the platform it runs on, so its exports are those of the platform compiled against
+        if (ModuleExports.isEncapsulated(packageName)) {
+            return true
+        }
+        ModuleDescriptor module = module(target)
+        return module !== null && !ModuleExports.exports(module, packageName)
+    }
+
+    /**
+     * {@return the module of the directory or jar a compiled class is found in, or {@code null} if it has none}
+     */
+    private @Nullable ModuleDescriptor module(ClassNode target) {
+        if (target.primaryClassNode) {
+            return null
+        }
+        String fileName = target.name.replace('.', '/') + '.class'
+        URL resource = sourceUnit.classLoader.getResource(fileName)
+        if (resource === null) {
+            return null
+        }
+        Path root
+        switch (resource.protocol) {
+            case 'file':
+                root = Path.of(resource.toURI())
+                for (int i = 0; i <= fileName.count('/'); i++) {
+                    root = root.parent
+                }
+                break
+            case 'jar':
+                root = Path.of(((JarURLConnection) resource.openConnection()).jarFileURL.toURI())
+                break
+            default:
+                // Such as the classes of the platform, whose exports are known already
+                return null
+        }
+        return modules.computeIfAbsent(root.toString(), { Optional.ofNullable(ModuleExports.read(root)) }).orElse(null)
+    }
+
+    private static void requireAccessible(ClassNode holder, ClassNode target, String name) {
+        if ((target.modifiers & Opcodes.ACC_PUBLIC) == 0 && target.packageName != holder.packageName) {
+            throw inaccessible(holder, target, name, 'its class is package-private')
+        }
+    }
+
+    private static RuntimeException inaccessible(ClassNode holder, ClassNode declaring, String name, String reason) {
+        return new RuntimeException("Member ${declaring.name}.${name} is opened directly from ${holder.name}, but ${reason}")
+    }
+
+    private static String directDescriptor(Processor.Opening<Type> opening) {
+        List<Type> parameterTypes = opening.parameterTypes()
+        return switch (opening.type()) {
+            case Open.Type.STATIC -> Type.getMethodDescriptor(opening.returnType(), parameterTypes.toArray(Type[]::new))
+            case Open.Type.VIRTUAL, Open.Type.SPECIAL -> Type.getMethodDescriptor(opening.returnType(), parameterTypes.subList(1, parameterTypes.size()).toArray(Type[]::new))
+            case Open.Type.GET_STATIC, Open.Type.GET_INSTANCE -> opening.returnType().descriptor
+            case Open.Type.SET_STATIC, Open.Type.SET_INSTANCE -> parameterTypes.get(parameterTypes.size() - 1).descriptor
+            case Open.Type.CONSTRUCT -> Type.getMethodDescriptor(Type.VOID_TYPE, parameterTypes.toArray(Type[]::new))
+            case Open.Type.ARRAY -> opening.targetType().descriptor
+            default -> throw new IllegalStateException("Unexpected direct opening type ${opening.type()}")
+        }
+    }
+
+    private static void visitDirect(MethodVisitor methodVisitor, MethodNode methodNode, Processor.Opening<Type> opening, boolean isInterface) {
+        Type owner = opening.targetType()
+        Type holderType = Type.getType(BytecodeHelper.getTypeDescription(methodNode.declaringClass))
+        String descriptor = directDescriptor(opening)
+        boolean takesInstance = opening.type() == Open.Type.VIRTUAL || opening.type() == Open.Type.GET_INSTANCE || opening.type() == Open.Type.SET_INSTANCE
+
+        Label start = new Label()
+        Label end = new Label()
+        Label handler = new Label()
+        Label after = new Label()
+        methodVisitor.visitTryCatchBlock(start, end, handler, Type.getInternalName(IncompatibleClassChangeError))
+        methodVisitor.visitLabel(start)
+
+        if (opening.type() == Open.Type.CONSTRUCT) {
+            methodVisitor.visitTypeInsn(Opcodes.NEW, owner.internalName)
+            methodVisitor.visitInsn(Opcodes.DUP)
+        }
+        int j = 0
+        if (!methodNode.static) {
+            methodVisitor.visitVarInsn(Opcodes.ALOAD, 0)
+            j++
+            if (takesInstance && holderType != owner) {
+                methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, owner.internalName)
+            }
+        }
+        for (int i = 0; i < methodNode.parameters.size(); i++) {
+            Type parameterType = Type.getType(BytecodeHelper.getTypeDescription(methodNode.parameters[i].type))
+            methodVisitor.visitVarInsn(parameterType.getOpcode(Opcodes.ILOAD), j)
+            j += parameterType.getSize()
+            // The receiver is cast to the target, as the metafactory would
+            if (methodNode.static && i == 0 && takesInstance && parameterType != owner) {
+                methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, owner.internalName)
+            }
+        }
+
+        String member = owner.className + "." + opening.name() + descriptor
+        switch (opening.type()) {
+            case Open.Type.STATIC:
+                methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, owner.internalName, opening.name(), descriptor, isInterface)
+                break
+            case Open.Type.VIRTUAL:
+                methodVisitor.visitMethodInsn(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, owner.internalName, opening.name(), descriptor, isInterface)
+                break
+            case Open.Type.GET_STATIC:
+                methodVisitor.visitFieldInsn(Opcodes.GETSTATIC, owner.internalName, opening.name(), descriptor)
+                break
+            case Open.Type.GET_INSTANCE:
+                methodVisitor.visitFieldInsn(Opcodes.GETFIELD, owner.internalName, opening.name(), descriptor)
+                break
+            case Open.Type.SET_STATIC:
+                methodVisitor.visitFieldInsn(Opcodes.PUTSTATIC, owner.internalName, opening.name(), descriptor)
+                break
+            case Open.Type.SET_INSTANCE:
+                methodVisitor.visitFieldInsn(Opcodes.PUTFIELD, owner.internalName, opening.name(), descriptor)
+                break
+            case Open.Type.CONSTRUCT:
+                member = owner.className + ".<init>" + descriptor
+                methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, owner.internalName, "<init>", descriptor, false)
+                break
+            case Open.Type.ARRAY:
+                member = owner.className + "[]"
+                if (owner.sort == Type.OBJECT || owner.sort == Type.ARRAY) {
+                    methodVisitor.visitTypeInsn(Opcodes.ANEWARRAY, owner.internalName)
+                } else {
+                    methodVisitor.visitIntInsn(Opcodes.NEWARRAY, newArrayOperand(owner))
+                }
+                break
+            default:
+                throw new IllegalStateException("Unexpected direct opening type ${opening.type()}")
+        }
+        methodVisitor.visitLabel(end)
+        methodVisitor.visitJumpInsn(Opcodes.GOTO, after)
+
+        methodVisitor.visitLabel(handler)
+        methodVisitor.visitLdcInsn(holderType)
+        methodVisitor.visitLdcInsn(member)
+        methodVisitor.visitMethodInsn(
+                Opcodes.INVOKESTATIC,
+                BytecodeHelper.getClassInternalName(OPENING_METAFACTORY),
+                'directAccessFailed',
+                Type.getMethodDescriptor(Type.getType(IncompatibleClassChangeError), Type.getType(IncompatibleClassChangeError), Type.getType(Class), Type.getType(String)),
+                false
+        )
+        methodVisitor.visitInsn(Opcodes.ATHROW)
+
+        methodVisitor.visitLabel(after)
+        if (opening.factoryType().returnType.sort == Type.VOID) {
+            methodVisitor.visitInsn(Opcodes.ACONST_NULL)
+        }
+    }
+
+    private static int newArrayOperand(Type type) {
+        return switch (type.sort) {
+            case Type.BOOLEAN -> Opcodes.T_BOOLEAN
+            case Type.CHAR -> Opcodes.T_CHAR
+            case Type.FLOAT -> Opcodes.T_FLOAT
+            case Type.DOUBLE -> Opcodes.T_DOUBLE
+            case Type.BYTE -> Opcodes.T_BYTE
+            case Type.SHORT -> Opcodes.T_SHORT
+            case Type.INT -> Opcodes.T_INT
+            case Type.LONG -> Opcodes.T_LONG
+            default -> throw new IllegalArgumentException("Not a primitive type: " + type)
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package dev.lukebemish.opensesame.test.transformation.groovy.Open
+
+import dev.lukebemish.opensesame.annotations.Open
+import dev.lukebemish.opensesame.test.target.Public
+import org.junit.jupiter.api.Test
+
+import java.lang.invoke.VarHandle
+
+import static org.junit.jupiter.api.Assertions.assertEquals
+import static org.junit.jupiter.api.Assertions.assertFalse
+import static org.junit.jupiter.api.Assertions.assertTrue
+
+class TestAccess {
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.GET_VOLATILE
+    )
+    private static String getVolatile(Public instance) {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.COMPARE_AND_SET
+    )
+    private static boolean compareAndSet(Public instance, String expected, String value) {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testInstance() {
+        var instance = new Public()
+        assertTrue(compareAndSet(instance, null, "a"))
+        assertFalse(compareAndSet(instance, null, "b"))
+        assertEquals("a", getVolatile(instance))
+    }
+
+    @Open(
+            name = "privateStaticLongField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_STATIC,
+            accessMode = VarHandle.AccessMode.GET_AND_ADD
+    )
+    private static long staticGetAndAdd(long delta) {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testStatic() {
+        long before = staticGetAndAdd(2)
+        assertEquals(before + 2, staticGetAndAdd(0))
+    }
+}
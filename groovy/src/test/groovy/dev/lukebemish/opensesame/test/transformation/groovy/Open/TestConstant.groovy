@@ -0,0 +1,67 @@
+package dev.lukebemish.opensesame.test.transformation.groovy.Open
+
+import dev.lukebemish.opensesame.annotations.Open
+import dev.lukebemish.opensesame.test.target.Public
+import org.junit.jupiter.api.Test
+
+import static org.junit.jupiter.api.Assertions.assertEquals
+
+class TestConstant {
+    @Open(
+            name = "privateFinalStaticField",
+            targetClass = Public.class,
+            type = Open.Type.GET_STATIC
+    )
+    private static String publicPrivateFinalStaticField() {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testInitialized() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("privateFinalStaticField", publicPrivateFinalStaticField())
+        }
+    }
+
+    private static final class Written {
+        private static final String value = String.valueOf(12)
+    }
+
+    @Open(
+            name = "value",
+            targetClass = Written.class,
+            type = Open.Type.GET_STATIC
+    )
+    private static String writtenConstant() {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "value",
+            targetClass = Written.class,
+            type = Open.Type.GET_STATIC,
+            constant = false
+    )
+    private static String writtenValue() {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "value",
+            targetClass = Written.class,
+            type = Open.Type.SET_STATIC,
+            unsafe = true
+    )
+    private static void writtenValue(String value) {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testNotConstant() {
+        assertEquals("12", writtenConstant())
+        assertEquals("12", writtenValue())
+        writtenValue("13")
+        assertEquals("12", writtenConstant())
+        assertEquals("13", writtenValue())
+    }
+}
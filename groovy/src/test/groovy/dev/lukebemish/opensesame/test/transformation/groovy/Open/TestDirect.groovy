@@ -0,0 +1,75 @@
+package dev.lukebemish.opensesame.test.transformation.groovy.Open
+
+import dev.lukebemish.opensesame.annotations.Open
+import dev.lukebemish.opensesame.test.target.Public
+import org.junit.jupiter.api.Test
+
+import static org.junit.jupiter.api.Assertions.assertEquals
+
+class TestDirect {
+    @Open(
+            name = "finalMethod",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            direct = true
+    )
+    private static String finalMethod(Public instance) {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "publicInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE,
+            direct = true
+    )
+    private static String getPublicInstanceField(Public instance) {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "publicInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.SET_INSTANCE,
+            direct = true
+    )
+    private static void setPublicInstanceField(Public instance, String value) {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.CONSTRUCT,
+            direct = true
+    )
+    private static Public construct(String value) {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            targetClass = String.class,
+            type = Open.Type.ARRAY,
+            direct = true
+    )
+    private static String[] stringArray(int size) {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testDirectMethod() {
+        assertEquals("finalMethod", finalMethod(new Public()))
+    }
+
+    @Test
+    void testDirectFields() {
+        Public instance = new Public()
+        setPublicInstanceField(instance, "test")
+        assertEquals("test", getPublicInstanceField(instance))
+    }
+
+    @Test
+    void testDirectCreation() {
+        assertEquals("test", construct("test").publicInstanceField)
+        assertEquals(2, stringArray(2).length)
+    }
+}
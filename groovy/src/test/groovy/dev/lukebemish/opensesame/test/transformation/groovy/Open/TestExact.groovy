@@ -0,0 +1,50 @@
+package dev.lukebemish.opensesame.test.transformation.groovy.Open
+
+import dev.lukebemish.opensesame.annotations.Coerce
+import dev.lukebemish.opensesame.annotations.Open
+import dev.lukebemish.opensesame.runtime.ClassProvider
+import dev.lukebemish.opensesame.test.target.Public
+import groovy.transform.CompileStatic
+import org.junit.jupiter.api.Test
+
+import static org.junit.jupiter.api.Assertions.assertEquals
+import static org.junit.jupiter.api.Assertions.assertThrows
+
+@CompileStatic
+class TestExact {
+    private static class IntProvider implements ClassProvider {
+        @Override
+        Class<?> provide(ClassLoader loader, String name) {
+            return int.class
+        }
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE,
+            exact = true
+    )
+    private static int exactGet(Public instance) {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE,
+            exact = true
+    )
+    @Coerce(targetProvider = IntProvider.class)
+    private static Integer exactBoxedGet(Public instance) {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testExact() {
+        var instance = new Public()
+        assertEquals(0, exactGet(instance))
+        // The coerced type is only known when linking, so boxing is only caught then
+        assertThrows(BootstrapMethodError.class, { exactBoxedGet(instance) })
+    }
+}
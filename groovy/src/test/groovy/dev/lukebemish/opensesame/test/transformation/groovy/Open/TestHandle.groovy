@@ -0,0 +1,41 @@
+package dev.lukebemish.opensesame.test.transformation.groovy.Open
+
+import dev.lukebemish.opensesame.annotations.Open
+import dev.lukebemish.opensesame.test.target.Public
+import org.junit.jupiter.api.Test
+
+import java.lang.invoke.MethodHandle
+import java.lang.invoke.VarHandle
+
+import static org.junit.jupiter.api.Assertions.assertEquals
+
+class TestHandle {
+    @Open(
+            name = "privateInstance",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            handle = true
+    )
+    private static MethodHandle privateInstance() {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            handle = true
+    )
+    private static VarHandle instanceVarHandle() {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testHandles() {
+        var instance = new Public()
+        // Groovy does not dispatch to signature polymorphic methods dynamically
+        assertEquals("privateInstance", privateInstance().invokeWithArguments(instance))
+        instanceVarHandle().toMethodHandle(VarHandle.AccessMode.SET).invokeWithArguments(instance, 4)
+        assertEquals(4, instanceVarHandle().toMethodHandle(VarHandle.AccessMode.GET).invokeWithArguments(instance))
+    }
+}
@@ -0,0 +1,79 @@
+package dev.lukebemish.opensesame.test.transformation.groovy.Open
+
+import dev.lukebemish.opensesame.annotations.Open
+import dev.lukebemish.opensesame.test.target.Public
+import org.junit.jupiter.api.Test
+
+import java.util.function.Function
+import java.util.function.IntSupplier
+import java.util.function.Supplier
+
+import static org.junit.jupiter.api.Assertions.assertEquals
+
+class TestLambda {
+    @Open(
+            name = "simpleArgument",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static Function<String, String> simpleArgument() {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "primitiveReturn",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static IntSupplier primitiveReturn() {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testStatic() {
+        assertEquals("a", simpleArgument().apply("a"))
+        assertEquals(5, primitiveReturn().getAsInt())
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            lambda = true
+    )
+    private static Function<Public, String> privateInstance() {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            lambda = true
+    )
+    private static Supplier<String> boundPrivateInstance(Public instance) {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testVirtual() {
+        assertEquals("privateInstance", privateInstance().apply(new Public()))
+        assertEquals("privateInstance", boundPrivateInstance(new Public()).get())
+    }
+
+    @Open(
+            targetClass = Public.PrivateCtor.class,
+            type = Open.Type.CONSTRUCT,
+            lambda = true
+    )
+    private static Supplier<Object> privateCtor() {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testConstruct() {
+        assertEquals("PrivateCtor", privateCtor().get().toString())
+    }
+}
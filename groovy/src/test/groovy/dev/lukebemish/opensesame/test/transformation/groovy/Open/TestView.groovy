@@ -0,0 +1,34 @@
+package dev.lukebemish.opensesame.test.transformation.groovy.Open
+
+import dev.lukebemish.opensesame.annotations.Open
+import dev.lukebemish.opensesame.test.target.Public
+import org.junit.jupiter.api.Test
+
+import static org.junit.jupiter.api.Assertions.assertEquals
+
+class TestView {
+    static record State(String privateInstanceField, int privateIntField) {}
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.GET_VIEW
+    )
+    private static State read(Public instance) {
+        throw new RuntimeException()
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.SET_VIEW
+    )
+    private static void write(Public instance, State state) {
+        throw new RuntimeException()
+    }
+
+    @Test
+    void testReadWrite() {
+        var instance = new Public()
+        write(instance, new State("a", 3))
+        assertEquals(new State("a", 3), read(instance))
+    }
+}
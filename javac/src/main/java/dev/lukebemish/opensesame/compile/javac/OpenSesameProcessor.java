@@ -1,20 +1,74 @@
 package dev.lukebemish.opensesame.compile.javac;
 
 import com.google.auto.service.AutoService;
+import com.sun.source.tree.ClassTree;
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.Tree;
 import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.TreePathScanner;
+import com.sun.source.util.Trees;
 import dev.lukebemish.javacpostprocessor.PostProcessor;
 import dev.lukebemish.opensesame.compile.asm.VisitingProcessor;
 import org.objectweb.asm.ClassVisitor;
 
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
 import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.lang.module.InvalidModuleDescriptorException;
+import java.lang.module.ModuleDescriptor;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @AutoService(PostProcessor.class)
 public class OpenSesameProcessor implements PostProcessor {
+    private Trees trees;
+    // Classes are lowered before they are generated, after which their trees can no longer be found from their elements
+    private final Map<Element, Tree> classTrees = new HashMap<>();
+    // The class javac last began to generate, whose written bytes are what is post-processed
+    private CompilationUnitTree generatingUnit;
+    private Tree generatingTree;
+    // Shared by every class of the compilation, so that the classes it finds are read once
+    private VisitingProcessor.ClassFinder classFinder;
+    private JavaFileManager classFinderFileManager;
+    private JavaFileManager.Location classFinderLocation;
+
     @Override
     public void init(JavacTask javacTask) {
-        
+        this.trees = Trees.instance(javacTask);
+        javacTask.addTaskListener(new TaskListener() {
+            @Override
+            public void started(TaskEvent e) {
+                if (e.getKind() == TaskEvent.Kind.GENERATE) {
+                    generatingUnit = e.getCompilationUnit();
+                    generatingTree = classTrees.remove(e.getTypeElement());
+                }
+            }
+
+            @Override
+            public void finished(TaskEvent e) {
+                if (e.getKind() == TaskEvent.Kind.ANALYZE) {
+                    var path = trees.getPath(e.getTypeElement());
+                    if (path != null) {
+                        new TreePathScanner<Void, Void>() {
+                            @Override
+                            public Void visitClass(ClassTree node, Void unused) {
+                                classTrees.put(trees.getElement(getCurrentPath()), node);
+                                return super.visitClass(node, unused);
+                            }
+                        }.scan(path, null);
+                    }
+                }
+            }
+        });
     }
 
     @Override
@@ -36,6 +90,103 @@ public ClassVisitor visit(ClassVisitor classVisitor, String binaryName, JavaFile
                     null
             );
             return Paths.get(fileForOutput.toUri());
-        }, null);
+        }, null, classFinder(javaFileManager, location), this::warn);
+    }
+
+    private VisitingProcessor.ClassFinder classFinder(JavaFileManager javaFileManager, JavaFileManager.Location location) {
+        if (classFinder == null || classFinderFileManager != javaFileManager || classFinderLocation != location) {
+            classFinder = compiledClasses(javaFileManager, location).orElse(platformClasses(javaFileManager)).remembering();
+            classFinderFileManager = javaFileManager;
+            classFinderLocation = location;
+        }
+        return classFinder;
+    }
+
+    private void warn(String className, String message) {
+        var unit = generatingUnit;
+        if (unit == null) {
+            return;
+        }
+        var tree = generatingTree;
+        trees.printMessage(Diagnostic.Kind.WARNING, message, tree == null ? unit : tree, unit);
+    }
+
+    private static VisitingProcessor.ClassFinder compiledClasses(JavaFileManager javaFileManager, JavaFileManager.Location location) {
+        return internalName -> {
+            var binaryName = internalName.replace('/', '.');
+            for (var searched : List.of(location, StandardLocation.CLASS_PATH)) {
+                if (!javaFileManager.hasLocation(searched)) {
+                    continue;
+                }
+                var file = javaFileManager.getJavaFileForInput(searched, binaryName, JavaFileObject.Kind.CLASS);
+                if (file != null) {
+                    try (var stream = file.openInputStream()) {
+                        return stream.readAllBytes();
+                    }
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Finds the classes of the platform being compiled against, which may not be the one javac runs on, as with
+     * {@code --release} or {@code --system}.
+     */
+    private static VisitingProcessor.ClassFinder platformClasses(JavaFileManager javaFileManager) {
+        if (!javaFileManager.hasLocation(StandardLocation.SYSTEM_MODULES)) {
+            // Compiling against a platform without modules, which may run on any later one
+            return VisitingProcessor.ClassFinder.platform();
+        }
+        Map<JavaFileManager.Location, Optional<ModuleDescriptor>> modules = new HashMap<>();
+        return new VisitingProcessor.ClassFinder() {
+            @Override
+            public byte[] find(String internalName) throws IOException {
+                var file = file(internalName);
+                if (file == null) {
+                    return null;
+                }
+                try (var stream = file.getValue().openInputStream()) {
+                    return stream.readAllBytes();
+                }
+            }
+
+            @Override
+            public ModuleDescriptor module(String internalName) throws IOException {
+                var file = file(internalName);
+                return file == null ? null : module(file.getKey());
+            }
+
+            private Map.Entry<JavaFileManager.Location, JavaFileObject> file(String internalName) throws IOException {
+                var binaryName = internalName.replace('/', '.');
+                for (var locations : javaFileManager.listLocationsForModules(StandardLocation.SYSTEM_MODULES)) {
+                    for (var location : locations) {
+                        var file = javaFileManager.getJavaFileForInput(location, binaryName, JavaFileObject.Kind.CLASS);
+                        // Classes of modules whose exports cannot be read are left to the metafactory
+                        if (file != null && module(location) != null) {
+                            return Map.entry(location, file);
+                        }
+                    }
+                }
+                return null;
+            }
+
+            private ModuleDescriptor module(JavaFileManager.Location location) throws IOException {
+                var module = modules.get(location);
+                if (module == null) {
+                    module = Optional.empty();
+                    var file = javaFileManager.getJavaFileForInput(location, "module-info", JavaFileObject.Kind.CLASS);
+                    if (file != null) {
+                        try (var stream = file.openInputStream()) {
+                            module = Optional.of(ModuleDescriptor.read(stream));
+                        } catch (InvalidModuleDescriptorException ignored) {
+                            // Left empty
+                        }
+                    }
+                    modules.put(location, module);
+                }
+                return module.orElse(null);
+            }
+        };
     }
 }
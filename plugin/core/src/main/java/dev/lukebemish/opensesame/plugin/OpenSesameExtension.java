@@ -8,10 +8,12 @@
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.SourceDirectorySet;
 import org.gradle.api.plugins.ExtensionAware;
+import org.gradle.api.plugins.JavaPluginExtension;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.compile.AbstractCompile;
 import org.gradle.api.tasks.compile.JavaCompile;
+import org.gradle.jvm.toolchain.JavaToolchainService;
 
 import javax.inject.Inject;
 import java.util.ArrayList;
@@ -39,6 +41,12 @@ public <T extends Task> TaskProvider<OpenSesameTask> apply(SourceSet sourceSet,
         var openSesameTask = project.getTasks().register("openSesame" + capitalized, OpenSesameTask.class, task -> {
             task.getInputClasses().set(mapping.apply(compileTaskProvider.get()));
             task.getOutputClasses().set(sourceDirectorySet.getClassesDirectory());
+            task.getClasspath().from(sourceSet.getCompileClasspath());
+            var javaExtension = project.getExtensions().findByType(JavaPluginExtension.class);
+            var toolchains = project.getExtensions().findByType(JavaToolchainService.class);
+            if (javaExtension != null && toolchains != null) {
+                task.getJavaLauncher().convention(toolchains.launcherFor(javaExtension.getToolchain()));
+            }
         });
         sourceDirectorySet.compiledBy(openSesameTask, OpenSesameTask::getOutputClasses);
         ((ConfigurableFileCollection) sourceSet.getOutput().getClassesDirs()).builtBy(openSesameTask);
@@ -1,24 +1,33 @@
 package dev.lukebemish.opensesame.plugin;
 
+import dev.lukebemish.opensesame.compile.asm.ClassRoots;
 import dev.lukebemish.opensesame.compile.asm.VisitingProcessor;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.CompileClasspath;
 import org.gradle.api.tasks.IgnoreEmptyDirectories;
 import org.gradle.api.tasks.InputDirectory;
 import org.gradle.api.tasks.LocalState;
+import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.work.ChangeType;
+import org.gradle.jvm.toolchain.JavaLauncher;
 import org.gradle.work.InputChanges;
+import org.jetbrains.annotations.Nullable;
 
 import javax.inject.Inject;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -35,9 +44,20 @@ public abstract class OpenSesameTask extends DefaultTask {
     @OutputDirectory
     public abstract DirectoryProperty getOutputClasses();
 
+    @CompileClasspath
+    public abstract ConfigurableFileCollection getClasspath();
+
     @LocalState
     public abstract RegularFileProperty getIncrementalClasses();
 
+    /**
+     * The JDK the classes are compiled against, whose exports decide which of its classes may be accessed directly.
+     * Without one, those of the JDK running the build are used.
+     */
+    @Nested
+    @Optional
+    public abstract Property<JavaLauncher> getJavaLauncher();
+
     @Inject
     public OpenSesameTask() {
         getIncrementalClasses().convention(getProject().getLayout().getBuildDirectory().file("openSesame/incrementalClasses/"+getName()));
@@ -73,17 +93,36 @@ protected void process(InputChanges changes) throws IOException {
             }
         });
         VisitingProcessor.cleanup(outputDir);
+        List<Path> classpath = new ArrayList<>();
+        classpath.add(inputDir);
+        getClasspath().getFiles().forEach(file -> classpath.add(file.toPath()));
+        VisitingProcessor.Reporter reporter = (className, message) -> getLogger().warn("{}: {}", className, message);
         List<String> processed = new ArrayList<>();
-        for (var relativePath : toProcess) {
-            var inputPath = inputDir.resolve(relativePath);
-            if (Files.exists(inputPath)) {
-                var outputPath = outputDir.resolve(relativePath);
-                Files.createDirectories(outputPath.getParent());
-                if (!VisitingProcessor.processFile(inputPath, outputPath, outputDir::resolve).isEmpty()) {
-                    processed.add(relativePath);
+        try (var classRoots = ClassRoots.of(classpath); var platformRoots = platformRoots()) {
+            var classFinder = classRoots.orElse(platformRoots != null ? platformRoots : VisitingProcessor.ClassFinder.platform()).remembering();
+            for (var relativePath : toProcess) {
+                var inputPath = inputDir.resolve(relativePath);
+                if (Files.exists(inputPath)) {
+                    var outputPath = outputDir.resolve(relativePath);
+                    Files.createDirectories(outputPath.getParent());
+                    if (!VisitingProcessor.processFile(inputPath, outputPath, outputDir::resolve, classFinder, reporter).isEmpty()) {
+                        processed.add(relativePath);
+                    }
                 }
             }
         }
         Files.write(incrementalClassesFile.toPath(), processed);
     }
+
+    private @Nullable ClassRoots platformRoots() throws IOException {
+        if (!getJavaLauncher().isPresent()) {
+            return null;
+        }
+        var metadata = getJavaLauncher().get().getMetadata();
+        if (!metadata.getLanguageVersion().canCompileOrRun(9)) {
+            // Platforms without modules may run on any later one, whose exports are not known
+            return null;
+        }
+        return ClassRoots.platform(metadata.getInstallationPath().getAsFile().toPath());
+    }
 }
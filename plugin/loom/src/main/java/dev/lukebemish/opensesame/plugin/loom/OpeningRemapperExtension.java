@@ -6,6 +6,8 @@
 import net.fabricmc.loom.api.remapping.RemapperParameters;
 import net.fabricmc.loom.api.remapping.TinyRemapperExtension;
 import net.fabricmc.tinyremapper.TinyRemapper;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.api.provider.ListProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.specs.Spec;
@@ -19,6 +21,8 @@
 
 @SuppressWarnings("UnstableApiUsage")
 public class OpeningRemapperExtension implements RemapperExtension<OpeningRemapperExtension.OpeningRemapperParameters>, TinyRemapperExtension {
+    private static final Logger LOGGER = Logging.getLogger(OpeningRemapperExtension.class);
+
     private final OpeningRemapperParameters parameters;
 
     @Inject
@@ -47,7 +51,8 @@ public void contextFilter(Spec<TinyRemapperExtension.Context> spec) {
 
             var remapper = cls.getEnvironment().getRemapper();
 
-            return new VisitingProcessor(classVisitor, VisitingProcessor.ANNOTATIONS) {
+            VisitingProcessor.Reporter reporter = (className, message) -> LOGGER.warn("{}: {}", className, message);
+            return new VisitingProcessor(classVisitor, VisitingProcessor.ANNOTATIONS, null, reporter) {
                 @Override
                 protected String remapClassName(String name) {
                     return remapper.map(name);
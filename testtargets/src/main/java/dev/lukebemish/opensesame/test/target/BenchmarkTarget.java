@@ -0,0 +1,83 @@
+package dev.lukebemish.opensesame.test.target;
+
+/**
+ * Target for the benchmarks; every private member has a public twin with an identical body, so that a plain call can
+ * be used as the baseline for the opened one.
+ */
+@SuppressWarnings("unused")
+public class BenchmarkTarget {
+    private static int privateStaticField = 1;
+    public static int publicStaticField = 1;
+
+    // Not compile-time constants, so that reads of them are not inlined by javac
+    private static final int privateStaticFinalField = Integer.getInteger("dev.lukebemish.opensesame.benchmarks.divisor", 7);
+    public static final int publicStaticFinalField = Integer.getInteger("dev.lukebemish.opensesame.benchmarks.divisor", 7);
+
+    private int privateInstanceField = 1;
+    public int publicInstanceField = 1;
+    private long privateLongField = 2;
+    public long publicLongField = 2;
+    private double privateDoubleField = 3;
+    public double publicDoubleField = 3;
+
+    private BenchmarkTarget(int value) {
+        this.privateInstanceField = value;
+    }
+
+    public BenchmarkTarget(long value) {
+        this.privateInstanceField = (int) value;
+    }
+
+    private static int privateStatic(int value) {
+        return value + 1;
+    }
+
+    public static int publicStatic(int value) {
+        return value + 1;
+    }
+
+    private int privateInstance(int value) {
+        return value + privateInstanceField;
+    }
+
+    public int publicInstance(int value) {
+        return value + privateInstanceField;
+    }
+
+    public int overridable(int value) {
+        return value + privateInstanceField;
+    }
+
+    private static Element privateElement() {
+        return Element.INSTANCE;
+    }
+
+    private static int privateElementArgument(Element element) {
+        return element.value;
+    }
+
+    private static Integer boxedReturn(int value) {
+        return value;
+    }
+
+    public static Integer publicBoxedReturn(int value) {
+        return value;
+    }
+
+    private static final class Element {
+        private static final Element INSTANCE = new Element();
+
+        private final int value = 3;
+    }
+
+    public static class Subclass extends BenchmarkTarget {
+        public Subclass() {
+            super(1L);
+        }
+
+        @Override
+        public int overridable(int value) {
+            return value - 1;
+        }
+    }
+}
@@ -44,6 +44,9 @@ static String packagePrivateStatic() {
 
     private static final String privateFinalStaticField = "privateFinalStaticField";
 
+    private int privateIntField;
+    private static long privateStaticLongField;
+
     private static class Private {
         private String privateInstance() {
             return "privateInstance";
@@ -0,0 +1,93 @@
+package dev.lukebemish.opensesame.test.metafactory.Extend;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.annotations.extend.Constructor;
+import dev.lukebemish.opensesame.annotations.extend.Extend;
+import dev.lukebemish.opensesame.annotations.extend.Field;
+import dev.lukebemish.opensesame.annotations.extend.Overrides;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestConcurrent {
+    private static final int THREADS = 16;
+
+    @Extend(targetName = "dev.lukebemish.opensesame.test.target.Public$Private", unsafe = true)
+    public interface Extension {
+        @Constructor
+        static Extension constructor(@Field(value = "field") @Field.Final String field) {
+            throw new AssertionError("Constructor not transformed");
+        }
+
+        @Constructor
+        static Extension constructor(@Field(value = "field") @Field.Final String field, @Field(value = "field2") String field2) {
+            throw new AssertionError("Constructor not transformed");
+        }
+
+        @Field(value = "field")
+        String getField();
+
+        @Field(value = "field2")
+        String getField2();
+
+        @Overrides(value = "toString")
+        default String toStringImplementation() {
+            return getField();
+        }
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetName = "dev.lukebemish.opensesame.test.target.Public$Private",
+            type = Open.Type.VIRTUAL
+    )
+    private static String privateInstanceInvoker(Extension instance) {
+        throw new RuntimeException();
+    }
+
+    private static <T> List<T> race(Callable<T> first, Callable<T> second) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            var start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                var task = i % 2 == 0 ? first : second;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (var future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testConcurrentBootstrap() throws Exception {
+        var instances = race(() -> Extension.constructor("first"), () -> Extension.constructor("second", "other"));
+        for (int i = 0; i < instances.size(); i++) {
+            var instance = instances.get(i);
+            var expected = i % 2 == 0 ? "first" : "second";
+            assertEquals(expected, instance.getField());
+            assertEquals(expected, instance.toString());
+        }
+        var results = race(() -> privateInstanceInvoker(instances.get(0)), () -> privateInstanceInvoker(instances.get(1)));
+        for (var result : results) {
+            assertEquals("privateInstance", result);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package dev.lukebemish.opensesame.test.metafactory.Extend;
+
+import dev.lukebemish.opensesame.annotations.extend.Constructor;
+import dev.lukebemish.opensesame.annotations.extend.Extend;
+import dev.lukebemish.opensesame.annotations.extend.Field;
+import dev.lukebemish.opensesame.annotations.extend.Overrides;
+import dev.lukebemish.opensesame.compile.asm.VisitingProcessor;
+import dev.lukebemish.opensesame.runtime.OpeningMetafactory;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.lang.module.ModuleFinder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestPrebuilt {
+    public static class Target {
+        private final String prefix;
+
+        protected Target(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String prefix() {
+            return prefix;
+        }
+
+        public String value(int count) {
+            return "Target";
+        }
+    }
+
+    public interface TargetInterface {
+        String value();
+    }
+
+    static class PackagePrivateTarget {
+        public String value() {
+            return "PackagePrivateTarget";
+        }
+    }
+
+    @Extend(targetClass = Target.class, unsafe = false)
+    public interface Extension {
+        @Constructor
+        static Extension constructor(@Field("suffix") String suffix, String prefix) {
+            throw new AssertionError("Constructor not transformed");
+        }
+
+        @Field("suffix")
+        String getSuffix();
+
+        @Field("suffix")
+        void setSuffix(String suffix);
+
+        @Overrides(value = "value")
+        default String valueImplementation(int count) {
+            return ((Target) this).prefix() + count + getSuffix();
+        }
+    }
+
+    @Extend(targetClass = TargetInterface.class, unsafe = false)
+    public interface InterfaceExtension {
+        @Constructor
+        static InterfaceExtension constructor() {
+            throw new AssertionError("Constructor not transformed");
+        }
+
+        @Overrides(value = "value")
+        default String valueImplementation() {
+            return "InterfaceExtension";
+        }
+    }
+
+    @Extend(targetClass = PackagePrivateTarget.class, unsafe = false)
+    public interface PackagePrivateExtension {
+        @Constructor
+        static PackagePrivateExtension constructor() {
+            throw new AssertionError("Constructor not transformed");
+        }
+
+        @Overrides(value = "value")
+        default String valueImplementation() {
+            return "PackagePrivateExtension";
+        }
+    }
+
+    @Test
+    void testPrebuilt() {
+        var instance = Extension.constructor("b", "a");
+        assertFalse(instance.getClass().isHidden());
+        assertEquals("a1b", ((Target) instance).value(1));
+        instance.setSuffix("c");
+        assertEquals("a2c", ((Target) instance).value(2));
+        assertEquals(instance.getClass(), Extension.constructor("d", "e").getClass());
+    }
+
+    @Test
+    void testPrebuiltInterface() {
+        var instance = InterfaceExtension.constructor();
+        assertFalse(instance.getClass().isHidden());
+        assertEquals("InterfaceExtension", ((TargetInterface) instance).value());
+    }
+
+    @Test
+    void testNotPrebuilt() {
+        var instance = PackagePrivateExtension.constructor();
+        assertTrue(instance.getClass().isHidden());
+        assertEquals("PackagePrivateExtension", ((PackagePrivateTarget) instance).value());
+    }
+
+    private static final String MODULE_TARGET = "opensesame/test/prebuilt/target/Target";
+    private static final String MODULE_HOLDER = "opensesame/test/prebuilt/holder/Holder";
+
+    @Test
+    void testPrebuiltAcrossModules() throws Throwable {
+        // The target's package is opened to the holder, but as they are in different modules a subclass may not be
+        // generated at runtime without `unsafe`
+        var root = Files.createTempDirectory("opensesame");
+        try {
+            var targetRoot = root.resolve("target");
+            var holderRoot = root.resolve("holder");
+            write(targetRoot, "module-info", module("opensesame.test.prebuilt.target", null, "opensesame.test.prebuilt.holder"));
+            write(targetRoot, MODULE_TARGET, moduleTarget());
+            write(holderRoot, "module-info", module("opensesame.test.prebuilt.holder", "opensesame.test.prebuilt.target", null));
+            try (var classRoots = VisitingProcessor.ClassFinder.of(List.of(targetRoot))) {
+                var writer = new ClassWriter(0);
+                new ClassReader(moduleHolder()).accept(VisitingProcessor.makeProcessor(writer, VisitingProcessor.ANNOTATIONS, holderRoot::resolve, null, classRoots.orElse(VisitingProcessor.ClassFinder.platform())), 0);
+                write(holderRoot, MODULE_HOLDER, writer.toByteArray());
+            }
+
+            var parent = ModuleLayer.boot();
+            var configuration = parent.configuration().resolve(ModuleFinder.of(targetRoot, holderRoot), ModuleFinder.of(), Set.of("opensesame.test.prebuilt.holder"));
+            var controller = ModuleLayer.defineModulesWithOneLoader(configuration, List.of(parent), TestPrebuilt.class.getClassLoader());
+            var holderModule = controller.layer().findModule("opensesame.test.prebuilt.holder").orElseThrow();
+            controller.addReads(holderModule, OpeningMetafactory.class.getModule());
+
+            var holder = Class.forName(holderModule, MODULE_HOLDER.replace('/', '.'));
+            var target = Class.forName(controller.layer().findModule("opensesame.test.prebuilt.target").orElseThrow(), MODULE_TARGET.replace('/', '.'));
+            var instance = holder.getMethod("constructor").invoke(null);
+            assertFalse(instance.getClass().isHidden());
+            assertEquals(holderModule, instance.getClass().getModule());
+            assertEquals("Holder", target.getMethod("value").invoke(instance));
+        } finally {
+            try (var paths = Files.walk(root)) {
+                for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private static void write(Path root, String internalName, byte[] bytes) throws IOException {
+        var file = root.resolve(internalName + ".class");
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes);
+    }
+
+    private static byte[] module(String name, String requires, String opensTo) {
+        var writer = new ClassWriter(0);
+        writer.visit(Opcodes.V9, Opcodes.ACC_MODULE, "module-info", null, null, null);
+        var module = writer.visitModule(name, 0, null);
+        module.visitRequire("java.base", Opcodes.ACC_MANDATED, null);
+        if (requires != null) {
+            module.visitRequire(requires, 0, null);
+            module.visitExport("opensesame/test/prebuilt/holder", 0);
+        } else {
+            module.visitExport("opensesame/test/prebuilt/target", 0);
+            module.visitOpen("opensesame/test/prebuilt/target", 0, opensTo);
+        }
+        module.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static byte[] moduleTarget() {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, MODULE_TARGET, null, Type.getInternalName(Object.class), null);
+        var constructor = writer.visitMethod(Opcodes.ACC_PROTECTED, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+        var value = writer.visitMethod(Opcodes.ACC_PUBLIC, "value", "()Ljava/lang/String;", null, null);
+        value.visitCode();
+        value.visitLdcInsn("Target");
+        value.visitInsn(Opcodes.ARETURN);
+        value.visitMaxs(0, 0);
+        value.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static byte[] moduleHolder() {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT, MODULE_HOLDER, null, Type.getInternalName(Object.class), null);
+        var extend = writer.visitAnnotation(Type.getDescriptor(Extend.class), false);
+        extend.visit("targetClass", Type.getObjectType(MODULE_TARGET));
+        extend.visit("unsafe", false);
+        extend.visitEnd();
+        var constructor = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "constructor", "()L" + MODULE_HOLDER + ";", null, null);
+        constructor.visitAnnotation(Type.getDescriptor(Constructor.class), false).visitEnd();
+        constructor.visitCode();
+        constructor.visitTypeInsn(Opcodes.NEW, Type.getInternalName(AssertionError.class));
+        constructor.visitInsn(Opcodes.DUP);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(AssertionError.class), "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.ATHROW);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+        var value = writer.visitMethod(Opcodes.ACC_PUBLIC, "valueImplementation", "()Ljava/lang/String;", null, null);
+        var overrides = value.visitAnnotation(Type.getDescriptor(Overrides.class), false);
+        overrides.visit("value", "value");
+        overrides.visitEnd();
+        value.visitCode();
+        value.visitLdcInsn("Holder");
+        value.visitInsn(Opcodes.ARETURN);
+        value.visitMaxs(0, 0);
+        value.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
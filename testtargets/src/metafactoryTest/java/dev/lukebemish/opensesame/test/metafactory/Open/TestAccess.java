@@ -0,0 +1,201 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.Public;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.VarHandle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestAccess {
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.GET_VOLATILE
+    )
+    private static String getVolatile(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.SET_RELEASE
+    )
+    private static void setRelease(Public instance, String value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.COMPARE_AND_SET
+    )
+    private static boolean compareAndSet(Public instance, String expected, String value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.COMPARE_AND_EXCHANGE
+    )
+    private static String compareAndExchange(Public instance, String expected, String value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.GET_AND_SET
+    )
+    private static String getAndSet(Public instance, String value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE
+    )
+    private static String getDefault(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testInstance() {
+        var instance = new Public();
+        setRelease(instance, "a");
+        assertEquals("a", getVolatile(instance));
+        assertEquals("a", getDefault(instance));
+        assertTrue(compareAndSet(instance, "a", "b"));
+        assertFalse(compareAndSet(instance, "a", "c"));
+        assertEquals("b", compareAndExchange(instance, "b", "c"));
+        assertEquals("c", getAndSet(instance, "d"));
+        assertEquals("d", getVolatile(instance));
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.GET_AND_ADD
+    )
+    private static int getAndAdd(Public instance, int delta) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.GET_ACQUIRE
+    )
+    private static int getAcquire(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testInstanceNumeric() {
+        var instance = new Public();
+        assertEquals(0, getAndAdd(instance, 2));
+        assertEquals(2, getAndAdd(instance, 3));
+        assertEquals(5, getAcquire(instance));
+    }
+
+    @Open(
+            name = "privateStaticLongField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_STATIC,
+            accessMode = VarHandle.AccessMode.SET_OPAQUE
+    )
+    private static void staticSetOpaque(long value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStaticLongField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_STATIC,
+            accessMode = VarHandle.AccessMode.GET_OPAQUE
+    )
+    private static long staticGetOpaque() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStaticLongField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_STATIC,
+            accessMode = VarHandle.AccessMode.GET_AND_ADD
+    )
+    private static long staticGetAndAdd(long delta) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStaticLongField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_STATIC,
+            accessMode = VarHandle.AccessMode.COMPARE_AND_SET
+    )
+    private static boolean staticCompareAndSet(long expected, long value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStaticLongField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_STATIC,
+            accessMode = VarHandle.AccessMode.SET_VOLATILE
+    )
+    private static void staticSetVolatile(long value) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testStatic() {
+        staticSetOpaque(3);
+        assertEquals(3, staticGetOpaque());
+        assertEquals(3, staticGetAndAdd(4));
+        assertTrue(staticCompareAndSet(7, 8));
+        assertFalse(staticCompareAndSet(7, 9));
+        staticSetVolatile(1);
+        assertEquals(1, staticGetOpaque());
+    }
+
+    @Open(
+            name = "privateFinalInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.SET_VOLATILE
+    )
+    private static void setFinal(Public instance, String value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            accessMode = VarHandle.AccessMode.COMPARE_AND_SET
+    )
+    private static boolean compareAndSetMissingValue(Public instance, int expected) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testUnsupported() {
+        assertThrows(BootstrapMethodError.class, () -> setFinal(new Public(), "value"));
+        assertThrows(BootstrapMethodError.class, () -> compareAndSetMissingValue(new Public(), 0));
+    }
+}
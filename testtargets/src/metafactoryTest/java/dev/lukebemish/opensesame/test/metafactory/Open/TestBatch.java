@@ -0,0 +1,202 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.compile.asm.VisitingProcessor;
+import dev.lukebemish.opensesame.test.target.Public;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestBatch {
+    static class Openings {
+        @Open(
+                name = "privateStatic",
+                targetClass = Public.class,
+                type = Open.Type.STATIC
+        )
+        static String privateStatic() {
+            throw new RuntimeException();
+        }
+
+        @Open(
+                name = "simpleArgument",
+                targetClass = Public.class,
+                type = Open.Type.STATIC
+        )
+        static String simpleArgument(String s) {
+            throw new RuntimeException();
+        }
+
+        @Open(
+                name = "privateStaticField",
+                targetClass = Public.class,
+                type = Open.Type.GET_STATIC
+        )
+        static String privateStaticField() {
+            throw new RuntimeException();
+        }
+
+        @Open(
+                name = "privateStaticField",
+                targetClass = Public.class,
+                type = Open.Type.SET_STATIC
+        )
+        static void privateStaticField(String value) {
+            throw new RuntimeException();
+        }
+
+        @Open(
+                name = "privateInstance",
+                targetClass = Public.class,
+                type = Open.Type.VIRTUAL
+        )
+        static String privateInstance(Public instance) {
+            throw new RuntimeException();
+        }
+    }
+
+    @Test
+    void testBatch() throws IOException, NoSuchMethodException {
+        var table = Openings.class.getDeclaredMethod("$$dev$lukebemish$opensesame$$openings$dev$lukebemish$opensesame$test$metafactory$Open$TestBatch$Openings");
+        assertTrue(table.isSynthetic());
+
+        var file = Files.createTempFile("opensesame", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("dev.lukebemish.opensesame.Link");
+            recording.start();
+            assertEquals("privateInstance", Openings.privateInstance(new Public()));
+            recording.stop();
+            recording.dump(file);
+
+            // Linking the first call site links every opening of the class
+            var events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("dev.lukebemish.opensesame.Link"))
+                    .filter(event -> event.getClass("caller").getName().equals(Openings.class.getName()))
+                    .toList();
+            assertEquals(5, events.size());
+            assertTrue(events.stream().allMatch(event -> event.getBoolean("batched")));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertEquals("privateStatic", Openings.privateStatic());
+        assertEquals("test", Openings.simpleArgument("test"));
+        Openings.privateStaticField("batch");
+        assertEquals("batch", Openings.privateStaticField());
+    }
+
+    static class PartialOpenings {
+        @Open(
+                name = "doesNotExist",
+                targetClass = Public.class,
+                type = Open.Type.STATIC
+        )
+        static String missingMember() {
+            throw new RuntimeException();
+        }
+
+        @Open(
+                name = "privateStatic",
+                targetName = "dev.lukebemish.opensesame.test.target.DoesNotExist",
+                type = Open.Type.STATIC
+        )
+        static String missingClass() {
+            throw new RuntimeException();
+        }
+
+        @Open(
+                name = "privateStatic",
+                targetClass = Public.class,
+                type = Open.Type.STATIC
+        )
+        static String privateStatic() {
+            throw new RuntimeException();
+        }
+    }
+
+    @Test
+    void testBatchFailuresStayWithTheirCallSite() {
+        assertThrows(BootstrapMethodError.class, PartialOpenings::missingMember);
+        assertThrows(BootstrapMethodError.class, PartialOpenings::missingClass);
+        assertEquals("privateStatic", PartialOpenings.privateStatic());
+    }
+
+    @Test
+    void testMergedTables() throws Throwable {
+        // Merges one processed class into another, as mixins are merged into their target; both open a member of the
+        // same name and type, at the same index of their own tables
+        var target = process(holder(MERGE_TARGET, "openInteger", Integer.class));
+        var merged = process(holder(MERGE_TARGET + "Mixin", "openCharacter", Character.class));
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        new ClassReader(target).accept(new ClassVisitor(Opcodes.ASM9, writer) {
+            @Override
+            public void visitEnd() {
+                new ClassReader(merged).accept(new ClassVisitor(Opcodes.ASM9) {
+                    @Override
+                    public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                        return new MethodVisitor(Opcodes.ASM9, writer.visitMethod(access, name, descriptor, signature, exceptions)) {
+                            @Override
+                            public void visitInvokeDynamicInsn(String name, String descriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+                                for (int i = 0; i < bootstrapMethodArguments.length; i++) {
+                                    if (bootstrapMethodArguments[i] instanceof Handle handle && handle.getOwner().equals(MERGE_TARGET + "Mixin")) {
+                                        bootstrapMethodArguments[i] = new Handle(handle.getTag(), MERGE_TARGET, handle.getName(), handle.getDesc(), handle.isInterface());
+                                    }
+                                }
+                                super.visitInvokeDynamicInsn(name, descriptor, bootstrapMethodHandle, bootstrapMethodArguments);
+                            }
+                        };
+                    }
+                }, 0);
+                super.visitEnd();
+            }
+        }, 0);
+        var holder = MethodHandles.lookup().defineClass(writer.toByteArray());
+        var type = MethodType.methodType(String.class, int.class);
+        assertEquals("65", (String) MethodHandles.lookup().findStatic(holder, "openInteger", type).invokeExact(65));
+        assertEquals("A", (String) MethodHandles.lookup().findStatic(holder, "openCharacter", type).invokeExact(65));
+    }
+
+    private static final String MERGE_TARGET = "dev/lukebemish/opensesame/test/metafactory/Open/MergedOpenings";
+
+    private static byte[] holder(String internalName, String name, Class<?> target) {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null, Type.getInternalName(Object.class), null);
+        var method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, name, "(I)Ljava/lang/String;", null, null);
+        var annotation = method.visitAnnotation(Type.getDescriptor(Open.class), false);
+        annotation.visit("name", "toString");
+        annotation.visit("targetClass", Type.getType(target));
+        annotation.visitEnum("type", Type.getDescriptor(Open.Type.class), Open.Type.STATIC.name());
+        annotation.visitEnd();
+        method.visitCode();
+        method.visitTypeInsn(Opcodes.NEW, Type.getInternalName(AssertionError.class));
+        method.visitInsn(Opcodes.DUP);
+        method.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(AssertionError.class), "<init>", "()V", false);
+        method.visitInsn(Opcodes.ATHROW);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static byte[] process(byte[] holder) {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        new ClassReader(holder).accept(VisitingProcessor.makeProcessor(writer, VisitingProcessor.ANNOTATIONS, null, null), 0);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,143 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.Public;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TestConstant {
+    @Open(
+            name = "privateFinalStaticField",
+            targetClass = Public.class,
+            type = Open.Type.GET_STATIC
+    )
+    private static String publicPrivateFinalStaticField() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testInitialized() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("privateFinalStaticField", publicPrivateFinalStaticField());
+        }
+    }
+
+    private static final class Lazy {
+        private static final String value = String.valueOf(12);
+    }
+
+    @Open(
+            name = "value",
+            targetClass = Lazy.class,
+            type = Open.Type.GET_STATIC
+    )
+    private static String lazyValue() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testUninitialized() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("12", lazyValue());
+        }
+    }
+
+    private static final class Initializing {
+        private static final String early = initializingValue();
+        private static final String value = String.valueOf(12);
+    }
+
+    @Open(
+            name = "early",
+            targetClass = Initializing.class,
+            type = Open.Type.GET_STATIC
+    )
+    private static String initializingEarly() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "value",
+            targetClass = Initializing.class,
+            type = Open.Type.GET_STATIC
+    )
+    private static String initializingValue() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testReadDuringInitialization() {
+        // Read from its own initializer, before it is assigned, the field must not be bound to null
+        assertNull(initializingEarly());
+        assertEquals("12", initializingValue());
+    }
+
+    private static final class Written {
+        private static final String value = String.valueOf(12);
+    }
+
+    // Kept apart so that its openings are first linked within the test that records them
+    private static final class WrittenOpenings {
+        @Open(
+                name = "value",
+                targetClass = Written.class,
+                type = Open.Type.GET_STATIC
+        )
+        private static String writtenConstant() {
+            throw new RuntimeException();
+        }
+
+        @Open(
+                name = "value",
+                targetClass = Written.class,
+                type = Open.Type.GET_STATIC,
+                constant = false
+        )
+        private static String writtenValue() {
+            throw new RuntimeException();
+        }
+
+        @Open(
+                name = "value",
+                targetClass = Written.class,
+                type = Open.Type.SET_STATIC,
+                unsafe = true
+        )
+        private static void writtenValue(String value) {
+            throw new RuntimeException();
+        }
+    }
+
+    @Test
+    void testNotConstant() throws IOException {
+        boolean bound;
+        var file = Files.createTempFile("opensesame", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("dev.lukebemish.opensesame.Link");
+            recording.start();
+            assertEquals("12", WrittenOpenings.writtenConstant());
+            recording.stop();
+            recording.dump(file);
+
+            // Where the runtime cannot tell whether a class is initialized, the getter is not bound
+            bound = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("dev.lukebemish.opensesame.Link"))
+                    .filter(event -> event.getClass("caller").getName().equals(WrittenOpenings.class.getName()))
+                    .anyMatch(event -> event.getBoolean("constant"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertEquals("12", WrittenOpenings.writtenValue());
+        WrittenOpenings.writtenValue("13");
+        assertEquals(bound ? "12" : "13", WrittenOpenings.writtenConstant());
+        assertEquals("13", WrittenOpenings.writtenValue());
+    }
+}
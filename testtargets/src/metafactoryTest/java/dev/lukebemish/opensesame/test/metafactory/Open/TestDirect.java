@@ -0,0 +1,266 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.compile.asm.VisitingProcessor;
+import dev.lukebemish.opensesame.test.target.Public;
+import org.junit.jupiter.api.Test;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestDirect {
+    private static final String HOLDER = "dev/lukebemish/opensesame/test/metafactory/Open/DirectHolder";
+
+    @Open(
+            name = "finalMethod",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            direct = true
+    )
+    private static String finalMethod(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "publicInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE,
+            direct = true
+    )
+    private static String getPublicInstanceField(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "publicInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.SET_INSTANCE,
+            direct = true
+    )
+    private static void setPublicInstanceField(Public instance, String value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "voidReturnCounter",
+            targetClass = Public.class,
+            type = Open.Type.GET_STATIC,
+            direct = true
+    )
+    private static int getVoidReturnCounter() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.CONSTRUCT,
+            direct = true
+    )
+    private static Public construct(String value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = String.class,
+            type = Open.Type.ARRAY,
+            direct = true
+    )
+    private static String[] stringArray(int size) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "length",
+            targetClass = String.class,
+            type = Open.Type.VIRTUAL,
+            direct = true
+    )
+    private static int length(String string) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testDirectMethod() {
+        assertEquals("finalMethod", finalMethod(new Public()));
+        assertEquals(4, length("test"));
+    }
+
+    @Test
+    void testDirectFields() {
+        Public instance = new Public();
+        setPublicInstanceField(instance, "test");
+        assertEquals("test", getPublicInstanceField(instance));
+        assertEquals(Public.voidReturnCounter, getVoidReturnCounter());
+    }
+
+    @Test
+    void testDirectCreation() {
+        assertEquals("test", construct("test").publicInstanceField);
+        assertArrayEquals(new String[2], stringArray(2));
+    }
+
+    @Test
+    void testNoIndy() throws IOException {
+        Set<String> indy = new HashSet<>();
+        try (var stream = TestDirect.class.getResourceAsStream("TestDirect.class")) {
+            new ClassReader(stream.readAllBytes()).accept(indyFinder(indy), 0);
+        }
+        for (var method : List.of("finalMethod", "getPublicInstanceField", "setPublicInstanceField", "getVoidReturnCounter", "construct", "stringArray", "length")) {
+            assertFalse(indy.contains(method), method);
+        }
+    }
+
+    @Test
+    void testInaccessibleFailsProcessing() {
+        var holder = holder(Type.getType(Public.class), "privateInstance", Open.Type.VIRTUAL, Type.getMethodDescriptor(Type.getType(String.class), Type.getType(Public.class)));
+        var exception = assertThrows(RuntimeException.class, () -> process(holder, TestDirect::findClass));
+        assertEquals("Member " + Type.getInternalName(Public.class) + ".privateInstance is opened directly from " + HOLDER + ", but it is private", exception.getMessage());
+    }
+
+    @Test
+    void testEncapsulatedFallsBack() throws IOException {
+        // Public, but in a package java.base does not export
+        var holder = holder(Type.getObjectType("jdk/internal/misc/VM"), "isBooted", Open.Type.STATIC, Type.getMethodDescriptor(Type.BOOLEAN_TYPE));
+        Set<String> indy = new HashSet<>();
+        new ClassReader(process(holder, internalName -> null)).accept(indyFinder(indy), 0);
+        assertTrue(indy.contains("open"));
+    }
+
+    @Test
+    void testNamedModuleFallsBack() throws IOException {
+        var root = Files.createTempDirectory("opensesame");
+        try {
+            var module = new ClassWriter(0);
+            module.visit(Opcodes.V9, Opcodes.ACC_MODULE, "module-info", null, null, null);
+            var moduleVisitor = module.visitModule("opensesame.test.named", 0, null);
+            moduleVisitor.visitRequire("java.base", Opcodes.ACC_MANDATED, null);
+            moduleVisitor.visitExport("opensesame/test/named/exported", 0);
+            moduleVisitor.visitEnd();
+            module.visitEnd();
+            Files.write(root.resolve("module-info.class"), module.toByteArray());
+            for (var packageName : List.of("exported", "internal")) {
+                var target = new ClassWriter(0);
+                target.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "opensesame/test/named/" + packageName + "/Target", null, Type.getInternalName(Object.class), null);
+                target.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "value", "I", null, null).visitEnd();
+                target.visitEnd();
+                var file = root.resolve("opensesame/test/named/" + packageName + "/Target.class");
+                Files.createDirectories(file.getParent());
+                Files.write(file, target.toByteArray());
+            }
+
+            try (var roots = VisitingProcessor.ClassFinder.of(List.of(root))) {
+                // Public, but in a package its module does not export
+                Set<String> indy = new HashSet<>();
+                new ClassReader(process(holder(Type.getObjectType("opensesame/test/named/internal/Target"), "value", Open.Type.GET_STATIC, "()I"), roots)).accept(indyFinder(indy), 0);
+                assertTrue(indy.contains("open"));
+
+                indy.clear();
+                new ClassReader(process(holder(Type.getObjectType("opensesame/test/named/exported/Target"), "value", Open.Type.GET_STATIC, "()I"), roots)).accept(indyFinder(indy), 0);
+                assertFalse(indy.contains("open"));
+            }
+        } finally {
+            try (var paths = Files.walk(root)) {
+                for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDirectAccessFailed() throws Throwable {
+        // The member is public in the class seen when processing, but private at runtime
+        var holder = holder(Type.getType(Public.class), "privateInstance", Open.Type.VIRTUAL, Type.getMethodDescriptor(Type.getType(String.class), Type.getType(Public.class)));
+        var processed = process(holder, internalName -> {
+            var bytes = findClass(internalName);
+            if (bytes == null || !internalName.equals(Type.getInternalName(Public.class))) {
+                return bytes;
+            }
+            var writer = new ClassWriter(0);
+            new ClassReader(bytes).accept(new ClassVisitor(Opcodes.ASM9, writer) {
+                @Override
+                public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                    if (name.equals("privateInstance")) {
+                        access = (access & ~Opcodes.ACC_PRIVATE) | Opcodes.ACC_PUBLIC;
+                    }
+                    return super.visitMethod(access, name, descriptor, signature, exceptions);
+                }
+            }, 0);
+            return writer.toByteArray();
+        });
+        var holderClass = MethodHandles.lookup().defineClass(processed);
+        var open = MethodHandles.lookup().findStatic(holderClass, "open", MethodType.methodType(String.class, Public.class));
+        var error = assertThrows(IncompatibleClassChangeError.class, () -> {
+            var ignored = (String) open.invokeExact(new Public());
+        });
+        assertEquals("Could not directly access " + Public.class.getName() + ".privateInstance()Ljava/lang/String; from " + holderClass.getName() + "; if it is not accessible at runtime, it must not be opened directly", error.getMessage());
+        assertTrue(error.getCause() instanceof IllegalAccessError);
+    }
+
+    private static ClassVisitor indyFinder(Set<String> indy) {
+        return new ClassVisitor(Opcodes.ASM9) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                return new MethodVisitor(Opcodes.ASM9) {
+                    @Override
+                    public void visitInvokeDynamicInsn(String indyName, String indyDescriptor, Handle bootstrapMethodHandle, Object... bootstrapMethodArguments) {
+                        indy.add(name);
+                    }
+                };
+            }
+        };
+    }
+
+    private static byte[] holder(Type target, String name, Open.Type type, String descriptor) {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, HOLDER, null, Type.getInternalName(Object.class), null);
+        var method = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "open", descriptor, null, null);
+        var annotation = method.visitAnnotation(Type.getDescriptor(Open.class), false);
+        annotation.visit("name", name);
+        annotation.visit("targetClass", target);
+        annotation.visitEnum("type", Type.getDescriptor(Open.Type.class), type.name());
+        annotation.visit("direct", true);
+        annotation.visitEnd();
+        method.visitCode();
+        method.visitTypeInsn(Opcodes.NEW, Type.getInternalName(AssertionError.class));
+        method.visitInsn(Opcodes.DUP);
+        method.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(AssertionError.class), "<init>", "()V", false);
+        method.visitInsn(Opcodes.ATHROW);
+        method.visitMaxs(0, 0);
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static byte[] process(byte[] holder, VisitingProcessor.ClassFinder classFinder) {
+        var writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        new ClassReader(holder).accept(VisitingProcessor.makeProcessor(writer, VisitingProcessor.ANNOTATIONS, null, null, classFinder.orElse(VisitingProcessor.ClassFinder.platform())), 0);
+        return writer.toByteArray();
+    }
+
+    private static byte[] findClass(String internalName) throws IOException {
+        try (InputStream stream = TestDirect.class.getClassLoader().getResourceAsStream(internalName + ".class")) {
+            return stream == null ? null : stream.readAllBytes();
+        }
+    }
+}
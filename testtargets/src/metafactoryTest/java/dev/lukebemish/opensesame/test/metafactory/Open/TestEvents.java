@@ -0,0 +1,52 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.Public;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestEvents {
+    @Open(
+            name = "privateStatic",
+            targetClass = Public.class,
+            type = Open.Type.STATIC
+    )
+    private static String publicPrivateStatic() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testLinkEvent() throws IOException {
+        var file = Files.createTempFile("opensesame", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("dev.lukebemish.opensesame.Link");
+            recording.start();
+            assertEquals("privateStatic", publicPrivateStatic());
+            recording.stop();
+            recording.dump(file);
+
+            var events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().equals("dev.lukebemish.opensesame.Link"))
+                    .filter(event -> event.getClass("caller").getName().equals(TestEvents.class.getName()))
+                    .toList();
+            assertEquals(1, events.size());
+            RecordedEvent event = events.get(0);
+            assertEquals(Public.class.getName(), event.getClass("holdingClass").getName());
+            assertEquals("privateStatic", event.getString("name"));
+            assertEquals("STATIC", event.getString("type"));
+            assertFalse(event.getBoolean("unsafe"));
+            assertTrue(event.getLong("handleDuration") >= 0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
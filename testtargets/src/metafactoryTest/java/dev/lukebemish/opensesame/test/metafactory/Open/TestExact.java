@@ -0,0 +1,86 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Coerce;
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.runtime.ClassProvider;
+import dev.lukebemish.opensesame.test.target.Public;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestExact {
+    private static class IntProvider implements ClassProvider {
+        @Override
+        public Class<?> provide(ClassLoader loader, String name) {
+            return int.class;
+        }
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE,
+            exact = true
+    )
+    private static int exactGet(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.SET_INSTANCE,
+            exact = true
+    )
+    private static void exactSet(Public instance, int value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE
+    )
+    @Coerce(targetProvider = IntProvider.class)
+    private static Integer boxedGet(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE,
+            exact = true
+    )
+    @Coerce(targetProvider = IntProvider.class)
+    private static Integer exactBoxedGet(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.SET_INSTANCE,
+            exact = true
+    )
+    private static void exactBoxedSet(Public instance, @Coerce(targetProvider = IntProvider.class) Integer value) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testExact() {
+        var instance = new Public();
+        exactSet(instance, 3);
+        assertEquals(3, exactGet(instance));
+        assertEquals(3, boxedGet(instance));
+    }
+
+    @Test
+    void testBoxed() {
+        var instance = new Public();
+        // The coerced types are only known when linking, so boxing is only caught then
+        assertThrows(BootstrapMethodError.class, () -> exactBoxedGet(instance));
+        assertThrows(BootstrapMethodError.class, () -> exactBoxedSet(instance, 3));
+    }
+}
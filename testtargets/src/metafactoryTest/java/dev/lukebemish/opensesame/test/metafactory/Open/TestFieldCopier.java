@@ -0,0 +1,159 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.runtime.Opened;
+import dev.lukebemish.opensesame.runtime.OpeningException;
+import dev.lukebemish.opensesame.test.target.Public;
+import dev.lukebemish.opensesame.test.target.RecordClass;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestFieldCopier {
+    private static final Opened OPENED = Opened.in(MethodHandles.lookup());
+
+    private static class Primitives {
+        private boolean booleanField;
+        private byte byteField;
+        private short shortField;
+        private char charField;
+        private int intField;
+        private long longField;
+        private float floatField;
+        private double doubleField;
+        private String stringField;
+    }
+
+    private static final class Boxed {
+        private Object value;
+    }
+
+    private static Primitives primitives() {
+        var primitives = new Primitives();
+        primitives.booleanField = true;
+        primitives.byteField = 1;
+        primitives.shortField = 2;
+        primitives.charField = '3';
+        primitives.intField = 4;
+        primitives.longField = 5;
+        primitives.floatField = 6;
+        primitives.doubleField = 7;
+        primitives.stringField = "8";
+        return primitives;
+    }
+
+    private static void assertPrimitives(Primitives expected, Primitives actual) {
+        assertEquals(expected.booleanField, actual.booleanField);
+        assertEquals(expected.byteField, actual.byteField);
+        assertEquals(expected.shortField, actual.shortField);
+        assertEquals(expected.charField, actual.charField);
+        assertEquals(expected.intField, actual.intField);
+        assertEquals(expected.longField, actual.longField);
+        assertEquals(expected.floatField, actual.floatField);
+        assertEquals(expected.doubleField, actual.doubleField);
+        assertEquals(expected.stringField, actual.stringField);
+    }
+
+    @Test
+    void testCopy() {
+        var copier = OPENED.findCopier(Primitives.class);
+        var from = primitives();
+        var to = new Primitives();
+        copier.copy(from, to);
+        assertPrimitives(from, to);
+
+        var copy = copier.copyOf(from);
+        assertNotSame(from, copy);
+        assertPrimitives(from, copy);
+    }
+
+    @Test
+    void testStream() throws IOException {
+        var copier = OPENED.findCopier(Primitives.class);
+        var from = primitives();
+        from.stringField = null;
+
+        var buffer = ByteBuffer.allocate(64);
+        copier.write(from, buffer);
+        buffer.flip();
+        var fromBuffer = new Primitives();
+        fromBuffer.stringField = "not null";
+        copier.read(buffer, fromBuffer);
+        assertFalse(buffer.hasRemaining());
+        assertPrimitives(from, fromBuffer);
+
+        from.stringField = "\u00e9";
+        var bytes = new ByteArrayOutputStream();
+        copier.write(from, new DataOutputStream(bytes));
+        var fromData = new Primitives();
+        copier.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), fromData);
+        assertPrimitives(from, fromData);
+    }
+
+    @Test
+    void testHierarchy() throws Throwable {
+        var copier = OPENED.unsafe().findCopier(Public.PublicSubclass.class);
+        var from = new Public.PublicSubclass();
+        from.publicInstanceField = "a";
+        OPENED.findSetter(Public.class, "privateIntField", int.class).invokeExact((Public) from, 3);
+
+        var copy = copier.copyOf(from);
+        assertEquals("a", copy.publicInstanceField);
+        assertEquals(3, (int) OPENED.findGetter(Public.class, "privateIntField", int.class).invokeExact((Public) copy));
+        assertEquals("privateFinalInstanceField", (String) OPENED.findGetter(Public.class, "privateFinalInstanceField", String.class).invokeExact((Public) copy));
+
+        var buffer = ByteBuffer.allocate(128);
+        copier.write(from, buffer);
+        buffer.flip();
+        var fromBuffer = new Public.PublicSubclass();
+        copier.read(buffer, fromBuffer);
+        assertEquals("a", fromBuffer.publicInstanceField);
+    }
+
+    @Test
+    void testFinal() {
+        var copier = OPENED.findCopier(Public.class);
+        assertThrows(OpeningException.class, () -> copier.copy(new Public(), new Public()));
+        assertThrows(OpeningException.class, () -> copier.read(ByteBuffer.allocate(128), new Public()));
+        // Reading the fields needs no access to write them
+        var buffer = ByteBuffer.allocate(128);
+        copier.write(new Public("a"), buffer);
+        assertTrue(buffer.position() > 0);
+
+        var recordCopier = OPENED.unsafe().findCopier(RecordClass.class);
+        assertThrows(OpeningException.class, () -> recordCopier.copyOf(new RecordClass(1, 2)));
+        var recordBuffer = ByteBuffer.allocate(8);
+        recordCopier.write(new RecordClass(1, 2), recordBuffer);
+        assertEquals(1, recordBuffer.getInt(0));
+        assertEquals(2, recordBuffer.getInt(4));
+    }
+
+    @Test
+    void testInvalid() {
+        var copier = OPENED.findCopier(Boxed.class);
+        var boxed = new Boxed();
+        boxed.value = new Object();
+        assertSame(boxed.value, copier.copyOf(boxed).value);
+        assertThrows(OpeningException.class, () -> copier.write(boxed, ByteBuffer.allocate(8)));
+        assertThrows(OpeningException.class, () -> OPENED.findCopier(Runnable.class));
+        assertThrows(OpeningException.class, () -> OPENED.findCopier(int[].class));
+    }
+
+    @Test
+    void testCached() {
+        assertSame(OPENED.findCopier(Primitives.class), Opened.in(MethodHandles.lookup()).findCopier(Primitives.class));
+        assertNotSame(OPENED.findCopier(Primitives.class), OPENED.unsafe().findCopier(Primitives.class));
+    }
+}
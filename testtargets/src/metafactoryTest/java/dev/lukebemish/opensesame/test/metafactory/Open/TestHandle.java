@@ -0,0 +1,156 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.Public;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestHandle {
+    @Open(
+            name = "privateStatic",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            handle = true
+    )
+    private static MethodHandle privateStatic() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            handle = true
+    )
+    private static MethodHandle privateInstance() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testMethods() throws Throwable {
+        assertEquals(MethodType.methodType(String.class), privateStatic().type());
+        assertEquals("privateStatic", (String) privateStatic().invokeExact());
+        assertEquals(MethodType.methodType(String.class, Public.class), privateInstance().type());
+        assertEquals("privateInstance", (String) privateInstance().invokeExact(new Public()));
+        assertSame(privateStatic(), privateStatic());
+    }
+
+    @Open(
+            targetClass = Public.PrivateCtor.class,
+            type = Open.Type.CONSTRUCT,
+            handle = true
+    )
+    private static MethodHandle privateCtor() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = String.class,
+            type = Open.Type.ARRAY,
+            handle = true
+    )
+    private static MethodHandle stringArray() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testConstruct() throws Throwable {
+        assertEquals("PrivateCtor", privateCtor().invoke().toString());
+        assertEquals(2, ((String[]) stringArray().invokeExact(2)).length);
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE,
+            handle = true
+    )
+    private static MethodHandle getter() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstanceField",
+            targetClass = Public.class,
+            type = Open.Type.SET_INSTANCE,
+            handle = true
+    )
+    private static MethodHandle setter() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateFinalStaticField",
+            targetClass = Public.class,
+            type = Open.Type.GET_STATIC,
+            handle = true
+    )
+    private static MethodHandle staticGetter() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStaticLongField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_STATIC,
+            handle = true
+    )
+    private static VarHandle staticVarHandle() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateIntField",
+            targetClass = Public.class,
+            type = Open.Type.ACCESS_INSTANCE,
+            handle = true
+    )
+    private static VarHandle instanceVarHandle() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testFields() throws Throwable {
+        var instance = new Public();
+        setter().invokeExact(instance, "a");
+        assertEquals("a", (String) getter().invokeExact(instance));
+        assertEquals("privateFinalStaticField", (String) staticGetter().invokeExact());
+
+        long before = (long) staticVarHandle().getAndAdd(2L);
+        assertEquals(before + 2, (long) staticVarHandle().get());
+        assertEquals(0, (int) instanceVarHandle().getAndAdd(instance, 3));
+        assertEquals(3, (int) instanceVarHandle().getVolatile(instance));
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.CONSTRUCT,
+            handle = true
+    )
+    private static MethodHandle overloadedCtor() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "missing",
+            targetClass = Public.class,
+            type = Open.Type.GET_INSTANCE,
+            handle = true
+    )
+    private static MethodHandle missingField() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(BootstrapMethodError.class, TestHandle::overloadedCtor);
+        assertThrows(BootstrapMethodError.class, TestHandle::missingField);
+    }
+}
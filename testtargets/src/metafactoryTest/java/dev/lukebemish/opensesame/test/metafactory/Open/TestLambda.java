@@ -0,0 +1,221 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.Public;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestLambda {
+    @Open(
+            name = "simpleArgument",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static Function<String, String> simpleArgument() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStatic",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static Supplier<String> privateStatic() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testStatic() {
+        assertEquals("a", simpleArgument().apply("a"));
+        assertEquals("privateStatic", privateStatic().get());
+        // Lambdas capturing nothing are shared, as those written in Java are
+        assertSame(privateStatic(), privateStatic());
+    }
+
+    @Open(
+            name = "primitiveReturn",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static IntSupplier primitiveReturn() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "primitiveReturn",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static Supplier<Integer> boxedPrimitiveReturn() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "primitiveArgument",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static IntFunction<String> primitiveArgument() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "primitiveArgument",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static Function<Integer, String> boxedPrimitiveArgument() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "voidReturn",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static Runnable voidReturn() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testPrimitives() {
+        assertEquals(5, primitiveReturn().getAsInt());
+        assertEquals(5, boxedPrimitiveReturn().get());
+        assertEquals("3", primitiveArgument().apply(3));
+        assertEquals("4", boxedPrimitiveArgument().apply(4));
+        int before = Public.voidReturnCounter;
+        voidReturn().run();
+        assertEquals(before + 1, Public.voidReturnCounter);
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            lambda = true
+    )
+    private static Function<Public, String> privateInstance() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            lambda = true
+    )
+    private static Supplier<String> boundPrivateInstance(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testVirtual() {
+        assertEquals("privateInstance", privateInstance().apply(new Public()));
+        assertEquals("privateInstance", boundPrivateInstance(new Public()).get());
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.CONSTRUCT,
+            lambda = true
+    )
+    private static Function<String, Public> constructWithValue() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = Public.PrivateCtor.class,
+            type = Open.Type.CONSTRUCT,
+            lambda = true
+    )
+    private static Supplier<Object> privateCtor() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testConstruct() {
+        assertEquals("a", constructWithValue().apply("a").publicInstanceField);
+        assertEquals("PrivateCtor", privateCtor().get().toString());
+    }
+
+    // Not accessible from the class opened, so the lambda must be spun from this class
+    private interface Named {
+        String name(Public instance);
+    }
+
+    // Overrides an erased method, which the lambda must bridge to it
+    private interface StringOperator extends Function<String, String> {
+        @Override
+        String apply(String value);
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetClass = Public.class,
+            type = Open.Type.VIRTUAL,
+            lambda = true
+    )
+    private static Named named() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "simpleArgument",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static StringOperator stringOperator() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void testCustomInterface() {
+        assertEquals("privateInstance", named().name(new Public()));
+        assertSame(named(), named());
+        assertEquals("b", stringOperator().apply("b"));
+        assertEquals("c", ((Function) stringOperator()).apply("c"));
+    }
+
+    @Open(
+            name = "simpleArgument",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static Supplier<String> wrongArity() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateStatic",
+            targetClass = Public.class,
+            type = Open.Type.STATIC,
+            lambda = true
+    )
+    private static String notInterface() {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(BootstrapMethodError.class, TestLambda::wrongArity);
+        assertThrows(BootstrapMethodError.class, TestLambda::notInterface);
+    }
+}
@@ -0,0 +1,64 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.runtime.Opened;
+import dev.lukebemish.opensesame.runtime.OpeningException;
+import dev.lukebemish.opensesame.test.target.Public;
+import org.junit.jupiter.api.Test;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestOpened {
+    private static final Opened OPENED = Opened.in(MethodHandles.lookup());
+
+    @Test
+    void testMethods() throws Throwable {
+        var privateStatic = OPENED.findStatic(Public.class, "privateStatic", MethodType.methodType(String.class));
+        assertEquals("privateStatic", (String) privateStatic.invokeExact());
+
+        var privateInstance = OPENED.findVirtual(Public.class, "privateInstance", MethodType.methodType(String.class));
+        assertEquals(MethodType.methodType(String.class, Public.class), privateInstance.type());
+        assertEquals("privateInstance", (String) privateInstance.invokeExact(new Public()));
+
+        var constructor = OPENED.findConstructor(Public.PrivateCtor.class, MethodType.methodType(void.class));
+        assertEquals("PrivateCtor", constructor.invoke().toString());
+    }
+
+    @Test
+    void testFields() throws Throwable {
+        var instance = new Public();
+        OPENED.findSetter(Public.class, "privateInstanceField", String.class).invokeExact(instance, "a");
+        assertEquals("a", (String) OPENED.findGetter(Public.class, "privateInstanceField", String.class).invokeExact(instance));
+        assertEquals("privateFinalStaticField", (String) OPENED.findStaticGetter(Public.class, "privateFinalStaticField", String.class).invokeExact());
+
+        var intField = OPENED.findVarHandle(Public.class, "privateIntField", int.class);
+        assertEquals(0, (int) intField.getAndAdd(instance, 2));
+        assertEquals(2, (int) intField.getVolatile(instance));
+
+        var longField = OPENED.findStaticVarHandle(Public.class, "privateStaticLongField", long.class);
+        longField.set(5L);
+        assertEquals(5L, (long) longField.get());
+    }
+
+    @Test
+    void testCached() {
+        var type = MethodType.methodType(String.class);
+        assertSame(
+                OPENED.findStatic(Public.class, "privateStatic", type),
+                Opened.in(MethodHandles.lookup()).findStatic(Public.class, "privateStatic", type)
+        );
+        // Lookups of the same class with fewer privileges may not be given the handles found for it
+        var publicLookup = MethodHandles.lookup().dropLookupMode(MethodHandles.Lookup.PRIVATE);
+        assertThrows(OpeningException.class, () -> Opened.in(publicLookup).findStatic(Public.class, "privateStatic", type));
+    }
+
+    @Test
+    void testMissing() {
+        assertThrows(OpeningException.class, () -> OPENED.findStatic(Public.class, "missing", MethodType.methodType(void.class)));
+        assertThrows(OpeningException.class, () -> OPENED.findVarHandle(Public.class, "privateIntField", long.class));
+    }
+}
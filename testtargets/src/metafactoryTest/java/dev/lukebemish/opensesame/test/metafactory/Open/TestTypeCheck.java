@@ -0,0 +1,76 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Coerce;
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.Public;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestTypeCheck {
+    @Open(
+            name = "privateReturn",
+            targetClass = Public.class,
+            type = Open.Type.STATIC
+    )
+    private static @Coerce(targetName = "dev.lukebemish.opensesame.test.target.Public$Private") Object privateInstance() {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetName = "dev.lukebemish.opensesame.test.target.Public$Private",
+            type = Open.Type.INSTANCE_OF
+    )
+    private static boolean isPrivate(Object value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetName = "dev.lukebemish.opensesame.test.target.Public$Private",
+            type = Open.Type.CAST
+    )
+    private static Object castPrivate(Object value) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            name = "privateInstance",
+            targetName = "dev.lukebemish.opensesame.test.target.Public$Private",
+            type = Open.Type.VIRTUAL
+    )
+    private static String invokePrivate(Object instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.CAST
+    )
+    private static Public castPublic(Object value) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testInstanceOf() {
+        assertTrue(isPrivate(privateInstance()));
+        assertFalse(isPrivate(new Public()));
+        assertFalse(isPrivate(null));
+    }
+
+    @Test
+    void testCast() {
+        var instance = privateInstance();
+        assertSame(instance, castPrivate(instance));
+        assertEquals("privateInstance", invokePrivate(castPrivate(instance)));
+        assertThrows(ClassCastException.class, () -> castPrivate(new Public()));
+        assertSame(null, castPrivate(null));
+
+        var subclass = new Public.PublicSubclass();
+        assertSame(subclass, castPublic(subclass));
+        assertThrows(ClassCastException.class, () -> castPublic("value"));
+    }
+}
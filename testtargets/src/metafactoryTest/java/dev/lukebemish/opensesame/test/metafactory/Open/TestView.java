@@ -0,0 +1,96 @@
+package dev.lukebemish.opensesame.test.metafactory.Open;
+
+import dev.lukebemish.opensesame.annotations.Open;
+import dev.lukebemish.opensesame.test.target.Public;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestView {
+    private record State(String privateInstanceField, int privateIntField, String publicInstanceField) {}
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.GET_VIEW
+    )
+    private static State read(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.SET_VIEW
+    )
+    private static void write(Public instance, State state) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testReadWrite() {
+        var instance = new Public("public");
+        assertEquals(new State(null, 0, "public"), read(instance));
+        write(instance, new State("a", 3, "b"));
+        assertEquals(new State("a", 3, "b"), read(instance));
+        assertEquals("b", instance.publicInstanceField);
+    }
+
+    private record Final(String privateFinalInstanceField) {}
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.GET_VIEW
+    )
+    private static Final readFinal(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.SET_VIEW
+    )
+    private static void writeFinal(Public instance, Final state) {
+        throw new RuntimeException();
+    }
+
+    private record Empty() {}
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.GET_VIEW
+    )
+    private static Empty readEmpty(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testFinal() {
+        assertEquals(new Final("privateFinalInstanceField"), readFinal(new Public()));
+        assertEquals(new Empty(), readEmpty(new Public()));
+        assertThrows(BootstrapMethodError.class, () -> writeFinal(new Public(), new Final("value")));
+    }
+
+    private record Missing(String missingField) {}
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.GET_VIEW
+    )
+    private static Missing readMissing(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Open(
+            targetClass = Public.class,
+            type = Open.Type.GET_VIEW
+    )
+    private static String readNotRecord(Public instance) {
+        throw new RuntimeException();
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(BootstrapMethodError.class, () -> readMissing(new Public()));
+        assertThrows(BootstrapMethodError.class, () -> readNotRecord(new Public()));
+    }
+}
@@ -1,8 +1,10 @@
 open module dev.lukebemish.opensesame.test.metafactory {
+    requires dev.lukebemish.opensesame.compile.asm;
     requires dev.lukebemish.opensesame.core;
     requires dev.lukebemish.opensesame.javac;
     requires dev.lukebemish.opensesame.test.target;
     requires org.objectweb.asm;
+    requires jdk.jfr;
 
     requires dev.lukebemish.testingutils.framework;
     requires org.junit.jupiter.api;